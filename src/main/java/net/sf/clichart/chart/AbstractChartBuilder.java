@@ -20,8 +20,9 @@
 
 package net.sf.clichart.chart;
 
-import net.sf.clichart.data.DataSink;
+import net.sf.clichart.data.HeavyHitters;
 import net.sf.clichart.data.InvalidDataException;
+import net.sf.clichart.data.KeyedDataSink;
 import org.jfree.chart.JFreeChart;
 import org.jfree.chart.axis.NumberAxis;
 import org.jfree.chart.axis.ValueAxis;
@@ -43,17 +44,26 @@ import java.awt.*;
  * should create two of the same subclass (one for each axis), call getChart() on the first, and addSecondAxis() on
  * the second
  *
+ * If the data is split by key (see setKeys()), there is a series for each key and column, created when the key is first
+ * seen.  Only a bounded number of keys are tracked (by a HeavyHitters sketch), and only the series for the top keys are
+ * kept once parsing has finished.  When a key takes over the slot of another key, the other key's data is discarded,
+ * so if it's seen again its series restarts from that point, and a warning is given if it's among the top keys.
+ *
  * WARNING: Not threadsafe
  *
  * @author johnd
  */
-public abstract class AbstractChartBuilder implements DataSink {
+public abstract class AbstractChartBuilder implements KeyedDataSink {
 
     /* ========================================================================
      *
      * Class (static) variables.
      */
 
+    // number of keys tracked when splitting by key, per key to be charted, and the minimum number tracked
+    private static final int TRACKED_KEYS_PER_TOP_KEY = 10;
+    private static final int MIN_TRACKED_KEYS = 100;
+
     /* ========================================================================
      *
      * Instance variables.
@@ -65,6 +75,23 @@ public abstract class AbstractChartBuilder implements DataSink {
 
     protected final String[] m_seriesTitles;
 
+    // the keys tracked if the data is split by key, with a series for each column in each slot
+    private HeavyHitters m_keys = null;
+
+    private boolean m_rankKeysByMaximum = false;
+
+    private int m_topKeys = 0;
+
+    // number of columns for each key, and their headers (if any)
+    private int m_keyColumnCount = 0;
+    private String[] m_keyColumnHeaders = new String[0];
+
+    // number of slots for which series have been created
+    private int m_keySlotCount = 0;
+
+    // line number from which each slot's key has been tracked, or 0 if it has been tracked since the slot was created
+    private int[] m_keySlotStartLines = null;
+
     /* ========================================================================
      *
      * Constructors
@@ -89,16 +116,19 @@ public abstract class AbstractChartBuilder implements DataSink {
     // Methods from DataSink interface
     // ------------------------------------------------------------------------
     public void headerParsed(String[] headers) throws InvalidDataException {
+        if (m_keys != null) {
+            // the series are created as keys are found
+            m_keyColumnHeaders = headers;
+            m_columnParseState.setColumnsInitialised(true);
+            return;
+        }
         initialiseColumns(headers);
         m_columnParseState.setColumnsInitialised(true);
         m_columnParseState.setNumHeaders(headers.length);
     }
 
     public void dataParsed(Object xValue, Object[] yValues, int lineNumber) throws InvalidDataException {
-        if (!m_columnParseState.isColumnsInitialised()) {
-            initialiseColumns(new String[yValues.length]);
-            m_columnParseState.setColumnsInitialised(true);
-        }
+        checkColumnsInitialised(yValues.length);
 
         for (int i = 0; i < yValues.length; i++) {
             if (m_columnParseState.getNumHeaders() <= 0 || i < m_columnParseState.getNumHeaders()) {
@@ -108,19 +138,91 @@ public abstract class AbstractChartBuilder implements DataSink {
                 // Indicates that data was missing - do nothing
                 
             } else {
-                // invalid column number
-                if (!m_columnParseState.isExcessColumnsAdvised()) {
-                    System.err.println("Invalid line data found on line " + lineNumber
-                            + " - more columns than headers.  Ignoring excess columns.  "
-                            + "No more warnings will be given");
-                    m_columnParseState.setExcessColumnsAdvised(true);
-                }
+                adviseExcessColumns(lineNumber);
+            }
+        }
+    }
+
+    public void dataParsed(double xValue, double[] yValues, long missingValues, int valueCount, int lineNumber)
+            throws InvalidDataException {
+        checkColumnsInitialised(valueCount);
+
+        for (int i = 0; i < valueCount; i++) {
+            boolean missing = (missingValues & (1L << i)) != 0;
+            if (m_columnParseState.getNumHeaders() <= 0 || i < m_columnParseState.getNumHeaders()) {
+                addYValue(i, xValue, missing ? Double.NaN : yValues[i]);
+
+            } else if (missing) {
+                // do nothing, as above
+
+            } else {
+                adviseExcessColumns(lineNumber);
+            }
+        }
+    }
+
+    public void dataParsed(String key, double xValue, double[] yValues, long missingValues, int valueCount,
+            int lineNumber) throws InvalidDataException {
+        if (m_keys == null) {
+            throw new IllegalStateException("Data is not split by key");
+        }
+        m_columnParseState.setColumnsInitialised(true);
+
+        double weight = m_rankKeysByMaximum ? Double.NEGATIVE_INFINITY : 0;
+        for (int i = 0; i < valueCount; i++) {
+            if ((missingValues & (1L << i)) == 0) {
+                weight = m_rankKeysByMaximum ? Math.max(weight, yValues[i]) : weight + yValues[i];
+            }
+        }
+        int slot = m_keys.add(key, weight);
+        if (slot < 0) {
+            slot = -slot - 1;
+            initialiseKeySlot(slot, key, lineNumber);
+        }
+
+        for (int i = 0; i < valueCount; i++) {
+            boolean missing = (missingValues & (1L << i)) != 0;
+            if (i < m_keyColumnCount) {
+                addYValue(slot * m_keyColumnCount + i, xValue, missing ? Double.NaN : yValues[i]);
+            } else if (!missing) {
+                adviseExcessColumns(lineNumber);
             }
         }
     }
 
     public void parsingFinished() {
-        // don't really need to know?
+        if (m_keys != null) {
+            int[] topSlots = m_keys.getTopSlots(m_topKeys);
+            int[] columnNumbers = new int[topSlots.length * m_keyColumnCount];
+            for (int i = 0; i < topSlots.length; i++) {
+                if (m_keySlotStartLines[topSlots[i]] > 0) {
+                    adviseRestartedKey(m_keys.getKey(topSlots[i]), m_keySlotStartLines[topSlots[i]]);
+                }
+                for (int column = 0; column < m_keyColumnCount; column++) {
+                    columnNumbers[i * m_keyColumnCount + column] = topSlots[i] * m_keyColumnCount + column;
+                }
+            }
+            retainSeriesColumns(columnNumbers);
+        }
+    }
+
+    /**
+     * Split the data into a series for each key and column, charting only the keys with the highest total (or
+     * maximum) values.  Must be called before parsing starts.
+     *
+     * @param columnCount  Number of columns for each key
+     * @param topKeys  Maximum number of keys to chart
+     * @param rankByMaximum  True to rank keys by their maximum value (in any column), false to rank them by the total
+     *      of their values
+     */
+    public void setKeys(int columnCount, int topKeys, boolean rankByMaximum) {
+        assert columnCount > 0 && topKeys > 0;
+        m_keyColumnCount = columnCount;
+        m_topKeys = topKeys;
+        m_rankKeysByMaximum = rankByMaximum;
+        int trackedKeys = Math.max(topKeys * TRACKED_KEYS_PER_TOP_KEY, MIN_TRACKED_KEYS);
+        m_keys = new HeavyHitters(trackedKeys, rankByMaximum);
+        m_keySlotStartLines = new int[trackedKeys];
     }
 
     // ------------------------------------------------------------------------
@@ -150,8 +252,8 @@ public abstract class AbstractChartBuilder implements DataSink {
         plot.setRangeAxis(1, rangeAxis2);
 
         // need a separate renderer for the axis, otherwise the same colours are used as for the first axis series
-        setAxisRenderer(chart.getXYPlot(), 1, options.isSecondAxisBarChart(), options.hasSecondAxisDataPoints(),
-                options.getSecondAxisLineWeight());
+        setAxisRenderer(chart.getXYPlot(), 1, options.isSecondAxisBarChart(), options.getHistogram() != null,
+                options.getDensity(), options.hasSecondAxisDataPoints(), options.getSecondAxisLineWeight());
 
         setAxisLimits(rangeAxis2, options.getSecondAxisMinYValue(), options.getSecondAxisMaxYValue(),
                 options.forceSecondAxisYRange());
@@ -175,6 +277,20 @@ public abstract class AbstractChartBuilder implements DataSink {
      */
     protected abstract void initialiseSeriesColumn(String title);
 
+    /**
+     * Called when the data is split by key, to discard the data in a series column whose key is no longer tracked,
+     * and give it a new title
+     */
+    protected abstract void clearSeriesColumn(int columnNumber, String title);
+
+    /**
+     * Called when the data is split by key, to keep only the series columns for the top keys once parsing has
+     * finished
+     *
+     * @param columnNumbers  The column numbers to keep, in order
+     */
+    protected abstract void retainSeriesColumns(int[] columnNumbers);
+
     /**
      * Called for subclass to add this yValue to the appropriate series
      * @param columnNumber The 0-based index into the dataColumnIndexes array
@@ -183,6 +299,17 @@ public abstract class AbstractChartBuilder implements DataSink {
      */
     protected abstract void addYValue(int columnNumber, Object xValue, Object yValue);
 
+    /**
+     * Called to add a yValue passed as a primitive.  Subclasses should override this to avoid the default
+     * implementation, which passes the values to addYValue(int, Object, Object) as Doubles.
+     * @param columnNumber The 0-based index into the dataColumnIndexes array
+     * @param xValue The x axis value for this row (milliseconds since the epoch for time-based data)
+     * @param yValue The y axis value for this row and column number, or NaN if the value was missing
+     */
+    protected void addYValue(int columnNumber, double xValue, double yValue) {
+        addYValue(columnNumber, new Double(xValue), Double.isNaN(yValue) ? null : new Double(yValue));
+    }
+
     /**
      * Called for subclass to create the required chart object, containing all the data provided
      *
@@ -190,6 +317,15 @@ public abstract class AbstractChartBuilder implements DataSink {
      */
     protected abstract JFreeChart getChartImpl(Options options);
 
+    /**
+     * Called to set the renderer for the main axis of the chart.  Subclasses which set up their own renderer should
+     * override this to do nothing
+     */
+    protected void setRenderer(XYPlot plot, Options options) {
+        setAxisRenderer(plot, 0, options.isBarChart(), options.getHistogram() != null, options.getDensity(),
+                options.hasDataPoints(), options.getLineWeight());
+    }
+
     /**
      * Return the dataset containing all the data provided - used to add the second axis
      */
@@ -206,25 +342,64 @@ public abstract class AbstractChartBuilder implements DataSink {
      * Private methods
      */
 
+    private void checkColumnsInitialised(int numColumns) {
+        if (!m_columnParseState.isColumnsInitialised()) {
+            initialiseColumns(new String[numColumns]);
+            m_columnParseState.setColumnsInitialised(true);
+        }
+    }
+
+    private void adviseExcessColumns(int lineNumber) {
+        // invalid column number
+        if (!m_columnParseState.isExcessColumnsAdvised()) {
+            System.err.println("Invalid line data found on line " + lineNumber
+                    + " - more columns than headers.  Ignoring excess columns.  "
+                    + "No more warnings will be given");
+            m_columnParseState.setExcessColumnsAdvised(true);
+        }
+    }
+
+    private void adviseRestartedKey(String key, int lineNumber) {
+        System.err.println("Key " + key + " was only tracked from line " + lineNumber
+                + " - any data for it before then was discarded to make room for other keys");
+    }
+
     private void initialiseColumns(String[] headers) {
         for (int i = 0; i < headers.length; i++) {
-            String header = "Series " + (i + 1);
+            initialiseSeriesColumn(getColumnTitle(headers, i));
+        }
+    }
 
-            if (m_seriesTitles != null && m_seriesTitles.length > i) {
-                header = m_seriesTitles[i];
-            } else if (headers[i] != null) {
-                header = headers[i];
-            }
+    private String getColumnTitle(String[] headers, int columnNumber) {
+        if (m_seriesTitles != null && m_seriesTitles.length > columnNumber) {
+            return m_seriesTitles[columnNumber];
+        } else if (columnNumber < headers.length && headers[columnNumber] != null) {
+            return headers[columnNumber];
+        }
+        return "Series " + (columnNumber + 1);
+    }
 
-            initialiseSeriesColumn(header);
+    /**
+     * Create (or reuse) the series for a key which has just been given a slot
+     */
+    private void initialiseKeySlot(int slot, String key, int lineNumber) {
+        for (int column = 0; column < m_keyColumnCount; column++) {
+            String title = m_keyColumnCount == 1 ? key : key + " (" + getColumnTitle(m_keyColumnHeaders, column) + ")";
+            if (slot < m_keySlotCount) {
+                clearSeriesColumn(slot * m_keyColumnCount + column, title);
+            } else {
+                initialiseSeriesColumn(title);
+            }
         }
+        m_keySlotStartLines[slot] = slot < m_keySlotCount ? lineNumber : 0;
+        m_keySlotCount = Math.max(m_keySlotCount, slot + 1);
     }
 
     private void setOptions(JFreeChart chart, Options options) {
         setAxisLimits(chart.getXYPlot().getRangeAxis(), options.getMinYValue(), options.getMaxYValue(),
                 options.forceYRange());
 
-        setAxisRenderer(chart.getXYPlot(), 0, options.isBarChart(), options.hasDataPoints(), options.getLineWeight());
+        setRenderer(chart.getXYPlot(), options);
         
         if (options.getColourOverrides() != null) {
 	        Plot plot = chart.getPlot();
@@ -234,14 +409,24 @@ public abstract class AbstractChartBuilder implements DataSink {
         }
     }
 
-    private void setAxisRenderer(XYPlot plot, int axisIndex, boolean isBarChart, boolean hasDataPoints,
-            int lineWeight) {
+    /**
+     * @param density  The density scatter colour ramp, or null if the points aren't drawn as a density scatter plot
+     */
+    private void setAxisRenderer(XYPlot plot, int axisIndex, boolean isBarChart, boolean isHistogram, String density,
+            boolean hasDataPoints, int lineWeight) {
         XYItemRenderer renderer;
-        if (isBarChart) {
+        if (isHistogram) {
+            renderer = new ClusteredXYBarRenderer();
+            plot.setDataset(axisIndex, new HistogramBarDataset(plot.getDataset(axisIndex)));
+
+        } else if (isBarChart) {
             renderer = new ClusteredXYBarRenderer();
             XYDataset axisDataset = plot.getDataset(axisIndex);
             plot.setDataset(axisIndex, new XYBarDataset(axisDataset, calculateBarWidth(axisDataset, lineWeight)));
 
+        } else if (density != null) {
+            renderer = new DensityRenderer(density.equals(Options.DENSITY_LOG));
+
         } else {
             renderer = new XYLineAndShapeRenderer(true, hasDataPoints);
 
@@ -0,0 +1,247 @@
+/* (C) Copyright 2026, by John Dickson
+ *
+ * Project Info:  https://github.com/captsens/clichart
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2.1 of the License, or
+ * (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ */
+
+package net.sf.clichart.chart;
+
+import org.jfree.chart.axis.ValueAxis;
+import org.jfree.chart.plot.CrosshairState;
+import org.jfree.chart.plot.PlotOrientation;
+import org.jfree.chart.plot.PlotRenderingInfo;
+import org.jfree.chart.plot.XYPlot;
+import org.jfree.chart.renderer.xy.AbstractXYItemRenderer;
+import org.jfree.chart.renderer.xy.XYItemRendererState;
+import org.jfree.data.xy.XYDataset;
+import org.jfree.ui.RectangleEdge;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Paint;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+/**
+ * Draws the items of each series as a density scatter plot.  Rather than drawing a shape per item, the items are
+ * counted into a buffer with a count per pixel of the data area, and the counts are drawn as a single image in the
+ * series colour, with more opaque pixels where there are more items.  The opacity is either scaled logarithmically
+ * between 1 item and the highest count, or is that of the items drawn one over another with a fixed opacity.
+ *
+ * <p>All the drawing is done when the renderer is initialised, so drawItem() does nothing.  The axes are assumed to be
+ * linear, which is true for all charts other than histograms.
+ *
+ * @author johnd
+ */
+public class DensityRenderer extends AbstractXYItemRenderer {
+
+    /* ========================================================================
+     *
+     * Class (static) variables.
+     */
+
+    private static final long serialVersionUID = 1L;
+
+    /** The opacity of a single item with logarithmic scaling, so isolated items are still visible */
+    private static final double MINIMUM_LOG_ALPHA = 0.2;
+
+    /** The opacity of each item when overlaying items */
+    private static final double ITEM_ALPHA = 0.1;
+
+    /* ========================================================================
+     *
+     * Instance variables.
+     */
+
+    private final boolean m_logScale;
+
+    /* ========================================================================
+     *
+     * Constructors
+     */
+
+    /**
+     * @param logScale  True to scale the opacity logarithmically, false to overlay translucent items
+     */
+    public DensityRenderer(boolean logScale) {
+        m_logScale = logScale;
+    }
+
+    /* ========================================================================
+     *
+     * Static methods
+     */
+
+    /* ========================================================================
+     *
+     * Public methods
+     */
+
+    public XYItemRendererState initialise(Graphics2D g2, Rectangle2D dataArea, XYPlot plot, XYDataset dataset,
+            PlotRenderingInfo info) {
+        XYItemRendererState state = super.initialise(g2, dataArea, plot, dataset, info);
+
+        int left = (int) Math.floor(dataArea.getMinX());
+        int top = (int) Math.floor(dataArea.getMinY());
+        int width = (int) Math.ceil(dataArea.getMaxX()) - left;
+        int height = (int) Math.ceil(dataArea.getMaxY()) - top;
+        if (dataset == null || width <= 0 || height <= 0) {
+            return state;
+        }
+
+        int datasetIndex = plot.indexOf(dataset);
+        PixelMapping domainMapping = new PixelMapping(plot.getDomainAxisForDataset(datasetIndex), dataArea,
+                plot, true);
+        PixelMapping rangeMapping = new PixelMapping(plot.getRangeAxisForDataset(datasetIndex), dataArea,
+                plot, false);
+        boolean horizontal = plot.getOrientation() == PlotOrientation.HORIZONTAL;
+
+        int[] counts = new int[width * height];
+        for (int series = 0; series < dataset.getSeriesCount(); series++) {
+            if (!isSeriesVisible(series)) {
+                continue;
+            }
+            Arrays.fill(counts, 0);
+            int maximumCount = countItems(dataset, series, horizontal ? rangeMapping : domainMapping,
+                    horizontal ? domainMapping : rangeMapping, left, top, width, height, counts);
+            if (maximumCount > 0) {
+                g2.drawImage(createImage(counts, width, height, maximumCount, getItemPaint(series, 0)), left, top,
+                        null);
+            }
+        }
+        return state;
+    }
+
+    /**
+     * Does nothing, since the items are drawn when the renderer is initialised
+     */
+    public void drawItem(Graphics2D g2, XYItemRendererState state, Rectangle2D dataArea, PlotRenderingInfo info,
+            XYPlot plot, ValueAxis domainAxis, ValueAxis rangeAxis, XYDataset dataset, int series, int item,
+            CrosshairState crosshairState, int pass) {
+    }
+
+    /* ========================================================================
+     *
+     * Protected / package-private methods
+     */
+
+    /**
+     * Count the items of the series in each pixel, returning the highest count
+     *
+     * @param xMapping  Mapping from item values to horizontal pixel positions
+     * @param yMapping  Mapping from item values to vertical pixel positions
+     * @param counts  Count per pixel, by row then column
+     */
+    int countItems(XYDataset dataset, int series, PixelMapping xMapping, PixelMapping yMapping, int left, int top,
+            int width, int height, int[] counts) {
+        boolean xIsDomain = xMapping.m_isDomain;
+        int maximumCount = 0;
+        int itemCount = dataset.getItemCount(series);
+        for (int item = 0; item < itemCount; item++) {
+            double xValue = dataset.getXValue(series, item);
+            double yValue = dataset.getYValue(series, item);
+            double x = xMapping.toJava2D(xIsDomain ? xValue : yValue) - left;
+            double y = yMapping.toJava2D(xIsDomain ? yValue : xValue) - top;
+            // written so that NaN (i.e. missing) values fail the test
+            if (!(x >= 0 && x < width && y >= 0 && y < height)) {
+                continue;
+            }
+            int pixel = (int) y * width + (int) x;
+            int count = ++counts[pixel];
+            if (count > maximumCount) {
+                maximumCount = count;
+            }
+        }
+        return maximumCount;
+    }
+
+    /**
+     * Return the opacity (0 to 1) for a pixel containing a number of items
+     */
+    double getAlpha(int count, int maximumCount) {
+        if (count == 0) {
+            return 0;
+        }
+        if (m_logScale) {
+            if (maximumCount == 1) {
+                return 1;
+            }
+            return MINIMUM_LOG_ALPHA
+                    + (1 - MINIMUM_LOG_ALPHA) * Math.log(count) / Math.log(maximumCount);
+        }
+        return 1 - Math.pow(1 - ITEM_ALPHA, count);
+    }
+
+    /* ========================================================================
+     *
+     * Private methods
+     */
+
+    private BufferedImage createImage(int[] counts, int width, int height, int maximumCount, Paint paint) {
+        int rgb = (paint instanceof Color ? ((Color) paint).getRGB() : Color.BLACK.getRGB()) & 0xffffff;
+
+        // many pixels share the same count, so the alpha for low counts is looked up
+        int[] alphas = new int[Math.min(maximumCount, 1024) + 1];
+        for (int count = 0; count < alphas.length; count++) {
+            alphas[count] = (int) Math.round(getAlpha(count, maximumCount) * 255);
+        }
+
+        int[] pixels = new int[counts.length];
+        for (int i = 0; i < counts.length; i++) {
+            int count = counts[i];
+            int alpha = count < alphas.length ? alphas[count] : (int) Math.round(getAlpha(count, maximumCount) * 255);
+            pixels[i] = (alpha << 24) | rgb;
+        }
+
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        image.setRGB(0, 0, width, height, pixels, 0, width);
+        return image;
+    }
+
+    /* ========================================================================
+     *
+     * Inner classes
+     */
+
+    /**
+     * A linear mapping from an axis' values to Java2D coordinates, calculated once from the axis so that the items
+     * can be mapped with simple arithmetic
+     */
+    static class PixelMapping {
+
+        private final boolean m_isDomain;
+        private final double m_origin;
+        private final double m_lowerBound;
+        private final double m_scale;
+
+        public PixelMapping(ValueAxis axis, Rectangle2D dataArea, XYPlot plot, boolean isDomain) {
+            m_isDomain = isDomain;
+            RectangleEdge edge = isDomain ? plot.getDomainAxisEdge(plot.getDomainAxisIndex(axis))
+                    : plot.getRangeAxisEdge(plot.getRangeAxisIndex(axis));
+            m_lowerBound = axis.getLowerBound();
+            double upperBound = axis.getUpperBound();
+            m_origin = axis.valueToJava2D(m_lowerBound, dataArea, edge);
+            double end = axis.valueToJava2D(upperBound, dataArea, edge);
+            m_scale = upperBound > m_lowerBound ? (end - m_origin) / (upperBound - m_lowerBound) : 0;
+        }
+
+        public double toJava2D(double value) {
+            return m_origin + (value - m_lowerBound) * m_scale;
+        }
+    }
+}
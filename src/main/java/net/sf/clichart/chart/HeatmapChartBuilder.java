@@ -0,0 +1,397 @@
+/* (C) Copyright 2026, by John Dickson
+ *
+ * Project Info:  https://github.com/captsens/clichart
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2.1 of the License, or
+ * (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ */
+
+package net.sf.clichart.chart;
+
+import org.jfree.chart.JFreeChart;
+import org.jfree.chart.axis.DateAxis;
+import org.jfree.chart.axis.NumberAxis;
+import org.jfree.chart.axis.ValueAxis;
+import org.jfree.chart.labels.StandardXYToolTipGenerator;
+import org.jfree.chart.labels.XYToolTipGenerator;
+import org.jfree.chart.plot.XYPlot;
+import org.jfree.chart.renderer.xy.XYBlockRenderer;
+import org.jfree.chart.title.PaintScaleLegend;
+import org.jfree.data.xy.DefaultXYZDataset;
+import org.jfree.data.xy.XYDataset;
+import org.jfree.ui.RectangleEdge;
+
+import java.text.DecimalFormat;
+import java.text.FieldPosition;
+import java.text.NumberFormat;
+import java.text.ParsePosition;
+
+/**
+ * Builder for heatmap charts, which show how many values fall in each cell of a grid of x values (usually times) by
+ * y values, rather than the values themselves.  This is much clearer than a line or scatter chart for dense data such
+ * as request latencies, and much faster to draw.
+ *
+ * <p>Values are counted into the grid as they are parsed, so memory use depends only on the size of the grid.  The
+ * range of the grid is chosen from the first values, taken as a sample.  If later values fall outside it, the cells
+ * are doubled in width or height (by merging pairs of cells) until they are covered.  Y values can be counted in
+ * linear or logarithmic cells.  The values in all columns are counted in the same grid.
+ *
+ * WARNING: Not threadsafe
+ *
+ * @author johnd
+ */
+public class HeatmapChartBuilder extends AbstractChartBuilder {
+
+    /* ========================================================================
+     *
+     * Class (static) variables.
+     */
+
+    /** Size of each cell of the grid, in pixels (before any cells are merged) */
+    public static final int CELL_WIDTH = 4;
+    public static final int CELL_HEIGHT = 6;
+
+    /** Number of values used to choose the range of the grid */
+    public static final int SAMPLE_SIZE = 4096;
+
+    /* ========================================================================
+     *
+     * Instance variables.
+     */
+
+    private final boolean m_logScale;
+
+    // number of cells in each direction (always even, so cells can be merged in pairs)
+    private final int m_xCells;
+    private final int m_yCells;
+
+    // the grid, in terms of x values and y values (or log10 of y values).  Cell (i, j) starts at
+    // (m_xStart + i * m_xWidth, m_yStart + j * m_yHeight)
+    private double m_xStart = 0;
+    private double m_xWidth = 1;
+    private double m_yStart = 0;
+    private double m_yHeight = 1;
+
+    // m_yCells entries for each x cell.  Null until the range has been chosen
+    private long[] m_counts = null;
+
+    // values held until the range is chosen
+    private final double[] m_sampleXValues = new double[SAMPLE_SIZE];
+    private final double[] m_sampleYValues = new double[SAMPLE_SIZE];
+    private int m_sampleSize = 0;
+
+    // values ignored by a logarithmic scale
+    private long m_nonPositiveValues = 0;
+
+    private DefaultXYZDataset m_dataset = null;
+
+    /* ========================================================================
+     *
+     * Constructors
+     */
+
+    public HeatmapChartBuilder(Options options, String[] seriesTitles) {
+        super(options, seriesTitles);
+        m_logScale = Options.HEATMAP_LOG.equals(options.getHeatmap());
+        m_xCells = getCellCount(options.getChartWidth(), CELL_WIDTH);
+        m_yCells = getCellCount(options.getChartHeight(), CELL_HEIGHT);
+    }
+
+    /* ========================================================================
+     *
+     * Static methods
+     */
+
+    /* ========================================================================
+     *
+     * Public methods
+     */
+
+    public void parsingFinished() {
+        if (m_nonPositiveValues > 0) {
+            System.err.println("Ignored " + m_nonPositiveValues + " values which were not positive in the "
+                    + "log-scaled heatmap");
+        }
+    }
+
+    /* ========================================================================
+     *
+     * Protected / package-private methods
+     */
+
+    protected void initialiseSeriesColumn(String title) {
+        // all columns are counted together
+    }
+
+    protected void clearSeriesColumn(int columnNumber, String title) {
+        // the values for all keys are counted together, so can't be discarded for one key
+    }
+
+    protected void retainSeriesColumns(int[] columnNumbers) {
+        // the values for all keys are counted together
+    }
+
+    protected void addYValue(int columnNumber, Object xValue, Object yValue) {
+        if (yValue != null) {
+            addYValue(columnNumber, ((Number) xValue).doubleValue(), ((Number) yValue).doubleValue());
+        }
+    }
+
+    protected void addYValue(int columnNumber, double xValue, double yValue) {
+        if (m_logScale) {
+            if (!(yValue > 0)) {
+                m_nonPositiveValues += Double.isNaN(yValue) ? 0 : 1;
+                return;
+            }
+            yValue = Math.log10(yValue);
+        }
+        if (Double.isNaN(xValue) || Double.isInfinite(xValue) || Double.isNaN(yValue) || Double.isInfinite(yValue)) {
+            return;
+        }
+
+        if (m_counts != null) {
+            addValue(xValue, yValue);
+        } else {
+            m_sampleXValues[m_sampleSize] = xValue;
+            m_sampleYValues[m_sampleSize] = yValue;
+            if (++m_sampleSize == SAMPLE_SIZE) {
+                countSample();
+            }
+        }
+    }
+
+    protected JFreeChart getChartImpl(Options options) {
+        XYPlot plot = new XYPlot(getDataset(), buildXAxis(options), buildYAxis(options), null);
+        XYBlockRenderer renderer = new XYBlockRenderer();
+        renderer.setBlockWidth(m_xWidth);
+        renderer.setBlockHeight(m_yHeight);
+        HeatmapPaintScale paintScale = new HeatmapPaintScale(getMaximumCount());
+        renderer.setPaintScale(paintScale);
+        plot.setRenderer(renderer);
+
+        JFreeChart chart = new JFreeChart(options.getChartTitle(), JFreeChart.DEFAULT_TITLE_FONT, plot, false);
+        NumberAxis countAxis = new NumberAxis("Count");
+        countAxis.setRange(paintScale.getLowerBound(), Math.max(paintScale.getUpperBound(), 2));
+        PaintScaleLegend legend = new PaintScaleLegend(paintScale, countAxis);
+        legend.setPosition(RectangleEdge.RIGHT);
+        chart.addSubtitle(legend);
+        return chart;
+    }
+
+    protected void setRenderer(XYPlot plot, Options options) {
+        // the block renderer is set up with the chart
+    }
+
+    protected XYDataset getDataset() {
+        if (m_dataset == null) {
+            countSample();
+            m_dataset = buildDataset();
+        }
+        return m_dataset;
+    }
+
+    protected XYToolTipGenerator getToolTipGenerator() {
+        return new StandardXYToolTipGenerator();
+    }
+
+    /* ========================================================================
+     *
+     * Private methods
+     */
+
+    /**
+     * Return the number of cells to fit in the size (in pixels) given, rounded up to an even number
+     */
+    private int getCellCount(int size, int cellSize) {
+        int cells = Math.max(size / cellSize, 2);
+        return cells + cells % 2;
+    }
+
+    /**
+     * Choose the range of the grid from the values in the sample (if not already chosen), and count the values
+     */
+    private void countSample() {
+        if (m_counts != null || m_sampleSize == 0) {
+            return;
+        }
+
+        double xMinimum = m_sampleXValues[0];
+        double xMaximum = m_sampleXValues[0];
+        double yMinimum = m_sampleYValues[0];
+        double yMaximum = m_sampleYValues[0];
+        for (int i = 1; i < m_sampleSize; i++) {
+            xMinimum = Math.min(xMinimum, m_sampleXValues[i]);
+            xMaximum = Math.max(xMaximum, m_sampleXValues[i]);
+            yMinimum = Math.min(yMinimum, m_sampleYValues[i]);
+            yMaximum = Math.max(yMaximum, m_sampleYValues[i]);
+        }
+
+        // the cells are centred on the minimum and maximum
+        m_xWidth = xMaximum > xMinimum ? (xMaximum - xMinimum) / (m_xCells - 1) : 1;
+        m_xStart = xMinimum - m_xWidth / 2;
+        m_yHeight = yMaximum > yMinimum ? (yMaximum - yMinimum) / (m_yCells - 1) : 1;
+        m_yStart = yMinimum - m_yHeight / 2;
+        m_counts = new long[m_xCells * m_yCells];
+
+        for (int i = 0; i < m_sampleSize; i++) {
+            addValue(m_sampleXValues[i], m_sampleYValues[i]);
+        }
+        m_sampleSize = 0;
+    }
+
+    private void addValue(double xValue, double yValue) {
+        while (xValue >= m_xStart + m_xCells * m_xWidth) {
+            mergeColumns(false);
+        }
+        while (xValue < m_xStart) {
+            mergeColumns(true);
+        }
+        while (yValue >= m_yStart + m_yCells * m_yHeight) {
+            mergeRows(false);
+        }
+        while (yValue < m_yStart) {
+            mergeRows(true);
+        }
+
+        int column = Math.min((int) ((xValue - m_xStart) / m_xWidth), m_xCells - 1);
+        int row = Math.min((int) ((yValue - m_yStart) / m_yHeight), m_yCells - 1);
+        m_counts[column * m_yCells + row]++;
+    }
+
+    /**
+     * Double the width of the cells by merging columns in pairs, extending the range either downwards or upwards
+     */
+    private void mergeColumns(boolean downwards) {
+        int half = m_xCells / 2;
+        int firstColumn = downwards ? half : 0;
+        long[] counts = new long[m_counts.length];
+        for (int i = 0; i < half; i++) {
+            for (int row = 0; row < m_yCells; row++) {
+                counts[(firstColumn + i) * m_yCells + row] = m_counts[2 * i * m_yCells + row]
+                        + m_counts[(2 * i + 1) * m_yCells + row];
+            }
+        }
+        if (downwards) {
+            m_xStart -= m_xCells * m_xWidth;
+        }
+        m_xWidth *= 2;
+        m_counts = counts;
+    }
+
+    /**
+     * Double the height of the cells by merging rows in pairs, extending the range either downwards or upwards
+     */
+    private void mergeRows(boolean downwards) {
+        int half = m_yCells / 2;
+        int firstRow = downwards ? half : 0;
+        long[] counts = new long[m_counts.length];
+        for (int column = 0; column < m_xCells; column++) {
+            for (int i = 0; i < half; i++) {
+                counts[column * m_yCells + firstRow + i] = m_counts[column * m_yCells + 2 * i]
+                        + m_counts[column * m_yCells + 2 * i + 1];
+            }
+        }
+        if (downwards) {
+            m_yStart -= m_yCells * m_yHeight;
+        }
+        m_yHeight *= 2;
+        m_counts = counts;
+    }
+
+    /**
+     * Return a dataset with an item for each cell with a count, with the x and y values at the centre of the cell,
+     * and the count as the z value
+     */
+    private DefaultXYZDataset buildDataset() {
+        int items = 0;
+        for (int i = 0; m_counts != null && i < m_counts.length; i++) {
+            items += m_counts[i] > 0 ? 1 : 0;
+        }
+
+        double[][] data = new double[3][items];
+        int item = 0;
+        for (int column = 0; column < m_xCells && item < items; column++) {
+            for (int row = 0; row < m_yCells; row++) {
+                long count = m_counts[column * m_yCells + row];
+                if (count > 0) {
+                    data[0][item] = m_xStart + (column + 0.5) * m_xWidth;
+                    data[1][item] = m_yStart + (row + 0.5) * m_yHeight;
+                    data[2][item] = count;
+                    item++;
+                }
+            }
+        }
+
+        DefaultXYZDataset dataset = new DefaultXYZDataset();
+        dataset.addSeries("Count", data);
+        return dataset;
+    }
+
+    private long getMaximumCount() {
+        long maximum = 0;
+        for (int i = 0; m_counts != null && i < m_counts.length; i++) {
+            maximum = Math.max(maximum, m_counts[i]);
+        }
+        return maximum;
+    }
+
+    private ValueAxis buildXAxis(Options options) {
+        if (options.getChartXType() == Options.X_TYPE_NONE || options.getChartXType() == Options.X_TYPE_VALUE) {
+            NumberAxis axis = new NumberAxis(options.getChartXAxisTitle());
+            axis.setAutoRangeIncludesZero(false);
+            return axis;
+        }
+        return new DateAxis(options.getChartXAxisTitle());
+    }
+
+    private ValueAxis buildYAxis(Options options) {
+        NumberAxis axis = new NumberAxis(options.getChartYAxisTitle());
+        axis.setAutoRangeIncludesZero(false);
+        if (m_logScale) {
+            // the axis is in terms of log10 of the values, so label powers of 10 with their values
+            axis.setStandardTickUnits(NumberAxis.createIntegerTickUnits());
+            axis.setNumberFormatOverride(new PowerOfTenFormat());
+        }
+        return axis;
+    }
+
+    /* ========================================================================
+     *
+     * Inner classes
+     */
+
+    /**
+     * Formats a number as 10 to the power of that number, e.g. 3 as 1,000
+     */
+    private static class PowerOfTenFormat extends NumberFormat {
+
+        private static final long serialVersionUID = 1L;
+
+        private final DecimalFormat m_format = new DecimalFormat("#,##0.########");
+
+        public StringBuffer format(double number, StringBuffer toAppendTo, FieldPosition pos) {
+            return m_format.format(Math.pow(10, number), toAppendTo, pos);
+        }
+
+        public StringBuffer format(long number, StringBuffer toAppendTo, FieldPosition pos) {
+            return format((double) number, toAppendTo, pos);
+        }
+
+        public Number parse(String source, ParsePosition parsePosition) {
+            Number value = m_format.parse(source, parsePosition);
+            return value == null ? null : new Double(Math.log10(value.doubleValue()));
+        }
+    }
+}
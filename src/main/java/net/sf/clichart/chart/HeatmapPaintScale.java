@@ -0,0 +1,101 @@
+/* (C) Copyright 2026, by John Dickson
+ *
+ * Project Info:  https://github.com/captsens/clichart
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2.1 of the License, or
+ * (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ */
+
+package net.sf.clichart.chart;
+
+import org.jfree.chart.renderer.PaintScale;
+
+import java.awt.Color;
+import java.awt.Paint;
+
+/**
+ * Colours counts for a heatmap, from blue for a count of 1 to red for the maximum count.  The colours are scaled
+ * logarithmically, since counts often vary by orders of magnitude, and a count of 0 is transparent.
+ *
+ * @author johnd
+ */
+public class HeatmapPaintScale implements PaintScale {
+
+    /* ========================================================================
+     *
+     * Class (static) variables.
+     */
+
+    private static final Color NONE = new Color(0, 0, 0, 0);
+
+    // hues for a count of 1 (blue) and the maximum count (red)
+    private static final float LOWEST_HUE = 0.67f;
+    private static final float HIGHEST_HUE = 0f;
+
+    /* ========================================================================
+     *
+     * Instance variables.
+     */
+
+    private final double m_maximum;
+
+    /* ========================================================================
+     *
+     * Constructors
+     */
+
+    /**
+     * @param maximum  The highest count
+     */
+    public HeatmapPaintScale(double maximum) {
+        m_maximum = Math.max(maximum, 1);
+    }
+
+    /* ========================================================================
+     *
+     * Static methods
+     */
+
+    /* ========================================================================
+     *
+     * Public methods
+     */
+
+    public double getLowerBound() {
+        return 1;
+    }
+
+    public double getUpperBound() {
+        return m_maximum;
+    }
+
+    public Paint getPaint(double value) {
+        if (!(value >= 1)) {
+            return NONE;
+        }
+        double fraction = m_maximum > 1 ? Math.log(Math.min(value, m_maximum)) / Math.log(m_maximum) : 1;
+        return Color.getHSBColor((float) (LOWEST_HUE + (HIGHEST_HUE - LOWEST_HUE) * fraction), 1f, 1f);
+    }
+
+    /* ========================================================================
+     *
+     * Protected / package-private methods
+     */
+
+    /* ========================================================================
+     *
+     * Private methods
+     */
+}
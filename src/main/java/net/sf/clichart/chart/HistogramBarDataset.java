@@ -0,0 +1,152 @@
+/* (C) Copyright 2026, by John Dickson
+ *
+ * Project Info:  https://github.com/captsens/clichart
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2.1 of the License, or
+ * (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ */
+
+package net.sf.clichart.chart;
+
+import org.jfree.data.DomainOrder;
+import org.jfree.data.xy.AbstractIntervalXYDataset;
+import org.jfree.data.xy.XYDataset;
+
+/**
+ * Presents a histogram (as passed on by HistogramDataSink) to the bar renderer, with each bar filling its bin: the
+ * bar for each item runs from its x value to that of the next item.  This allows for bins of different widths, such
+ * as logarithmic bins.
+ *
+ * @author johnd
+ */
+public class HistogramBarDataset extends AbstractIntervalXYDataset {
+
+    /* ========================================================================
+     *
+     * Class (static) variables.
+     */
+
+    private static final long serialVersionUID = 1L;
+
+    /* ========================================================================
+     *
+     * Instance variables.
+     */
+
+    private final XYDataset m_dataset;
+
+    /* ========================================================================
+     *
+     * Constructors
+     */
+
+    /**
+     * @param dataset  The histogram, with items in order of x value
+     */
+    public HistogramBarDataset(XYDataset dataset) {
+        assert dataset != null;
+        m_dataset = dataset;
+    }
+
+    /* ========================================================================
+     *
+     * Static methods
+     */
+
+    /* ========================================================================
+     *
+     * Public methods
+     */
+
+    // ------------------------------------------------------------------------
+    // Methods from XYDataset, IntervalXYDataset
+    // ------------------------------------------------------------------------
+
+    public int getSeriesCount() {
+        return m_dataset.getSeriesCount();
+    }
+
+    public Comparable getSeriesKey(int series) {
+        return m_dataset.getSeriesKey(series);
+    }
+
+    public DomainOrder getDomainOrder() {
+        return DomainOrder.ASCENDING;
+    }
+
+    public int getItemCount(int series) {
+        return m_dataset.getItemCount(series);
+    }
+
+    public Number getX(int series, int item) {
+        return m_dataset.getX(series, item);
+    }
+
+    public double getXValue(int series, int item) {
+        return m_dataset.getXValue(series, item);
+    }
+
+    public Number getY(int series, int item) {
+        return m_dataset.getY(series, item);
+    }
+
+    public double getYValue(int series, int item) {
+        return m_dataset.getYValue(series, item);
+    }
+
+    public Number getStartX(int series, int item) {
+        return getX(series, item);
+    }
+
+    public double getStartXValue(int series, int item) {
+        return getXValue(series, item);
+    }
+
+    public Number getEndX(int series, int item) {
+        return new Double(getEndXValue(series, item));
+    }
+
+    public double getEndXValue(int series, int item) {
+        // the last item just marks the end of the last bin
+        int endItem = Math.min(item + 1, getItemCount(series) - 1);
+        return m_dataset.getXValue(series, endItem);
+    }
+
+    public Number getStartY(int series, int item) {
+        return getY(series, item);
+    }
+
+    public double getStartYValue(int series, int item) {
+        return getYValue(series, item);
+    }
+
+    public Number getEndY(int series, int item) {
+        return getY(series, item);
+    }
+
+    public double getEndYValue(int series, int item) {
+        return getYValue(series, item);
+    }
+
+    /* ========================================================================
+     *
+     * Protected / package-private methods
+     */
+
+    /* ========================================================================
+     *
+     * Private methods
+     */
+}
@@ -37,6 +37,9 @@ public interface Options {
     // Defines for data separator/delimiter
     public static final int DATA_SEP_CSV = 0;
     public static final int DATA_SEP_WHITE_SPACE = 1;
+    public static final int DATA_SEP_JSON = 2;
+    public static final int DATA_SEP_LOGFMT = 3;
+    public static final int DATA_SEP_BINARY = 4;
 
     public static final int DEFAULT_DATA_SEP = DATA_SEP_WHITE_SPACE;
 
@@ -44,6 +47,9 @@ public interface Options {
     public static final int X_TYPE_DATE_TIME = 10;
     public static final int X_TYPE_VALUE = 11;
     public static final int X_TYPE_NONE = 12;
+    public static final int X_TYPE_EPOCH_SECONDS = 13;
+    public static final int X_TYPE_EPOCH_MILLIS = 14;
+    public static final int X_TYPE_EPOCH_MICROS = 15;
 
     public static final int DEFAULT_X_TYPE = X_TYPE_DATE_TIME;
 
@@ -54,6 +60,32 @@ public interface Options {
     public static final int DEFAULT_WIDTH = 800;
     public static final int DEFAULT_HEIGHT = 600;
 
+    // Values for the downsampling mode
+    public static final String DOWNSAMPLE_MIN_MAX = "minmax";
+    public static final String DOWNSAMPLE_LTTB = "lttb";
+
+    // Values for the histogram bins (other than a fixed bin width)
+    public static final String HISTOGRAM_AUTO = "auto";
+    public static final String HISTOGRAM_LOG = "log";
+
+    public static final int DEFAULT_HISTOGRAM_BINS = 50;
+
+    // Values for the heatmap y axis scale
+    public static final String HEATMAP_LINEAR = "linear";
+    public static final String HEATMAP_LOG = "log";
+
+    // Values for the density scatter colour ramp
+    public static final String DENSITY_LOG = "log";
+    public static final String DENSITY_ALPHA = "alpha";
+
+    // Values for ranking keys when splitting the data by key
+    public static final String RANK_KEYS_TOTAL = "total";
+    public static final String RANK_KEYS_MAX = "max";
+
+    public static final int DEFAULT_TOP_KEYS = 10;
+
+    public static final int DEFAULT_SAMPLE_LINES = 100;
+
 
 
     /* ========================================================================
@@ -103,7 +135,7 @@ public interface Options {
     public int[] getSecondAxisColumnIndexes();
 
     /**
-     * Return the type of X axis - date/time, value or none
+     * Return the type of X axis - date/time, value, none or a Unix timestamp (epoch seconds, millis or micros)
      * @return one of the X_TYPE_* defines
      */
     public int getChartXType();
@@ -233,4 +265,129 @@ public interface Options {
 	 * Return any colour overrides set for columns (may be null)
 	 */
     public List<ColourOverride> getColourOverrides();
+
+    /**
+     * Return the character separating groups of digits in numeric values (e.g. "," for 1,234,567), or null if none
+     */
+    public String getThousandsSeparator();
+
+    /**
+     * Return the number of threads to use when parsing the input.  Values of 1 or less mean the input is parsed on
+     * a single thread
+     */
+    public int getThreads();
+
+    /**
+     * Return the method used to reduce the data to roughly the number of points the chart can show (DOWNSAMPLE_MIN_MAX
+     * or DOWNSAMPLE_LTTB), or null if all the data is to be charted
+     */
+    public String getDownsample();
+
+    /**
+     * Return the width of the buckets the data is to be grouped into before charting (a number, optionally followed
+     * by ms, s, m, h or d for a time interval), or null if the data isn't to be resampled
+     */
+    public String getResample();
+
+    /**
+     * Return the comma-separated list of statistics to chart for each column when resampling (any of min, max, av,
+     * tot and cnt, or percentiles such as p95), or null for the default (av)
+     */
+    public String getResampleStatistics();
+
+    /**
+     * Return how the bins are chosen if the data is to be charted as a histogram of the y values (HISTOGRAM_AUTO,
+     * HISTOGRAM_LOG, or a fixed bin width), or null if it isn't a histogram
+     */
+    public String getHistogram();
+
+    /**
+     * Return the number of bins for a histogram with automatically chosen bins
+     */
+    public int getHistogramBins();
+
+    /**
+     * Return the scale of the y axis (HEATMAP_LINEAR or HEATMAP_LOG) if the data is to be charted as a heatmap of
+     * counts of x values by y values, or null if it isn't a heatmap
+     */
+    public String getHeatmap();
+
+    /**
+     * Return the colour ramp (DENSITY_LOG or DENSITY_ALPHA) if the points are to be drawn as a density scatter
+     * plot, or null if they aren't
+     */
+    public String getDensity();
+
+    /**
+     * Return the index (0-based) of the column whose values split the data into a series for each key, or -1 if the
+     * data isn't split by key
+     */
+    public int getKeyColumn();
+
+    /**
+     * Return the maximum number of keys to chart when the data is split by key
+     */
+    public int getTopKeys();
+
+    /**
+     * Return how the keys to chart are chosen when the data is split by key (RANK_KEYS_TOTAL or RANK_KEYS_MAX)
+     */
+    public String getRankKeys();
+
+    /**
+     * Return the index (0-based) of the column whose distinct values are to be counted in each resampling bucket, or
+     * -1 if distinct values aren't counted
+     */
+    public int getDistinctColumn();
+
+    /**
+     * Return the regular expression whose groups are the columns of each line, or null if lines are split into
+     * columns by white space or as CSV
+     */
+    public String getRegex();
+
+    /**
+     * Return the names of the fields which are the columns of JSON or logfmt input, or null if none were given
+     */
+    public String[] getFields();
+
+    /**
+     * Return true if the parsed data should be cached in a file beside the input file, and read from there when the
+     * input hasn't changed (or has only been appended to)
+     */
+    public boolean useParseCache();
+
+    /**
+     * Return the lowest x value to chart (in the same format as the x values in the data), or null for no lower limit
+     */
+    public String getXRangeStart();
+
+    /**
+     * Return the x value at which to stop charting (in the same format as the x values in the data), or null for no
+     * upper limit.  Lines with this x value aren't charted
+     */
+    public String getXRangeEnd();
+
+    /**
+     * Return true if the x values in the input are in increasing order, so the start of the x range can be found by
+     * searching the input file, and parsing can stop at the end of the range
+     */
+    public boolean isXSorted();
+
+    /**
+     * Return true if the positions found while searching the input file for the start of the x range should be kept
+     * in an index file beside it, for later searches
+     */
+    public boolean useRangeIndex();
+
+    /**
+     * Return the approximate fraction of the input file to chart (greater than 0 and at most 1, e.g. "0.01"), for a
+     * quick preview of a large file, or null to chart all of it
+     */
+    public String getSample();
+
+    /**
+     * Return the number of consecutive lines to chart at each sample point, when only a sample of the input is charted
+     */
+    public int getSampleLines();
 }
@@ -109,6 +109,50 @@ public class OptionsBean implements Options {
     private String[] m_seriesTitles = null;
     private String[] m_secondAxisSeriesTitles = null;
 
+    private String m_thousandsSeparator = null;
+
+    private int m_threads = 1;
+
+    private String m_downsample = null;
+
+    private String m_resample = null;
+
+    private String m_resampleStatistics = null;
+
+    private String m_histogram = null;
+
+    private int m_histogramBins = DEFAULT_HISTOGRAM_BINS;
+
+    private String m_heatmap = null;
+
+    private String m_density = null;
+
+    private int m_keyColumn = -1;
+
+    private int m_topKeys = DEFAULT_TOP_KEYS;
+
+    private String m_rankKeys = RANK_KEYS_TOTAL;
+
+    private int m_distinctColumn = -1;
+
+    private String m_regex = null;
+
+    private String[] m_fields = null;
+
+    private boolean m_parseCache = false;
+
+    private String m_xRangeStart = null;
+
+    private String m_xRangeEnd = null;
+
+    private boolean m_xSorted = false;
+
+    private boolean m_rangeIndex = false;
+
+    private String m_sample = null;
+
+    private int m_sampleLines = DEFAULT_SAMPLE_LINES;
+
     private boolean m_cliServer = false;
 
     private List<ColourOverride> m_colourOverrides = null;
@@ -403,6 +447,182 @@ public class OptionsBean implements Options {
         m_listenPort = port;
     }
 
+    public String getThousandsSeparator() {
+        return m_thousandsSeparator;
+    }
+
+    public void setThousandsSeparator(String thousandsSeparator) {
+        m_thousandsSeparator = thousandsSeparator;
+    }
+
+    public int getThreads() {
+        return m_threads;
+    }
+
+    public void setThreads(int threads) {
+        m_threads = threads;
+    }
+
+    public String getDownsample() {
+        return m_downsample;
+    }
+
+    public void setDownsample(String downsample) {
+        m_downsample = downsample;
+    }
+
+    public String getResample() {
+        return m_resample;
+    }
+
+    public void setResample(String resample) {
+        m_resample = resample;
+    }
+
+    public String getResampleStatistics() {
+        return m_resampleStatistics;
+    }
+
+    public void setResampleStatistics(String resampleStatistics) {
+        m_resampleStatistics = resampleStatistics;
+    }
+
+    public String getHistogram() {
+        return m_histogram;
+    }
+
+    public void setHistogram(String histogram) {
+        m_histogram = histogram;
+    }
+
+    public int getHistogramBins() {
+        return m_histogramBins;
+    }
+
+    public void setHistogramBins(int histogramBins) {
+        m_histogramBins = histogramBins;
+    }
+
+    public String getHeatmap() {
+        return m_heatmap;
+    }
+
+    public void setHeatmap(String heatmap) {
+        m_heatmap = heatmap;
+    }
+
+    public String getDensity() {
+        return m_density;
+    }
+
+    public void setDensity(String density) {
+        m_density = density;
+    }
+
+    public int getKeyColumn() {
+        return m_keyColumn;
+    }
+
+    public void setKeyColumn(int keyColumn) {
+        m_keyColumn = keyColumn;
+    }
+
+    public int getTopKeys() {
+        return m_topKeys;
+    }
+
+    public void setTopKeys(int topKeys) {
+        m_topKeys = topKeys;
+    }
+
+    public String getRankKeys() {
+        return m_rankKeys;
+    }
+
+    public void setRankKeys(String rankKeys) {
+        m_rankKeys = rankKeys;
+    }
+
+    public int getDistinctColumn() {
+        return m_distinctColumn;
+    }
+
+    public void setDistinctColumn(int distinctColumn) {
+        m_distinctColumn = distinctColumn;
+    }
+
+    public String getRegex() {
+        return m_regex;
+    }
+
+    public void setRegex(String regex) {
+        m_regex = regex;
+    }
+
+    public String[] getFields() {
+        return m_fields;
+    }
+
+    public void setFields(String[] fields) {
+        m_fields = fields;
+    }
+
+    public boolean useParseCache() {
+        return m_parseCache;
+    }
+
+    public void setParseCache(boolean parseCache) {
+        m_parseCache = parseCache;
+    }
+
+    public String getXRangeStart() {
+        return m_xRangeStart;
+    }
+
+    public void setXRangeStart(String xRangeStart) {
+        m_xRangeStart = xRangeStart;
+    }
+
+    public String getXRangeEnd() {
+        return m_xRangeEnd;
+    }
+
+    public void setXRangeEnd(String xRangeEnd) {
+        m_xRangeEnd = xRangeEnd;
+    }
+
+    public boolean isXSorted() {
+        return m_xSorted;
+    }
+
+    public void setXSorted(boolean xSorted) {
+        m_xSorted = xSorted;
+    }
+
+    public boolean useRangeIndex() {
+        return m_rangeIndex;
+    }
+
+    public void setRangeIndex(boolean rangeIndex) {
+        m_rangeIndex = rangeIndex;
+    }
+
+    public String getSample() {
+        return m_sample;
+    }
+
+    public void setSample(String sample) {
+        m_sample = sample;
+    }
+
+    public int getSampleLines() {
+        return m_sampleLines;
+    }
+
+    public void setSampleLines(int sampleLines) {
+        m_sampleLines = sampleLines;
+    }
+
 
 
 	public int hashCode() {
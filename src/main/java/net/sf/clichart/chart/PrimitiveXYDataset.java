@@ -0,0 +1,463 @@
+/* (C) Copyright 2026, by John Dickson
+ *
+ * Project Info:  https://github.com/captsens/clichart
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2.1 of the License, or
+ * (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ */
+
+package net.sf.clichart.chart;
+
+import org.jfree.data.DomainInfo;
+import org.jfree.data.DomainOrder;
+import org.jfree.data.Range;
+import org.jfree.data.RangeInfo;
+import org.jfree.data.general.SeriesException;
+import org.jfree.data.xy.AbstractIntervalXYDataset;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * An XYDataset which holds its data in growable arrays of primitives, rather than as an object per item like
+ * XYSeriesCollection and TimeSeriesCollection.  Used by the chart builders for both numeric and time-based data (in
+ * which case the x values are milliseconds since the epoch, at full millisecond resolution).
+ *
+ * <p>Items can be added in any order.  They are sorted by x value (keeping the order in which items with the same x
+ * value were added) by sortItems(), which the builders call once all data has been added, or otherwise before the
+ * data is first read.  Items with duplicate x values are then kept, dropped or rejected depending on the duplicate
+ * handling chosen.
+ *
+ * <p>Missing y values are held as NaN.  Each item is treated as an interval of zero width.
+ *
+ * <p>Note that this class is not threadsafe, and doesn't send change events as data is added.
+ *
+ * @author johnd
+ */
+public class PrimitiveXYDataset extends AbstractIntervalXYDataset implements DomainInfo, RangeInfo {
+
+    /* ========================================================================
+     *
+     * Class (static) variables.
+     */
+
+    private static final long serialVersionUID = 1L;
+
+    /** Items with duplicate x values are all kept */
+    public static final int DUPLICATES_ALLOWED = 0;
+
+    /** Only the first item added for each x value is kept */
+    public static final int DUPLICATES_IGNORED = 1;
+
+    /** Duplicate x values cause a SeriesException */
+    public static final int DUPLICATES_REJECTED = 2;
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    /* ========================================================================
+     *
+     * Instance variables.
+     */
+
+    private final int m_duplicateHandling;
+
+    // true if the x values are milliseconds since the epoch
+    private final boolean m_timeValues;
+
+    private final List<Series> m_series = new ArrayList<Series>();
+
+    // true if all series are sorted, and the bounds below are up to date
+    private boolean m_sorted = true;
+
+    // null if there are no (non-missing) values
+    private Range m_domainBounds = null;
+    private Range m_rangeBounds = null;
+
+    /* ========================================================================
+     *
+     * Constructors
+     */
+
+    /**
+     * @param duplicateHandling  One of the DUPLICATES_ constants
+     * @param timeValues  True if the x values are milliseconds since the epoch (only used in error messages)
+     */
+    public PrimitiveXYDataset(int duplicateHandling, boolean timeValues) {
+        assert duplicateHandling >= DUPLICATES_ALLOWED && duplicateHandling <= DUPLICATES_REJECTED;
+        m_duplicateHandling = duplicateHandling;
+        m_timeValues = timeValues;
+    }
+
+    /* ========================================================================
+     *
+     * Static methods
+     */
+
+    /* ========================================================================
+     *
+     * Public methods
+     */
+
+    /**
+     * Add a new (empty) series, returning its index
+     */
+    public int addSeries(Comparable key) {
+        m_series.add(new Series(key));
+        return m_series.size() - 1;
+    }
+
+    /**
+     * Discard all the items in a series, and give it a new key
+     */
+    public void clearSeries(int seriesIndex, Comparable key) {
+        m_series.set(seriesIndex, new Series(key));
+        m_sorted = false;
+    }
+
+    /**
+     * Keep only some of the series, discarding the others
+     *
+     * @param seriesIndexes  Indexes of the series to keep, in the order they are to be in
+     */
+    public void retainSeries(int[] seriesIndexes) {
+        List<Series> series = new ArrayList<Series>();
+        for (int i = 0; i < seriesIndexes.length; i++) {
+            series.add(m_series.get(seriesIndexes[i]));
+        }
+        m_series.clear();
+        m_series.addAll(series);
+        m_sorted = false;
+    }
+
+    /**
+     * Add an item to a series.
+     *
+     * @param yValue  The y value, or NaN if the value is missing
+     */
+    public void add(int seriesIndex, double xValue, double yValue) {
+        m_series.get(seriesIndex).add(xValue, yValue);
+        m_sorted = false;
+    }
+
+    /**
+     * Sort the items in each series by x value, and apply the duplicate handling.  Does nothing if the items are
+     * already sorted.
+     *
+     * @throws SeriesException if duplicates are rejected, and a series contains a duplicate x value
+     */
+    public void sortItems() {
+        if (m_sorted) {
+            return;
+        }
+
+        m_domainBounds = null;
+        m_rangeBounds = null;
+        for (int i = 0; i < m_series.size(); i++) {
+            Series series = m_series.get(i);
+            series.sort();
+            series.applyDuplicateHandling();
+            m_domainBounds = combine(m_domainBounds, series.getDomainBounds());
+            m_rangeBounds = combine(m_rangeBounds, series.getRangeBounds());
+        }
+        m_sorted = true;
+    }
+
+    // ------------------------------------------------------------------------
+    // Methods from XYDataset, IntervalXYDataset
+    // ------------------------------------------------------------------------
+
+    public int getSeriesCount() {
+        return m_series.size();
+    }
+
+    public Comparable getSeriesKey(int series) {
+        return m_series.get(series).m_key;
+    }
+
+    public DomainOrder getDomainOrder() {
+        return DomainOrder.ASCENDING;
+    }
+
+    public int getItemCount(int series) {
+        sortItems();
+        return m_series.get(series).m_size;
+    }
+
+    public Number getX(int series, int item) {
+        return new Double(getXValue(series, item));
+    }
+
+    public double getXValue(int series, int item) {
+        sortItems();
+        return m_series.get(series).getXValue(item);
+    }
+
+    public Number getY(int series, int item) {
+        return new Double(getYValue(series, item));
+    }
+
+    public double getYValue(int series, int item) {
+        sortItems();
+        return m_series.get(series).getYValue(item);
+    }
+
+    public Number getStartX(int series, int item) {
+        return getX(series, item);
+    }
+
+    public double getStartXValue(int series, int item) {
+        return getXValue(series, item);
+    }
+
+    public Number getEndX(int series, int item) {
+        return getX(series, item);
+    }
+
+    public double getEndXValue(int series, int item) {
+        return getXValue(series, item);
+    }
+
+    public Number getStartY(int series, int item) {
+        return getY(series, item);
+    }
+
+    public double getStartYValue(int series, int item) {
+        return getYValue(series, item);
+    }
+
+    public Number getEndY(int series, int item) {
+        return getY(series, item);
+    }
+
+    public double getEndYValue(int series, int item) {
+        return getYValue(series, item);
+    }
+
+    // ------------------------------------------------------------------------
+    // Methods from DomainInfo, RangeInfo
+    // ------------------------------------------------------------------------
+
+    public double getDomainLowerBound(boolean includeInterval) {
+        Range bounds = getDomainBounds(includeInterval);
+        return bounds == null ? Double.NaN : bounds.getLowerBound();
+    }
+
+    public double getDomainUpperBound(boolean includeInterval) {
+        Range bounds = getDomainBounds(includeInterval);
+        return bounds == null ? Double.NaN : bounds.getUpperBound();
+    }
+
+    public Range getDomainBounds(boolean includeInterval) {
+        sortItems();
+        return m_domainBounds;
+    }
+
+    public double getRangeLowerBound(boolean includeInterval) {
+        Range bounds = getRangeBounds(includeInterval);
+        return bounds == null ? Double.NaN : bounds.getLowerBound();
+    }
+
+    public double getRangeUpperBound(boolean includeInterval) {
+        Range bounds = getRangeBounds(includeInterval);
+        return bounds == null ? Double.NaN : bounds.getUpperBound();
+    }
+
+    public Range getRangeBounds(boolean includeInterval) {
+        sortItems();
+        return m_rangeBounds;
+    }
+
+    /* ========================================================================
+     *
+     * Protected / package-private methods
+     */
+
+    /* ========================================================================
+     *
+     * Private methods
+     */
+
+    private Range combine(Range range1, Range range2) {
+        if (range1 == null) {
+            return range2;
+        }
+        if (range2 == null) {
+            return range1;
+        }
+        return new Range(Math.min(range1.getLowerBound(), range2.getLowerBound()),
+                Math.max(range1.getUpperBound(), range2.getUpperBound()));
+    }
+
+    /* ========================================================================
+     *
+     * Inner classes
+     */
+
+    /**
+     * The items for a single series, in parallel arrays
+     */
+    private class Series {
+
+        private final Comparable m_key;
+
+        private double[] m_xValues = new double[INITIAL_CAPACITY];
+        private double[] m_yValues = new double[INITIAL_CAPACITY];
+        private int m_size = 0;
+
+        // true if the items were added in order of x value
+        private boolean m_ascending = true;
+
+        public Series(Comparable key) {
+            m_key = key;
+        }
+
+        public void add(double xValue, double yValue) {
+            if (m_size == m_xValues.length) {
+                m_xValues = grow(m_xValues);
+                m_yValues = grow(m_yValues);
+            }
+            if (m_size > 0 && xValue < m_xValues[m_size - 1]) {
+                m_ascending = false;
+            }
+            m_xValues[m_size] = xValue;
+            m_yValues[m_size] = yValue;
+            m_size++;
+        }
+
+        public double getXValue(int item) {
+            checkItem(item);
+            return m_xValues[item];
+        }
+
+        public double getYValue(int item) {
+            checkItem(item);
+            return m_yValues[item];
+        }
+
+        /**
+         * Stable sort of the items by x value, using a merge sort on the item indexes
+         */
+        public void sort() {
+            if (m_ascending) {
+                return;
+            }
+
+            int[] indexes = new int[m_size];
+            for (int i = 0; i < m_size; i++) {
+                indexes[i] = i;
+            }
+            int[] work = new int[m_size];
+            for (int width = 1; width < m_size; width *= 2) {
+                for (int start = 0; start < m_size; start += 2 * width) {
+                    merge(indexes, work, start, Math.min(start + width, m_size), Math.min(start + 2 * width, m_size));
+                }
+                int[] temp = indexes;
+                indexes = work;
+                work = temp;
+            }
+
+            double[] xValues = new double[m_xValues.length];
+            double[] yValues = new double[m_yValues.length];
+            for (int i = 0; i < m_size; i++) {
+                xValues[i] = m_xValues[indexes[i]];
+                yValues[i] = m_yValues[indexes[i]];
+            }
+            m_xValues = xValues;
+            m_yValues = yValues;
+            m_ascending = true;
+        }
+
+        /**
+         * Drop or reject items with the same x value as the previous item
+         */
+        public void applyDuplicateHandling() {
+            if (m_duplicateHandling == DUPLICATES_ALLOWED) {
+                return;
+            }
+
+            int size = 0;
+            for (int i = 0; i < m_size; i++) {
+                if (size > 0 && m_xValues[i] == m_xValues[size - 1]) {
+                    if (m_duplicateHandling == DUPLICATES_REJECTED) {
+                        Object xValue = m_timeValues ? (Object) new Date((long) m_xValues[i])
+                                : (Object) new Double(m_xValues[i]);
+                        throw new SeriesException("Duplicate X axis value in series " + m_key + ": " + xValue
+                                + " (use the ignoredup option to ignore duplicates)");
+                    }
+                    continue;
+                }
+                m_xValues[size] = m_xValues[i];
+                m_yValues[size] = m_yValues[i];
+                size++;
+            }
+            m_size = size;
+        }
+
+        /**
+         * Return the range of the x values, or null if there are none.  Items must be sorted
+         */
+        public Range getDomainBounds() {
+            if (m_size == 0) {
+                return null;
+            }
+            return new Range(m_xValues[0], m_xValues[m_size - 1]);
+        }
+
+        /**
+         * Return the range of the y values which aren't missing, or null if there are none
+         */
+        public Range getRangeBounds() {
+            double minimum = Double.POSITIVE_INFINITY;
+            double maximum = Double.NEGATIVE_INFINITY;
+            for (int i = 0; i < m_size; i++) {
+                double value = m_yValues[i];
+                if (!Double.isNaN(value)) {
+                    minimum = Math.min(minimum, value);
+                    maximum = Math.max(maximum, value);
+                }
+            }
+            if (minimum > maximum) {
+                return null;
+            }
+            return new Range(minimum, maximum);
+        }
+
+        private void merge(int[] indexes, int[] target, int start, int middle, int end) {
+            int left = start;
+            int right = middle;
+            for (int i = start; i < end; i++) {
+                // take from the left unless the right is strictly smaller, so the sort is stable
+                if (left < middle && (right >= end || !(m_xValues[indexes[right]] < m_xValues[indexes[left]]))) {
+                    target[i] = indexes[left++];
+                } else {
+                    target[i] = indexes[right++];
+                }
+            }
+        }
+
+        private double[] grow(double[] values) {
+            double[] newValues = new double[values.length * 2];
+            System.arraycopy(values, 0, newValues, 0, m_size);
+            return newValues;
+        }
+
+        private void checkItem(int item) {
+            if (item < 0 || item >= m_size) {
+                throw new IndexOutOfBoundsException("Invalid item index: " + item);
+            }
+        }
+    }
+}
@@ -24,16 +24,12 @@ import org.jfree.chart.JFreeChart;
 import org.jfree.chart.ChartFactory;
 import org.jfree.chart.labels.XYToolTipGenerator;
 import org.jfree.chart.labels.StandardXYToolTipGenerator;
-import org.jfree.data.time.TimeSeriesCollection;
-import org.jfree.data.time.TimeSeries;
-import org.jfree.data.time.Second;
 import org.jfree.data.xy.XYDataset;
-import org.jfree.data.general.SeriesException;
 
 import java.util.Date;
 
 /**
- * Builder for charts displaying time series (dates, times etc.)
+ * Builder for charts displaying time series (dates, times etc.).  Times are held at millisecond resolution.
  *
  * @author johnd
  */
@@ -49,8 +45,8 @@ public class TimeSeriesChartBuilder extends AbstractChartBuilder {
      * Instance variables.
      */
 
-    // holds the time series which in turn hold the data for each column
-    private TimeSeriesCollection m_timeSeriesCollection = new TimeSeriesCollection();
+    // holds a series for each column, with the x values as milliseconds since the epoch
+    private final PrimitiveXYDataset m_dataset;
 
 
     /* ========================================================================
@@ -60,6 +56,8 @@ public class TimeSeriesChartBuilder extends AbstractChartBuilder {
 
     public TimeSeriesChartBuilder(Options options, String[] seriesTitles) {
         super(options, seriesTitles);
+        m_dataset = new PrimitiveXYDataset(options.ignoreDuplicateValues() ? PrimitiveXYDataset.DUPLICATES_IGNORED
+                : PrimitiveXYDataset.DUPLICATES_REJECTED, true);
     }
 
     /* ========================================================================
@@ -78,32 +76,37 @@ public class TimeSeriesChartBuilder extends AbstractChartBuilder {
      */
 
     protected void initialiseSeriesColumn(String title) {
-        TimeSeries timeSeries = new TimeSeries(title, Second.class);
-        m_timeSeriesCollection.addSeries(timeSeries);
+        m_dataset.addSeries(title);
+    }
+
+    protected void clearSeriesColumn(int columnNumber, String title) {
+        m_dataset.clearSeries(columnNumber, title);
+    }
+
+    protected void retainSeriesColumns(int[] columnNumbers) {
+        m_dataset.retainSeries(columnNumbers);
     }
 
     protected void addYValue(int columnNumber, Object xValue, Object yValue) {
         Date date = (Date)xValue;
         Number value = (Number) yValue;
 
-        TimeSeries timeSeries = m_timeSeriesCollection.getSeries(columnNumber);
-        try {
-            timeSeries.add(new Second(date), value);
-        } catch (SeriesException e) {
-            if (!m_options.ignoreDuplicateValues()) {
-                throw e;
-            }
-//            System.err.println("Ignoring duplicate X axis value: " + xValue);
-        }
+        m_dataset.add(columnNumber, date.getTime(), value == null ? Double.NaN : value.doubleValue());
+    }
+
+    protected void addYValue(int columnNumber, double xValue, double yValue) {
+        m_dataset.add(columnNumber, xValue, yValue);
     }
 
     protected JFreeChart getChartImpl(Options options) {
+        m_dataset.sortItems();
         return ChartFactory.createTimeSeriesChart(options.getChartTitle(), options.getChartXAxisTitle(),
-                options.getChartYAxisTitle(), m_timeSeriesCollection, true, true, false);
+                options.getChartYAxisTitle(), m_dataset, true, true, false);
     }
 
     protected XYDataset getDataset() {
-        return m_timeSeriesCollection;
+        m_dataset.sortItems();
+        return m_dataset;
     }
 
     protected XYToolTipGenerator getToolTipGenerator() {
@@ -22,13 +22,11 @@ package net.sf.clichart.chart;
 
 import org.jfree.chart.JFreeChart;
 import org.jfree.chart.ChartFactory;
+import org.jfree.chart.axis.LogarithmicAxis;
 import org.jfree.chart.labels.XYToolTipGenerator;
 import org.jfree.chart.labels.StandardXYToolTipGenerator;
 import org.jfree.chart.plot.PlotOrientation;
-import org.jfree.data.xy.XYSeriesCollection;
-import org.jfree.data.xy.XYSeries;
 import org.jfree.data.xy.XYDataset;
-import org.jfree.data.general.SeriesException;
 
 /**
  * Builder for charts with a numeric X axis
@@ -47,8 +45,8 @@ public class XYChartBuilder extends AbstractChartBuilder {
      * Instance variables.
      */
 
-    // holds all series which in turn hold the data for each column
-    private XYSeriesCollection m_seriesCollection = new XYSeriesCollection();
+    // holds a series for each column.  As for XYSeries, duplicate x values are allowed
+    private final PrimitiveXYDataset m_dataset = new PrimitiveXYDataset(PrimitiveXYDataset.DUPLICATES_ALLOWED, false);
 
 
     /* ========================================================================
@@ -76,30 +74,40 @@ public class XYChartBuilder extends AbstractChartBuilder {
      */
 
     protected void initialiseSeriesColumn(String title) {
-        XYSeries series = new XYSeries(title);
-        m_seriesCollection.addSeries(series);
+        m_dataset.addSeries(title);
+    }
+
+    protected void clearSeriesColumn(int columnNumber, String title) {
+        m_dataset.clearSeries(columnNumber, title);
+    }
+
+    protected void retainSeriesColumns(int[] columnNumbers) {
+        m_dataset.retainSeries(columnNumbers);
     }
 
     protected void addYValue(int columnNumber, Object xValue, Object yValue) {
-        XYSeries series = m_seriesCollection.getSeries(columnNumber);
-
-        try {
-            series.add((Number)xValue, (Number) yValue);
-        } catch (SeriesException e) {
-            if (!m_options.ignoreDuplicateValues()) {
-                throw e;
-            }
-//            System.err.println("Ignoring duplicate X axis value: " + xValue);
-        }
+        Number value = (Number) yValue;
+        m_dataset.add(columnNumber, ((Number) xValue).doubleValue(), value == null ? Double.NaN : value.doubleValue());
+    }
+
+    protected void addYValue(int columnNumber, double xValue, double yValue) {
+        m_dataset.add(columnNumber, xValue, yValue);
     }
 
     protected JFreeChart getChartImpl(Options options) {
-        return ChartFactory.createXYLineChart(options.getChartTitle(), options.getChartXAxisTitle(),
-                options.getChartYAxisTitle(), m_seriesCollection, PlotOrientation.VERTICAL, true, true, false);
+        m_dataset.sortItems();
+        JFreeChart chart = ChartFactory.createXYLineChart(options.getChartTitle(), options.getChartXAxisTitle(),
+                options.getChartYAxisTitle(), m_dataset, PlotOrientation.VERTICAL, true, true, false);
+        if (Options.HISTOGRAM_LOG.equals(options.getHistogram())) {
+            // logarithmic bins are the same width on a logarithmic axis
+            chart.getXYPlot().setDomainAxis(new LogarithmicAxis(options.getChartXAxisTitle()));
+        }
+        return chart;
     }
 
     protected XYDataset getDataset() {
-        return m_seriesCollection;
+        m_dataset.sortItems();
+        return m_dataset;
     }
 
     protected XYToolTipGenerator getToolTipGenerator() {
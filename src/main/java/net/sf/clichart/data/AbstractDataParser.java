@@ -24,12 +24,26 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.Reader;
 import java.lang.reflect.Array;
+import java.util.Date;
 
 /**
  * Abstract base class for data parsers.  Subclasses are responsible for parsing the X value.
  *
  * <p>Note: In order to add a second axis, call addSecondAxis before parsing starts.
  *
+ * <p>If all sinks implement PrimitiveDataSink (and there are no more than PrimitiveDataSink.MAX_VALUES columns per
+ * axis), values are passed to them as primitives, so no objects are created for each line.
+ *
+ * <p>Missing and empty values which are to be ignored are detected directly rather than via exceptions, and counted
+ * in the parser's ParseStatistics.
+ *
+ * <p>If a key column is set, each line is passed to the sinks (which must implement KeyedDataSink) with the value of
+ * its key column, so the data for each key can be charted separately.  Lines with a missing or ignored empty key are
+ * skipped.
+ *
+ * <p>If an x range is set, lines with x values outside it are skipped.  If the x values are also sorted, parsing
+ * stops at the first line after the range.
+ *
  * @author johnd
  */
 public abstract class AbstractDataParser implements DataParser {
@@ -52,6 +66,9 @@ public abstract class AbstractDataParser implements DataParser {
 
     private final LineParser m_lineParser;
 
+    // holds the fields of each line, if the line parser doesn't provide its own
+    private final LineFields m_fields = new LineFields();
+
     /** Index (0-based) of the column containing the date or time value.  Use -1 to indicate that there is no x value */
     private final int m_xColumnIndex;
 
@@ -61,6 +78,12 @@ public abstract class AbstractDataParser implements DataParser {
     /** Indexes (0-based) of the columns containing the values we're interested in for the second axis (if any) */
     private int[] m_secondAxisYColumnIndexes = null;
 
+    /** Index (0-based) of the column containing the key for each line, or -1 if lines aren't split by key */
+    private int m_keyColumnIndex = -1;
+
+    // holds a single String for each key, so a String isn't created for every line
+    private final KeyTable m_keys = new KeyTable();
+
     // True if the next line of data is to be parsed as a header
     private boolean m_nextLineIsHeader = false;
 
@@ -70,6 +93,38 @@ public abstract class AbstractDataParser implements DataParser {
     // if true, just skip line if any column values are empty strings
     private final boolean m_ignoreEmptyValues;
 
+    // true if values are to be passed to the sinks as primitives
+    private boolean m_usePrimitiveSinks = false;
+
+    // reused to hold the y values for each axis when passing primitives
+    private double[] m_yValues = null;
+    private double[] m_secondAxisYValues = null;
+
+    // parsers for the y values of each axis when passing primitives
+    private NumberParser[] m_yParsers = null;
+    private NumberParser[] m_secondAxisYParsers = null;
+
+    // bit mask of the missing values found by the last call to parsePrimitiveYValues()
+    private long m_missingValues = 0;
+
+    private char m_thousandsSeparator = NumberParser.NO_SEPARATOR;
+
+    // lines with x values outside this range (from the start, inclusive, to the end, exclusive) are skipped
+    private boolean m_hasXRange = false;
+    private double m_xRangeStart = Double.NEGATIVE_INFINITY;
+    private double m_xRangeEnd = Double.POSITIVE_INFINITY;
+
+    // true if the x values are in increasing order, so parsing can stop after the x range
+    private boolean m_xSorted = false;
+
+    // set once a line after the x range has been found, if the x values are sorted
+    private boolean m_pastXRange = false;
+
+    // number of lines read so far (including blank and skipped lines), i.e. the line number of the last line read
+    private int m_lineCount = 0;
+
+    private final ParseStatistics m_statistics = new ParseStatistics();
+
 
     /* ========================================================================
      *
@@ -93,6 +148,9 @@ public abstract class AbstractDataParser implements DataParser {
 
         assert sink != null;
         m_sink = sink;
+
+        configureRequiredColumns();
+        configurePrimitiveSinks();
     }
 
     /* ========================================================================
@@ -118,6 +176,73 @@ public abstract class AbstractDataParser implements DataParser {
 
         assert sink != null;
         m_secondAxisSink = sink;
+
+        configureRequiredColumns();
+        configurePrimitiveSinks();
+    }
+
+    /**
+     * Split the lines by the value of a key column.  Must be called after any second axis has been added, and before
+     * parsing starts.
+     *
+     * @throws IllegalStateException if the sinks don't accept keyed lines
+     */
+    public void setKeyColumn(int keyColumnIndex) {
+        assert keyColumnIndex >= 0;
+        if (!m_usePrimitiveSinks || !(m_sink instanceof KeyedDataSink)
+                || (m_secondAxisSink != null && !(m_secondAxisSink instanceof KeyedDataSink))) {
+            throw new IllegalStateException("Lines can only be split by key if the sinks accept keyed primitives");
+        }
+        m_keyColumnIndex = keyColumnIndex;
+        configureRequiredColumns();
+    }
+
+    /**
+     * Set the character which may separate groups of digits in numeric values (e.g. ',' for values like 1,234,567).
+     * Must be called before parsing starts.
+     */
+    public void setThousandsSeparator(char thousandsSeparator) {
+        m_thousandsSeparator = thousandsSeparator;
+        configurePrimitiveSinks();
+    }
+
+    /**
+     * Only pass lines whose x values are within a range to the sinks.  The limits are in the same format as the x
+     * values in the data.  Must be called before parsing starts.
+     *
+     * @param from  Lowest x value to pass (inclusive), or null for no lower limit
+     * @param to  X value at which to stop passing lines (exclusive), or null for no upper limit
+     * @param sorted  True if the x values are in increasing order, in which case parsing stops at the first line
+     *      after the range
+     * @throws InvalidDataException if a limit isn't a valid x value, or the range is empty
+     */
+    public void setXRange(String from, String to, boolean sorted) throws InvalidDataException {
+        assert !isLineNumberX();
+        m_hasXRange = true;
+        if (from != null) {
+            m_xRangeStart = parsePrimitiveXValueImpl(from.toCharArray(), 0, from.length(), 0);
+        }
+        if (to != null) {
+            m_xRangeEnd = parsePrimitiveXValueImpl(to.toCharArray(), 0, to.length(), 0);
+        }
+        if (!(m_xRangeStart < m_xRangeEnd)) {
+            throw new InvalidDataException("The x range is empty");
+        }
+        m_xSorted = sorted;
+    }
+
+    /**
+     * Pass headers for the columns to the sinks immediately, as if they had been parsed from a header line, e.g. where
+     * the columns are named fields.  Must be called after any second axis is added, and before parsing starts.
+     *
+     * @param columnHeaders  Header for each column (not just those charted)
+     */
+    public void setColumnHeaders(String[] columnHeaders) throws InvalidDataException {
+        LineFields fields = new LineFields();
+        for (int i = 0; i < columnHeaders.length; i++) {
+            fields.appendField(columnHeaders[i]);
+        }
+        parseAllHeaders(fields);
     }
 
     public void parse(Reader source) throws IOException, InvalidDataException {
@@ -128,12 +253,39 @@ public abstract class AbstractDataParser implements DataParser {
         int lineNumber = 1;
         String line = lineReader.readLine();
 
-        while (line != null) {
+        while (line != null && !m_pastXRange) {
             parseLine(line, lineNumber++);
             line = lineReader.readLine();
         }
+        m_lineCount = lineNumber - 1;
 
-        m_sink.parsingFinished();
+        finishParsing();
+    }
+
+    /**
+     * Return the number of lines read so far, including blank and skipped lines (i.e. the line number of the last line
+     * read)
+     */
+    public int getLineCount() {
+        return m_lineCount;
+    }
+
+    /**
+     * Return the counts of the lines and values skipped while parsing
+     */
+    public ParseStatistics getStatistics() {
+        return m_statistics;
+    }
+
+    /**
+     * Parse the lines from a byte-level reader, e.g. for a file.  Blank lines are skipped by the reader without being
+     * decoded, but still count towards the line numbers.
+     */
+    public void parse(ByteLineReader source) throws IOException, InvalidDataException {
+        assert m_sink != null : "No sink configured";
+
+        parseLines(source);
+        finishParsing();
     }
 
 
@@ -147,83 +299,448 @@ public abstract class AbstractDataParser implements DataParser {
      */
     protected abstract Object parseXValueImpl(String xValue, int lineNumber) throws InvalidDataException;
 
+    /**
+     * Parse the provided X value as a primitive, for a PrimitiveDataSink.  Dates are returned as milliseconds since the
+     * epoch.  Subclasses should override this to avoid creating an object.
+     */
+    protected double parsePrimitiveXValueImpl(String xValue, int lineNumber) throws InvalidDataException {
+        Object value = parseXValueImpl(xValue, lineNumber);
+        if (value instanceof Date) {
+            return ((Date) value).getTime();
+        }
+        return ((Number) value).doubleValue();
+    }
+
+    /**
+     * As for parsePrimitiveXValueImpl(String, int), but with the value in chars[start] to chars[end - 1].  Subclasses
+     * can override this to avoid creating a String.
+     */
+    protected double parsePrimitiveXValueImpl(char[] chars, int start, int end, int lineNumber)
+            throws InvalidDataException {
+        return parsePrimitiveXValueImpl(new String(chars, start, end - start), lineNumber);
+    }
+
+    /**
+     * Return a parser for the numeric values of a column
+     */
+    protected NumberParser createNumberParser() {
+        return new NumberParser(m_thousandsSeparator);
+    }
+
+    /**
+     * Parse all lines from the reader, without advising the sink that parsing has finished
+     */
+    void parseLines(ByteLineReader source) throws IOException, InvalidDataException {
+        if (m_lineParser instanceof RegexLineParser) {
+            // lines which can't match are skipped by the reader, without being decoded
+            source.setLineFilter(((RegexLineParser) m_lineParser).getRequiredText());
+        }
+
+        // blank and unmatched lines are skipped by the reader, so are counted from the gaps in the line numbers
+        int lastLineNumber = source.getLineNumber();
+        int lastUnmatchedLines = source.getUnmatchedLines();
+        String line = source.readLine();
+        while (line != null && !m_pastXRange) {
+            countSkippedLines(source.getLineNumber() - lastLineNumber - 1,
+                    source.getUnmatchedLines() - lastUnmatchedLines);
+            lastLineNumber = source.getLineNumber();
+            lastUnmatchedLines = source.getUnmatchedLines();
+            parseLine(line, lastLineNumber);
+            line = source.readLine();
+        }
+        countSkippedLines(source.getLineNumber() - lastLineNumber, source.getUnmatchedLines() - lastUnmatchedLines);
+        m_lineCount = source.getLineNumber();
+    }
+
+    /**
+     * Read lines from the reader until the header has been parsed, e.g. before parsing the lines from a position
+     * after the header.  Does nothing if a header isn't expected.
+     */
+    void parseHeader(ByteLineReader source) throws IOException, InvalidDataException {
+        String line = null;
+        while (m_nextLineIsHeader && (line = source.readLine()) != null) {
+            parseLine(line, source.getLineNumber());
+        }
+    }
+
+    /**
+     * Return the x value of a line, without parsing its other columns or passing it to the sinks, e.g. to find a
+     * position in a file with sorted x values.  Returns NaN if the line has no x value, e.g. it is blank or doesn't
+     * match the line parser.
+     */
+    double parseXValueOnly(String line, int lineNumber) throws InvalidDataException {
+        assert !isLineNumberX();
+        if (isBlank(line)) {
+            return Double.NaN;
+        }
+        LineFields fields = splitLine(line, lineNumber);
+        if (fields == null || fields.isMissing(m_xColumnIndex)) {
+            return Double.NaN;
+        }
+        return parsePrimitiveXValueImpl(fields.getChars(), fields.getStart(m_xColumnIndex),
+                fields.getEnd(m_xColumnIndex), lineNumber);
+    }
+
+    /**
+     * Set the number of lines read so far, e.g. where other parsers have parsed some of the lines
+     */
+    void setLineCount(int lineCount) {
+        m_lineCount = lineCount;
+    }
+
+    /**
+     * Return the lowest x value to pass to the sinks
+     */
+    double getXRangeStart() {
+        return m_xRangeStart;
+    }
+
+    /**
+     * Advise the sinks that parsing has finished
+     */
+    void finishParsing() {
+        m_sink.parsingFinished();
+        if (m_secondAxisSink != null) {
+            m_secondAxisSink.parsingFinished();
+        }
+    }
+
+    /**
+     * Return true if the next line which isn't blank will be parsed as a header
+     */
+    boolean isExpectingHeader() {
+        return m_nextLineIsHeader;
+    }
+
+    /**
+     * Parse all lines as data, even if the parser was created to expect a header
+     */
+    void ignoreHeader() {
+        m_nextLineIsHeader = false;
+    }
+
+    /**
+     * Return true if the line number is used as the x value
+     */
+    boolean isLineNumberX() {
+        return m_xColumnIndex < 0;
+    }
+
+    /**
+     * Return true if lines are passed to the sinks with their key
+     */
+    boolean isKeyed() {
+        return m_keyColumnIndex >= 0;
+    }
+
+    /**
+     * Return true if values are passed to the sinks as primitives
+     */
+    boolean usesPrimitiveSinks() {
+        return m_usePrimitiveSinks;
+    }
+
+    DataSink getSink() {
+        return m_sink;
+    }
+
+    DataSink getSecondAxisSink() {
+        return m_secondAxisSink;
+    }
+
     /* ========================================================================
      *
      * Private methods
      */
 
+    /**
+     * Advise the line parser (if it supports it) of the columns we actually use, so it can skip the others
+     */
+    private void configureRequiredColumns() {
+        if (!(m_lineParser instanceof FieldLineParser)) {
+            return;
+        }
+
+        int maxColumnIndex = Math.max(m_xColumnIndex, m_keyColumnIndex);
+        maxColumnIndex = Math.max(maxColumnIndex, maxIndex(m_yColumnIndexes));
+        if (m_secondAxisYColumnIndexes != null) {
+            maxColumnIndex = Math.max(maxColumnIndex, maxIndex(m_secondAxisYColumnIndexes));
+        }
+
+        boolean[] requiredColumns = new boolean[maxColumnIndex + 1];
+        if (m_xColumnIndex >= 0) {
+            requiredColumns[m_xColumnIndex] = true;
+        }
+        if (m_keyColumnIndex >= 0) {
+            requiredColumns[m_keyColumnIndex] = true;
+        }
+        setRequired(requiredColumns, m_yColumnIndexes);
+        if (m_secondAxisYColumnIndexes != null) {
+            setRequired(requiredColumns, m_secondAxisYColumnIndexes);
+        }
+        ((FieldLineParser) m_lineParser).setRequiredColumns(requiredColumns);
+    }
+
+    private int maxIndex(int[] columnIndexes) {
+        int max = -1;
+        for (int i = 0; i < columnIndexes.length; i++) {
+            max = Math.max(max, columnIndexes[i]);
+        }
+        return max;
+    }
+
+    private void setRequired(boolean[] requiredColumns, int[] columnIndexes) {
+        for (int i = 0; i < columnIndexes.length; i++) {
+            requiredColumns[columnIndexes[i]] = true;
+        }
+    }
+
+    /**
+     * Work out whether values can be passed to the sinks as primitives
+     */
+    private void configurePrimitiveSinks() {
+        m_usePrimitiveSinks = isPrimitiveSink(m_sink, m_yColumnIndexes);
+        if (m_secondAxisSink != null) {
+            m_usePrimitiveSinks = m_usePrimitiveSinks
+                    && isPrimitiveSink(m_secondAxisSink, m_secondAxisYColumnIndexes);
+        }
+
+        if (m_usePrimitiveSinks) {
+            m_yValues = new double[m_yColumnIndexes.length];
+            m_yParsers = createNumberParsers(m_yColumnIndexes.length);
+            if (m_secondAxisSink != null) {
+                m_secondAxisYValues = new double[m_secondAxisYColumnIndexes.length];
+                m_secondAxisYParsers = createNumberParsers(m_secondAxisYColumnIndexes.length);
+            }
+        }
+    }
+
+    private NumberParser[] createNumberParsers(int count) {
+        NumberParser[] parsers = new NumberParser[count];
+        for (int i = 0; i < count; i++) {
+            parsers[i] = createNumberParser();
+        }
+        return parsers;
+    }
+
+    private boolean isPrimitiveSink(DataSink sink, int[] columnIndexes) {
+        return sink instanceof PrimitiveDataSink && columnIndexes.length <= PrimitiveDataSink.MAX_VALUES;
+    }
+
     /**
      * Parse the line, and advise the sink
      */
     private void parseLine(String line, int lineNumber) throws InvalidDataException {
-        if (line.trim().length() == 0) {
+        if (isBlank(line)) {
             // skip blank lines
+            m_statistics.addBlankLines(1);
             return;
         }
 
-        String[] lineCpts = m_lineParser.parseLine(line, lineNumber);
+        LineFields fields = splitLine(line, lineNumber);
+        if (fields == null) {
+            // doesn't match the line parser's pattern
+            m_statistics.addUnmatchedLines(1);
+            return;
+        }
         if (m_nextLineIsHeader) {
-            parseAllHeaders(lineCpts);
+            parseAllHeaders(fields);
             m_nextLineIsHeader = false;
             return;
         }
 
+        if (m_usePrimitiveSinks) {
+            parsePrimitiveLine(fields, lineNumber);
+            return;
+        }
+
         Object xValue = null;
         if (m_xColumnIndex >= 0) {
-            xValue = parseXValue(lineCpts, lineNumber);
+            xValue = parseXValue(fields, lineNumber);
         } else {
             // we'll just use the line number as the X value
             xValue = new Integer(lineNumber);
         }
-        m_sink.dataParsed(xValue, parseYValues(lineCpts, m_yColumnIndexes, lineNumber), lineNumber);
+        if (m_hasXRange && !isInXRange(xValue instanceof Date ? ((Date) xValue).getTime()
+                : ((Number) xValue).doubleValue())) {
+            return;
+        }
+        m_sink.dataParsed(xValue, parseYValues(fields, m_yColumnIndexes, lineNumber), lineNumber);
         if (m_secondAxisSink != null) {
-            m_secondAxisSink.dataParsed(xValue, parseYValues(lineCpts, m_secondAxisYColumnIndexes, lineNumber),
+            m_secondAxisSink.dataParsed(xValue, parseYValues(fields, m_secondAxisYColumnIndexes, lineNumber),
                     lineNumber);
         }
     }
 
-    private void parseAllHeaders(String[] lineCpts) throws InvalidDataException {
-        String[] headers = parseHeaders(lineCpts, m_yColumnIndexes);
+    /**
+     * Parse the fields of a data line, and pass them to the sinks as primitives
+     */
+    private void parsePrimitiveLine(LineFields fields, int lineNumber) throws InvalidDataException {
+        String key = null;
+        if (m_keyColumnIndex >= 0) {
+            if (isMissing(fields, m_keyColumnIndex, lineNumber) || isIgnoredEmpty(fields, m_keyColumnIndex)) {
+                return;
+            }
+            key = m_keys.getKey(fields.getChars(), fields.getStart(m_keyColumnIndex), fields.getEnd(m_keyColumnIndex));
+        }
+
+        double xValue;
+        if (m_xColumnIndex >= 0) {
+            checkXColumn(fields, lineNumber);
+            xValue = parsePrimitiveXValueImpl(fields.getChars(), fields.getStart(m_xColumnIndex),
+                    fields.getEnd(m_xColumnIndex), lineNumber);
+        } else {
+            // we'll just use the line number as the X value
+            xValue = lineNumber;
+        }
+        if (m_hasXRange && !isInXRange(xValue)) {
+            return;
+        }
+
+        int valueCount = parsePrimitiveYValues(fields, m_yColumnIndexes, m_yParsers, m_yValues, lineNumber);
+        passPrimitiveValues(m_sink, key, xValue, m_yValues, valueCount, lineNumber);
+        if (m_secondAxisSink != null) {
+            valueCount = parsePrimitiveYValues(fields, m_secondAxisYColumnIndexes, m_secondAxisYParsers,
+                    m_secondAxisYValues, lineNumber);
+            passPrimitiveValues(m_secondAxisSink, key, xValue, m_secondAxisYValues, valueCount, lineNumber);
+        }
+    }
+
+    /**
+     * Pass the values parsed by parsePrimitiveYValues() to a sink, with the key if lines are split by key
+     */
+    private void passPrimitiveValues(DataSink sink, String key, double xValue, double[] yValues, int valueCount,
+            int lineNumber) throws InvalidDataException {
+        if (key != null) {
+            ((KeyedDataSink) sink).dataParsed(key, xValue, yValues, m_missingValues, valueCount, lineNumber);
+        } else {
+            ((PrimitiveDataSink) sink).dataParsed(xValue, yValues, m_missingValues, valueCount, lineNumber);
+        }
+    }
+
+    /**
+     * Return true if the x value is within the x range.  If the x values are sorted and it is after the range,
+     * parsing stops
+     */
+    private boolean isInXRange(double xValue) {
+        if (xValue >= m_xRangeEnd) {
+            m_pastXRange = m_xSorted;
+            return false;
+        }
+        return xValue >= m_xRangeStart;
+    }
+
+    /**
+     * Record lines skipped by a ByteLineReader
+     *
+     * @param skippedLines  Number of lines skipped, whether blank or unmatched
+     * @param unmatchedLines  Number of those which didn't pass the reader's line filter
+     */
+    private void countSkippedLines(int skippedLines, int unmatchedLines) {
+        m_statistics.addBlankLines(skippedLines - unmatchedLines);
+        m_statistics.addUnmatchedLines(unmatchedLines);
+    }
+
+    /**
+     * Split the line into fields, using the line parser's LineFields if it supports them.  Returns null if the line
+     * parser skips the line.
+     */
+    private LineFields splitLine(String line, int lineNumber) throws InvalidDataException {
+        if (m_lineParser instanceof FieldLineParser) {
+            return ((FieldLineParser) m_lineParser).parseFields(line, lineNumber);
+        }
+
+        String[] lineCpts = m_lineParser.parseLine(line, lineNumber);
+        if (lineCpts == null) {
+            return null;
+        }
+        m_fields.clear();
+        for (int i = 0; i < lineCpts.length; i++) {
+            m_fields.appendField(lineCpts[i]);
+        }
+        return m_fields;
+    }
+
+    /**
+     * Equivalent to line.trim().length() == 0, without creating a new string
+     */
+    private boolean isBlank(String line) {
+        for (int i = 0; i < line.length(); i++) {
+            if (line.charAt(i) > ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * As for isBlank(String), for the characters chars[start] to chars[end - 1]
+     */
+    private boolean isBlank(char[] chars, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (chars[i] > ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Return true if the column is missing from the line.  Throws an exception if missing values aren't being ignored
+     */
+    private boolean isMissing(LineFields fields, int columnIndex, int lineNumber) throws InvalidDataException {
+        if (!fields.isMissing(columnIndex)) {
+            return false;
+        }
+        if (!m_ignoreMissingValues) {
+            throw new InvalidDataException("Not enough data columns in line " + lineNumber
+                    + " - cannot find column " + columnIndex);
+        }
+        m_statistics.addMissingValue();
+        return true;
+    }
+
+    /**
+     * Return true if the column's value is empty, and empty values are being ignored
+     */
+    private boolean isIgnoredEmpty(LineFields fields, int columnIndex) {
+        if (m_ignoreEmptyValues
+                && isBlank(fields.getChars(), fields.getStart(columnIndex), fields.getEnd(columnIndex))) {
+            m_statistics.addEmptyValue();
+            return true;
+        }
+        return false;
+    }
+
+    private void parseAllHeaders(LineFields fields) throws InvalidDataException {
+        String[] headers = parseHeaders(fields, m_yColumnIndexes);
         m_sink.headerParsed(headers);
 
         if (m_secondAxisSink != null) {
-            headers = parseHeaders(lineCpts, m_secondAxisYColumnIndexes);
+            headers = parseHeaders(fields, m_secondAxisYColumnIndexes);
             m_secondAxisSink.headerParsed(headers);
         }
     }
 
-    private String[] parseHeaders(String[] lineCpts, int[] columnIndexes) throws InvalidDataException {
+    private String[] parseHeaders(LineFields fields, int[] columnIndexes) throws InvalidDataException {
         String[] headers = new String[columnIndexes.length];
         for (int i = 0; i < columnIndexes.length; i++) {
-            try {
-                headers[i] = lineCpts[columnIndexes[i]];
-            } catch (ArrayIndexOutOfBoundsException e) {
-                if (!m_ignoreMissingValues) {
-                    throw new InvalidDataException("Not enough header columns - cannot find column "
-                            + columnIndexes[i]);
-                }
+            if (!fields.isMissing(columnIndexes[i])) {
+                headers[i] = fields.getField(columnIndexes[i]);
+            } else if (!m_ignoreMissingValues) {
+                throw new InvalidDataException("Not enough header columns - cannot find column " + columnIndexes[i]);
             }
         }
         headers = (String[])shrinkArray(headers, String.class);
         return headers;
     }
 
-    private Object[] parseYValues(String[] lineCpts, int[] columnIndexes, int lineNumber) throws InvalidDataException {
+    private Object[] parseYValues(LineFields fields, int[] columnIndexes, int lineNumber) throws InvalidDataException {
         Object[] values = new Object[columnIndexes.length];
 
         for (int i = 0; i < columnIndexes.length; i++) {
-            try {
-                values[i] = ParseUtils.parseValue(lineCpts[columnIndexes[i]], lineNumber);
-            } catch (ArrayIndexOutOfBoundsException e) {
-                if (!m_ignoreMissingValues) {
-                    throw new InvalidDataException("Not enough data columns in line " + lineNumber
-                            + " - cannot find column " + columnIndexes[i]);
-                }
-            } catch (InvalidDataException e) {
-                String dataValue = lineCpts[columnIndexes[i]].trim();
-                if (!m_ignoreEmptyValues || dataValue.length() > 0) {
-                    throw e;
-                }
+            if (!isMissing(fields, columnIndexes[i], lineNumber) && !isIgnoredEmpty(fields, columnIndexes[i])) {
+                values[i] = ParseUtils.parseValue(fields.getField(columnIndexes[i]), lineNumber);
             }
         }
         if (m_ignoreMissingValues) {
@@ -232,13 +749,45 @@ public abstract class AbstractDataParser implements DataParser {
         return values;
     }
 
-    private Object parseXValue(String[] lineCpts, int lineNumber) throws InvalidDataException {
-        assert m_xColumnIndex >= 0;
+    /**
+     * As for parseYValues(), but storing the values in the array provided, and setting m_missingValues.  Returns the
+     * number of values (which will be less than the number of columns if there are missing values at the end, and
+     * m_ignoreMissingValues is set)
+     */
+    private int parsePrimitiveYValues(LineFields fields, int[] columnIndexes, NumberParser[] parsers, double[] values,
+            int lineNumber) throws InvalidDataException {
+        long missingValues = 0;
+
+        char[] chars = fields.getChars();
+        for (int i = 0; i < columnIndexes.length; i++) {
+            if (isMissing(fields, columnIndexes[i], lineNumber) || isIgnoredEmpty(fields, columnIndexes[i])) {
+                missingValues |= 1L << i;
+            } else {
+                values[i] = parsers[i].parse(chars, fields.getStart(columnIndexes[i]), fields.getEnd(columnIndexes[i]),
+                        lineNumber);
+            }
+        }
+        m_missingValues = missingValues;
 
-        try {
-            return parseXValueImpl(lineCpts[m_xColumnIndex], lineNumber);
+        int valueCount = columnIndexes.length;
+        if (m_ignoreMissingValues) {
+            // as for shrinkArray()
+            while (valueCount > 0 && (missingValues & (1L << (valueCount - 1))) != 0) {
+                valueCount--;
+            }
+        }
+        return valueCount;
+    }
+
+    private Object parseXValue(LineFields fields, int lineNumber) throws InvalidDataException {
+        checkXColumn(fields, lineNumber);
+        return parseXValueImpl(fields.getField(m_xColumnIndex), lineNumber);
+    }
+
+    private void checkXColumn(LineFields fields, int lineNumber) throws InvalidDataException {
+        assert m_xColumnIndex >= 0;
 
-        } catch (ArrayIndexOutOfBoundsException e) {
+        if (fields.isMissing(m_xColumnIndex)) {
             throw new InvalidDataException("Not enough columns in line " + lineNumber
                     + " - cannot find timestamp column " + m_xColumnIndex);
         }
@@ -0,0 +1,257 @@
+/* (C) Copyright 2026, by John Dickson
+ *
+ * Project Info:  https://github.com/captsens/clichart
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2.1 of the License, or
+ * (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ */
+
+package net.sf.clichart.data;
+
+import java.util.Arrays;
+
+/**
+ * Base class for LineParsers which pick out named fields from structured lines (e.g. JSON or logfmt), rather than
+ * splitting the line into positional fields.  The fields requested become the columns, in the order given.
+ *
+ * <p>Subclasses scan each line once, recording the position of each field as it is found, and stop as soon as all the
+ * fields needed have been found.  Fields which the line doesn't have are returned as missing, and lines which have
+ * none of the fields (e.g. other log messages) are skipped by returning null.  If a field appears more than once in a
+ * line, its first value is used.  Values are left in the line buffer, unescaped in place if necessary, so no objects
+ * are created per line.
+ *
+ * <p>Note that this class is not threadsafe.
+ *
+ * @author johnd
+ */
+public abstract class AbstractNamedFieldLineParser implements FieldLineParser {
+
+    /* ========================================================================
+     *
+     * Class (static) variables.
+     */
+
+    /* ========================================================================
+     *
+     * Instance variables.
+     */
+
+    private final String[] m_fieldNames;
+
+    private final LineFields m_fields = new LineFields();
+
+    // position of each field in the line, or -1 if it hasn't been found
+    private final int[] m_starts;
+    private final int[] m_ends;
+
+    private boolean[] m_requiredColumns = null;
+
+    // number of fields which are needed, and the number of those found so far in the current line
+    private int m_neededCount;
+    private int m_foundCount = 0;
+
+    /* ========================================================================
+     *
+     * Constructors
+     */
+
+    protected AbstractNamedFieldLineParser(String[] fieldNames) {
+        assert fieldNames.length > 0;
+        m_fieldNames = fieldNames;
+        m_starts = new int[fieldNames.length];
+        m_ends = new int[fieldNames.length];
+        m_neededCount = fieldNames.length;
+    }
+
+    /* ========================================================================
+     *
+     * Static methods
+     */
+
+    /* ========================================================================
+     *
+     * Public methods
+     */
+
+    /**
+     * Return the values of the fields, or null if the line has none of them
+     */
+    public String[] parseLine(String line, int lineNumber) {
+        LineFields fields = parseFields(line, lineNumber);
+        return fields == null ? null : fields.toArray();
+    }
+
+    /**
+     * Return the fields of the line, or null if it has none of them
+     */
+    public LineFields parseFields(String line, int lineNumber) {
+        char[] chars = m_fields.prepare(line);
+        Arrays.fill(m_starts, -1);
+        m_foundCount = 0;
+        if (!scanLine(chars, line.length()) || m_foundCount == 0) {
+            return null;
+        }
+
+        for (int column = 0; column < m_fieldNames.length; column++) {
+            if (m_requiredColumns != null && column >= m_requiredColumns.length) {
+                break;
+            }
+            if (!isNeeded(column)) {
+                m_fields.addField(0, 0);
+            } else if (m_starts[column] < 0) {
+                m_fields.addMissingField();
+            } else {
+                m_fields.addField(m_starts[column], m_ends[column]);
+            }
+        }
+        return m_fields;
+    }
+
+    public void setRequiredColumns(boolean[] requiredColumns) {
+        m_requiredColumns = requiredColumns;
+        m_neededCount = 0;
+        for (int column = 0; column < m_fieldNames.length; column++) {
+            if (isNeeded(column)) {
+                m_neededCount++;
+            }
+        }
+    }
+
+    /* ========================================================================
+     *
+     * Protected / package-private methods
+     */
+
+    /**
+     * Scan the line, calling recordField() for each field needed as it is found
+     *
+     * @return false if the line isn't in the expected format, in which case it is skipped
+     */
+    protected abstract boolean scanLine(char[] chars, int length);
+
+    protected String[] getFieldNames() {
+        return m_fieldNames;
+    }
+
+    /**
+     * Return true if the column is needed, i.e. it should be recorded if found
+     */
+    protected boolean isNeeded(int column) {
+        return m_requiredColumns == null || (column < m_requiredColumns.length && m_requiredColumns[column]);
+    }
+
+    /**
+     * Record the position of a field in the line.  If a field appears more than once, the first value is used, since
+     * scanning stops once all the fields needed have been found.
+     */
+    protected void recordField(int column, int start, int end) {
+        if (m_starts[column] >= 0) {
+            return;
+        }
+        m_foundCount++;
+        m_starts[column] = start;
+        m_ends[column] = end;
+    }
+
+    /**
+     * Return true if all the fields needed have been found, so the rest of the line can be ignored
+     */
+    protected boolean isComplete() {
+        return m_foundCount == m_neededCount;
+    }
+
+    /**
+     * Return true if the name is the same as the characters chars[start] to chars[end - 1]
+     */
+    static boolean matches(String name, char[] chars, int start, int end) {
+        if (name.length() != end - start) {
+            return false;
+        }
+        for (int i = 0; i < name.length(); i++) {
+            if (name.charAt(i) != chars[start + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Unescape a quoted value in place, handling the JSON escapes (\" \\ \/ \b \f \n \r \t and \\uXXXX).  Any other
+     * escaped character is left as the character itself.
+     *
+     * @return the new end of the value
+     */
+    static int unescape(char[] chars, int start, int end) {
+        int out = start;
+        for (int in = start; in < end; in++) {
+            char c = chars[in];
+            if (c == '\\' && in + 1 < end) {
+                in++;
+                c = chars[in];
+                switch (c) {
+                case 'b':
+                    c = '\b';
+                    break;
+                case 'f':
+                    c = '\f';
+                    break;
+                case 'n':
+                    c = '\n';
+                    break;
+                case 'r':
+                    c = '\r';
+                    break;
+                case 't':
+                    c = '\t';
+                    break;
+                case 'u':
+                    int code = parseHex(chars, in + 1, end);
+                    if (code >= 0) {
+                        c = (char) code;
+                        in += 4;
+                    }
+                    break;
+                default:
+                    break;
+                }
+            }
+            chars[out++] = c;
+        }
+        return out;
+    }
+
+    /* ========================================================================
+     *
+     * Private methods
+     */
+
+    /**
+     * Return the value of the 4 hex digits starting at the index, or -1 if there aren't 4 hex digits
+     */
+    private static int parseHex(char[] chars, int start, int end) {
+        if (start + 4 > end) {
+            return -1;
+        }
+        int value = 0;
+        for (int i = start; i < start + 4; i++) {
+            int digit = Character.digit(chars[i], 16);
+            if (digit < 0) {
+                return -1;
+            }
+            value = value * 16 + digit;
+        }
+        return value;
+    }
+}
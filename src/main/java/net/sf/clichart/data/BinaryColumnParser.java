@@ -0,0 +1,351 @@
+/* (C) Copyright 2026, by John Dickson
+ *
+ * Project Info:  https://github.com/captsens/clichart
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2.1 of the License, or
+ * (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ */
+
+package net.sf.clichart.data;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+/**
+ * Parses data in a simple binary columnar format, passing the values straight to PrimitiveDataSinks without any text
+ * formatting or parsing.  Intended for large intermediate data passed from one tool to another, e.g. by the Python
+ * tools' --binary option (see BinaryColumnWriter in statslib.py) or by BinaryColumnWriter.
+ *
+ * <p>The stream is in little-endian byte order, and consists of:
+ * <ul>
+ * <li> The 8 bytes of MAGIC, then the number of columns as an int
+ * <li> For each column, its type (a byte - TYPE_LONG or TYPE_DOUBLE), then its name as an int length followed by that
+ *      many bytes of UTF-8
+ * <li> Blocks of rows, each consisting of the number of rows as an int, then for each column in turn the values for
+ *      those rows, as 8-byte longs or doubles
+ * <li> A block with no rows, or the end of the stream
+ * </ul>
+ *
+ * <p>A NaN in a double column is a missing value.  The x column (if any) holds values in the same units as for text
+ * data - e.g. milliseconds since the epoch for time-based data - which can be scaled, e.g. for epoch seconds.  Where
+ * there is no x column the row number is used, as for line numbers with text data.  The column names are passed to
+ * the sinks as headers.
+ *
+ * <p>Note that this class is not threadsafe.
+ *
+ * @author johnd
+ */
+public class BinaryColumnParser {
+
+    /* ========================================================================
+     *
+     * Class (static) variables.
+     */
+
+    public static final byte[] MAGIC = {'C', 'L', 'I', 'C', 'O', 'L', 'S', '1'};
+
+    public static final byte TYPE_LONG = 0;
+    public static final byte TYPE_DOUBLE = 1;
+
+    static final Charset UTF8 = Charset.forName("UTF-8");
+
+    // limits on the header and block sizes, so that a corrupt stream can't cause huge allocations
+    private static final int MAX_COLUMNS = 4096;
+    private static final int MAX_NAME_LENGTH = 4096;
+    private static final int MAX_BLOCK_BYTES = 64 * 1024 * 1024;
+
+    /* ========================================================================
+     *
+     * Instance variables.
+     */
+
+    private final int m_xColumnIndex;
+
+    // multiplier converting the x column's values to x axis units
+    private final double m_xScale;
+
+    private final int[] m_yColumnIndexes;
+    private final PrimitiveDataSink m_sink;
+
+    private int[] m_secondAxisYColumnIndexes = null;
+    private PrimitiveDataSink m_secondAxisSink = null;
+
+    private final ParseStatistics m_statistics = new ParseStatistics();
+
+    // from the stream's header
+    private byte[] m_columnTypes = null;
+    private String[] m_columnNames = null;
+
+    // the values of the current block, by column (null for the columns which aren't charted)
+    private double[][] m_blockValues = null;
+
+    private byte[] m_blockBytes = new byte[0];
+
+    /* ========================================================================
+     *
+     * Constructors
+     */
+
+    /**
+     * @param xColumnIndex  Index of the x column, or -1 to use the row number
+     * @param xScale  Multiplier converting the x column's values to x axis units (1 if they are already in those units)
+     */
+    public BinaryColumnParser(int xColumnIndex, double xScale, int[] yColumnIndexes, PrimitiveDataSink sink) {
+        assert xColumnIndex >= -1;
+        m_xColumnIndex = xColumnIndex;
+        m_xScale = xScale;
+
+        assert yColumnIndexes.length > 0 && yColumnIndexes.length <= PrimitiveDataSink.MAX_VALUES;
+        m_yColumnIndexes = yColumnIndexes;
+
+        assert sink != null;
+        m_sink = sink;
+    }
+
+    /* ========================================================================
+     *
+     * Static methods
+     */
+
+    /* ========================================================================
+     *
+     * Public methods
+     */
+
+    /**
+     * Configure parsing for values to be displayed on a second axis on the chart.
+     */
+    public void addSecondAxis(int[] yColumnIndexes, PrimitiveDataSink sink) {
+        assert yColumnIndexes.length > 0 && yColumnIndexes.length <= PrimitiveDataSink.MAX_VALUES;
+        m_secondAxisYColumnIndexes = yColumnIndexes;
+
+        assert sink != null;
+        m_secondAxisSink = sink;
+    }
+
+    public ParseStatistics getStatistics() {
+        return m_statistics;
+    }
+
+    /**
+     * Parse the stream, passing all rows to the sinks.  The stream is not closed.
+     */
+    public void parse(InputStream source) throws IOException, InvalidDataException {
+        readHeader(source);
+        m_sink.headerParsed(getNames(m_yColumnIndexes));
+        if (m_secondAxisSink != null) {
+            m_secondAxisSink.headerParsed(getNames(m_secondAxisYColumnIndexes));
+        }
+
+        double[] yValues = new double[m_yColumnIndexes.length];
+        double[] secondAxisYValues = m_secondAxisSink == null ? null : new double[m_secondAxisYColumnIndexes.length];
+        int rowNumber = 1;
+        int rowCount;
+        while ((rowCount = readBlock(source, rowNumber)) > 0) {
+            double[] xValues = m_xColumnIndex >= 0 ? m_blockValues[m_xColumnIndex] : null;
+            for (int row = 0; row < rowCount; row++, rowNumber++) {
+                double xValue = rowNumber;
+                if (xValues != null) {
+                    xValue = xValues[row];
+                    if (Double.isNaN(xValue)) {
+                        throw new InvalidDataException("Missing x value in row " + rowNumber);
+                    }
+                    xValue *= m_xScale;
+                }
+                passValues(m_sink, xValue, m_yColumnIndexes, yValues, row, rowNumber);
+                if (m_secondAxisSink != null) {
+                    passValues(m_secondAxisSink, xValue, m_secondAxisYColumnIndexes, secondAxisYValues, row,
+                            rowNumber);
+                }
+            }
+        }
+
+        m_sink.parsingFinished();
+        if (m_secondAxisSink != null) {
+            m_secondAxisSink.parsingFinished();
+        }
+    }
+
+    /* ========================================================================
+     *
+     * Protected / package-private methods
+     */
+
+    /* ========================================================================
+     *
+     * Private methods
+     */
+
+    private void readHeader(InputStream source) throws IOException, InvalidDataException {
+        byte[] magic = new byte[MAGIC.length];
+        if (readFully(source, magic, MAGIC.length) < MAGIC.length || !Arrays.equals(magic, MAGIC)) {
+            throw new InvalidDataException("Input is not in the binary column format");
+        }
+
+        int columnCount = readInt(source);
+        if (columnCount <= 0 || columnCount > MAX_COLUMNS) {
+            throw new InvalidDataException("Invalid number of columns in binary input: " + columnCount);
+        }
+        m_columnTypes = new byte[columnCount];
+        m_columnNames = new String[columnCount];
+        for (int i = 0; i < columnCount; i++) {
+            m_columnTypes[i] = readBytes(source, 1)[0];
+            if (m_columnTypes[i] != TYPE_LONG && m_columnTypes[i] != TYPE_DOUBLE) {
+                throw new InvalidDataException("Invalid type for column " + i + " of binary input: "
+                        + m_columnTypes[i]);
+            }
+            int nameLength = readInt(source);
+            if (nameLength < 0 || nameLength > MAX_NAME_LENGTH) {
+                throw new InvalidDataException("Invalid name length for column " + i + " of binary input: "
+                        + nameLength);
+            }
+            m_columnNames[i] = new String(readBytes(source, nameLength), UTF8);
+        }
+
+        m_blockValues = new double[columnCount][];
+        checkColumn(m_xColumnIndex, columnCount);
+        checkColumns(m_yColumnIndexes, columnCount);
+        if (m_secondAxisSink != null) {
+            checkColumns(m_secondAxisYColumnIndexes, columnCount);
+        }
+    }
+
+    private void checkColumns(int[] columnIndexes, int columnCount) throws InvalidDataException {
+        for (int i = 0; i < columnIndexes.length; i++) {
+            checkColumn(columnIndexes[i], columnCount);
+        }
+    }
+
+    /**
+     * Check that the column is in the input, and mark it as needing to be decoded
+     */
+    private void checkColumn(int columnIndex, int columnCount) throws InvalidDataException {
+        if (columnIndex < 0) {
+            return;
+        }
+        if (columnIndex >= columnCount) {
+            throw new InvalidDataException("Binary input has only " + columnCount + " columns - cannot find column "
+                    + columnIndex);
+        }
+        if (m_blockValues[columnIndex] == null) {
+            m_blockValues[columnIndex] = new double[0];
+        }
+    }
+
+    private String[] getNames(int[] columnIndexes) {
+        String[] names = new String[columnIndexes.length];
+        for (int i = 0; i < columnIndexes.length; i++) {
+            names[i] = m_columnNames[columnIndexes[i]];
+        }
+        return names;
+    }
+
+    /**
+     * Read the next block, decoding the charted columns into m_blockValues.  Returns the number of rows in the block,
+     * or 0 at the end of the stream.
+     */
+    private int readBlock(InputStream source, int rowNumber) throws IOException, InvalidDataException {
+        byte[] rowCountBytes = new byte[4];
+        int bytesRead = readFully(source, rowCountBytes, 4);
+        if (bytesRead == 0) {
+            return 0;
+        } else if (bytesRead < 4) {
+            throw new InvalidDataException("Binary input ends part way through the block starting at row "
+                    + rowNumber);
+        }
+        int rowCount = ByteBuffer.wrap(rowCountBytes).order(ByteOrder.LITTLE_ENDIAN).getInt();
+        int columnCount = m_columnTypes.length;
+        if (rowCount < 0 || (long) rowCount * columnCount * 8 > MAX_BLOCK_BYTES) {
+            throw new InvalidDataException("Invalid number of rows in binary input block starting at row "
+                    + rowNumber + ": " + rowCount);
+        }
+
+        int blockLength = rowCount * columnCount * 8;
+        if (m_blockBytes.length < blockLength) {
+            m_blockBytes = new byte[blockLength];
+        }
+        if (readFully(source, m_blockBytes, blockLength) < blockLength) {
+            throw new InvalidDataException("Binary input ends part way through the block starting at row "
+                    + rowNumber);
+        }
+
+        ByteBuffer block = ByteBuffer.wrap(m_blockBytes, 0, blockLength).order(ByteOrder.LITTLE_ENDIAN);
+        for (int column = 0; column < columnCount; column++) {
+            double[] values = m_blockValues[column];
+            if (values == null) {
+                continue;
+            }
+            if (values.length < rowCount) {
+                values = new double[rowCount];
+                m_blockValues[column] = values;
+            }
+            block.position(column * rowCount * 8);
+            if (m_columnTypes[column] == TYPE_DOUBLE) {
+                block.slice().order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer().get(values, 0, rowCount);
+            } else {
+                for (int row = 0; row < rowCount; row++) {
+                    values[row] = block.getLong();
+                }
+            }
+        }
+        return rowCount;
+    }
+
+    private void passValues(PrimitiveDataSink sink, double xValue, int[] columnIndexes, double[] values, int row,
+            int rowNumber) throws InvalidDataException {
+        long missingValues = 0;
+        for (int i = 0; i < columnIndexes.length; i++) {
+            values[i] = m_blockValues[columnIndexes[i]][row];
+            if (Double.isNaN(values[i])) {
+                missingValues |= 1L << i;
+                m_statistics.addEmptyValue();
+            }
+        }
+        sink.dataParsed(xValue, values, missingValues, columnIndexes.length, rowNumber);
+    }
+
+    private int readInt(InputStream source) throws IOException, InvalidDataException {
+        return ByteBuffer.wrap(readBytes(source, 4)).order(ByteOrder.LITTLE_ENDIAN).getInt();
+    }
+
+    private byte[] readBytes(InputStream source, int length) throws IOException, InvalidDataException {
+        byte[] bytes = new byte[length];
+        if (readFully(source, bytes, length) < length) {
+            throw new InvalidDataException("Binary input ends part way through its header");
+        }
+        return bytes;
+    }
+
+    /**
+     * Read length bytes into the buffer, returning the number read (which is less than length only if the stream
+     * ended first)
+     */
+    private int readFully(InputStream source, byte[] buffer, int length) throws IOException {
+        int offset = 0;
+        while (offset < length) {
+            int bytesRead = source.read(buffer, offset, length - offset);
+            if (bytesRead < 0) {
+                break;
+            }
+            offset += bytesRead;
+        }
+        return offset;
+    }
+}
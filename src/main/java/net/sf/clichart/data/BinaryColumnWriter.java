@@ -0,0 +1,166 @@
+/* (C) Copyright 2026, by John Dickson
+ *
+ * Project Info:  https://github.com/captsens/clichart
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2.1 of the License, or
+ * (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ */
+
+package net.sf.clichart.data;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Writes rows of values in the binary columnar format read by BinaryColumnParser.  Rows are buffered, and written as
+ * a block whenever enough have been buffered.
+ *
+ * <p>Note that this class is not threadsafe.
+ *
+ * @author johnd
+ */
+public class BinaryColumnWriter {
+
+    /* ========================================================================
+     *
+     * Class (static) variables.
+     */
+
+    public static final int DEFAULT_BLOCK_ROWS = 8192;
+
+    /* ========================================================================
+     *
+     * Instance variables.
+     */
+
+    private final OutputStream m_target;
+
+    private final byte[] m_columnTypes;
+
+    private final int m_blockRows;
+
+    // the values of the buffered rows, by column
+    private final ByteBuffer[] m_columns;
+
+    private int m_rowCount = 0;
+
+    /* ========================================================================
+     *
+     * Constructors
+     */
+
+    public BinaryColumnWriter(OutputStream target, String[] columnNames, byte[] columnTypes) throws IOException {
+        this(target, columnNames, columnTypes, DEFAULT_BLOCK_ROWS);
+    }
+
+    /**
+     * Constructor allowing small blocks, for testing.  Writes the header immediately.
+     *
+     * @param columnTypes  The type of each column - BinaryColumnParser.TYPE_LONG or TYPE_DOUBLE
+     */
+    BinaryColumnWriter(OutputStream target, String[] columnNames, byte[] columnTypes, int blockRows)
+            throws IOException {
+        assert target != null;
+        m_target = target;
+
+        assert columnNames.length > 0 && columnNames.length == columnTypes.length;
+        m_columnTypes = columnTypes;
+
+        assert blockRows > 0;
+        m_blockRows = blockRows;
+
+        m_columns = new ByteBuffer[columnTypes.length];
+        for (int i = 0; i < m_columns.length; i++) {
+            m_columns[i] = ByteBuffer.allocate(blockRows * 8).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        writeHeader(columnNames);
+    }
+
+    /* ========================================================================
+     *
+     * Static methods
+     */
+
+    /* ========================================================================
+     *
+     * Public methods
+     */
+
+    /**
+     * Write a row.  Values for long columns are truncated, and NaN is a missing value (only allowed for double
+     * columns).
+     */
+    public void writeRow(double[] values) throws IOException {
+        assert values.length == m_columns.length;
+        for (int i = 0; i < m_columns.length; i++) {
+            if (m_columnTypes[i] == BinaryColumnParser.TYPE_LONG) {
+                m_columns[i].putLong((long) values[i]);
+            } else {
+                m_columns[i].putDouble(values[i]);
+            }
+        }
+        if (++m_rowCount == m_blockRows) {
+            writeBlock();
+        }
+    }
+
+    /**
+     * Write any buffered rows and the end of the stream, and flush the stream.  The stream is not closed.
+     */
+    public void finish() throws IOException {
+        writeBlock();
+        m_target.write(intBytes(0));
+        m_target.flush();
+    }
+
+    /* ========================================================================
+     *
+     * Protected / package-private methods
+     */
+
+    /* ========================================================================
+     *
+     * Private methods
+     */
+
+    private void writeHeader(String[] columnNames) throws IOException {
+        m_target.write(BinaryColumnParser.MAGIC);
+        m_target.write(intBytes(columnNames.length));
+        for (int i = 0; i < columnNames.length; i++) {
+            byte[] name = columnNames[i].getBytes(BinaryColumnParser.UTF8);
+            m_target.write(m_columnTypes[i]);
+            m_target.write(intBytes(name.length));
+            m_target.write(name);
+        }
+    }
+
+    private void writeBlock() throws IOException {
+        if (m_rowCount == 0) {
+            return;
+        }
+        m_target.write(intBytes(m_rowCount));
+        for (int i = 0; i < m_columns.length; i++) {
+            m_target.write(m_columns[i].array(), 0, m_columns[i].position());
+            m_columns[i].clear();
+        }
+        m_rowCount = 0;
+    }
+
+    private byte[] intBytes(int value) {
+        return ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN).putInt(value).array();
+    }
+}
@@ -0,0 +1,364 @@
+/* (C) Copyright 2026, by John Dickson
+ *
+ * Project Info:  https://github.com/captsens/clichart
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2.1 of the License, or
+ * (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ */
+
+package net.sf.clichart.data;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+
+/**
+ * Reads lines from a file (or a range of bytes within a file) through a large direct buffer, finding line boundaries
+ * on the raw bytes.
+ *
+ * <p>Blank lines (those consisting only of white space) are counted but skipped without ever being decoded, so only
+ * lines containing data are turned into Strings.  Line endings are LF, CR or CRLF, as for BufferedReader.
+ *
+ * <p>Optionally, lines which don't contain some text can also be skipped without being decoded (see
+ * {@link #setLineFilter}).
+ *
+ * <p>Only suitable for character sets in which the line terminators and ASCII white space are single bytes (see
+ * {@link #isAsciiCompatible}).
+ *
+ * <p>Note that this class is not threadsafe, although several readers may share the same FileChannel.
+ *
+ * @author johnd
+ */
+public class ByteLineReader {
+
+    /* ========================================================================
+     *
+     * Class (static) variables.
+     */
+
+    public static final int DEFAULT_BUFFER_SIZE = 4 * 1024 * 1024;
+
+    private static final byte LF = '\n';
+    private static final byte CR = '\r';
+
+    /* ========================================================================
+     *
+     * Instance variables.
+     */
+
+    /** Channel to read from, or null if all the data is already in the buffer */
+    private final FileChannel m_channel;
+
+    /** File position for the next read from the channel */
+    private long m_position;
+
+    /** File position at which reading stops */
+    private final long m_end;
+
+    private final ByteBuffer m_buffer;
+
+    private final Charset m_charset;
+
+    // holds the bytes of the line being decoded, plus any partial line carried over when the buffer is refilled
+    private byte[] m_lineBytes = new byte[256];
+    private int m_pendingLength = 0;
+    private boolean m_pendingNonBlank = false;
+
+    // 1-based number of the last line read
+    private int m_lineNumber;
+
+    // bytes which a line must contain to be returned, or null if lines aren't filtered
+    private byte[] m_requiredBytes = null;
+
+    private int m_unmatchedLines = 0;
+
+    // set if the last line ended with a CR, in which case a following LF is part of the same line ending
+    private boolean m_skipLineFeed = false;
+
+    private boolean m_endOfInput = false;
+
+    /* ========================================================================
+     *
+     * Constructors
+     */
+
+    /**
+     * Read lines from a range of bytes in a file.  Note that start and end should be at line boundaries.
+     *
+     * @param firstLineNumber  The 1-based line number of the first line in the range
+     */
+    public ByteLineReader(FileChannel channel, long start, long end, int firstLineNumber, Charset charset) {
+        this(channel, start, end, firstLineNumber, charset, DEFAULT_BUFFER_SIZE);
+    }
+
+    public ByteLineReader(FileChannel channel, long start, long end, int firstLineNumber, Charset charset,
+            int bufferSize) {
+        assert channel != null;
+        assert start <= end;
+        m_channel = channel;
+        m_position = start;
+        m_end = end;
+        m_lineNumber = firstLineNumber - 1;
+        m_charset = charset;
+
+        m_buffer = ByteBuffer.allocateDirect((int) Math.max(1, Math.min(bufferSize, end - start)));
+        m_buffer.limit(0);
+    }
+
+    /**
+     * Read lines from bytes that are already in memory (e.g. a mapped region of a file).  The buffer's position and
+     * limit delimit the lines to read.
+     */
+    public ByteLineReader(ByteBuffer bytes, int firstLineNumber, Charset charset) {
+        m_channel = null;
+        m_position = 0;
+        m_end = 0;
+        m_buffer = bytes;
+        m_lineNumber = firstLineNumber - 1;
+        m_charset = charset;
+        m_endOfInput = true;
+    }
+
+    /* ========================================================================
+     *
+     * Static methods
+     */
+
+    /**
+     * Return true if the character set can be read by this class
+     */
+    public static boolean isAsciiCompatible(Charset charset) {
+        byte[] bytes = " \t\r\n".getBytes(charset);
+        return bytes.length == 4 && bytes[0] == ' ' && bytes[1] == '\t' && bytes[2] == CR && bytes[3] == LF;
+    }
+
+    /* ========================================================================
+     *
+     * Public methods
+     */
+
+    /**
+     * Skip lines which don't contain the text, as well as blank lines.  Only ASCII text can be found before lines are
+     * decoded, so other text is ignored (i.e. lines aren't filtered).
+     *
+     * @param requiredText  Text which each line returned must contain, or null to return all lines which aren't blank
+     */
+    public void setLineFilter(String requiredText) {
+        m_requiredBytes = null;
+        if (requiredText == null || requiredText.length() == 0) {
+            return;
+        }
+        byte[] bytes = new byte[requiredText.length()];
+        for (int i = 0; i < bytes.length; i++) {
+            char c = requiredText.charAt(i);
+            if (c > 0x7f) {
+                return;
+            }
+            bytes[i] = (byte) c;
+        }
+        m_requiredBytes = bytes;
+    }
+
+    /**
+     * Return the number of lines skipped so far because they didn't contain the text given to setLineFilter()
+     */
+    public int getUnmatchedLines() {
+        return m_unmatchedLines;
+    }
+
+    /**
+     * Return the next line which isn't blank (without its line terminator), or null if there are no more lines.  If
+     * there is a line filter, lines which don't pass it are also skipped.
+     */
+    public String readLine() throws IOException {
+        while (true) {
+            if (!m_buffer.hasRemaining() && !fill()) {
+                if (m_pendingLength == 0) {
+                    return null;
+                }
+                // last line has no terminator
+                m_lineNumber++;
+                boolean nonBlank = m_pendingNonBlank;
+                int length = m_pendingLength;
+                m_pendingLength = 0;
+                m_pendingNonBlank = false;
+                if (nonBlank && passesFilter(length)) {
+                    return new String(m_lineBytes, 0, length, m_charset);
+                }
+                return null;
+            }
+
+            if (m_skipLineFeed) {
+                m_skipLineFeed = false;
+                if (m_buffer.get(m_buffer.position()) == LF) {
+                    m_buffer.position(m_buffer.position() + 1);
+                    continue;
+                }
+            }
+
+            int start = m_buffer.position();
+            int limit = m_buffer.limit();
+            boolean nonBlank = m_pendingNonBlank;
+            int index = start;
+            byte terminator = 0;
+            for (; index < limit; index++) {
+                byte b = m_buffer.get(index);
+                if (b == LF || b == CR) {
+                    terminator = b;
+                    break;
+                }
+                if ((b & 0xff) > ' ') {
+                    nonBlank = true;
+                }
+            }
+
+            if (terminator == 0) {
+                // no line end in the buffer - carry the partial line over and refill
+                appendPending(start, limit - start);
+                m_pendingNonBlank = nonBlank;
+                m_buffer.position(limit);
+                continue;
+            }
+
+            m_lineNumber++;
+            m_buffer.position(index + 1);
+            if (terminator == CR) {
+                m_skipLineFeed = true;
+            }
+
+            int pendingLength = m_pendingLength;
+            m_pendingLength = 0;
+            m_pendingNonBlank = false;
+            if (!nonBlank) {
+                continue;
+            }
+
+            int length = pendingLength + index - start;
+            ensureLineCapacity(length, pendingLength);
+            m_buffer.position(start);
+            m_buffer.get(m_lineBytes, pendingLength, index - start);
+            m_buffer.position(index + 1);
+            if (!passesFilter(length)) {
+                continue;
+            }
+            return new String(m_lineBytes, 0, length, m_charset);
+        }
+    }
+
+    /**
+     * Return the 1-based line number of the line last returned by readLine()
+     */
+    public int getLineNumber() {
+        return m_lineNumber;
+    }
+
+    /**
+     * Return the position in the file just after the line last returned by readLine() and its line terminator (but
+     * not the LF of a CRLF).  Only valid when reading from a channel.
+     */
+    public long getPosition() {
+        assert m_channel != null;
+        return m_position - m_buffer.remaining();
+    }
+
+    /* ========================================================================
+     *
+     * Protected / package-private methods
+     */
+
+    /* ========================================================================
+     *
+     * Private methods
+     */
+
+    /**
+     * Refill the (empty) buffer from the channel.  Returns false if there is no more input
+     */
+    private boolean fill() throws IOException {
+        if (m_endOfInput) {
+            return false;
+        }
+        m_buffer.clear();
+        long remaining = m_end - m_position;
+        if (remaining < m_buffer.capacity()) {
+            m_buffer.limit((int) remaining);
+        }
+        while (m_buffer.hasRemaining()) {
+            int bytesRead = m_channel.read(m_buffer, m_position);
+            if (bytesRead < 0) {
+                break;
+            }
+            m_position += bytesRead;
+        }
+        m_buffer.flip();
+        if (m_position >= m_end || m_buffer.limit() < m_buffer.capacity()) {
+            m_endOfInput = true;
+        }
+        return m_buffer.hasRemaining();
+    }
+
+    /**
+     * Return true if the line in m_lineBytes contains the bytes required by the filter (if any), otherwise count it as
+     * unmatched
+     */
+    private boolean passesFilter(int length) {
+        if (m_requiredBytes == null || indexOf(m_lineBytes, length, m_requiredBytes) >= 0) {
+            return true;
+        }
+        m_unmatchedLines++;
+        return false;
+    }
+
+    /**
+     * Return the index of the first occurrence of the target in the first length bytes of the source, or -1
+     */
+    private static int indexOf(byte[] source, int length, byte[] target) {
+        byte first = target[0];
+        int last = length - target.length;
+        for (int i = 0; i <= last; i++) {
+            if (source[i] != first) {
+                continue;
+            }
+            int j = 1;
+            while (j < target.length && source[i + j] == target[j]) {
+                j++;
+            }
+            if (j == target.length) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void appendPending(int bufferIndex, int length) {
+        ensureLineCapacity(m_pendingLength + length, m_pendingLength);
+        m_buffer.position(bufferIndex);
+        m_buffer.get(m_lineBytes, m_pendingLength, length);
+        m_pendingLength += length;
+    }
+
+    /**
+     * Make sure m_lineBytes can hold a line of the length, keeping the first keptLength bytes already in it (i.e. the
+     * part of the line carried over from the previous buffer)
+     */
+    private void ensureLineCapacity(int length, int keptLength) {
+        if (m_lineBytes.length < length) {
+            byte[] lineBytes = new byte[Math.max(length, m_lineBytes.length * 2)];
+            System.arraycopy(m_lineBytes, 0, lineBytes, 0, keptLength);
+            m_lineBytes = lineBytes;
+        }
+    }
+}
@@ -0,0 +1,207 @@
+/* (C) Copyright 2026, by John Dickson
+ *
+ * Project Info:  https://github.com/captsens/clichart
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2.1 of the License, or
+ * (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ */
+
+package net.sf.clichart.data;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * Passes chunks of input which have been parsed on other threads to the real sinks, in order.  Shared by the parsers
+ * which split their input into chunks of whole lines.
+ *
+ * <p>Each chunk is parsed in the background by its own data parser (from a DataParserFactory) into a RecordBatch,
+ * with line numbers relative to the start of the chunk.  The chunks must then be passed to sequence() in input order,
+ * which replays the batches into the real sinks with their line numbers adjusted.
+ *
+ * <p>Until the header has been found, or if parsing a chunk fails, the chunk is instead parsed again directly by the
+ * main data parser.  This means that the header is handled as normal, and that lines before an error are passed on
+ * and the exception thrown (including its line number) is exactly as for sequential parsing.
+ *
+ * <p>Note that sequence() is not threadsafe, although tasks may be created on any thread.
+ *
+ * @author johnd
+ */
+class ChunkSequencer {
+
+    /* ========================================================================
+     *
+     * Class (static) variables.
+     */
+
+    /* ========================================================================
+     *
+     * Instance variables.
+     */
+
+    private final DataParserFactory m_factory;
+
+    /** Parser with the real sinks */
+    private final AbstractDataParser m_parser;
+
+    private final Charset m_charset;
+
+    // number of lines (including blank lines) in the chunks sequenced so far
+    private int m_lineCount = 0;
+
+    /* ========================================================================
+     *
+     * Constructors
+     */
+
+    public ChunkSequencer(DataParserFactory factory, AbstractDataParser parser, Charset charset) {
+        assert factory != null;
+        m_factory = factory;
+
+        assert parser.usesPrimitiveSinks();
+        m_parser = parser;
+        m_charset = charset;
+    }
+
+    /* ========================================================================
+     *
+     * Static methods
+     */
+
+    /* ========================================================================
+     *
+     * Public methods
+     */
+
+    /**
+     * Return a task which parses the chunk in the background.  The position and limit of the bytes delimit the chunk,
+     * and are not changed.
+     */
+    public Callable<ChunkResult> createTask(final ByteBuffer bytes) {
+        final boolean hasSecondAxis = m_parser.getSecondAxisSink() != null;
+        return new Callable<ChunkResult>() {
+            public ChunkResult call() throws Exception {
+                RecordBatch batch = new RecordBatch();
+                RecordBatch secondAxisBatch = hasSecondAxis ? new RecordBatch() : null;
+                AbstractDataParser parser = m_factory.createDataParser(batch, secondAxisBatch);
+                parser.ignoreHeader();
+
+                ByteLineReader reader = new ByteLineReader(bytes.duplicate(), 1, m_charset);
+                parser.parseLines(reader);
+                return new ChunkResult(batch, secondAxisBatch, reader.getLineNumber(), parser.getStatistics());
+            }
+        };
+    }
+
+    /**
+     * Pass the next chunk to the real sinks.
+     *
+     * @param result  Result of the task from createTask(), or null to parse the chunk directly
+     * @param bytes  The bytes of the chunk, as passed to createTask()
+     */
+    public void sequence(Future<ChunkResult> result, ByteBuffer bytes) throws IOException, InvalidDataException {
+        // if the header hasn't been found yet (i.e. the chunks so far were blank), the chunk must be parsed directly
+        // so the header is found
+        ChunkResult chunkResult = null;
+        if (result != null && !m_parser.isExpectingHeader()) {
+            chunkResult = getResult(result);
+        }
+
+        if (chunkResult == null) {
+            ByteLineReader reader = new ByteLineReader(bytes.duplicate(), m_lineCount + 1, m_charset);
+            m_parser.parseLines(reader);
+            m_lineCount = reader.getLineNumber();
+        } else {
+            chunkResult.replay((PrimitiveDataSink) m_parser.getSink(),
+                    (PrimitiveDataSink) m_parser.getSecondAxisSink(), m_lineCount, m_parser.isLineNumberX());
+            m_lineCount += chunkResult.m_lineCount;
+            m_parser.setLineCount(m_lineCount);
+            m_parser.getStatistics().add(chunkResult.m_statistics);
+        }
+    }
+
+    /* ========================================================================
+     *
+     * Protected / package-private methods
+     */
+
+    /* ========================================================================
+     *
+     * Private methods
+     */
+
+    /**
+     * Return the result of parsing a chunk, or null if parsing failed (in which case it should be parsed again
+     * directly, to report the error correctly)
+     */
+    private ChunkResult getResult(Future<ChunkResult> result) throws IOException {
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while parsing");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            return null;
+        }
+    }
+
+    /* ========================================================================
+     *
+     * Inner classes
+     */
+
+    /**
+     * The results of parsing a chunk in the background
+     */
+    static class ChunkResult {
+
+        private final RecordBatch m_batch;
+        private final RecordBatch m_secondAxisBatch;
+
+        // number of lines in the chunk, including blank lines
+        private final int m_lineCount;
+
+        private final ParseStatistics m_statistics;
+
+        public ChunkResult(RecordBatch batch, RecordBatch secondAxisBatch, int lineCount,
+                ParseStatistics statistics) {
+            m_batch = batch;
+            m_secondAxisBatch = secondAxisBatch;
+            m_lineCount = lineCount;
+            m_statistics = statistics;
+        }
+
+        /**
+         * Pass the lines to the sinks, in the same order as the data parser would have
+         */
+        public void replay(PrimitiveDataSink sink, PrimitiveDataSink secondAxisSink, int lineOffset,
+                boolean lineNumberIsX) throws InvalidDataException {
+            while (m_batch.hasNext()) {
+                m_batch.replayNext(sink, lineOffset, lineNumberIsX);
+                if (m_secondAxisBatch != null) {
+                    m_secondAxisBatch.replayNext(secondAxisSink, lineOffset, lineNumberIsX);
+                }
+            }
+        }
+    }
+}
@@ -20,11 +20,6 @@
 
 package net.sf.clichart.data;
 
-import com.csvreader.CsvReader;
-
-import java.io.StringReader;
-import java.io.IOException;
-
 /**
  * A line parser for CSV data.  Should cope with: <ul>
  * <li> Ordinary CSV lines
@@ -32,13 +27,14 @@ import java.io.IOException;
  * <li> Quoting of double quotes by repeating ("")
  * </ul>
  *
- * <p>Uses the CSV parsing library from javacsv on SourceForge (LGPL).  It's a bit inefficient, since that parser
- * expects to have full control of the stream (rather than doing it line-by-line, but it was very efficient in
- * development time :)
+ * <p>Uses a CsvTokenizer, which splits each line into a reused LineFields object, so parseFields() doesn't create any
+ * objects per line.
+ *
+ * <p>Note that this class is not threadsafe.
  *
  * @author johnd
  */
-public class CsvLineParser implements LineParser {
+public class CsvLineParser implements FieldLineParser {
 
     /* ========================================================================
      *
@@ -50,6 +46,12 @@ public class CsvLineParser implements LineParser {
      * Instance variables.
      */
 
+    private final CsvTokenizer m_tokenizer = new CsvTokenizer();
+
+    private final LineFields m_fields = new LineFields();
+
+    private boolean[] m_requiredColumns = null;
+
     /* ========================================================================
      *
      * Constructors
@@ -65,14 +67,17 @@ public class CsvLineParser implements LineParser {
      * Public methods
      */
 
-    public String[] parseLine(String line, int lineNumber) throws InvalidDataException {
-        CsvReader csvParser = new CsvReader(new StringReader(line));
-        try {
-            csvParser.readRecord();
-            return csvParser.getValues();
-        } catch (IOException e) {
-            throw new InvalidDataException("Failed to parse line number " + lineNumber + " as CSV: " + e.toString());
-        }
+    public String[] parseLine(String line, int lineNumber) {
+        return parseFields(line, lineNumber).toArray();
+    }
+
+    public LineFields parseFields(String line, int lineNumber) {
+        m_tokenizer.tokenize(line, m_fields, m_requiredColumns);
+        return m_fields;
+    }
+
+    public void setRequiredColumns(boolean[] requiredColumns) {
+        m_requiredColumns = requiredColumns;
     }
 
     /* ========================================================================
@@ -0,0 +1,191 @@
+/* (C) Copyright 2026, by John Dickson
+ *
+ * Project Info:  https://github.com/captsens/clichart
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2.1 of the License, or
+ * (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ */
+
+package net.sf.clichart.data;
+
+/**
+ * Splits a single line of CSV into a LineFields object, without creating any objects.  Handles the same cases as the
+ * javacsv parser previously used by CsvLineParser: <ul>
+ * <li> Spaces and tabs around unquoted values are trimmed
+ * <li> Values may be quoted in double quotes ("), in which case they may contain the delimiter, and white space
+ *      within the quotes is retained
+ * <li> Double quotes within a quoted value are escaped by repeating them ("")
+ * <li> Anything between a closing quote and the next delimiter is ignored, and a missing closing quote takes the
+ *      rest of the line
+ * </ul>
+ *
+ * <p>Quoted values are unescaped in place in the LineFields buffer.
+ *
+ * @author johnd
+ */
+public class CsvTokenizer {
+
+    /* ========================================================================
+     *
+     * Class (static) variables.
+     */
+
+    public static final char DEFAULT_DELIMITER = ',';
+
+    private static final char QUOTE = '"';
+
+    /* ========================================================================
+     *
+     * Instance variables.
+     */
+
+    private final char m_delimiter;
+
+    /* ========================================================================
+     *
+     * Constructors
+     */
+
+    public CsvTokenizer() {
+        this(DEFAULT_DELIMITER);
+    }
+
+    public CsvTokenizer(char delimiter) {
+        m_delimiter = delimiter;
+    }
+
+    /* ========================================================================
+     *
+     * Static methods
+     */
+
+    /* ========================================================================
+     *
+     * Public methods
+     */
+
+    /**
+     * Split the line into fields
+     */
+    public void tokenize(String line, LineFields fields) {
+        tokenize(line, fields, null);
+    }
+
+    /**
+     * Split the line into fields, stopping after the last required column.  Columns which aren't required are
+     * returned as empty values, without being unescaped.
+     *
+     * @param requiredColumns  Flag for each column index up to the last one required, or null for all columns
+     */
+    public void tokenize(String line, LineFields fields, boolean[] requiredColumns) {
+        char[] chars = fields.prepare(line);
+        int length = line.length();
+        if (length == 0) {
+            return;
+        }
+
+        int position = 0;
+        int fieldIndex = 0;
+        while (true) {
+            if (requiredColumns != null && fieldIndex >= requiredColumns.length) {
+                return;
+            }
+            boolean required = requiredColumns == null || requiredColumns[fieldIndex];
+            fieldIndex++;
+
+            while (position < length && isWhiteSpace(chars[position])) {
+                position++;
+            }
+
+            if (position < length && chars[position] == QUOTE) {
+                position = readQuotedField(chars, position + 1, length, fields, required);
+            } else if (!required) {
+                while (position < length && chars[position] != m_delimiter) {
+                    position++;
+                }
+                fields.addField(position, position);
+            } else {
+                int start = position;
+                while (position < length && chars[position] != m_delimiter) {
+                    position++;
+                }
+                int end = position;
+                while (end > start && isWhiteSpace(chars[end - 1])) {
+                    end--;
+                }
+                fields.addField(start, end);
+            }
+
+            if (position >= length) {
+                return;
+            }
+            // skip the delimiter
+            position++;
+            if (position == length) {
+                // line ends with a delimiter, so the last value is empty
+                fields.addField(length, length);
+                return;
+            }
+        }
+    }
+
+    /* ========================================================================
+     *
+     * Protected / package-private methods
+     */
+
+    /* ========================================================================
+     *
+     * Private methods
+     */
+
+    /**
+     * Read a quoted field, starting just after the opening quote.  Returns the position of the next delimiter (or
+     * the end of the line).  If the field isn't required, it's skipped and recorded as empty.
+     */
+    private int readQuotedField(char[] chars, int position, int length, LineFields fields, boolean required) {
+        int start = position;
+        int target = position;
+        while (position < length) {
+            char c = chars[position];
+            if (c == QUOTE) {
+                if (position + 1 < length && chars[position + 1] == QUOTE) {
+                    if (required) {
+                        chars[target++] = QUOTE;
+                    }
+                    position += 2;
+                    continue;
+                }
+                // closing quote
+                position++;
+                break;
+            }
+            if (required) {
+                chars[target++] = c;
+            }
+            position++;
+        }
+        fields.addField(start, target);
+
+        while (position < length && chars[position] != m_delimiter) {
+            position++;
+        }
+        return position;
+    }
+
+    private boolean isWhiteSpace(char c) {
+        return c == ' ' || c == '\t';
+    }
+}
@@ -0,0 +1,48 @@
+/* (C) Copyright 2026, by John Dickson
+ *
+ * Project Info:  https://github.com/captsens/clichart
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2.1 of the License, or
+ * (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ */
+
+package net.sf.clichart.data;
+
+/**
+ * Creates data parsers which are configured identically apart from their sinks.  Used when parsing in parallel, since
+ * each thread needs its own parser.
+ *
+ * @author johnd
+ */
+public interface DataParserFactory {
+
+    /* ========================================================================
+     *
+     * Interface (static) variables.
+     */
+
+    /* ========================================================================
+     *
+     * Public methods
+     */
+
+    /**
+     * Create a new data parser.
+     *
+     * @param sink  The sink for the parser
+     * @param secondAxisSink  The sink for the second axis, or null if there is no second axis
+     */
+    public AbstractDataParser createDataParser(DataSink sink, DataSink secondAxisSink);
+}
@@ -0,0 +1,570 @@
+/* (C) Copyright 2026, by John Dickson
+ *
+ * Project Info:  https://github.com/captsens/clichart
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2.1 of the License, or
+ * (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ */
+
+package net.sf.clichart.data;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * A PrimitiveDataSink which passes only a representative subset of the lines it receives on to another sink, so that a
+ * chart doesn't hold (and draw) many more points than it has pixels.
+ *
+ * <p>The x axis is divided into buckets of roughly half a pixel each.  For each column, the bucket keeps the lines with
+ * the first, last, minimum and maximum values, so that spikes remain visible.  Since the range of the x values isn't
+ * known in advance, the buckets start very narrow, and whenever the x values span too many buckets, adjacent pairs of
+ * buckets are merged.  Memory use therefore depends only on the chart width and number of columns, not on the amount
+ * of data.  The lines themselves are held in a pool shared by the buckets, since a line is often kept for several
+ * columns or roles.
+ *
+ * <p>Once parsing has finished, the lines kept are passed on in their original order:
+ * <ul>
+ * <li> MODE_MIN_MAX: all the lines kept for each bucket
+ * <li> MODE_LTTB: for each column, the lines chosen from those kept by the largest-triangle-three-buckets algorithm,
+ *      giving one point per pixel
+ * </ul>
+ *
+ * <p>Lines are always passed on whole, so some columns may have more points than described above.  The first line is
+ * passed on immediately, since a chart builder with no header takes the number of columns from it.  Lines with an x
+ * value which isn't finite, and lines passed as objects rather than primitives, are also passed on unchanged.
+ *
+ * <p>Note that this class is not threadsafe.
+ *
+ * @author johnd
+ */
+public class DownsamplingDataSink implements PrimitiveDataSink {
+
+    /* ========================================================================
+     *
+     * Class (static) variables.
+     */
+
+    /** Keep the first, last, minimum and maximum for each column in each bucket */
+    public static final int MODE_MIN_MAX = 0;
+
+    /** Choose one point per pixel for each column, using largest-triangle-three-buckets */
+    public static final int MODE_LTTB = 1;
+
+    private static final int BUCKETS_PER_PIXEL = 2;
+    private static final int MIN_BUCKETS = 4;
+
+    // the lines kept for each column in each bucket
+    private static final int FIRST = 0;
+    private static final int MIN = 1;
+    private static final int MAX = 2;
+    private static final int LAST = 3;
+    private static final int ROLES = 4;
+
+    private static final int INITIAL_ROWS = 1024;
+
+    // bucket keys (x divided by the bucket width) must stay well within the range of a long
+    private static final double MAX_KEY = Math.scalb(1.0, 62);
+
+    // initial bucket width, relative to the first x value
+    private static final int INITIAL_WIDTH_EXPONENT = -40;
+
+    /* ========================================================================
+     *
+     * Instance variables.
+     */
+
+    private final PrimitiveDataSink m_sink;
+
+    private final int m_columnCount;
+
+    private final int m_pixels;
+
+    private final int m_mode;
+
+    // number of buckets held - the buckets are addressed by key modulo this
+    private final int m_capacity;
+
+    // width of each bucket, always a power of 2 so that the bucket keys are exact.  0 until the first line
+    private double m_width = 0;
+
+    // keys of the lowest and highest buckets in use
+    private long m_lowKey = 0;
+    private long m_highKey = 0;
+    private boolean m_empty = true;
+
+    // the row (in the pool below) held for each bucket, column and role, or -1 if none.  Indexed by getEntry()
+    private int[] m_entries;
+
+    // used while merging buckets
+    private int[] m_spareEntries;
+
+    // the pool of rows (i.e. lines) held, in parallel arrays
+    private long[] m_rowSequences = new long[INITIAL_ROWS];
+    private double[] m_rowXValues = new double[INITIAL_ROWS];
+    private long[] m_rowMissingValues = new long[INITIAL_ROWS];
+    private int[] m_rowValueCounts = new int[INITIAL_ROWS];
+    private int[] m_rowLineNumbers = new int[INITIAL_ROWS];
+    private int[] m_rowReferences = new int[INITIAL_ROWS];
+    private double[] m_rowYValues;
+
+    // number of rows ever allocated in the pool, and the rows which have since been freed
+    private int m_rowCount = 0;
+    private int[] m_freeRows = new int[INITIAL_ROWS];
+    private int m_freeRowCount = 0;
+
+    // sequence number of the next line received
+    private long m_sequence = 0;
+
+    /* ========================================================================
+     *
+     * Constructors
+     */
+
+    /**
+     * @param sink  The sink to pass the chosen lines to
+     * @param columnCount  Maximum number of y values per line
+     * @param pixels  Width of the chart in pixels
+     * @param mode  One of the MODE_ constants
+     */
+    public DownsamplingDataSink(PrimitiveDataSink sink, int columnCount, int pixels, int mode) {
+        assert sink != null;
+        m_sink = sink;
+
+        assert columnCount > 0 && columnCount <= MAX_VALUES;
+        m_columnCount = columnCount;
+
+        m_pixels = Math.max(pixels, MIN_BUCKETS);
+
+        assert mode == MODE_MIN_MAX || mode == MODE_LTTB;
+        m_mode = mode;
+
+        m_capacity = m_pixels * BUCKETS_PER_PIXEL;
+        m_entries = new int[m_capacity * m_columnCount * ROLES];
+        Arrays.fill(m_entries, -1);
+        m_spareEntries = new int[m_entries.length];
+        Arrays.fill(m_spareEntries, -1);
+        m_rowYValues = new double[INITIAL_ROWS * m_columnCount];
+    }
+
+    /* ========================================================================
+     *
+     * Static methods
+     */
+
+    /**
+     * Choose points using the largest-triangle-three-buckets algorithm.  The points must be in order of x value.
+     *
+     * @param count  Number of points
+     * @param threshold  Number of points to choose
+     * @return  true for each point chosen
+     */
+    static boolean[] largestTriangleThreeBuckets(double[] xValues, double[] yValues, int count, int threshold) {
+        boolean[] chosen = new boolean[count];
+        if (count <= threshold || threshold < 3) {
+            Arrays.fill(chosen, true);
+            return chosen;
+        }
+
+        double bucketSize = (double) (count - 2) / (threshold - 2);
+        int previous = 0;
+        chosen[previous] = true;
+        for (int i = 0; i < threshold - 2; i++) {
+            // the average of the points in the next bucket
+            int averageStart = (int) Math.floor((i + 1) * bucketSize) + 1;
+            int averageEnd = Math.min((int) Math.floor((i + 2) * bucketSize) + 1, count);
+            double averageX = 0;
+            double averageY = 0;
+            for (int j = averageStart; j < averageEnd; j++) {
+                averageX += xValues[j];
+                averageY += yValues[j];
+            }
+            averageX /= averageEnd - averageStart;
+            averageY /= averageEnd - averageStart;
+
+            // choose the point in this bucket forming the largest triangle with the previous point and the average
+            int start = (int) Math.floor(i * bucketSize) + 1;
+            int end = (int) Math.floor((i + 1) * bucketSize) + 1;
+            int next = start;
+            double maxArea = -1;
+            for (int j = start; j < end; j++) {
+                double area = Math.abs((xValues[previous] - averageX) * (yValues[j] - yValues[previous])
+                        - (xValues[previous] - xValues[j]) * (averageY - yValues[previous]));
+                if (area > maxArea) {
+                    maxArea = area;
+                    next = j;
+                }
+            }
+            chosen[next] = true;
+            previous = next;
+        }
+        chosen[count - 1] = true;
+        return chosen;
+    }
+
+    /* ========================================================================
+     *
+     * Public methods
+     */
+
+    public void headerParsed(String[] headers) throws InvalidDataException {
+        m_sink.headerParsed(headers);
+    }
+
+    public void dataParsed(Object xValue, Object[] yValues, int lineNumber) throws InvalidDataException {
+        m_sink.dataParsed(xValue, yValues, lineNumber);
+    }
+
+    public void dataParsed(double xValue, double[] yValues, long missingValues, int valueCount, int lineNumber)
+            throws InvalidDataException {
+        long sequence = m_sequence++;
+        if (sequence == 0 || Double.isNaN(xValue) || Double.isInfinite(xValue)) {
+            m_sink.dataParsed(xValue, yValues, missingValues, valueCount, lineNumber);
+            return;
+        }
+
+        int slot = getSlot(getBucketKey(xValue));
+        int columns = Math.min(valueCount, m_columnCount);
+        // the line is only added to the pool if it is kept
+        int row = -1;
+        for (int column = 0; column < columns; column++) {
+            if ((missingValues & (1L << column)) != 0) {
+                continue;
+            }
+            double yValue = yValues[column];
+
+            int entry = getEntry(slot, column, FIRST);
+            boolean empty = m_entries[entry] < 0;
+            if (empty || xValue < m_rowXValues[m_entries[entry]]) {
+                row = setEntry(entry, row, sequence, xValue, yValues, missingValues, valueCount, lineNumber);
+            }
+            entry = getEntry(slot, column, LAST);
+            if (empty || xValue >= m_rowXValues[m_entries[entry]]) {
+                row = setEntry(entry, row, sequence, xValue, yValues, missingValues, valueCount, lineNumber);
+            }
+            entry = getEntry(slot, column, MIN);
+            if (empty || yValue < getYValue(m_entries[entry], column)) {
+                row = setEntry(entry, row, sequence, xValue, yValues, missingValues, valueCount, lineNumber);
+            }
+            entry = getEntry(slot, column, MAX);
+            if (empty || yValue > getYValue(m_entries[entry], column)) {
+                row = setEntry(entry, row, sequence, xValue, yValues, missingValues, valueCount, lineNumber);
+            }
+        }
+    }
+
+    public void parsingFinished() {
+        try {
+            passOnRows(m_mode == MODE_LTTB ? chooseLttbRows() : chooseAllRows());
+        } catch (InvalidDataException e) {
+            // chart builders don't throw this
+            throw new IllegalStateException("Unexpected error passing on downsampled data", e);
+        }
+        m_sink.parsingFinished();
+    }
+
+    /* ========================================================================
+     *
+     * Protected / package-private methods
+     */
+
+    /**
+     * Return the number of rows held in the pool
+     */
+    int getRowsHeld() {
+        return m_rowCount - m_freeRowCount;
+    }
+
+    /* ========================================================================
+     *
+     * Private methods
+     */
+
+    /**
+     * Return the key of the bucket for the x value, merging buckets if necessary so that it is within range
+     */
+    private long getBucketKey(double xValue) {
+        if (m_width == 0) {
+            m_width = Math.scalb(1.0, Math.max(Math.getExponent(xValue) + INITIAL_WIDTH_EXPONENT,
+                    Double.MIN_EXPONENT));
+        }
+
+        while (true) {
+            double scaled = Math.floor(xValue / m_width);
+            if (Math.abs(scaled) < MAX_KEY) {
+                long key = (long) scaled;
+                if (m_empty) {
+                    m_lowKey = key;
+                    m_highKey = key;
+                    m_empty = false;
+                    return key;
+                }
+                long lowKey = Math.min(m_lowKey, key);
+                long highKey = Math.max(m_highKey, key);
+                if (highKey - lowKey < m_capacity) {
+                    m_lowKey = lowKey;
+                    m_highKey = highKey;
+                    return key;
+                }
+            }
+            mergeBuckets();
+        }
+    }
+
+    private int getSlot(long key) {
+        return (int) Math.floorMod(key, (long) m_capacity);
+    }
+
+    private int getEntry(int slot, int column, int role) {
+        return (slot * m_columnCount + column) * ROLES + role;
+    }
+
+    private double getYValue(int row, int column) {
+        return m_rowYValues[row * m_columnCount + column];
+    }
+
+    /**
+     * Hold the line for an entry, adding it to the pool if it isn't already there (i.e. if row is -1).  Returns the
+     * line's row
+     */
+    private int setEntry(int entry, int row, long sequence, double xValue, double[] yValues, long missingValues,
+            int valueCount, int lineNumber) {
+        if (row < 0) {
+            row = allocateRow();
+            m_rowSequences[row] = sequence;
+            m_rowXValues[row] = xValue;
+            m_rowMissingValues[row] = missingValues;
+            m_rowValueCounts[row] = valueCount;
+            m_rowLineNumbers[row] = lineNumber;
+            System.arraycopy(yValues, 0, m_rowYValues, row * m_columnCount, Math.min(valueCount, m_columnCount));
+        }
+        if (m_entries[entry] >= 0) {
+            releaseRow(m_entries[entry]);
+        }
+        m_entries[entry] = row;
+        m_rowReferences[row]++;
+        return row;
+    }
+
+    private int allocateRow() {
+        if (m_freeRowCount > 0) {
+            return m_freeRows[--m_freeRowCount];
+        }
+        if (m_rowCount == m_rowSequences.length) {
+            int size = m_rowCount * 2;
+            m_rowSequences = Arrays.copyOf(m_rowSequences, size);
+            m_rowXValues = Arrays.copyOf(m_rowXValues, size);
+            m_rowMissingValues = Arrays.copyOf(m_rowMissingValues, size);
+            m_rowValueCounts = Arrays.copyOf(m_rowValueCounts, size);
+            m_rowLineNumbers = Arrays.copyOf(m_rowLineNumbers, size);
+            m_rowReferences = Arrays.copyOf(m_rowReferences, size);
+            m_rowYValues = Arrays.copyOf(m_rowYValues, size * m_columnCount);
+        }
+        return m_rowCount++;
+    }
+
+    private void releaseRow(int row) {
+        if (--m_rowReferences[row] > 0) {
+            return;
+        }
+        if (m_freeRowCount == m_freeRows.length) {
+            m_freeRows = Arrays.copyOf(m_freeRows, m_freeRowCount * 2);
+        }
+        m_freeRows[m_freeRowCount++] = row;
+    }
+
+    /**
+     * Double the bucket width, merging each pair of buckets
+     */
+    private void mergeBuckets() {
+        m_width *= 2;
+        if (m_empty) {
+            return;
+        }
+
+        // buckets are merged in order, so a row from the second of a pair always has the higher x value
+        for (long key = m_lowKey; key <= m_highKey; key++) {
+            int slot = getSlot(key);
+            int targetSlot = getSlot(Math.floorDiv(key, 2));
+            for (int column = 0; column < m_columnCount; column++) {
+                int entry = getEntry(slot, column, FIRST);
+                int target = getEntry(targetSlot, column, FIRST);
+                if (m_entries[entry] < 0) {
+                    continue;
+                }
+                if (m_spareEntries[target] < 0) {
+                    for (int role = 0; role < ROLES; role++) {
+                        m_spareEntries[target + role] = m_entries[entry + role];
+                    }
+                    continue;
+                }
+
+                releaseRow(m_entries[entry + FIRST]);
+                moveEntry(entry + LAST, target + LAST);
+                int row = m_entries[entry + MIN];
+                int targetRow = m_spareEntries[target + MIN];
+                if (getYValue(row, column) < getYValue(targetRow, column)
+                        || (getYValue(row, column) == getYValue(targetRow, column)
+                        && m_rowSequences[row] < m_rowSequences[targetRow])) {
+                    moveEntry(entry + MIN, target + MIN);
+                } else {
+                    releaseRow(row);
+                }
+                row = m_entries[entry + MAX];
+                targetRow = m_spareEntries[target + MAX];
+                if (getYValue(row, column) > getYValue(targetRow, column)
+                        || (getYValue(row, column) == getYValue(targetRow, column)
+                        && m_rowSequences[row] < m_rowSequences[targetRow])) {
+                    moveEntry(entry + MAX, target + MAX);
+                } else {
+                    releaseRow(row);
+                }
+            }
+            Arrays.fill(m_entries, getEntry(slot, 0, 0), getEntry(slot + 1, 0, 0), -1);
+        }
+
+        int[] entries = m_entries;
+        m_entries = m_spareEntries;
+        m_spareEntries = entries;
+        m_lowKey = Math.floorDiv(m_lowKey, 2);
+        m_highKey = Math.floorDiv(m_highKey, 2);
+    }
+
+    /**
+     * Move a row from an entry to the same entry in the merged buckets, replacing the row there
+     */
+    private void moveEntry(int entry, int target) {
+        releaseRow(m_spareEntries[target]);
+        m_spareEntries[target] = m_entries[entry];
+    }
+
+    /**
+     * Return true for every row held
+     */
+    private boolean[] chooseAllRows() {
+        boolean[] chosen = new boolean[m_rowCount];
+        for (int entry = 0; entry < m_entries.length; entry++) {
+            if (m_entries[entry] >= 0) {
+                chosen[m_entries[entry]] = true;
+            }
+        }
+        return chosen;
+    }
+
+    /**
+     * Return true for the rows chosen by LTTB for any column
+     */
+    private boolean[] chooseLttbRows() {
+        boolean[] chosen = new boolean[m_rowCount];
+        if (m_empty) {
+            return chosen;
+        }
+
+        int maxPoints = (int) (m_highKey - m_lowKey + 1) * ROLES;
+        double[] xValues = new double[maxPoints];
+        double[] yValues = new double[maxPoints];
+        int[] rows = new int[maxPoints];
+        Integer[] bucketRows = new Integer[ROLES];
+        Comparator<Integer> byXValue = new RowComparator(true);
+        for (int column = 0; column < m_columnCount; column++) {
+            // the points held for the column, in order of x value
+            int count = 0;
+            for (long key = m_lowKey; key <= m_highKey; key++) {
+                int entry = getEntry(getSlot(key), column, FIRST);
+                if (m_entries[entry] < 0) {
+                    continue;
+                }
+                for (int role = 0; role < ROLES; role++) {
+                    bucketRows[role] = m_entries[entry + role];
+                }
+                Arrays.sort(bucketRows, byXValue);
+                for (int role = 0; role < ROLES; role++) {
+                    int row = bucketRows[role];
+                    if (role > 0 && row == bucketRows[role - 1]) {
+                        continue;
+                    }
+                    xValues[count] = m_rowXValues[row];
+                    yValues[count] = getYValue(row, column);
+                    rows[count] = row;
+                    count++;
+                }
+            }
+
+            boolean[] chosenPoints = largestTriangleThreeBuckets(xValues, yValues, count, m_pixels);
+            for (int i = 0; i < count; i++) {
+                if (chosenPoints[i]) {
+                    chosen[rows[i]] = true;
+                }
+            }
+        }
+        return chosen;
+    }
+
+    /**
+     * Pass the chosen rows to the sink, in the order they were received
+     */
+    private void passOnRows(boolean[] chosen) throws InvalidDataException {
+        int count = 0;
+        for (int row = 0; row < chosen.length; row++) {
+            if (chosen[row]) {
+                count++;
+            }
+        }
+        Integer[] rows = new Integer[count];
+        count = 0;
+        for (int row = 0; row < chosen.length; row++) {
+            if (chosen[row]) {
+                rows[count++] = row;
+            }
+        }
+        Arrays.sort(rows, new RowComparator(false));
+
+        double[] yValues = new double[m_columnCount];
+        for (int i = 0; i < rows.length; i++) {
+            int row = rows[i];
+            System.arraycopy(m_rowYValues, row * m_columnCount, yValues, 0, m_columnCount);
+            m_sink.dataParsed(m_rowXValues[row], yValues, m_rowMissingValues[row], m_rowValueCounts[row],
+                    m_rowLineNumbers[row]);
+        }
+    }
+
+    /* ========================================================================
+     *
+     * Inner classes
+     */
+
+    /**
+     * Orders rows by sequence number, or by x value then sequence number
+     */
+    private class RowComparator implements Comparator<Integer> {
+
+        private final boolean m_byXValue;
+
+        public RowComparator(boolean byXValue) {
+            m_byXValue = byXValue;
+        }
+
+        public int compare(Integer row1, Integer row2) {
+            if (m_byXValue) {
+                int result = Double.compare(m_rowXValues[row1], m_rowXValues[row2]);
+                if (result != 0) {
+                    return result;
+                }
+            }
+            long sequence1 = m_rowSequences[row1];
+            long sequence2 = m_rowSequences[row2];
+            return sequence1 < sequence2 ? -1 : (sequence1 == sequence2 ? 0 : 1);
+        }
+    }
+}
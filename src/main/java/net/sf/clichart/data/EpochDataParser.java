@@ -0,0 +1,114 @@
+/* (C) Copyright 2026, by John Dickson
+ *
+ * Project Info:  https://github.com/captsens/clichart
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2.1 of the License, or
+ * (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ */
+
+package net.sf.clichart.data;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Implementation of a DataParser for data where the X axis is a Unix timestamp, i.e. the time since the epoch in
+ * seconds, milliseconds or microseconds.  Timestamps may include a fraction (e.g. 1700000000.25 seconds).
+ *
+ * <p>As for TimeDataParser, the xValue is passed to the sink as a Date (or as milliseconds since the epoch, for a
+ * PrimitiveDataSink).
+ *
+ * <p>Note that this class is not threadsafe.
+ *
+ * @author johnd
+ */
+public class EpochDataParser extends AbstractDataParser {
+
+    /* ========================================================================
+     *
+     * Class (static) variables.
+     */
+
+    /* ========================================================================
+     *
+     * Instance variables.
+     */
+
+    // the number of milliseconds in one unit of the timestamps
+    private final double m_millisPerUnit;
+
+    // parses the timestamps - created when first used, so the thousands separator is known
+    private NumberParser m_xParser = null;
+
+    /* ========================================================================
+     *
+     * Constructors
+     */
+
+    /**
+     * @param timeUnit The units of the timestamps - SECONDS, MILLISECONDS or MICROSECONDS
+     */
+    public EpochDataParser(LineParser lineParser, TimeUnit timeUnit, int xColumnIndex, int[] yColumnIndexes,
+            boolean hasHeader, boolean ignoreMissingValues, boolean ignoreEmptyValues, DataSink sink) {
+        super(lineParser, xColumnIndex, yColumnIndexes, hasHeader, ignoreMissingValues, ignoreEmptyValues, sink);
+
+        // must have an xColumn
+        assert xColumnIndex >= 0;
+
+        assert timeUnit == TimeUnit.SECONDS || timeUnit == TimeUnit.MILLISECONDS
+                || timeUnit == TimeUnit.MICROSECONDS;
+        m_millisPerUnit = timeUnit == TimeUnit.MICROSECONDS ? 0.001 : timeUnit.toMillis(1);
+    }
+
+    /* ========================================================================
+     *
+     * Static methods
+     */
+
+    /* ========================================================================
+     *
+     * Public methods
+     */
+
+    /* ========================================================================
+     *
+     * Protected / package-private methods
+     */
+
+    protected Object parseXValueImpl(String xValue, int lineNumber) throws InvalidDataException {
+        return new Date(toMillis(getXParser().parse(xValue, lineNumber)));
+    }
+
+    protected double parsePrimitiveXValueImpl(char[] chars, int start, int end, int lineNumber)
+            throws InvalidDataException {
+        return toMillis(getXParser().parse(chars, start, end, lineNumber));
+    }
+
+    /* ========================================================================
+     *
+     * Private methods
+     */
+
+    private NumberParser getXParser() {
+        if (m_xParser == null) {
+            m_xParser = createNumberParser();
+        }
+        return m_xParser;
+    }
+
+    private long toMillis(double timestamp) {
+        return Math.round(timestamp * m_millisPerUnit);
+    }
+}
@@ -0,0 +1,55 @@
+/* (C) Copyright 2026, by John Dickson
+ *
+ * Project Info:  https://github.com/captsens/clichart
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2.1 of the License, or
+ * (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ */
+
+package net.sf.clichart.data;
+
+/**
+ * A LineParser that can also split a line into a reusable LineFields object, so that field values are only created as
+ * Strings when they are needed.  Used in preference to parseLine() by AbstractDataParser.
+ *
+ * @author johnd
+ */
+public interface FieldLineParser extends LineParser {
+
+    /* ========================================================================
+     *
+     * Interface (static) variables.
+     */
+
+    /* ========================================================================
+     *
+     * Public methods
+     */
+
+    /**
+     * Split the line into fields.  The object returned belongs to the parser, and is only valid until the next call.
+     * Returns null if the line is to be skipped, e.g. because it doesn't match a pattern.
+     */
+    public LineFields parseFields(String line, int lineNumber) throws InvalidDataException;
+
+    /**
+     * Restrict parsing to the columns that will actually be used.  Once set, fields which aren't required may be
+     * returned as empty values, and fields after the last required column may not be returned at all.
+     *
+     * @param requiredColumns  Flag for each column index, up to and including the highest one required, or null to
+     *                         parse all columns
+     */
+    public void setRequiredColumns(boolean[] requiredColumns);
+}
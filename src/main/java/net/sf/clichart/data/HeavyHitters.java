@@ -0,0 +1,238 @@
+/* (C) Copyright 2026, by John Dickson
+ *
+ * Project Info:  https://github.com/captsens/clichart
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2.1 of the License, or
+ * (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ */
+
+package net.sf.clichart.data;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Finds the keys with the highest total (or maximum) weight in a stream of weighted keys, in bounded memory, using
+ * the Space-Saving algorithm.  At most a fixed number of keys are tracked, each in a slot.  When a key which isn't
+ * being tracked is added and all slots are in use, it takes over the slot of the tracked key with the lowest weight,
+ * starting from that key's weight.  The weights are therefore overestimates, but any key whose total is more than
+ * (total of all weights) / capacity is guaranteed to be tracked.  Where there are no more keys than slots, the
+ * weights are exact.
+ *
+ * <p>Slots are numbered from 0, so callers can hold data for each tracked key in arrays indexed by slot, discarding
+ * the data for a slot when it is taken over by another key.
+ *
+ * <p>Note that this class is not threadsafe.
+ *
+ * @author johnd
+ */
+public class HeavyHitters {
+
+    /* ========================================================================
+     *
+     * Class (static) variables.
+     */
+
+    /* ========================================================================
+     *
+     * Instance variables.
+     */
+
+    // true to rank keys by their maximum weight rather than their total
+    private final boolean m_maximum;
+
+    // key and weight for each slot
+    private final String[] m_keys;
+    private final double[] m_weights;
+
+    // the slots in use, as a binary min-heap on weight, and the position of each slot in the heap
+    private final int[] m_heap;
+    private final int[] m_heapPositions;
+
+    private int m_size = 0;
+
+    private final Map<String, Integer> m_slots = new HashMap<String, Integer>();
+
+    /* ========================================================================
+     *
+     * Constructors
+     */
+
+    /**
+     * @param capacity  Maximum number of keys tracked
+     * @param maximum  True to rank keys by their maximum weight, false to rank by their total weight
+     */
+    public HeavyHitters(int capacity, boolean maximum) {
+        assert capacity > 0;
+        m_maximum = maximum;
+        m_keys = new String[capacity];
+        m_weights = new double[capacity];
+        m_heap = new int[capacity];
+        m_heapPositions = new int[capacity];
+    }
+
+    /* ========================================================================
+     *
+     * Static methods
+     */
+
+    /* ========================================================================
+     *
+     * Public methods
+     */
+
+    /**
+     * Add a weight for the key.
+     *
+     * @return the key's slot if it was already being tracked, or (-slot - 1) if it has been given a slot (so any data
+     *      held for the slot should be discarded)
+     */
+    public int add(String key, double weight) {
+        Integer existingSlot = m_slots.get(key);
+        if (existingSlot != null) {
+            int slot = existingSlot.intValue();
+            m_weights[slot] = combine(m_weights[slot], weight);
+            reposition(m_heapPositions[slot]);
+            return slot;
+        }
+
+        int slot;
+        if (m_size < m_keys.length) {
+            slot = m_size;
+            m_heap[m_size] = slot;
+            m_heapPositions[slot] = m_size;
+            m_size++;
+            m_weights[slot] = weight;
+        } else {
+            // take over the slot with the lowest weight
+            slot = m_heap[0];
+            m_slots.remove(m_keys[slot]);
+            m_weights[slot] = combine(m_weights[slot], weight);
+        }
+        m_keys[slot] = key;
+        m_slots.put(key, Integer.valueOf(slot));
+        reposition(m_heapPositions[slot]);
+        return -slot - 1;
+    }
+
+    /**
+     * Return the number of slots in use
+     */
+    public int size() {
+        return m_size;
+    }
+
+    /**
+     * Return the key currently in a slot
+     */
+    public String getKey(int slot) {
+        checkSlot(slot);
+        return m_keys[slot];
+    }
+
+    /**
+     * Return the (estimated) weight of the key currently in a slot
+     */
+    public double getWeight(int slot) {
+        checkSlot(slot);
+        return m_weights[slot];
+    }
+
+    /**
+     * Return the slots of the keys with the highest weights, highest first.  Keys with the same weight are in order
+     * of slot.
+     *
+     * @param count  Maximum number of slots to return
+     */
+    public int[] getTopSlots(int count) {
+        Integer[] slots = new Integer[m_size];
+        for (int i = 0; i < m_size; i++) {
+            slots[i] = Integer.valueOf(i);
+        }
+        Arrays.sort(slots, new Comparator<Integer>() {
+            public int compare(Integer slot1, Integer slot2) {
+                int result = Double.compare(m_weights[slot2.intValue()], m_weights[slot1.intValue()]);
+                return result != 0 ? result : slot1.compareTo(slot2);
+            }
+        });
+
+        int[] topSlots = new int[Math.min(count, m_size)];
+        for (int i = 0; i < topSlots.length; i++) {
+            topSlots[i] = slots[i].intValue();
+        }
+        return topSlots;
+    }
+
+    /* ========================================================================
+     *
+     * Protected / package-private methods
+     */
+
+    /* ========================================================================
+     *
+     * Private methods
+     */
+
+    private double combine(double weight1, double weight2) {
+        return m_maximum ? Math.max(weight1, weight2) : weight1 + weight2;
+    }
+
+    /**
+     * Move the slot at a position in the heap up or down, after its weight has changed
+     */
+    private void reposition(int position) {
+        while (position > 0 && isLower(position, (position - 1) / 2)) {
+            swap(position, (position - 1) / 2);
+            position = (position - 1) / 2;
+        }
+        while (true) {
+            int lowest = position;
+            int left = position * 2 + 1;
+            int right = left + 1;
+            if (left < m_size && isLower(left, lowest)) {
+                lowest = left;
+            }
+            if (right < m_size && isLower(right, lowest)) {
+                lowest = right;
+            }
+            if (lowest == position) {
+                return;
+            }
+            swap(position, lowest);
+            position = lowest;
+        }
+    }
+
+    private boolean isLower(int position1, int position2) {
+        return m_weights[m_heap[position1]] < m_weights[m_heap[position2]];
+    }
+
+    private void swap(int position1, int position2) {
+        int slot1 = m_heap[position1];
+        int slot2 = m_heap[position2];
+        m_heap[position1] = slot2;
+        m_heap[position2] = slot1;
+        m_heapPositions[slot2] = position1;
+        m_heapPositions[slot1] = position2;
+    }
+
+    private void checkSlot(int slot) {
+        if (slot < 0 || slot >= m_size) {
+            throw new IndexOutOfBoundsException("Invalid slot: " + slot);
+        }
+    }
+}
@@ -0,0 +1,339 @@
+/* (C) Copyright 2026, by John Dickson
+ *
+ * Project Info:  https://github.com/captsens/clichart
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2.1 of the License, or
+ * (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ */
+
+package net.sf.clichart.data;
+
+/**
+ * A PrimitiveDataSink which counts the values in each column into histogram bins as they are parsed, and passes the
+ * histogram on to another sink once parsing has finished, in place of the data.  Memory use doesn't depend on the
+ * amount of data, so very large inputs can be charted as a histogram in one pass.
+ *
+ * <p>The line passed on for each bin has the start of the bin as its x value and the count for each column as its y
+ * values.  A final line with all values missing marks the end of the last bin.  All columns share the same bins.
+ *
+ * <p>Bins can be:
+ * <ul>
+ * <li> Of a fixed width, starting at a multiple of the width (MODE_FIXED_WIDTH)
+ * <li> Chosen automatically (MODE_AUTO), as one of a given number of bins of a "round" width covering the range of the
+ *      first values, taken as a sample.  If later values fall outside the range, the bins are doubled in width (by
+ *      merging pairs of bins) until they are covered, so there are always between half and all of the given number of
+ *      bins
+ * <li> Chosen automatically as for MODE_AUTO, but scaled logarithmically (MODE_LOG), for data spanning several orders
+ *      of magnitude such as latencies.  Values which aren't positive are ignored
+ * </ul>
+ *
+ * <p>Note that this class is not threadsafe.
+ *
+ * @author johnd
+ */
+public class HistogramDataSink implements PrimitiveDataSink {
+
+    /* ========================================================================
+     *
+     * Class (static) variables.
+     */
+
+    public static final int MODE_AUTO = 0;
+    public static final int MODE_LOG = 1;
+    public static final int MODE_FIXED_WIDTH = 2;
+
+    /** Number of values used to choose the range of automatic bins */
+    public static final int SAMPLE_SIZE = 4096;
+
+    /** Maximum number of fixed-width bins */
+    public static final int MAX_FIXED_BINS = 10000;
+
+    /* ========================================================================
+     *
+     * Instance variables.
+     */
+
+    private final PrimitiveDataSink m_sink;
+
+    private final int m_columnCount;
+
+    private final int m_mode;
+
+    // number of bins for automatic bins (always even, so bins can be merged in pairs), otherwise the number allocated
+    private int m_binCount;
+
+    // the bins, in terms of values (or log10 of values for MODE_LOG).  Bin i starts at m_start + i * m_width
+    private double m_start = 0;
+    private double m_width;
+
+    // m_columnCount entries per bin.  Null until the range has been chosen
+    private long[] m_counts = null;
+
+    // values held until the range of automatic bins is chosen
+    private final double[] m_sampleValues = new double[SAMPLE_SIZE];
+    private final int[] m_sampleColumns = new int[SAMPLE_SIZE];
+    private int m_sampleSize = 0;
+
+    // values ignored by MODE_LOG
+    private long m_nonPositiveValues = 0;
+
+    /* ========================================================================
+     *
+     * Constructors
+     */
+
+    /**
+     * @param sink  The sink to pass the histogram to
+     * @param columnCount  Maximum number of y values per line
+     * @param mode  One of the MODE_ constants
+     * @param binCount  Number of bins for automatic bins (rounded up to an even number)
+     * @param binWidth  Width of fixed-width bins
+     */
+    public HistogramDataSink(PrimitiveDataSink sink, int columnCount, int mode, int binCount, double binWidth) {
+        assert sink != null;
+        m_sink = sink;
+
+        assert columnCount > 0;
+        m_columnCount = columnCount;
+
+        assert mode >= MODE_AUTO && mode <= MODE_FIXED_WIDTH;
+        m_mode = mode;
+
+        assert mode == MODE_FIXED_WIDTH || binCount >= 2;
+        m_binCount = binCount + binCount % 2;
+
+        assert mode != MODE_FIXED_WIDTH || binWidth > 0;
+        m_width = binWidth;
+    }
+
+    /* ========================================================================
+     *
+     * Static methods
+     */
+
+    /**
+     * Return the smallest "round" number (1, 2 or 5 times a power of 10) which is at least the value provided
+     */
+    static double roundUp(double value) {
+        double power = Math.pow(10, Math.floor(Math.log10(value)));
+        double[] multiples = {1, 2, 5, 10};
+        for (int i = 0; i < multiples.length; i++) {
+            if (power * multiples[i] >= value) {
+                return power * multiples[i];
+            }
+        }
+        return power * 10;
+    }
+
+    /* ========================================================================
+     *
+     * Public methods
+     */
+
+    public void headerParsed(String[] headers) throws InvalidDataException {
+        m_sink.headerParsed(headers);
+    }
+
+    public void dataParsed(Object xValue, Object[] yValues, int lineNumber) {
+        // the data parser only passes objects if its sinks don't all accept primitives
+        throw new IllegalStateException("Only primitive values can be counted into a histogram");
+    }
+
+    public void dataParsed(double xValue, double[] yValues, long missingValues, int valueCount, int lineNumber)
+            throws InvalidDataException {
+        int columns = Math.min(valueCount, m_columnCount);
+        for (int column = 0; column < columns; column++) {
+            if ((missingValues & (1L << column)) != 0) {
+                continue;
+            }
+            double value = yValues[column];
+            if (m_mode == MODE_LOG) {
+                if (!(value > 0)) {
+                    m_nonPositiveValues++;
+                    continue;
+                }
+                value = Math.log10(value);
+            }
+            if (Double.isNaN(value) || Double.isInfinite(value)) {
+                continue;
+            }
+
+            if (m_counts == null && m_mode == MODE_FIXED_WIDTH) {
+                // fixed-width bins don't need a sample to choose them
+                m_binCount = 1;
+                m_start = Math.floor(value / m_width) * m_width;
+                m_counts = new long[m_columnCount];
+            }
+            if (m_counts != null) {
+                addValue(value, column, lineNumber);
+            } else {
+                m_sampleValues[m_sampleSize] = value;
+                m_sampleColumns[m_sampleSize] = column;
+                if (++m_sampleSize == SAMPLE_SIZE) {
+                    countSample(lineNumber);
+                }
+            }
+        }
+    }
+
+    public void parsingFinished() {
+        if (m_nonPositiveValues > 0) {
+            System.err.println("Ignored " + m_nonPositiveValues + " values which were not positive in the "
+                    + "log-scaled histogram");
+        }
+        try {
+            countSample(-1);
+            passOnBins();
+        } catch (InvalidDataException e) {
+            // chart builders don't throw this for primitive values
+            throw new IllegalStateException("Unexpected error passing on histogram", e);
+        }
+        m_sink.parsingFinished();
+    }
+
+    /* ========================================================================
+     *
+     * Protected / package-private methods
+     */
+
+    /* ========================================================================
+     *
+     * Private methods
+     */
+
+    /**
+     * Choose the automatic bins from the values in the sample (if not already chosen), and count the values
+     */
+    private void countSample(int lineNumber) throws InvalidDataException {
+        if (m_counts != null || m_sampleSize == 0) {
+            return;
+        }
+
+        double minimum = m_sampleValues[0];
+        double maximum = m_sampleValues[0];
+        for (int i = 1; i < m_sampleSize; i++) {
+            minimum = Math.min(minimum, m_sampleValues[i]);
+            maximum = Math.max(maximum, m_sampleValues[i]);
+        }
+
+        // a round width where possible, covering the range with the maximum inside the last bin
+        double range = maximum - minimum;
+        m_width = range > 0 ? roundUp(range / m_binCount) : 1;
+        m_start = Math.floor(minimum / m_width) * m_width;
+        if (m_start + m_binCount * m_width <= maximum) {
+            m_start = minimum;
+            m_width = range / (m_binCount - 1);
+        }
+        m_counts = new long[m_binCount * m_columnCount];
+
+        for (int i = 0; i < m_sampleSize; i++) {
+            addValue(m_sampleValues[i], m_sampleColumns[i], lineNumber);
+        }
+        m_sampleSize = 0;
+    }
+
+    private void addValue(double value, int column, int lineNumber) throws InvalidDataException {
+        if (m_mode == MODE_FIXED_WIDTH) {
+            extendFixedBins(value, lineNumber);
+        } else {
+            while (value >= m_start + m_binCount * m_width) {
+                mergeBins(false);
+            }
+            while (value < m_start) {
+                mergeBins(true);
+            }
+        }
+
+        int bin = Math.min((int) ((value - m_start) / m_width), m_binCount - 1);
+        m_counts[bin * m_columnCount + column]++;
+    }
+
+    /**
+     * Double the width of the automatic bins by merging them in pairs, extending the range either downwards or upwards
+     */
+    private void mergeBins(boolean downwards) {
+        int half = m_binCount / 2;
+        int firstBin = downwards ? half : 0;
+        long[] counts = new long[m_counts.length];
+        for (int i = 0; i < half; i++) {
+            for (int column = 0; column < m_columnCount; column++) {
+                counts[(firstBin + i) * m_columnCount + column] = m_counts[2 * i * m_columnCount + column]
+                        + m_counts[(2 * i + 1) * m_columnCount + column];
+            }
+        }
+        if (downwards) {
+            m_start -= m_binCount * m_width;
+        }
+        m_width *= 2;
+        m_counts = counts;
+    }
+
+    /**
+     * Add fixed-width bins as required to include the value
+     */
+    private void extendFixedBins(double value, int lineNumber) throws InvalidDataException {
+        int binsBelow = value < m_start ? (int) Math.ceil((m_start - value) / m_width) : 0;
+        int binsAbove = Math.max(0, (int) Math.floor((value - m_start) / m_width) + 1 - m_binCount);
+        if (binsBelow == 0 && binsAbove == 0) {
+            return;
+        }
+
+        long binCount = (long) m_binCount + binsBelow + binsAbove;
+        if (binCount > MAX_FIXED_BINS) {
+            throw new InvalidDataException("Histogram would need more than " + MAX_FIXED_BINS + " bins of width "
+                    + m_width + " for value " + value + " on line " + lineNumber);
+        }
+        long[] counts = new long[(int) binCount * m_columnCount];
+        System.arraycopy(m_counts, 0, counts, binsBelow * m_columnCount, m_counts.length);
+        m_counts = counts;
+        m_binCount = (int) binCount;
+        m_start -= binsBelow * m_width;
+    }
+
+    /**
+     * Pass on a line for each bin from the first to the last with a count, then the end of the last bin
+     */
+    private void passOnBins() throws InvalidDataException {
+        if (m_counts == null) {
+            return;
+        }
+
+        int firstBin = m_binCount;
+        int lastBin = -1;
+        for (int bin = 0; bin < m_binCount; bin++) {
+            for (int column = 0; column < m_columnCount; column++) {
+                if (m_counts[bin * m_columnCount + column] > 0) {
+                    firstBin = Math.min(firstBin, bin);
+                    lastBin = bin;
+                }
+            }
+        }
+
+        double[] values = new double[m_columnCount];
+        for (int bin = firstBin; bin <= lastBin; bin++) {
+            for (int column = 0; column < m_columnCount; column++) {
+                values[column] = m_counts[bin * m_columnCount + column];
+            }
+            m_sink.dataParsed(getBinStart(bin), values, 0, m_columnCount, bin + 1);
+        }
+        long allMissing = m_columnCount == MAX_VALUES ? -1L : (1L << m_columnCount) - 1;
+        m_sink.dataParsed(getBinStart(lastBin + 1), values, allMissing, m_columnCount, lastBin + 2);
+    }
+
+    private double getBinStart(int bin) {
+        double start = m_start + bin * m_width;
+        return m_mode == MODE_LOG ? Math.pow(10, start) : start;
+    }
+}
@@ -0,0 +1,308 @@
+/* (C) Copyright 2026, by John Dickson
+ *
+ * Project Info:  https://github.com/captsens/clichart
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2.1 of the License, or
+ * (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ */
+
+package net.sf.clichart.data;
+
+import java.util.Arrays;
+
+/**
+ * A LineParser for JSON Lines, i.e. a JSON object on each line, such as:
+ * <pre>
+ *     {"ts": 1700000000123, "level": "info", "http": {"path": "/api", "latency": 25}}
+ * </pre>
+ * The fields requested become the columns, in the order given.  Fields in nested objects are named by their path,
+ * e.g. "http.latency".  String values are returned without their quotes, and other values (numbers, true and false)
+ * as they appear in the line.  A null value is treated as missing.  If a field appears more than once, its first
+ * value (other than null) is used.
+ *
+ * <p>The line is scanned once, without building any representation of it: values which aren't needed (including
+ * nested objects and arrays) are skipped over, and scanning stops as soon as all the fields needed have been found.
+ * Lines which aren't JSON objects are skipped.
+ *
+ * <p>Note that this class is not threadsafe.
+ *
+ * @author johnd
+ */
+public class JsonLineParser extends AbstractNamedFieldLineParser {
+
+    /* ========================================================================
+     *
+     * Class (static) variables.
+     */
+
+    /* ========================================================================
+     *
+     * Instance variables.
+     */
+
+    // the paths of the fields requested, as a tree of names
+    private final PathNode m_root = new PathNode();
+
+    // the line being scanned
+    private char[] m_chars;
+    private int m_length;
+    private int m_position;
+
+    // set by skipString() if the string contains an escape
+    private boolean m_escaped;
+
+    /* ========================================================================
+     *
+     * Constructors
+     */
+
+    /**
+     * @param fieldNames  Paths of the fields to return as columns, with the names of nested objects separated by '.'
+     */
+    public JsonLineParser(String[] fieldNames) {
+        super(fieldNames);
+        for (int column = 0; column < fieldNames.length; column++) {
+            String[] names = fieldNames[column].split("\\.");
+            PathNode node = m_root;
+            for (int i = 0; i < names.length; i++) {
+                node = node.getOrAddChild(names[i]);
+            }
+            assert node.m_column < 0 : "Duplicate field: " + fieldNames[column];
+            node.m_column = column;
+        }
+    }
+
+    /* ========================================================================
+     *
+     * Static methods
+     */
+
+    /* ========================================================================
+     *
+     * Public methods
+     */
+
+    /* ========================================================================
+     *
+     * Protected / package-private methods
+     */
+
+    protected boolean scanLine(char[] chars, int length) {
+        m_chars = chars;
+        m_length = length;
+        m_position = 0;
+        skipWhiteSpace();
+        return m_position < m_length && m_chars[m_position] == '{' && scanObject(m_root);
+    }
+
+    /* ========================================================================
+     *
+     * Private methods
+     */
+
+    /**
+     * Scan the object at the current position, recording the fields needed under the node.  Returns false if the
+     * object is invalid.  Returns early (with the rest of the object not scanned) once all fields have been found.
+     */
+    private boolean scanObject(PathNode node) {
+        m_position++;
+        skipWhiteSpace();
+        if (m_position < m_length && m_chars[m_position] == '}') {
+            m_position++;
+            return true;
+        }
+
+        while (true) {
+            skipWhiteSpace();
+            if (m_position >= m_length || m_chars[m_position] != '"') {
+                return false;
+            }
+            int keyStart = m_position + 1;
+            int keyEnd = skipString();
+            if (keyEnd < 0) {
+                return false;
+            }
+            if (m_escaped) {
+                keyEnd = unescape(m_chars, keyStart, keyEnd);
+            }
+            PathNode child = node.getChild(m_chars, keyStart, keyEnd);
+
+            skipWhiteSpace();
+            if (m_position >= m_length || m_chars[m_position] != ':') {
+                return false;
+            }
+            m_position++;
+            skipWhiteSpace();
+            if (!(child == null ? skipValue() : scanValue(child))) {
+                return false;
+            }
+            if (isComplete()) {
+                return true;
+            }
+
+            skipWhiteSpace();
+            if (m_position >= m_length) {
+                return false;
+            }
+            char c = m_chars[m_position++];
+            if (c == '}') {
+                return true;
+            } else if (c != ',') {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Scan the value at the current position, recording it if it is a field needed, and scanning into it if fields
+     * within it are needed
+     */
+    private boolean scanValue(PathNode node) {
+        boolean needed = node.m_column >= 0 && isNeeded(node.m_column);
+        int start = m_position;
+        if (m_position < m_length && m_chars[m_position] == '"') {
+            int end = skipString();
+            if (end < 0) {
+                return false;
+            }
+            if (needed) {
+                recordField(node.m_column, start + 1, m_escaped ? unescape(m_chars, start + 1, end) : end);
+            }
+            return true;
+        }
+
+        if (node.m_children.length > 0 && m_position < m_length && m_chars[m_position] == '{') {
+            if (!scanObject(node)) {
+                return false;
+            }
+        } else if (!skipValue()) {
+            return false;
+        }
+        if (needed && !matches("null", m_chars, start, m_position)) {
+            recordField(node.m_column, start, m_position);
+        }
+        return true;
+    }
+
+    /**
+     * Skip the value at the current position, including any nested objects or arrays
+     */
+    private boolean skipValue() {
+        if (m_position >= m_length) {
+            return false;
+        }
+        char c = m_chars[m_position];
+        if (c == '"') {
+            return skipString() >= 0;
+        }
+
+        if (c == '{' || c == '[') {
+            int depth = 0;
+            while (m_position < m_length) {
+                c = m_chars[m_position];
+                if (c == '"') {
+                    if (skipString() < 0) {
+                        return false;
+                    }
+                    continue;
+                }
+                if (c == '{' || c == '[') {
+                    depth++;
+                } else if (c == '}' || c == ']') {
+                    depth--;
+                    if (depth == 0) {
+                        m_position++;
+                        return true;
+                    }
+                }
+                m_position++;
+            }
+            return false;
+        }
+
+        // a number, true, false or null
+        int start = m_position;
+        while (m_position < m_length && (c = m_chars[m_position]) != ',' && c != '}' && c != ']' && c > ' ') {
+            m_position++;
+        }
+        return m_position > start;
+    }
+
+    /**
+     * Skip the string starting at the current position (a quote), and return the index of its closing quote, or -1
+     * if it isn't terminated
+     */
+    private int skipString() {
+        m_escaped = false;
+        m_position++;
+        while (m_position < m_length) {
+            char c = m_chars[m_position];
+            if (c == '"') {
+                return m_position++;
+            }
+            if (c == '\\') {
+                m_escaped = true;
+                m_position++;
+            }
+            m_position++;
+        }
+        return -1;
+    }
+
+    private void skipWhiteSpace() {
+        while (m_position < m_length && m_chars[m_position] <= ' ') {
+            m_position++;
+        }
+    }
+
+    /* ========================================================================
+     *
+     * Inner classes
+     */
+
+    /**
+     * A name in the paths of the fields requested
+     */
+    private static class PathNode {
+
+        private String[] m_names = new String[0];
+        private PathNode[] m_children = new PathNode[0];
+
+        // column of the field with this path, or -1 if this is only part of the path of other fields
+        private int m_column = -1;
+
+        public PathNode getChild(char[] chars, int start, int end) {
+            for (int i = 0; i < m_names.length; i++) {
+                if (matches(m_names[i], chars, start, end)) {
+                    return m_children[i];
+                }
+            }
+            return null;
+        }
+
+        public PathNode getOrAddChild(String name) {
+            for (int i = 0; i < m_names.length; i++) {
+                if (m_names[i].equals(name)) {
+                    return m_children[i];
+                }
+            }
+            m_names = Arrays.copyOf(m_names, m_names.length + 1);
+            m_children = Arrays.copyOf(m_children, m_children.length + 1);
+            m_names[m_names.length - 1] = name;
+            m_children[m_children.length - 1] = new PathNode();
+            return m_children[m_children.length - 1];
+        }
+    }
+}
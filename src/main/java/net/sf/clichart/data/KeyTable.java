@@ -0,0 +1,164 @@
+/* (C) Copyright 2026, by John Dickson
+ *
+ * Project Info:  https://github.com/captsens/clichart
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2.1 of the License, or
+ * (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ */
+
+package net.sf.clichart.data;
+
+/**
+ * Returns the same String for each occurrence of a key in the input, so that a String is only created the first time
+ * each key is seen.  Keys are looked up directly from the characters of a line, in an open addressing hash table.
+ *
+ * <p>If there are more than MAX_KEYS distinct keys, the table is cleared, so its size stays bounded even if nearly
+ * every line has a different key.
+ *
+ * <p>Note that this class is not threadsafe.
+ *
+ * @author johnd
+ */
+class KeyTable {
+
+    /* ========================================================================
+     *
+     * Class (static) variables.
+     */
+
+    static final int MAX_KEYS = 65536;
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    /* ========================================================================
+     *
+     * Instance variables.
+     */
+
+    // the keys and their hash codes, with a null key for an empty slot.  The capacity is a power of 2
+    private String[] m_keys = new String[INITIAL_CAPACITY];
+    private int[] m_hashes = new int[INITIAL_CAPACITY];
+
+    private int m_size = 0;
+
+    /* ========================================================================
+     *
+     * Constructors
+     */
+
+    /* ========================================================================
+     *
+     * Static methods
+     */
+
+    /* ========================================================================
+     *
+     * Public methods
+     */
+
+    /**
+     * Return the key made up of chars[start] to chars[end - 1]
+     */
+    public String getKey(char[] chars, int start, int end) {
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + chars[i];
+        }
+
+        int mask = m_keys.length - 1;
+        int slot = spread(hash) & mask;
+        while (m_keys[slot] != null) {
+            if (m_hashes[slot] == hash && matches(m_keys[slot], chars, start, end)) {
+                return m_keys[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        String key = new String(chars, start, end - start);
+        if (m_size >= MAX_KEYS) {
+            clear();
+        } else if ((m_size + 1) * 2 > m_keys.length) {
+            grow();
+        }
+        insert(key, hash);
+        return key;
+    }
+
+    /**
+     * Return the number of keys in the table
+     */
+    public int size() {
+        return m_size;
+    }
+
+    /* ========================================================================
+     *
+     * Protected / package-private methods
+     */
+
+    /* ========================================================================
+     *
+     * Private methods
+     */
+
+    /**
+     * Mix the high bits of the hash code into the low bits, which are used to choose the slot
+     */
+    private int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private boolean matches(String key, char[] chars, int start, int end) {
+        if (key.length() != end - start) {
+            return false;
+        }
+        for (int i = start; i < end; i++) {
+            if (key.charAt(i - start) != chars[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void insert(String key, int hash) {
+        int mask = m_keys.length - 1;
+        int slot = spread(hash) & mask;
+        while (m_keys[slot] != null) {
+            slot = (slot + 1) & mask;
+        }
+        m_keys[slot] = key;
+        m_hashes[slot] = hash;
+        m_size++;
+    }
+
+    private void grow() {
+        String[] keys = m_keys;
+        int[] hashes = m_hashes;
+        m_keys = new String[keys.length * 2];
+        m_hashes = new int[keys.length * 2];
+        m_size = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != null) {
+                insert(keys[i], hashes[i]);
+            }
+        }
+    }
+
+    private void clear() {
+        m_keys = new String[INITIAL_CAPACITY];
+        m_hashes = new int[INITIAL_CAPACITY];
+        m_size = 0;
+    }
+}
@@ -0,0 +1,51 @@
+/* (C) Copyright 2026, by John Dickson
+ *
+ * Project Info:  https://github.com/captsens/clichart
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2.1 of the License, or
+ * (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ */
+
+package net.sf.clichart.data;
+
+/**
+ * A PrimitiveDataSink that can also receive lines which have been split by the value of a key column (e.g. a host
+ * name), so that the data for each key can be charted separately.  Used in preference to the other dataParsed()
+ * methods by AbstractDataParser when it has a key column.
+ *
+ * @author johnd
+ */
+public interface KeyedDataSink extends PrimitiveDataSink {
+
+    /* ========================================================================
+     *
+     * Interface (static) variables.
+     */
+
+    /* ========================================================================
+     *
+     * Public methods
+     */
+
+    /**
+     * Provides the data from a line of tabular data that has been parsed from some source, as for
+     * PrimitiveDataSink.dataParsed(double, double[], long, int, int).
+     *
+     * @param key The value of the key column.  The same String instance is generally passed for lines with the same
+     *      key, although this isn't guaranteed
+     */
+    public void dataParsed(String key, double xValue, double[] yValues, long missingValues, int valueCount,
+            int lineNumber) throws InvalidDataException;
+}
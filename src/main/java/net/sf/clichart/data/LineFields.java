@@ -0,0 +1,215 @@
+/* (C) Copyright 2026, by John Dickson
+ *
+ * Project Info:  https://github.com/captsens/clichart
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2.1 of the License, or
+ * (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ */
+
+package net.sf.clichart.data;
+
+/**
+ * The fields split from a single line of data, held as start/end offsets into a character buffer.  Intended to be
+ * reused from line to line, so that parsing a line doesn't create any objects until a field is actually read as a
+ * String.
+ *
+ * <p>Note that this class is not threadsafe.
+ *
+ * @author johnd
+ */
+public class LineFields {
+
+    /* ========================================================================
+     *
+     * Class (static) variables.
+     */
+
+    private static final int INITIAL_LINE_LENGTH = 256;
+    private static final int INITIAL_FIELD_COUNT = 16;
+
+    /* ========================================================================
+     *
+     * Instance variables.
+     */
+
+    // holds the characters of the line (possibly modified, e.g. unquoted, by the tokenizer)
+    private char[] m_chars = new char[INITIAL_LINE_LENGTH];
+
+    // used when fields are appended, rather than prepared from a line
+    private int m_length = 0;
+
+    // start (inclusive) and end (exclusive) offsets of each field, or -1 for a missing field
+    private int[] m_starts = new int[INITIAL_FIELD_COUNT];
+    private int[] m_ends = new int[INITIAL_FIELD_COUNT];
+
+    private int m_count = 0;
+
+    /* ========================================================================
+     *
+     * Constructors
+     */
+
+    /* ========================================================================
+     *
+     * Static methods
+     */
+
+    /* ========================================================================
+     *
+     * Public methods
+     */
+
+    /**
+     * Return the number of fields found in the line
+     */
+    public int getFieldCount() {
+        return m_count;
+    }
+
+    /**
+     * Return true if the line doesn't have the field, either because it has too few fields or because the field was
+     * recorded as missing
+     */
+    public boolean isMissing(int index) {
+        return index >= m_count || m_starts[index] < 0;
+    }
+
+    /**
+     * Return the value of a field as a String, or null if it was recorded as missing
+     *
+     * @throws ArrayIndexOutOfBoundsException if the line doesn't have that many fields
+     */
+    public String getField(int index) {
+        checkIndex(index);
+        if (m_starts[index] < 0) {
+            return null;
+        }
+        return new String(m_chars, m_starts[index], m_ends[index] - m_starts[index]);
+    }
+
+    /**
+     * Return the buffer holding the field characters - only valid until the next line is parsed
+     */
+    public char[] getChars() {
+        return m_chars;
+    }
+
+    /**
+     * Return the offset in getChars() of the first character of the field
+     */
+    public int getStart(int index) {
+        checkIndex(index);
+        return m_starts[index];
+    }
+
+    /**
+     * Return the offset in getChars() just past the last character of the field
+     */
+    public int getEnd(int index) {
+        checkIndex(index);
+        return m_ends[index];
+    }
+
+    /**
+     * Return all fields as Strings
+     */
+    public String[] toArray() {
+        String[] values = new String[m_count];
+        for (int i = 0; i < m_count; i++) {
+            values[i] = getField(i);
+        }
+        return values;
+    }
+
+    /**
+     * Reset to hold the fields of a new line, and return the buffer holding the characters of the line.  The
+     * buffer may be modified in place by the caller, as long as field values don't extend past the line length.
+     */
+    public char[] prepare(String line) {
+        m_count = 0;
+        m_length = line.length();
+        ensureCapacity(m_length, 0);
+        line.getChars(0, m_length, m_chars, 0);
+        return m_chars;
+    }
+
+    /**
+     * Reset to hold no fields, prior to fields being appended with appendField(String)
+     */
+    public void clear() {
+        m_count = 0;
+        m_length = 0;
+    }
+
+    /**
+     * Record a field within the buffer returned by prepare()
+     */
+    public void addField(int start, int end) {
+        if (m_count == m_starts.length) {
+            int[] starts = new int[m_count * 2];
+            int[] ends = new int[m_count * 2];
+            System.arraycopy(m_starts, 0, starts, 0, m_count);
+            System.arraycopy(m_ends, 0, ends, 0, m_count);
+            m_starts = starts;
+            m_ends = ends;
+        }
+        m_starts[m_count] = start;
+        m_ends[m_count] = end;
+        m_count++;
+    }
+
+    /**
+     * Record a field which the line doesn't have, although later fields may be present (e.g. a named field in a
+     * structured log line)
+     */
+    public void addMissingField() {
+        addField(-1, -1);
+    }
+
+    /**
+     * Append a field value which has already been split from the line
+     */
+    public void appendField(String value) {
+        int start = m_length;
+        ensureCapacity(start + value.length(), start);
+        value.getChars(0, value.length(), m_chars, start);
+        m_length += value.length();
+        addField(start, m_length);
+    }
+
+    /* ========================================================================
+     *
+     * Protected / package-private methods
+     */
+
+    /* ========================================================================
+     *
+     * Private methods
+     */
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= m_count) {
+            throw new ArrayIndexOutOfBoundsException(index);
+        }
+    }
+
+    private void ensureCapacity(int length, int charsToKeep) {
+        if (m_chars.length < length) {
+            char[] chars = new char[Math.max(length, m_chars.length * 2)];
+            System.arraycopy(m_chars, 0, chars, 0, charsToKeep);
+            m_chars = chars;
+        }
+    }
+}
@@ -37,5 +37,9 @@ public interface LineParser {
      * Public methods
      */
 
+    /**
+     * Return the field values of the line, or null if the line is to be skipped (e.g. because it doesn't match a
+     * pattern)
+     */
     public String[] parseLine(String line, int lineNumber) throws InvalidDataException;
 }
@@ -0,0 +1,144 @@
+/* (C) Copyright 2026, by John Dickson
+ *
+ * Project Info:  https://github.com/captsens/clichart
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2.1 of the License, or
+ * (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ */
+
+package net.sf.clichart.data;
+
+/**
+ * A LineParser for logfmt lines, i.e. space-separated key=value pairs such as:
+ * <pre>
+ *     ts=1700000000123 level=info msg="request done" path=/api latency_ms=25
+ * </pre>
+ * Values may be double-quoted (with backslash escapes) to include spaces.  A key followed by '=' but no value has an
+ * empty value, while words without an '=' (e.g. from an unquoted message) are skipped.  If a key appears more than
+ * once, its first value is used.  The fields requested become the columns, in the order given.
+ *
+ * <p>Note that this class is not threadsafe.
+ *
+ * @author johnd
+ */
+public class LogfmtLineParser extends AbstractNamedFieldLineParser {
+
+    /* ========================================================================
+     *
+     * Class (static) variables.
+     */
+
+    /* ========================================================================
+     *
+     * Instance variables.
+     */
+
+    /* ========================================================================
+     *
+     * Constructors
+     */
+
+    /**
+     * @param fieldNames  Keys of the fields to return as columns
+     */
+    public LogfmtLineParser(String[] fieldNames) {
+        super(fieldNames);
+    }
+
+    /* ========================================================================
+     *
+     * Static methods
+     */
+
+    /* ========================================================================
+     *
+     * Public methods
+     */
+
+    /* ========================================================================
+     *
+     * Protected / package-private methods
+     */
+
+    protected boolean scanLine(char[] chars, int length) {
+        int position = 0;
+        while (position < length && !isComplete()) {
+            while (position < length && chars[position] <= ' ') {
+                position++;
+            }
+            if (position == length) {
+                break;
+            }
+
+            int keyStart = position;
+            while (position < length && chars[position] > ' ' && chars[position] != '=') {
+                position++;
+            }
+            int keyEnd = position;
+
+            if (position == length || chars[position] != '=') {
+                // a word without a value
+                continue;
+            }
+
+            int valueStart;
+            int valueEnd;
+            boolean escaped = false;
+            position++;
+            if (position < length && chars[position] == '"') {
+                valueStart = ++position;
+                while (position < length && chars[position] != '"') {
+                    if (chars[position] == '\\') {
+                        escaped = true;
+                        position++;
+                    }
+                    position++;
+                }
+                valueEnd = Math.min(position, length);
+                position++;
+            } else {
+                valueStart = position;
+                while (position < length && chars[position] > ' ') {
+                    position++;
+                }
+                valueEnd = position;
+            }
+
+            int column = findColumn(chars, keyStart, keyEnd);
+            if (column >= 0 && isNeeded(column)) {
+                recordField(column, valueStart, escaped ? unescape(chars, valueStart, valueEnd) : valueEnd);
+            }
+        }
+        return true;
+    }
+
+    /* ========================================================================
+     *
+     * Private methods
+     */
+
+    /**
+     * Return the column of the field with the key in chars[start] to chars[end - 1], or -1 if it isn't requested
+     */
+    private int findColumn(char[] chars, int start, int end) {
+        String[] fieldNames = getFieldNames();
+        for (int column = 0; column < fieldNames.length; column++) {
+            if (matches(fieldNames[column], chars, start, end)) {
+                return column;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,355 @@
+/* (C) Copyright 2026, by John Dickson
+ *
+ * Project Info:  https://github.com/captsens/clichart
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2.1 of the License, or
+ * (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ */
+
+package net.sf.clichart.data;
+
+/**
+ * Parses numeric values directly from a range of characters, without creating any objects (except in rare cases
+ * which need full double precision handling, and for errors).  Handles an optional sign, decimal point and exponent,
+ * NaN and Infinity, and (optionally) a thousands separator.  Leading and trailing white space is ignored.
+ *
+ * <p>Each instance is intended to parse the values from a single column.  After sampling the first few values, if
+ * they were all integers then subsequent values are parsed by a faster integer-only loop, falling back to the full
+ * parser for any value it can't handle.
+ *
+ * <p>Note that this class is not threadsafe.
+ *
+ * @author johnd
+ */
+public class NumberParser {
+
+    /* ========================================================================
+     *
+     * Class (static) variables.
+     */
+
+    /** Use as the thousands separator if there is none */
+    public static final char NO_SEPARATOR = 0;
+
+    // number of values parsed before deciding whether the column holds integers
+    private static final int SAMPLE_SIZE = 16;
+
+    // mantissas up to this value are exactly representable as doubles
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+    // stop accumulating digits into the mantissa beyond this value, to prevent overflow
+    private static final long MAX_MANTISSA = (Long.MAX_VALUE - 9) / 10;
+
+    // integer values with no more than this many digits can't overflow a long
+    private static final int MAX_INTEGER_DIGITS = 18;
+
+    // powers of ten that are exactly representable as doubles
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19,
+        1e20, 1e21, 1e22
+    };
+
+    private static final String NAN = "NaN";
+    private static final String INFINITY = "Infinity";
+
+    /* ========================================================================
+     *
+     * Instance variables.
+     */
+
+    private final char m_thousandsSeparator;
+
+    private int m_sampleCount = 0;
+
+    // true while all sampled values have been integers
+    private boolean m_allIntegers = true;
+
+    // set once sampling has shown that the column holds integers
+    private boolean m_integerColumn = false;
+
+    // set by parseGeneral() if the value had a decimal point, exponent etc.
+    private boolean m_lastValueInteger;
+
+    /* ========================================================================
+     *
+     * Constructors
+     */
+
+    public NumberParser() {
+        this(NO_SEPARATOR);
+    }
+
+    /**
+     * @param thousandsSeparator Character which may separate groups of digits before the decimal point, or
+     *      NO_SEPARATOR
+     */
+    public NumberParser(char thousandsSeparator) {
+        m_thousandsSeparator = thousandsSeparator;
+    }
+
+    /* ========================================================================
+     *
+     * Static methods
+     */
+
+    /* ========================================================================
+     *
+     * Public methods
+     */
+
+    /**
+     * Parse the value in chars[start] to chars[end - 1]
+     *
+     * @throws InvalidDataException if the value isn't a valid number
+     */
+    public double parse(char[] chars, int start, int end, int lineNumber) throws InvalidDataException {
+        int valueStart = start;
+        int valueEnd = end;
+        while (valueStart < valueEnd && chars[valueStart] <= ' ') {
+            valueStart++;
+        }
+        while (valueEnd > valueStart && chars[valueEnd - 1] <= ' ') {
+            valueEnd--;
+        }
+
+        if (m_integerColumn) {
+            double value = parseInteger(chars, valueStart, valueEnd);
+            if (!Double.isNaN(value)) {
+                return value;
+            }
+            // otherwise needs the full parser (or is invalid)
+        }
+
+        double value = parseGeneral(chars, valueStart, valueEnd);
+        if (Double.isNaN(value) && !isNaN(chars, valueStart, valueEnd)) {
+            throw new InvalidDataException("Invalid data value: [" + new String(chars, start, end - start)
+                    + "], line " + lineNumber);
+        }
+
+        if (m_sampleCount < SAMPLE_SIZE) {
+            m_allIntegers = m_allIntegers && m_lastValueInteger;
+            m_sampleCount++;
+            if (m_sampleCount == SAMPLE_SIZE) {
+                m_integerColumn = m_allIntegers;
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Parse a value held in a String
+     */
+    public double parse(String value, int lineNumber) throws InvalidDataException {
+        return parse(value.toCharArray(), 0, value.length(), lineNumber);
+    }
+
+    /* ========================================================================
+     *
+     * Protected / package-private methods
+     */
+
+    /**
+     * Return true if sampling has locked this parser to integer values
+     */
+    boolean isIntegerColumn() {
+        return m_integerColumn;
+    }
+
+    /* ========================================================================
+     *
+     * Private methods
+     */
+
+    /**
+     * Fast path for integers.  Returns NaN if the value isn't a simple integer
+     */
+    private double parseInteger(char[] chars, int start, int end) {
+        int position = start;
+        boolean negative = false;
+        if (position < end && (chars[position] == '-' || chars[position] == '+')) {
+            negative = chars[position] == '-';
+            position++;
+        }
+
+        long value = 0;
+        int digits = 0;
+        for (; position < end; position++) {
+            char c = chars[position];
+            if (c >= '0' && c <= '9' && digits < MAX_INTEGER_DIGITS) {
+                value = value * 10 + (c - '0');
+                digits++;
+            } else if (!isSeparator(c) || digits == 0) {
+                return Double.NaN;
+            }
+        }
+        if (digits == 0) {
+            return Double.NaN;
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Parse any value.  Returns NaN if the value is invalid (or is NaN)
+     */
+    private double parseGeneral(char[] chars, int start, int end) {
+        m_lastValueInteger = false;
+
+        int position = start;
+        boolean negative = false;
+        if (position < end && (chars[position] == '-' || chars[position] == '+')) {
+            negative = chars[position] == '-';
+            position++;
+        }
+
+        if (matches(chars, position, end, INFINITY)) {
+            return negative ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+        }
+        if (matches(chars, position, end, NAN)) {
+            return Double.NaN;
+        }
+
+        long mantissa = 0;
+        int exponent = 0;
+        boolean sawDigit = false;
+        boolean exact = true;
+        boolean hasSeparators = false;
+
+        // integer part
+        for (; position < end; position++) {
+            char c = chars[position];
+            if (c >= '0' && c <= '9') {
+                sawDigit = true;
+                if (mantissa <= MAX_MANTISSA) {
+                    mantissa = mantissa * 10 + (c - '0');
+                } else {
+                    exponent++;
+                    exact = exact && c == '0';
+                }
+            } else if (isSeparator(c) && sawDigit) {
+                hasSeparators = true;
+            } else {
+                break;
+            }
+        }
+        boolean integer = true;
+
+        // fraction
+        if (position < end && chars[position] == '.') {
+            integer = false;
+            position++;
+            for (; position < end; position++) {
+                char c = chars[position];
+                if (c < '0' || c > '9') {
+                    break;
+                }
+                sawDigit = true;
+                if (mantissa <= MAX_MANTISSA) {
+                    mantissa = mantissa * 10 + (c - '0');
+                    exponent--;
+                } else {
+                    exact = exact && c == '0';
+                }
+            }
+        }
+        if (!sawDigit) {
+            return Double.NaN;
+        }
+
+        // exponent
+        if (position < end && (chars[position] == 'e' || chars[position] == 'E')) {
+            integer = false;
+            position++;
+            boolean negativeExponent = false;
+            if (position < end && (chars[position] == '-' || chars[position] == '+')) {
+                negativeExponent = chars[position] == '-';
+                position++;
+            }
+            int exponentStart = position;
+            int explicitExponent = 0;
+            for (; position < end; position++) {
+                char c = chars[position];
+                if (c < '0' || c > '9') {
+                    break;
+                }
+                if (explicitExponent < 100000) {
+                    explicitExponent = explicitExponent * 10 + (c - '0');
+                }
+            }
+            if (position == exponentStart) {
+                return Double.NaN;
+            }
+            exponent += negativeExponent ? -explicitExponent : explicitExponent;
+        }
+
+        if (position != end) {
+            return Double.NaN;
+        }
+        m_lastValueInteger = integer;
+
+        double value;
+        if (exact && mantissa <= MAX_EXACT_MANTISSA && exponent >= -22 && exponent <= 22) {
+            // both the mantissa and power of ten are exact, so a single operation gives the correctly rounded value
+            if (exponent >= 0) {
+                value = mantissa * POWERS_OF_TEN[exponent];
+            } else {
+                value = mantissa / POWERS_OF_TEN[-exponent];
+            }
+        } else if (mantissa == 0) {
+            value = 0;
+        } else {
+            value = Math.abs(Double.parseDouble(toString(chars, start, end, hasSeparators)));
+        }
+        return negative ? -value : value;
+    }
+
+    private boolean isSeparator(char c) {
+        return c == m_thousandsSeparator && m_thousandsSeparator != NO_SEPARATOR;
+    }
+
+    private boolean matches(char[] chars, int start, int end, String expected) {
+        if (end - start != expected.length()) {
+            return false;
+        }
+        for (int i = 0; i < expected.length(); i++) {
+            if (chars[start + i] != expected.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean isNaN(char[] chars, int start, int end) {
+        if (start < end && (chars[start] == '-' || chars[start] == '+')) {
+            start++;
+        }
+        return matches(chars, start, end, NAN);
+    }
+
+    /**
+     * Return the value as a String suitable for Double.parseDouble()
+     */
+    private String toString(char[] chars, int start, int end, boolean hasSeparators) {
+        if (!hasSeparators) {
+            return new String(chars, start, end - start);
+        }
+        StringBuilder builder = new StringBuilder(end - start);
+        for (int i = start; i < end; i++) {
+            if (chars[i] != m_thousandsSeparator) {
+                builder.append(chars[i]);
+            }
+        }
+        return builder.toString();
+    }
+}
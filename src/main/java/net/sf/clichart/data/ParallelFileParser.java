@@ -0,0 +1,239 @@
+/* (C) Copyright 2026, by John Dickson
+ *
+ * Project Info:  https://github.com/captsens/clichart
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2.1 of the License, or
+ * (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ */
+
+package net.sf.clichart.data;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Parses a file on several threads, giving exactly the same results as parsing it with a single data parser.
+ *
+ * <p>The file is split into chunks at line boundaries.  The first chunk is parsed by the data parser provided, so that
+ * any header is handled as normal, while the following chunks are parsed on a fork-join pool, each by its own data
+ * parser (from a DataParserFactory).  The results are then passed to the real sinks in file order by a
+ * ChunkSequencer.  Only a limited number of chunks are parsed ahead of the one being passed on, to limit the memory
+ * used.
+ *
+ * <p>Only used where the sinks accept primitive values - otherwise the file is parsed sequentially.
+ *
+ * @author johnd
+ */
+public class ParallelFileParser {
+
+    /* ========================================================================
+     *
+     * Class (static) variables.
+     */
+
+    /** Files smaller than 2 chunks of this size are parsed sequentially */
+    public static final long MIN_CHUNK_SIZE = 1024 * 1024;
+
+    private static final long MAX_CHUNK_SIZE = 64 * 1024 * 1024;
+
+    // aim for a few chunks per thread, so the threads are kept busy even if some chunks are slower than others
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    // number of chunks per thread which may be parsed ahead of the chunk being passed to the sinks
+    private static final int PENDING_CHUNKS_PER_THREAD = 2;
+
+    private static final int SCAN_BUFFER_SIZE = 64 * 1024;
+
+    private static final byte LF = '\n';
+    private static final byte CR = '\r';
+
+    /* ========================================================================
+     *
+     * Instance variables.
+     */
+
+    private final DataParserFactory m_factory;
+
+    private final int m_threads;
+
+    private final long m_minChunkSize;
+
+    /* ========================================================================
+     *
+     * Constructors
+     */
+
+    public ParallelFileParser(DataParserFactory factory, int threads) {
+        this(factory, threads, MIN_CHUNK_SIZE);
+    }
+
+    /**
+     * Constructor allowing small chunks, for testing
+     */
+    ParallelFileParser(DataParserFactory factory, int threads, long minChunkSize) {
+        assert factory != null;
+        m_factory = factory;
+        m_threads = threads;
+
+        assert minChunkSize > 0;
+        m_minChunkSize = minChunkSize;
+    }
+
+    /* ========================================================================
+     *
+     * Static methods
+     */
+
+    /* ========================================================================
+     *
+     * Public methods
+     */
+
+    /**
+     * Parse the file.
+     *
+     * @param parser  Parser for the first chunk of the file, with the sinks that all lines are to be passed to.  Must
+     *      have been created by the factory (or identically)
+     */
+    public void parse(AbstractDataParser parser, FileChannel channel, Charset charset)
+            throws IOException, InvalidDataException {
+        long size = channel.size();
+        if (m_threads <= 1 || !parser.usesPrimitiveSinks() || size < 2 * m_minChunkSize) {
+            parser.parse(new ByteLineReader(channel, 0, size, 1, charset));
+            return;
+        }
+
+        long[] boundaries = findChunkBoundaries(channel, size);
+        ForkJoinPool pool = new ForkJoinPool(m_threads);
+        try {
+            parseChunks(parser, channel, charset, boundaries, pool);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        parser.finishParsing();
+    }
+
+    /* ========================================================================
+     *
+     * Protected / package-private methods
+     */
+
+    /**
+     * Split the file into chunks, returning the start of each chunk followed by the file size.  Chunks start at the
+     * beginning of a line.
+     */
+    long[] findChunkBoundaries(FileChannel channel, long size) throws IOException {
+        long chunkSize = Math.max(m_minChunkSize, Math.min(MAX_CHUNK_SIZE, size / (m_threads * CHUNKS_PER_THREAD)));
+
+        List<Long> boundaries = new ArrayList<Long>();
+        boundaries.add(Long.valueOf(0));
+        long position = 0;
+        while (position + chunkSize < size) {
+            position = findLineStart(channel, position + chunkSize, size);
+            if (position >= size) {
+                break;
+            }
+            boundaries.add(Long.valueOf(position));
+        }
+        boundaries.add(Long.valueOf(size));
+
+        long[] result = new long[boundaries.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = boundaries.get(i).longValue();
+        }
+        return result;
+    }
+
+    /**
+     * Return the position of the start of the first line which starts after the given position (or the file size if
+     * there is none).  The line before it may end with LF, CR or CRLF.
+     */
+    static long findLineStart(FileChannel channel, long position, long size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+        // start one byte earlier, in case the position is already at the start of a line
+        position--;
+        boolean afterCarriageReturn = false;
+        while (position < size) {
+            buffer.clear();
+            int bytesRead = channel.read(buffer, position);
+            if (bytesRead <= 0) {
+                break;
+            }
+            for (int i = 0; i < bytesRead; i++) {
+                byte b = buffer.get(i);
+                if (afterCarriageReturn) {
+                    return b == LF ? position + i + 1 : position + i;
+                }
+                if (b == LF) {
+                    return position + i + 1;
+                }
+                if (b == CR) {
+                    afterCarriageReturn = true;
+                }
+            }
+            position += bytesRead;
+        }
+        return size;
+    }
+
+    /* ========================================================================
+     *
+     * Private methods
+     */
+
+    private void parseChunks(AbstractDataParser parser, FileChannel channel, Charset charset, long[] boundaries,
+            ForkJoinPool pool) throws IOException, InvalidDataException {
+        int chunkCount = boundaries.length - 1;
+        int maxPending = m_threads * PENDING_CHUNKS_PER_THREAD;
+        ChunkSequencer sequencer = new ChunkSequencer(m_factory, parser, charset);
+
+        ByteBuffer[] chunks = new ByteBuffer[chunkCount];
+        Deque<Future<ChunkSequencer.ChunkResult>> pending = new ArrayDeque<Future<ChunkSequencer.ChunkResult>>();
+        int nextChunk = 1;
+        for (; nextChunk < chunkCount && pending.size() < maxPending; nextChunk++) {
+            chunks[nextChunk] = mapChunk(channel, boundaries[nextChunk], boundaries[nextChunk + 1]);
+            pending.addLast(pool.submit(sequencer.createTask(chunks[nextChunk])));
+        }
+
+        // the first chunk is parsed directly, so that the header is handled as normal
+        sequencer.sequence(null, mapChunk(channel, boundaries[0], boundaries[1]));
+
+        for (int chunk = 1; chunk < chunkCount; chunk++) {
+            Future<ChunkSequencer.ChunkResult> result = pending.removeFirst();
+            if (nextChunk < chunkCount) {
+                chunks[nextChunk] = mapChunk(channel, boundaries[nextChunk], boundaries[nextChunk + 1]);
+                pending.addLast(pool.submit(sequencer.createTask(chunks[nextChunk])));
+                nextChunk++;
+            }
+
+            sequencer.sequence(result, chunks[chunk]);
+            // allow the mapping to be released
+            chunks[chunk] = null;
+        }
+    }
+
+    private ByteBuffer mapChunk(FileChannel channel, long start, long end) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+    }
+}
@@ -0,0 +1,837 @@
+/* (C) Copyright 2026, by John Dickson
+ *
+ * Project Info:  https://github.com/captsens/clichart
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2.1 of the License, or
+ * (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ */
+
+package net.sf.clichart.data;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+/**
+ * A cache of the values parsed from a file, kept in a file beside it, so that the same file can be charted again (e.g.
+ * with different titles or resampling) without parsing it again.  The cache is keyed by a string describing the
+ * parsing options, and is used while the file's length and modification time are unchanged.  If the file has only
+ * been appended to, the cached values are used and just the new lines are parsed, and added to the cache.
+ *
+ * <p>The values are recorded by the sinks from createRecordingSink(), which pass them on to the real sinks.  The cache
+ * file is in little-endian byte order, and consists of:
+ * <ul>
+ * <li> A header of fixed length, describing the source file when it was parsed, the parse statistics and the location
+ *      of the trailer
+ * <li> Blocks of records, each with the number of records and flags, then the x values, line numbers and for each
+ *      axis the missing value masks, value counts and the values, column by column.  The line numbers are reduced to
+ *      the first if they are consecutive, and the masks and counts are left out if no values are missing, as is
+ *      usual.  The blocks are mapped into memory when they are replayed
+ * <li> Trailers, holding the key and the column headers (if any).  The latest is the one referred to by the header.
+ *      Each starts with a negative record count, so that it can be skipped over when new blocks have been appended
+ *      after it
+ * </ul>
+ *
+ * <p>New blocks are only written after the end of the data described by the header, and the header is updated last,
+ * so a cache which wasn't completely written is either ignored or still correct.  Any problem reading the cache file
+ * just means that it isn't used.
+ *
+ * <p>Note that this class is not threadsafe.
+ *
+ * @author johnd
+ */
+public class ParseCache {
+
+    /* ========================================================================
+     *
+     * Class (static) variables.
+     */
+
+    /** The state of the cache: not usable, so the source must be parsed again */
+    public static final int STALE = 0;
+
+    /** The state of the cache: holds all the values in the source */
+    public static final int CURRENT = 1;
+
+    /** The state of the cache: the source has been appended to since the values were cached */
+    public static final int APPENDABLE = 2;
+
+    public static final String FILE_SUFFIX = ".clichart-cache";
+
+    private static final byte[] MAGIC = {'C', 'L', 'I', 'P', 'A', 'R', 'S', 'E'};
+    private static final int VERSION = 1;
+
+    private static final int HEADER_LENGTH = 112;
+    private static final int FLAG_APPENDABLE = 1;
+
+    private static final int BLOCK_RECORDS = 65536;
+
+    // block flags - the line numbers are consecutive, and (shifted by the axis) no values are missing for an axis
+    private static final int FLAG_CONSECUTIVE_LINES = 1;
+    private static final int FLAG_COMPLETE = 2;
+
+    // number of bytes at the start and end of the source which are checked to make sure it has only been appended to
+    private static final int CHECK_LENGTH = 64 * 1024;
+
+    // limit on the size of a trailer, so a corrupt cache can't cause a huge allocation
+    private static final int MAX_TRAILER_LENGTH = 1024 * 1024;
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    /* ========================================================================
+     *
+     * Instance variables.
+     */
+
+    private final File m_source;
+    private final String m_key;
+    private final File m_cacheFile;
+
+    // number of values per record for each axis
+    private final int[] m_columnCounts;
+
+    // the source file when the cache was opened
+    private long m_sourceLength = 0;
+    private long m_sourceModified = 0;
+
+    // from the cache file's header
+    private int m_flags = 0;
+    private long m_cachedLength = 0;
+    private long m_cachedModified = 0;
+    private long m_dataEnd = HEADER_LENGTH;
+    private long m_recordCount = 0;
+    private int m_lastLineNumber = 0;
+    private ParseStatistics m_statistics = new ParseStatistics();
+    private long m_headCrc = 0;
+    private long m_tailCrc = 0;
+
+    // the column headers for each axis, or null if none
+    private final String[][] m_headers;
+
+    // the file being written while recording, or null if not recording
+    private FileChannel m_output = null;
+    private File m_outputFile = null;
+    private boolean m_appending = false;
+    private IOException m_writeError = null;
+
+    private Block m_block = null;
+
+    /* ========================================================================
+     *
+     * Constructors
+     */
+
+    /**
+     * @param key  Describes the options affecting how the source is parsed.  Values cached with a different key are
+     *      not used
+     * @param secondAxisColumnCount  Number of values per record for the second axis, or 0 if there is none
+     */
+    public ParseCache(File source, String key, int columnCount, int secondAxisColumnCount) {
+        assert source != null;
+        m_source = source;
+
+        assert key != null;
+        m_key = key;
+        m_cacheFile = new File(source.getPath() + "." + Integer.toHexString(key.hashCode()) + FILE_SUFFIX);
+
+        assert columnCount > 0 && columnCount <= PrimitiveDataSink.MAX_VALUES;
+        assert secondAxisColumnCount >= 0 && secondAxisColumnCount <= PrimitiveDataSink.MAX_VALUES;
+        m_columnCounts = secondAxisColumnCount > 0 ? new int[] {columnCount, secondAxisColumnCount}
+                : new int[] {columnCount};
+        m_headers = new String[m_columnCounts.length][];
+    }
+
+    /* ========================================================================
+     *
+     * Static methods
+     */
+
+    /* ========================================================================
+     *
+     * Public methods
+     */
+
+    public File getCacheFile() {
+        return m_cacheFile;
+    }
+
+    /**
+     * Read the cache file (if any), and return its state - STALE, CURRENT or APPENDABLE
+     */
+    public int open() {
+        m_sourceLength = m_source.length();
+        m_sourceModified = m_source.lastModified();
+        if (!m_cacheFile.isFile()) {
+            return STALE;
+        }
+
+        try {
+            if (!readCache()) {
+                return STALE;
+            }
+            if (m_cachedLength == m_sourceLength && m_cachedModified == m_sourceModified) {
+                return CURRENT;
+            }
+            if ((m_flags & FLAG_APPENDABLE) != 0 && m_sourceLength > m_cachedLength
+                    && checksumSource(0, m_cachedLength) == m_headCrc
+                    && checksumSource(m_cachedLength - CHECK_LENGTH, m_cachedLength) == m_tailCrc) {
+                return APPENDABLE;
+            }
+        } catch (IOException e) {
+            // just parse the source again
+        } catch (RuntimeException e) {
+            // e.g. BufferUnderflowException - the cache is corrupt, so parse the source again
+        }
+        return STALE;
+    }
+
+    /**
+     * Return the statistics for parsing the cached values
+     */
+    public ParseStatistics getStatistics() {
+        return m_statistics;
+    }
+
+    /**
+     * Return true if column headers have been cached or recorded
+     */
+    public boolean hasHeaders() {
+        return m_headers[0] != null;
+    }
+
+    /**
+     * Pass the cached headers and values to the sinks, without advising them that parsing has finished.  Only valid
+     * once open() has found the cache to be CURRENT or APPENDABLE.
+     *
+     * @param secondAxisSink  Sink for the second axis, or null if there is none
+     */
+    public void replay(PrimitiveDataSink sink, PrimitiveDataSink secondAxisSink) throws IOException,
+            InvalidDataException {
+        PrimitiveDataSink[] sinks = secondAxisSink != null ? new PrimitiveDataSink[] {sink, secondAxisSink}
+                : new PrimitiveDataSink[] {sink};
+        assert sinks.length == m_columnCounts.length;
+        for (int axis = 0; axis < sinks.length; axis++) {
+            if (m_headers[axis] != null) {
+                sinks[axis].headerParsed(m_headers[axis]);
+            }
+        }
+
+        RandomAccessFile file = new RandomAccessFile(m_cacheFile, "r");
+        try {
+            FileChannel channel = file.getChannel();
+            Block block = new Block(m_columnCounts, 0);
+            double[][] values = new double[sinks.length][];
+            for (int axis = 0; axis < sinks.length; axis++) {
+                values[axis] = new double[m_columnCounts[axis]];
+            }
+
+            long position = HEADER_LENGTH;
+            while (position < m_dataEnd) {
+                ByteBuffer sizes = readBytes(channel, position, 8);
+                int recordCount = sizes.getInt();
+                if (recordCount < 0) {
+                    // a trailer, superseded by the blocks after it
+                    position += 8 + sizes.getInt();
+                    continue;
+                }
+                long blockLength = Block.getLength(m_columnCounts, recordCount, sizes.getInt());
+                MappedByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY, position, blockLength);
+                bytes.order(ByteOrder.LITTLE_ENDIAN);
+                block.decode(bytes);
+                block.replay(sinks, values);
+                position += blockLength;
+            }
+        } finally {
+            file.close();
+        }
+    }
+
+    /**
+     * Return a sink which records the values passed to it (while recording), and passes them on to the sink provided
+     */
+    public PrimitiveDataSink createRecordingSink(PrimitiveDataSink sink) {
+        return new RecordingSink(0, sink);
+    }
+
+    /**
+     * As for createRecordingSink(), for the second axis
+     */
+    public PrimitiveDataSink createSecondAxisRecordingSink(PrimitiveDataSink sink) {
+        assert m_columnCounts.length == 2;
+        return new RecordingSink(1, sink);
+    }
+
+    /**
+     * Start recording the values passed to the recording sinks, either to a new cache file or by appending them to
+     * the cached values.  Note that closeRecording() must be called once parsing has finished, whether or not it
+     * succeeded.
+     *
+     * @param append  True to append to the cached values (only valid if open() found the cache to be APPENDABLE)
+     */
+    public void startRecording(boolean append) throws IOException {
+        assert m_output == null;
+        m_appending = append;
+        m_block = new Block(m_columnCounts, BLOCK_RECORDS);
+        if (append) {
+            m_outputFile = m_cacheFile;
+            m_output = new RandomAccessFile(m_outputFile, "rw").getChannel();
+            // drop anything written after the cached data, e.g. by an earlier run which failed
+            m_output.truncate(m_dataEnd);
+            m_output.position(m_dataEnd);
+        } else {
+            m_outputFile = new File(m_cacheFile.getPath() + ".tmp");
+            m_output = new RandomAccessFile(m_outputFile, "rw").getChannel();
+            m_output.truncate(0);
+            m_output.position(HEADER_LENGTH);
+            m_recordCount = 0;
+            m_lastLineNumber = 0;
+            Arrays.fill(m_headers, null);
+        }
+    }
+
+    /**
+     * Parse the lines appended to the source since its values were cached, using a data parser whose sinks were
+     * created by createRecordingSink().  The cached statistics are added to the parser's.
+     */
+    public void parseAppended(AbstractDataParser parser, FileChannel channel, Charset charset) throws IOException,
+            InvalidDataException {
+        parser.ignoreHeader();
+        ByteLineReader reader = new ByteLineReader(channel, m_cachedLength, m_sourceLength, m_lastLineNumber + 1,
+                charset);
+        parser.parseLines(reader);
+        parser.getStatistics().add(m_statistics);
+        parser.finishParsing();
+    }
+
+    /**
+     * Write the rest of the recorded values and the header, completing the cache file.  Throws an exception if the
+     * cache couldn't be written, in which case the source must be parsed again next time.
+     *
+     * @param statistics  Statistics for parsing all values (including any already cached)
+     * @param lineCount  Number of lines in the source (including blank and skipped lines), so lines appended to it
+     *      can be numbered from there
+     * @param appendable  True if the cache can be used to parse lines appended to the source.  It is only used for
+     *      that if the source currently ends with a complete line
+     */
+    public void finishRecording(ParseStatistics statistics, int lineCount, boolean appendable) throws IOException {
+        if (m_writeError != null) {
+            throw m_writeError;
+        }
+        assert m_output != null;
+        if (!m_appending && m_source.length() != m_sourceLength) {
+            throw new IOException("Input changed while being parsed");
+        }
+
+        writeBlock();
+        long trailerOffset = m_output.position();
+        writeFully(encodeTrailer());
+        m_dataEnd = m_output.position();
+        m_output.force(false);
+
+        m_flags = appendable && endsWithLineEnd() ? FLAG_APPENDABLE : 0;
+        m_cachedLength = m_sourceLength;
+        m_cachedModified = m_sourceModified;
+        m_statistics = statistics;
+        m_lastLineNumber = lineCount;
+        m_headCrc = checksumSource(0, m_sourceLength);
+        m_tailCrc = checksumSource(m_sourceLength - CHECK_LENGTH, m_sourceLength);
+        ByteBuffer header = encodeHeader(trailerOffset);
+        while (header.hasRemaining()) {
+            m_output.write(header, header.position());
+        }
+        m_output.force(false);
+        m_output.close();
+        m_output = null;
+
+        if (!m_appending) {
+            try {
+                Files.move(m_outputFile.toPath(), m_cacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(m_outputFile.toPath(), m_cacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+    }
+
+    /**
+     * Stop recording, discarding the recorded values if finishRecording() hasn't been called.  Does nothing if not
+     * recording.
+     */
+    public void closeRecording() {
+        if (m_output == null) {
+            return;
+        }
+        try {
+            m_output.close();
+        } catch (IOException e) {
+            // nothing more can be done
+        }
+        m_output = null;
+        if (!m_appending) {
+            m_outputFile.delete();
+        }
+    }
+
+    /* ========================================================================
+     *
+     * Protected / package-private methods
+     */
+
+    /* ========================================================================
+     *
+     * Private methods
+     */
+
+    /**
+     * Read the header and the latest trailer of the cache file.  Returns false if they don't match the source's key
+     * and columns.
+     */
+    private boolean readCache() throws IOException {
+        RandomAccessFile file = new RandomAccessFile(m_cacheFile, "r");
+        try {
+            FileChannel channel = file.getChannel();
+            ByteBuffer header = readBytes(channel, 0, HEADER_LENGTH);
+            byte[] magic = new byte[MAGIC.length];
+            header.get(magic);
+            if (!Arrays.equals(magic, MAGIC) || header.getInt() != VERSION) {
+                return false;
+            }
+            m_flags = header.getInt();
+            m_cachedLength = header.getLong();
+            m_cachedModified = header.getLong();
+            m_dataEnd = header.getLong();
+            long trailerOffset = header.getLong();
+            m_recordCount = header.getLong();
+            m_lastLineNumber = header.getInt();
+            int blankLines = header.getInt();
+            int unmatchedLines = header.getInt();
+            header.getInt();
+            long missingValues = header.getLong();
+            long emptyValues = header.getLong();
+            m_statistics = new ParseStatistics(blankLines, unmatchedLines, missingValues, emptyValues);
+            m_headCrc = header.getLong();
+            m_tailCrc = header.getLong();
+            if (header.getInt() != m_columnCounts[0]
+                    || header.getInt() != (m_columnCounts.length > 1 ? m_columnCounts[1] : 0)) {
+                return false;
+            }
+            if (m_dataEnd > channel.size() || trailerOffset < HEADER_LENGTH || trailerOffset > m_dataEnd - 8) {
+                return false;
+            }
+
+            ByteBuffer sizes = readBytes(channel, trailerOffset, 8);
+            int length = sizes.getInt(4);
+            if (sizes.getInt(0) >= 0 || length < 0 || length > MAX_TRAILER_LENGTH) {
+                return false;
+            }
+            return decodeTrailer(readBytes(channel, trailerOffset + 8, length));
+        } finally {
+            file.close();
+        }
+    }
+
+    private ByteBuffer encodeHeader(long trailerOffset) {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH).order(ByteOrder.LITTLE_ENDIAN);
+        header.put(MAGIC);
+        header.putInt(VERSION);
+        header.putInt(m_flags);
+        header.putLong(m_cachedLength);
+        header.putLong(m_cachedModified);
+        header.putLong(m_dataEnd);
+        header.putLong(trailerOffset);
+        header.putLong(m_recordCount);
+        header.putInt(m_lastLineNumber);
+        header.putInt(m_statistics.getBlankLines());
+        header.putInt(m_statistics.getUnmatchedLines());
+        header.putInt(0);
+        header.putLong(m_statistics.getMissingValues());
+        header.putLong(m_statistics.getEmptyValues());
+        header.putLong(m_headCrc);
+        header.putLong(m_tailCrc);
+        header.putInt(m_columnCounts[0]);
+        header.putInt(m_columnCounts.length > 1 ? m_columnCounts[1] : 0);
+        assert !header.hasRemaining();
+        header.flip();
+        return header;
+    }
+
+    /**
+     * Encode the key and the headers, preceded by -1 and their length
+     */
+    private ByteBuffer encodeTrailer() {
+        byte[] key = m_key.getBytes(UTF8);
+        int length = 4 + key.length;
+        byte[][][] headers = new byte[m_headers.length][][];
+        for (int axis = 0; axis < m_headers.length; axis++) {
+            length += 4;
+            if (m_headers[axis] != null) {
+                headers[axis] = new byte[m_headers[axis].length][];
+                for (int i = 0; i < headers[axis].length; i++) {
+                    headers[axis][i] = m_headers[axis][i] == null ? new byte[0] : m_headers[axis][i].getBytes(UTF8);
+                    length += 4 + headers[axis][i].length;
+                }
+            }
+        }
+
+        ByteBuffer trailer = ByteBuffer.allocate(8 + length).order(ByteOrder.LITTLE_ENDIAN);
+        trailer.putInt(-1).putInt(length);
+        trailer.putInt(key.length).put(key);
+        for (int axis = 0; axis < headers.length; axis++) {
+            if (headers[axis] == null) {
+                trailer.putInt(-1);
+            } else {
+                trailer.putInt(headers[axis].length);
+                for (int i = 0; i < headers[axis].length; i++) {
+                    trailer.putInt(headers[axis][i].length).put(headers[axis][i]);
+                }
+            }
+        }
+        trailer.flip();
+        return trailer;
+    }
+
+    /**
+     * Decode the key and headers from a trailer, returning false if the key doesn't match
+     */
+    private boolean decodeTrailer(ByteBuffer trailer) {
+        if (!m_key.equals(decodeString(trailer))) {
+            return false;
+        }
+        for (int axis = 0; axis < m_headers.length; axis++) {
+            int count = trailer.getInt();
+            if (count > PrimitiveDataSink.MAX_VALUES) {
+                return false;
+            }
+            m_headers[axis] = count < 0 ? null : new String[count];
+            for (int i = 0; i < count; i++) {
+                m_headers[axis][i] = decodeString(trailer);
+            }
+        }
+        return true;
+    }
+
+    private String decodeString(ByteBuffer bytes) {
+        byte[] string = new byte[bytes.getInt()];
+        bytes.get(string);
+        return new String(string, UTF8);
+    }
+
+    /**
+     * Return true if the source ends with a complete line, so lines appended to it can be parsed separately
+     */
+    private boolean endsWithLineEnd() throws IOException {
+        if (m_sourceLength == 0) {
+            return true;
+        }
+        RandomAccessFile file = new RandomAccessFile(m_source, "r");
+        try {
+            return readBytes(file.getChannel(), m_sourceLength - 1, 1).get() == '\n';
+        } finally {
+            file.close();
+        }
+    }
+
+    /**
+     * Return the CRC of the source's bytes from start to end, limited to CHECK_LENGTH bytes from start
+     */
+    private long checksumSource(long start, long end) throws IOException {
+        start = Math.max(0, start);
+        end = Math.min(end, start + CHECK_LENGTH);
+        RandomAccessFile file = new RandomAccessFile(m_source, "r");
+        try {
+            CRC32 crc = new CRC32();
+            crc.update(readBytes(file.getChannel(), start, (int) (end - start)));
+            return crc.getValue();
+        } finally {
+            file.close();
+        }
+    }
+
+    /**
+     * Read bytes from the channel at the position given, throwing an exception if there aren't enough
+     */
+    private ByteBuffer readBytes(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer bytes = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        while (bytes.hasRemaining()) {
+            if (channel.read(bytes, position + bytes.position()) < 0) {
+                throw new IOException("Unexpected end of file: " + m_cacheFile);
+            }
+        }
+        bytes.flip();
+        return bytes;
+    }
+
+    /**
+     * Record the values passed to a recording sink.  A record is complete once the values for the last axis have been
+     * passed.
+     */
+    private void record(int axis, double xValue, double[] yValues, long missingValues, int valueCount,
+            int lineNumber) {
+        if (m_output == null) {
+            return;
+        }
+        m_block.set(axis, xValue, yValues, missingValues, valueCount, lineNumber);
+        if (axis == m_columnCounts.length - 1) {
+            m_block.m_size++;
+            m_recordCount++;
+            if (m_block.m_size == BLOCK_RECORDS) {
+                try {
+                    writeBlock();
+                } catch (IOException e) {
+                    // stop recording - the error is reported by finishRecording()
+                    m_writeError = e;
+                    closeRecording();
+                }
+            }
+        }
+    }
+
+    private void writeBlock() throws IOException {
+        if (m_block.m_size > 0) {
+            writeFully(m_block.encode());
+            m_block.m_size = 0;
+        }
+    }
+
+    private void writeFully(ByteBuffer bytes) throws IOException {
+        while (bytes.hasRemaining()) {
+            m_output.write(bytes);
+        }
+    }
+
+    /* ========================================================================
+     *
+     * Inner classes
+     */
+
+    /**
+     * A block of records, used both for recording and replaying
+     */
+    private static class Block {
+
+        private final int[] m_columnCounts;
+
+        private int m_size = 0;
+        private int m_capacity;
+
+        private double[] m_xValues;
+        private int[] m_lineNumbers;
+
+        // by axis
+        private long[][] m_missingValues;
+        private byte[][] m_valueCounts;
+
+        // by axis, column by column, each column having m_capacity values
+        private double[][] m_values;
+
+        public Block(int[] columnCounts, int capacity) {
+            m_columnCounts = columnCounts;
+            allocate(capacity);
+        }
+
+        /**
+         * Return the length in bytes of an encoded block with the given number of records and flags
+         */
+        public static long getLength(int[] columnCounts, int recordCount, int flags) {
+            long length = 8 + recordCount * 8L;
+            length += (flags & FLAG_CONSECUTIVE_LINES) != 0 ? 4 : recordCount * 4L;
+            for (int axis = 0; axis < columnCounts.length; axis++) {
+                if ((flags & (FLAG_COMPLETE << axis)) == 0) {
+                    length += recordCount * 9L;
+                }
+                length += recordCount * 8L * columnCounts[axis];
+            }
+            return length;
+        }
+
+        public void set(int axis, double xValue, double[] yValues, long missingValues, int valueCount,
+                int lineNumber) {
+            if (axis == 0) {
+                m_xValues[m_size] = xValue;
+                m_lineNumbers[m_size] = lineNumber;
+            }
+            m_missingValues[axis][m_size] = missingValues;
+            m_valueCounts[axis][m_size] = (byte) valueCount;
+            for (int i = 0; i < valueCount; i++) {
+                m_values[axis][i * m_capacity + m_size] = yValues[i];
+            }
+        }
+
+        public ByteBuffer encode() {
+            int flags = getFlags();
+            ByteBuffer bytes = ByteBuffer.allocate((int) getLength(m_columnCounts, m_size, flags))
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            bytes.putInt(m_size);
+            bytes.putInt(flags);
+            bytes.asDoubleBuffer().put(m_xValues, 0, m_size);
+            bytes.position(bytes.position() + m_size * 8);
+            if ((flags & FLAG_CONSECUTIVE_LINES) != 0) {
+                bytes.putInt(m_lineNumbers[0]);
+            } else {
+                bytes.asIntBuffer().put(m_lineNumbers, 0, m_size);
+                bytes.position(bytes.position() + m_size * 4);
+            }
+            for (int axis = 0; axis < m_columnCounts.length; axis++) {
+                if ((flags & (FLAG_COMPLETE << axis)) == 0) {
+                    bytes.asLongBuffer().put(m_missingValues[axis], 0, m_size);
+                    bytes.position(bytes.position() + m_size * 8);
+                    bytes.put(m_valueCounts[axis], 0, m_size);
+                }
+                for (int column = 0; column < m_columnCounts[axis]; column++) {
+                    bytes.asDoubleBuffer().put(m_values[axis], column * m_capacity, m_size);
+                    bytes.position(bytes.position() + m_size * 8);
+                }
+            }
+            assert !bytes.hasRemaining();
+            bytes.flip();
+            return bytes;
+        }
+
+        public void decode(ByteBuffer bytes) {
+            int size = bytes.getInt();
+            if (size > m_capacity) {
+                allocate(size);
+            }
+            m_size = size;
+            int flags = bytes.getInt();
+            bytes.asDoubleBuffer().get(m_xValues, 0, size);
+            bytes.position(bytes.position() + size * 8);
+            if ((flags & FLAG_CONSECUTIVE_LINES) != 0) {
+                int firstLineNumber = bytes.getInt();
+                for (int i = 0; i < size; i++) {
+                    m_lineNumbers[i] = firstLineNumber + i;
+                }
+            } else {
+                bytes.asIntBuffer().get(m_lineNumbers, 0, size);
+                bytes.position(bytes.position() + size * 4);
+            }
+            for (int axis = 0; axis < m_columnCounts.length; axis++) {
+                if ((flags & (FLAG_COMPLETE << axis)) != 0) {
+                    Arrays.fill(m_missingValues[axis], 0, size, 0);
+                    Arrays.fill(m_valueCounts[axis], 0, size, (byte) m_columnCounts[axis]);
+                } else {
+                    bytes.asLongBuffer().get(m_missingValues[axis], 0, size);
+                    bytes.position(bytes.position() + size * 8);
+                    bytes.get(m_valueCounts[axis], 0, size);
+                }
+                for (int column = 0; column < m_columnCounts[axis]; column++) {
+                    bytes.asDoubleBuffer().get(m_values[axis], column * m_capacity, size);
+                    bytes.position(bytes.position() + size * 8);
+                }
+            }
+        }
+
+        /**
+         * Pass the records to the sinks
+         *
+         * @param values  Arrays to pass the values of each axis in
+         */
+        public void replay(PrimitiveDataSink[] sinks, double[][] values) throws InvalidDataException {
+            for (int record = 0; record < m_size; record++) {
+                for (int axis = 0; axis < sinks.length; axis++) {
+                    int valueCount = m_valueCounts[axis][record];
+                    for (int i = 0; i < valueCount; i++) {
+                        values[axis][i] = m_values[axis][i * m_capacity + record];
+                    }
+                    sinks[axis].dataParsed(m_xValues[record], values[axis], m_missingValues[axis][record], valueCount,
+                            m_lineNumbers[record]);
+                }
+            }
+        }
+
+        /**
+         * Return the flags for encoding the block, i.e. whether the line numbers are consecutive, and which axes have
+         * no missing values
+         */
+        private int getFlags() {
+            int flags = FLAG_CONSECUTIVE_LINES;
+            for (int i = 1; i < m_size && flags != 0; i++) {
+                if (m_lineNumbers[i] != m_lineNumbers[0] + i) {
+                    flags = 0;
+                }
+            }
+            for (int axis = 0; axis < m_columnCounts.length; axis++) {
+                boolean complete = true;
+                for (int i = 0; i < m_size && complete; i++) {
+                    complete = m_missingValues[axis][i] == 0 && m_valueCounts[axis][i] == m_columnCounts[axis];
+                }
+                if (complete) {
+                    flags |= FLAG_COMPLETE << axis;
+                }
+            }
+            return flags;
+        }
+
+        private void allocate(int capacity) {
+            m_capacity = capacity;
+            m_xValues = new double[capacity];
+            m_lineNumbers = new int[capacity];
+            m_missingValues = new long[m_columnCounts.length][capacity];
+            m_valueCounts = new byte[m_columnCounts.length][capacity];
+            m_values = new double[m_columnCounts.length][];
+            for (int axis = 0; axis < m_columnCounts.length; axis++) {
+                m_values[axis] = new double[capacity * m_columnCounts[axis]];
+            }
+        }
+    }
+
+    /**
+     * Records the values passed to it, and passes them on to another sink
+     */
+    private class RecordingSink implements PrimitiveDataSink {
+
+        private final int m_axis;
+        private final PrimitiveDataSink m_sink;
+
+        public RecordingSink(int axis, PrimitiveDataSink sink) {
+            m_axis = axis;
+
+            assert sink != null;
+            m_sink = sink;
+        }
+
+        public void headerParsed(String[] headers) throws InvalidDataException {
+            if (m_output != null) {
+                m_headers[m_axis] = headers.clone();
+            }
+            m_sink.headerParsed(headers);
+        }
+
+        public void dataParsed(Object xValue, Object[] yValues, int lineNumber) {
+            throw new IllegalStateException("Only primitive values are cached");
+        }
+
+        public void dataParsed(double xValue, double[] yValues, long missingValues, int valueCount, int lineNumber)
+                throws InvalidDataException {
+            record(m_axis, xValue, yValues, missingValues, valueCount, lineNumber);
+            m_sink.dataParsed(xValue, yValues, missingValues, valueCount, lineNumber);
+        }
+
+        public void parsingFinished() {
+            m_sink.parsingFinished();
+        }
+    }
+}
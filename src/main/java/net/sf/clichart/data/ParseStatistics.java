@@ -0,0 +1,147 @@
+/* (C) Copyright 2026, by John Dickson
+ *
+ * Project Info:  https://github.com/captsens/clichart
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2.1 of the License, or
+ * (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ */
+
+package net.sf.clichart.data;
+
+/**
+ * Counts the lines and values skipped by a data parser, by reason, so they can be reported once parsing has finished
+ * rather than individually.
+ *
+ * <p>Note that this class is not threadsafe.
+ *
+ * @author johnd
+ */
+public class ParseStatistics {
+
+    /* ========================================================================
+     *
+     * Class (static) variables.
+     */
+
+    /* ========================================================================
+     *
+     * Instance variables.
+     */
+
+    // lines consisting only of white space
+    private int m_blankLines = 0;
+
+    // lines which didn't match the line parser's pattern (if any)
+    private int m_unmatchedLines = 0;
+
+    // values missing because the line had too few columns (only skipped if ignoring missing values)
+    private long m_missingValues = 0;
+
+    // values which were empty or white space (only skipped if ignoring empty values)
+    private long m_emptyValues = 0;
+
+    /* ========================================================================
+     *
+     * Constructors
+     */
+
+    public ParseStatistics() {
+    }
+
+    /**
+     * Constructor restoring counts saved earlier, e.g. in a ParseCache
+     */
+    ParseStatistics(int blankLines, int unmatchedLines, long missingValues, long emptyValues) {
+        m_blankLines = blankLines;
+        m_unmatchedLines = unmatchedLines;
+        m_missingValues = missingValues;
+        m_emptyValues = emptyValues;
+    }
+
+    /* ========================================================================
+     *
+     * Static methods
+     */
+
+    /* ========================================================================
+     *
+     * Public methods
+     */
+
+    public int getBlankLines() {
+        return m_blankLines;
+    }
+
+    public int getUnmatchedLines() {
+        return m_unmatchedLines;
+    }
+
+    public long getMissingValues() {
+        return m_missingValues;
+    }
+
+    public long getEmptyValues() {
+        return m_emptyValues;
+    }
+
+    /**
+     * Return true if any values were skipped (blank and unmatched lines are ignored, since they're quite normal)
+     */
+    public boolean hasSkippedValues() {
+        return m_missingValues > 0 || m_emptyValues > 0;
+    }
+
+    /**
+     * Add the counts from another instance, e.g. for a chunk of the input parsed separately
+     */
+    public void add(ParseStatistics other) {
+        m_blankLines += other.m_blankLines;
+        m_unmatchedLines += other.m_unmatchedLines;
+        m_missingValues += other.m_missingValues;
+        m_emptyValues += other.m_emptyValues;
+    }
+
+    public String toString() {
+        String unmatchedLines = m_unmatchedLines > 0 ? ", " + m_unmatchedLines + " unmatched lines" : "";
+        return "Skipped " + m_missingValues + " missing values, " + m_emptyValues + " empty values" + unmatchedLines
+                + " and " + m_blankLines + " blank lines";
+    }
+
+    /* ========================================================================
+     *
+     * Protected / package-private methods
+     */
+
+    void addBlankLines(int count) {
+        m_blankLines += count;
+    }
+
+    void addUnmatchedLines(int count) {
+        m_unmatchedLines += count;
+    }
+
+    void addMissingValue() {
+        m_missingValues++;
+    }
+
+    void addEmptyValue() {
+        m_emptyValues++;
+    }
+
+    /* ========================================================================
+     *
+     * Private methods
+     */
+}
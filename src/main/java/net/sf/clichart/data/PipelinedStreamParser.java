@@ -0,0 +1,272 @@
+/* (C) Copyright 2026, by John Dickson
+ *
+ * Project Info:  https://github.com/captsens/clichart
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2.1 of the License, or
+ * (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ */
+
+package net.sf.clichart.data;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Parses a stream (e.g. stdin or a pipe) on several threads, giving exactly the same results as parsing it with a
+ * single data parser.  Unlike ParallelFileParser, the input can't be split up front, so it is handled as a pipeline:
+ * <ul>
+ * <li> A reader thread reads the input into large blocks, each ending at a line boundary, and submits each block to a
+ *      fork-join pool for parsing
+ * <li> The pool threads parse whole blocks, each with its own data parser (from a DataParserFactory)
+ * <li> The calling thread passes the parsed blocks to the real sinks in their original order, using a ChunkSequencer
+ * </ul>
+ *
+ * <p>Blocks are passed from the reader to the calling thread through a bounded queue, so if parsing or the sinks fall
+ * behind, the reader blocks rather than reading more input, which limits the memory used.
+ *
+ * <p>Only used where the sinks accept primitive values - otherwise the stream is parsed sequentially.
+ *
+ * @author johnd
+ */
+public class PipelinedStreamParser {
+
+    /* ========================================================================
+     *
+     * Class (static) variables.
+     */
+
+    public static final int DEFAULT_BLOCK_SIZE = 1024 * 1024;
+
+    // number of blocks per thread which may be read ahead of the block being passed to the sinks
+    private static final int PENDING_BLOCKS_PER_THREAD = 2;
+
+    private static final byte LF = '\n';
+    private static final byte CR = '\r';
+
+    /* ========================================================================
+     *
+     * Instance variables.
+     */
+
+    private final DataParserFactory m_factory;
+
+    private final int m_threads;
+
+    private final int m_blockSize;
+
+    /* ========================================================================
+     *
+     * Constructors
+     */
+
+    public PipelinedStreamParser(DataParserFactory factory, int threads) {
+        this(factory, threads, DEFAULT_BLOCK_SIZE);
+    }
+
+    /**
+     * Constructor allowing small blocks, for testing
+     */
+    PipelinedStreamParser(DataParserFactory factory, int threads, int blockSize) {
+        assert factory != null;
+        m_factory = factory;
+        m_threads = threads;
+
+        assert blockSize > 0;
+        m_blockSize = blockSize;
+    }
+
+    /* ========================================================================
+     *
+     * Static methods
+     */
+
+    /* ========================================================================
+     *
+     * Public methods
+     */
+
+    /**
+     * Parse the stream.  The stream is not closed.
+     *
+     * @param parser  Parser with the sinks that all lines are to be passed to.  Must have been created by the factory
+     *      (or identically)
+     */
+    public void parse(AbstractDataParser parser, InputStream source, Charset charset)
+            throws IOException, InvalidDataException {
+        if (m_threads <= 1 || !parser.usesPrimitiveSinks()) {
+            parser.parse(new InputStreamReader(source, charset));
+            return;
+        }
+
+        ChunkSequencer sequencer = new ChunkSequencer(m_factory, parser, charset);
+        BlockingQueue<Block> queue = new ArrayBlockingQueue<Block>(m_threads * PENDING_BLOCKS_PER_THREAD);
+        ForkJoinPool pool = new ForkJoinPool(m_threads);
+        Thread reader = new Thread(new BlockReader(source, queue, pool, sequencer), "clichart-reader");
+        reader.setDaemon(true);
+        reader.start();
+        try {
+            while (true) {
+                Block block = takeBlock(queue);
+                if (block.m_error != null) {
+                    throw block.m_error;
+                }
+                if (block.m_bytes == null) {
+                    break;
+                }
+                sequencer.sequence(block.m_result, block.m_bytes);
+            }
+        } finally {
+            reader.interrupt();
+            pool.shutdownNow();
+        }
+
+        parser.finishParsing();
+    }
+
+    /* ========================================================================
+     *
+     * Protected / package-private methods
+     */
+
+    /**
+     * Return the length of the leading part of the block that consists of whole lines, or -1 if there is no line end
+     * in the block.  A CR in the last byte isn't treated as a line end, since it may be followed by an LF.
+     */
+    static int findLastLineEnd(byte[] block, int length) {
+        for (int i = length - 1; i >= 0; i--) {
+            if (block[i] == LF || (block[i] == CR && i < length - 1)) {
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+
+    /* ========================================================================
+     *
+     * Private methods
+     */
+
+    private Block takeBlock(BlockingQueue<Block> queue) throws IOException {
+        try {
+            return queue.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while parsing");
+        }
+    }
+
+    /* ========================================================================
+     *
+     * Inner classes
+     */
+
+    /**
+     * A block of whole lines, with the result of parsing it.  A block with no bytes marks the end of the input, or an
+     * error reading it
+     */
+    private static class Block {
+
+        private final ByteBuffer m_bytes;
+        private final Future<ChunkSequencer.ChunkResult> m_result;
+        private final IOException m_error;
+
+        public Block(ByteBuffer bytes, Future<ChunkSequencer.ChunkResult> result, IOException error) {
+            m_bytes = bytes;
+            m_result = result;
+            m_error = error;
+        }
+    }
+
+    /**
+     * Reads the stream into blocks of whole lines, and submits them for parsing
+     */
+    private class BlockReader implements Runnable {
+
+        private final InputStream m_source;
+        private final BlockingQueue<Block> m_queue;
+        private final ForkJoinPool m_pool;
+        private final ChunkSequencer m_sequencer;
+
+        public BlockReader(InputStream source, BlockingQueue<Block> queue, ForkJoinPool pool,
+                ChunkSequencer sequencer) {
+            m_source = source;
+            m_queue = queue;
+            m_pool = pool;
+            m_sequencer = sequencer;
+        }
+
+        public void run() {
+            try {
+                try {
+                    readBlocks();
+                    m_queue.put(new Block(null, null, null));
+                } catch (IOException e) {
+                    m_queue.put(new Block(null, null, e));
+                }
+            } catch (InterruptedException e) {
+                // parsing has been abandoned
+            }
+        }
+
+        private void readBlocks() throws IOException, InterruptedException {
+            // part of a line carried over from the previous block
+            byte[] carried = new byte[0];
+            int carriedLength = 0;
+
+            boolean endOfInput = false;
+            while (!endOfInput) {
+                byte[] block = new byte[Math.max(m_blockSize, carriedLength * 2)];
+                System.arraycopy(carried, 0, block, 0, carriedLength);
+                int length = carriedLength;
+                while (length < block.length) {
+                    int bytesRead = m_source.read(block, length, block.length - length);
+                    if (bytesRead < 0) {
+                        endOfInput = true;
+                        break;
+                    }
+                    length += bytesRead;
+                }
+
+                int blockLength = endOfInput ? length : findLastLineEnd(block, length);
+                if (blockLength < 0) {
+                    // a very long line - read more of it into a bigger block
+                    carried = block;
+                    carriedLength = length;
+                    continue;
+                }
+
+                // the block now belongs to the parsing task, so the rest of it must be copied
+                carriedLength = length - blockLength;
+                carried = Arrays.copyOfRange(block, blockLength, length);
+                if (blockLength > 0) {
+                    submit(ByteBuffer.wrap(block, 0, blockLength));
+                }
+            }
+        }
+
+        private void submit(ByteBuffer bytes) throws InterruptedException {
+            m_queue.put(new Block(bytes, m_pool.submit(m_sequencer.createTask(bytes)), null));
+        }
+    }
+}
@@ -0,0 +1,59 @@
+/* (C) Copyright 2026, by John Dickson
+ *
+ * Project Info:  https://github.com/captsens/clichart
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2.1 of the License, or
+ * (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ */
+
+package net.sf.clichart.data;
+
+/**
+ * A DataSink that can also receive parsed data as primitive values, avoiding the creation of objects for each line.
+ * Used in preference to dataParsed(Object, Object[], int) by AbstractDataParser.
+ *
+ * <p>X values are passed as a double: for time-based data this is the time in milliseconds since the epoch, and where
+ * there is no x column it is the line number.
+ *
+ * @author johnd
+ */
+public interface PrimitiveDataSink extends DataSink {
+
+    /* ========================================================================
+     *
+     * Interface (static) variables.
+     */
+
+    /** The maximum number of y values that can be passed to the primitive dataParsed() method */
+    public static final int MAX_VALUES = 64;
+
+    /* ========================================================================
+     *
+     * Public methods
+     */
+
+    /**
+     * Provides the data from a line of tabular data that has been parsed from some source.
+     *
+     * @param xValue The X axis value for the data
+     * @param yValues Holds the values for the line.  Belongs to the caller, and is only valid until the next call
+     * @param missingValues Bit mask with bit i set if the value for column i was missing or empty, in which case
+     *      yValues[i] is undefined
+     * @param valueCount The number of values in yValues (at most MAX_VALUES)
+     * @param lineNumber The 1-based line number for this line in the data source
+     */
+    public void dataParsed(double xValue, double[] yValues, long missingValues, int valueCount, int lineNumber)
+            throws InvalidDataException;
+}
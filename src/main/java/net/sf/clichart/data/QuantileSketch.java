@@ -0,0 +1,302 @@
+/* (C) Copyright 2026, by John Dickson
+ *
+ * Project Info:  https://github.com/captsens/clichart
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2.1 of the License, or
+ * (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ */
+
+package net.sf.clichart.data;
+
+/**
+ * Estimates quantiles (e.g. the median or 99th percentile) of a stream of values in bounded memory, without keeping
+ * the values themselves.  Values are counted in bins whose widths grow logarithmically (like an HDR histogram), so
+ * each quantile is estimated to within RELATIVE_ACCURACY of its true value.  The minimum and maximum are exact.
+ *
+ * <p>At most MAX_BINS bins are kept for each sign.  If values span a wider range than that, the bins for the values
+ * closest to zero are merged, so only the accuracy of the lowest quantiles suffers.
+ *
+ * <p>Sketches can be merged, giving the same result as if all values had been added to one sketch.
+ *
+ * <p>Note that this class is not threadsafe.
+ *
+ * @author johnd
+ */
+public class QuantileSketch {
+
+    /* ========================================================================
+     *
+     * Class (static) variables.
+     */
+
+    /** Maximum error in estimated quantiles, relative to the true value */
+    public static final double RELATIVE_ACCURACY = 0.01;
+
+    /** Maximum number of bins for each of the positive and negative values */
+    public static final int MAX_BINS = 2048;
+
+    private static final double GAMMA = (1 + RELATIVE_ACCURACY) / (1 - RELATIVE_ACCURACY);
+    private static final double LOG_GAMMA = Math.log(GAMMA);
+
+    private static final int INITIAL_BINS = 32;
+
+    /* ========================================================================
+     *
+     * Instance variables.
+     */
+
+    // bins for the absolute values of positive and negative values
+    private final Bins m_positiveBins = new Bins();
+    private final Bins m_negativeBins = new Bins();
+
+    private long m_zeroCount = 0;
+
+    private long m_count = 0;
+
+    private double m_minimum = Double.NaN;
+    private double m_maximum = Double.NaN;
+
+    /* ========================================================================
+     *
+     * Constructors
+     */
+
+    /* ========================================================================
+     *
+     * Static methods
+     */
+
+    /* ========================================================================
+     *
+     * Public methods
+     */
+
+    /**
+     * Add a value.  NaN and infinite values are ignored
+     */
+    public void add(double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            return;
+        }
+
+        if (value > 0) {
+            m_positiveBins.add(getBinIndex(value), 1);
+        } else if (value < 0) {
+            m_negativeBins.add(getBinIndex(-value), 1);
+        } else {
+            m_zeroCount++;
+        }
+
+        if (m_count == 0) {
+            m_minimum = value;
+            m_maximum = value;
+        } else {
+            m_minimum = Math.min(m_minimum, value);
+            m_maximum = Math.max(m_maximum, value);
+        }
+        m_count++;
+    }
+
+    /**
+     * Add all the values counted by another sketch
+     */
+    public void merge(QuantileSketch other) {
+        if (other.m_count == 0) {
+            return;
+        }
+
+        m_positiveBins.addAll(other.m_positiveBins);
+        m_negativeBins.addAll(other.m_negativeBins);
+        m_zeroCount += other.m_zeroCount;
+        if (m_count == 0) {
+            m_minimum = other.m_minimum;
+            m_maximum = other.m_maximum;
+        } else {
+            m_minimum = Math.min(m_minimum, other.m_minimum);
+            m_maximum = Math.max(m_maximum, other.m_maximum);
+        }
+        m_count += other.m_count;
+    }
+
+    public long getCount() {
+        return m_count;
+    }
+
+    /**
+     * Return the estimated value of the quantile, or NaN if no values have been added.
+     *
+     * @param quantile  The quantile, from 0 (the minimum) to 1 (the maximum), e.g. 0.99 for the 99th percentile
+     */
+    public double getQuantile(double quantile) {
+        assert quantile >= 0 && quantile <= 1;
+        if (m_count == 0) {
+            return Double.NaN;
+        }
+
+        // the rank of the value required, counting from 0
+        long rank = (long) (quantile * (m_count - 1));
+        double value;
+        if (rank == 0) {
+            return m_minimum;
+        } else if (rank == m_count - 1) {
+            return m_maximum;
+        } else if (rank < m_negativeBins.m_count) {
+            // negative values run from the highest absolute value
+            value = -getBinValue(m_negativeBins.getIndex(m_negativeBins.m_count - 1 - rank));
+        } else if (rank < m_negativeBins.m_count + m_zeroCount) {
+            value = 0;
+        } else {
+            value = getBinValue(m_positiveBins.getIndex(rank - m_negativeBins.m_count - m_zeroCount));
+        }
+        return Math.max(m_minimum, Math.min(m_maximum, value));
+    }
+
+    /* ========================================================================
+     *
+     * Protected / package-private methods
+     */
+
+    /**
+     * Return the number of bins allocated, for testing
+     */
+    int getBinsAllocated() {
+        return m_positiveBins.m_counts.length + m_negativeBins.m_counts.length;
+    }
+
+    /* ========================================================================
+     *
+     * Private methods
+     */
+
+    /**
+     * Return the index of the bin for a positive value
+     */
+    private static int getBinIndex(double value) {
+        return (int) Math.ceil(Math.log(value) / LOG_GAMMA);
+    }
+
+    /**
+     * Return the value representing a bin, which is within RELATIVE_ACCURACY of every value in the bin
+     */
+    private static double getBinValue(int index) {
+        return 2 * Math.pow(GAMMA, index) / (GAMMA + 1);
+    }
+
+    /* ========================================================================
+     *
+     * Inner classes
+     */
+
+    /**
+     * Counts for a contiguous range of bin indexes, which grows as required
+     */
+    private static class Bins {
+
+        // m_counts[i] is the count for bin index m_offset + i
+        private long[] m_counts = new long[0];
+        private int m_offset = 0;
+
+        // the lowest and highest indexes with a count, if m_count is non-zero
+        private int m_minIndex = 0;
+        private int m_maxIndex = 0;
+
+        private long m_count = 0;
+
+        public void add(int index, long count) {
+            if (m_count == 0) {
+                if (m_counts.length == 0) {
+                    m_counts = new long[INITIAL_BINS];
+                }
+                m_offset = index - m_counts.length / 2;
+                m_minIndex = index;
+                m_maxIndex = index;
+            } else if (index > m_maxIndex) {
+                int minIndex = Math.max(m_minIndex, index - MAX_BINS + 1);
+                long collapsed = removeBelow(minIndex);
+                m_minIndex = minIndex;
+                m_maxIndex = index;
+                ensureCapacity();
+                m_counts[minIndex - m_offset] += collapsed;
+            } else if (index < m_minIndex) {
+                // the lowest bin kept collects everything below it
+                index = Math.max(index, m_maxIndex - MAX_BINS + 1);
+                m_minIndex = index;
+                ensureCapacity();
+            }
+            m_counts[index - m_offset] += count;
+            m_count += count;
+        }
+
+        public void addAll(Bins other) {
+            // add from the highest index, so any collapsing happens once
+            for (int index = other.m_maxIndex; other.m_count > 0 && index >= other.m_minIndex; index--) {
+                long count = other.m_counts[index - other.m_offset];
+                if (count > 0) {
+                    add(index, count);
+                }
+            }
+        }
+
+        /**
+         * Return the index of the bin containing the value with the given rank (counting from 0 at the lowest index)
+         */
+        public int getIndex(long rank) {
+            long total = 0;
+            for (int index = m_minIndex; index < m_maxIndex; index++) {
+                total += m_counts[index - m_offset];
+                if (total > rank) {
+                    return index;
+                }
+            }
+            return m_maxIndex;
+        }
+
+        /**
+         * Clear the bins below the index, returning their total count
+         */
+        private long removeBelow(int index) {
+            long count = 0;
+            for (int i = m_minIndex; i < index && i <= m_maxIndex; i++) {
+                count += m_counts[i - m_offset];
+                m_counts[i - m_offset] = 0;
+            }
+            return count;
+        }
+
+        /**
+         * Make sure the array covers m_minIndex to m_maxIndex, moving or growing it as required
+         */
+        private void ensureCapacity() {
+            if (m_minIndex >= m_offset && m_maxIndex < m_offset + m_counts.length) {
+                return;
+            }
+
+            int span = m_maxIndex - m_minIndex + 1;
+            int length = m_counts.length;
+            while (length < span + span / 2) {
+                length *= 2;
+            }
+            long[] counts = new long[Math.min(length, MAX_BINS * 2)];
+            int offset = m_minIndex - (counts.length - span) / 2;
+            int oldMin = Math.max(m_offset, offset);
+            int oldMax = Math.min(m_offset + m_counts.length, offset + counts.length);
+            if (oldMin < oldMax) {
+                System.arraycopy(m_counts, oldMin - m_offset, counts, oldMin - offset, oldMax - oldMin);
+            }
+            m_counts = counts;
+            m_offset = offset;
+        }
+    }
+}
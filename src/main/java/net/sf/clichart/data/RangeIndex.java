@@ -0,0 +1,410 @@
+/* (C) Copyright 2026, by John Dickson
+ *
+ * Project Info:  https://github.com/captsens/clichart
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2.1 of the License, or
+ * (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ */
+
+package net.sf.clichart.data;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+
+/**
+ * Finds where a range of x values starts in a file whose x values are in increasing order (e.g. a log file), without
+ * reading the whole file.
+ *
+ * <p>The file is divided into intervals of a fixed number of bytes.  The first line starting in each interval is
+ * a search point, whose x value is that of the first line from there which has one.  A binary search over the
+ * points finds the last one before the start of the range, so parsing from there (skipping the lines before the
+ * range) finds all the lines in the range, while reading at most one interval more than needed.
+ *
+ * <p>The points found can be kept in an index file beside the file, so that later searches (e.g. for other ranges)
+ * read them from there.  The index file is keyed by a string describing the parsing options, and its points are used
+ * while the start of the file is unchanged and it hasn't got shorter, so a file which is appended to keeps its
+ * index.  It is in little-endian byte order, and consists of a header describing the file, the key, then the
+ * interval number, line position and x value of each point.  Any problem reading the index file just means that it
+ * isn't used.
+ *
+ * <p>Note that this class is not threadsafe.
+ *
+ * @author johnd
+ */
+public class RangeIndex {
+
+    /* ========================================================================
+     *
+     * Class (static) variables.
+     */
+
+    public static final String FILE_SUFFIX = ".clichart-index";
+
+    /** Size of the intervals between search points */
+    public static final int DEFAULT_INTERVAL = 1024 * 1024;
+
+    private static final byte[] MAGIC = {'C', 'L', 'I', 'R', 'A', 'N', 'G', 'E'};
+    private static final int VERSION = 1;
+
+    private static final int HEADER_LENGTH = 32;
+    private static final int POINT_LENGTH = 20;
+
+    // number of bytes at the start of the file which are checked to make sure it is the file that was indexed
+    private static final int CHECK_LENGTH = 64 * 1024;
+
+    // buffer size for reading the lines at a search point - usually only one line is needed
+    private static final int PROBE_BUFFER_SIZE = 16 * 1024;
+
+    // limit on the size of the key, so a corrupt index can't cause a huge allocation
+    private static final int MAX_KEY_LENGTH = 1024 * 1024;
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    /* ========================================================================
+     *
+     * Instance variables.
+     */
+
+    private final File m_source;
+    private final String m_key;
+    private final File m_indexFile;
+
+    private final int m_interval;
+
+    // the search points found, by interval number
+    private final Map<Integer, Point> m_points = new TreeMap<Integer, Point>();
+
+    // true if points have been found since the index file was read
+    private boolean m_modified = false;
+
+    // the length of the source when it was last searched
+    private long m_sourceLength = 0;
+
+    /* ========================================================================
+     *
+     * Constructors
+     */
+
+    /**
+     * @param key  Describes the options affecting how the x values are parsed.  Points indexed with a different key
+     *      are not used
+     */
+    public RangeIndex(File source, String key) {
+        this(source, key, DEFAULT_INTERVAL);
+    }
+
+    /**
+     * Constructor allowing small intervals, for testing
+     */
+    RangeIndex(File source, String key, int interval) {
+        assert source != null;
+        m_source = source;
+
+        assert key != null;
+        m_key = key;
+        m_indexFile = new File(source.getPath() + "." + Integer.toHexString(key.hashCode()) + FILE_SUFFIX);
+
+        assert interval > 0;
+        m_interval = interval;
+    }
+
+    /* ========================================================================
+     *
+     * Static methods
+     */
+
+    /* ========================================================================
+     *
+     * Public methods
+     */
+
+    public File getIndexFile() {
+        return m_indexFile;
+    }
+
+    /**
+     * Read the points from the index file (if any).  Returns false if there is no usable index file.
+     */
+    public boolean open() {
+        m_points.clear();
+        m_modified = false;
+        if (!m_indexFile.isFile()) {
+            return false;
+        }
+
+        try {
+            if (readIndex()) {
+                return true;
+            }
+        } catch (IOException e) {
+            // just search the source again
+        } catch (RuntimeException e) {
+            // e.g. BufferUnderflowException - the index is corrupt, so search the source again
+        }
+        m_points.clear();
+        return false;
+    }
+
+    /**
+     * Parse the lines of the source in the parser's x range, starting from the last search point before the range.
+     * Any header is read from the start of the source first.  Note that the line numbers (e.g. in error messages) are
+     * counted from the search point, unless parsing starts at the beginning of the source.
+     */
+    public void parse(AbstractDataParser parser, FileChannel channel, Charset charset) throws IOException,
+            InvalidDataException {
+        long start = findStart(parser, channel, charset);
+        if (start > 0 && parser.isExpectingHeader()) {
+            parser.parseHeader(new ByteLineReader(channel, 0, start, 1, charset));
+        }
+        parser.parse(new ByteLineReader(channel, start, channel.size(), 1, charset));
+    }
+
+    /**
+     * Write the index file, if points have been found since it was read.  Throws an exception if it couldn't be
+     * written, in which case the source must be searched again next time.
+     */
+    public void save() throws IOException {
+        if (!m_modified) {
+            return;
+        }
+
+        byte[] key = m_key.getBytes(UTF8);
+        ByteBuffer bytes = ByteBuffer.allocate(HEADER_LENGTH + 4 + key.length + 4 + m_points.size() * POINT_LENGTH)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        bytes.put(MAGIC);
+        bytes.putInt(VERSION);
+        bytes.putInt(m_interval);
+        bytes.putLong(m_sourceLength);
+        bytes.putLong(checksumSource(Math.min(CHECK_LENGTH, m_sourceLength)));
+        bytes.putInt(key.length).put(key);
+        bytes.putInt(m_points.size());
+        for (Map.Entry<Integer, Point> entry : m_points.entrySet()) {
+            bytes.putInt(entry.getKey().intValue());
+            bytes.putLong(entry.getValue().m_lineStart);
+            bytes.putDouble(entry.getValue().m_xValue);
+        }
+        assert !bytes.hasRemaining();
+        bytes.flip();
+
+        File outputFile = new File(m_indexFile.getPath() + ".tmp");
+        RandomAccessFile output = new RandomAccessFile(outputFile, "rw");
+        try {
+            FileChannel channel = output.getChannel();
+            channel.truncate(0);
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            output.close();
+            outputFile.delete();
+            throw e;
+        }
+        output.close();
+
+        try {
+            Files.move(outputFile.toPath(), m_indexFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(outputFile.toPath(), m_indexFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+        m_modified = false;
+    }
+
+    /* ========================================================================
+     *
+     * Protected / package-private methods
+     */
+
+    /**
+     * Return the position of the line from which to parse the parser's x range.  No line before it has an x value in
+     * the range (assuming the x values are sorted), and if possible it is after the start of the source.
+     */
+    long findStart(AbstractDataParser parser, FileChannel channel, Charset charset) throws IOException {
+        m_sourceLength = channel.size();
+        double from = parser.getXRangeStart();
+
+        // the point before the range is between low (inclusive) and high (exclusive).  The point at the start of the
+        // source is always before the range, since it may include a header
+        int low = 0;
+        int high = (int) ((m_sourceLength + m_interval - 1) / m_interval);
+        while (high - low > 1) {
+            int middle = (low + high) >>> 1;
+            if (getPoint(middle, parser, channel, charset).m_xValue < from) {
+                low = middle;
+            } else {
+                high = middle;
+            }
+        }
+        return low == 0 ? 0 : getPoint(low, parser, channel, charset).m_lineStart;
+    }
+
+    /* ========================================================================
+     *
+     * Private methods
+     */
+
+    /**
+     * Return a search point, from the index if possible
+     */
+    private Point getPoint(int interval, AbstractDataParser parser, FileChannel channel, Charset charset)
+            throws IOException {
+        Point point = m_points.get(Integer.valueOf(interval));
+        if (point == null) {
+            point = findPoint(interval, parser, channel, charset);
+        }
+        return point;
+    }
+
+    /**
+     * Find a search point in the source, and add it to the index unless it might change if the source is appended to
+     */
+    private Point findPoint(int interval, AbstractDataParser parser, FileChannel channel, Charset charset)
+            throws IOException {
+        long lineStart = ParallelFileParser.findLineStart(channel, (long) interval * m_interval, m_sourceLength);
+        ByteLineReader reader = new ByteLineReader(channel, lineStart, m_sourceLength, 1, charset,
+                PROBE_BUFFER_SIZE);
+        String line = reader.readLine();
+        while (line != null) {
+            double xValue;
+            try {
+                xValue = parser.parseXValueOnly(line, reader.getLineNumber());
+            } catch (InvalidDataException e) {
+                // e.g. a header - a line with an invalid x value is reported if it is in the range
+                xValue = Double.NaN;
+            }
+            if (!Double.isNaN(xValue)) {
+                Point point = new Point(lineStart, xValue);
+                // the last line may not be complete yet
+                if (reader.getPosition() < m_sourceLength) {
+                    m_points.put(Integer.valueOf(interval), point);
+                    m_modified = true;
+                }
+                return point;
+            }
+            line = reader.readLine();
+        }
+
+        // no x values after the point, so it is after any range
+        return new Point(lineStart, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Read the index file.  Returns false if it doesn't match the source, its key or interval.
+     */
+    private boolean readIndex() throws IOException {
+        RandomAccessFile file = new RandomAccessFile(m_indexFile, "r");
+        ByteBuffer bytes;
+        try {
+            FileChannel channel = file.getChannel();
+            if (channel.size() < HEADER_LENGTH) {
+                return false;
+            }
+            bytes = ByteBuffer.allocate((int) Math.min(channel.size(), Integer.MAX_VALUE))
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            while (bytes.hasRemaining()) {
+                if (channel.read(bytes, bytes.position()) < 0) {
+                    return false;
+                }
+            }
+            bytes.flip();
+        } finally {
+            file.close();
+        }
+
+        byte[] magic = new byte[MAGIC.length];
+        bytes.get(magic);
+        if (!Arrays.equals(magic, MAGIC) || bytes.getInt() != VERSION || bytes.getInt() != m_interval) {
+            return false;
+        }
+        long indexedLength = bytes.getLong();
+        long headCrc = bytes.getLong();
+        if (m_source.length() < indexedLength || checksumSource(Math.min(CHECK_LENGTH, indexedLength)) != headCrc) {
+            return false;
+        }
+
+        int keyLength = bytes.getInt();
+        if (keyLength < 0 || keyLength > MAX_KEY_LENGTH) {
+            return false;
+        }
+        byte[] key = new byte[keyLength];
+        bytes.get(key);
+        if (!m_key.equals(new String(key, UTF8))) {
+            return false;
+        }
+
+        int count = bytes.getInt();
+        for (int i = 0; i < count; i++) {
+            int interval = bytes.getInt();
+            long lineStart = bytes.getLong();
+            double xValue = bytes.getDouble();
+            m_points.put(Integer.valueOf(interval), new Point(lineStart, xValue));
+        }
+        return true;
+    }
+
+    /**
+     * Return the CRC of the first length bytes of the source
+     */
+    private long checksumSource(long length) throws IOException {
+        RandomAccessFile file = new RandomAccessFile(m_source, "r");
+        try {
+            FileChannel channel = file.getChannel();
+            ByteBuffer bytes = ByteBuffer.allocate((int) length);
+            while (bytes.hasRemaining()) {
+                if (channel.read(bytes, bytes.position()) < 0) {
+                    throw new IOException("Unexpected end of file: " + m_source);
+                }
+            }
+            bytes.flip();
+            CRC32 crc = new CRC32();
+            crc.update(bytes);
+            return crc.getValue();
+        } finally {
+            file.close();
+        }
+    }
+
+    /* ========================================================================
+     *
+     * Inner classes
+     */
+
+    /**
+     * The position of the first line in an interval, and the first x value from there
+     */
+    private static class Point {
+
+        private final long m_lineStart;
+        private final double m_xValue;
+
+        public Point(long lineStart, double xValue) {
+            m_lineStart = lineStart;
+            m_xValue = xValue;
+        }
+    }
+}
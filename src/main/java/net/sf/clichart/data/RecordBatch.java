@@ -0,0 +1,197 @@
+/* (C) Copyright 2026, by John Dickson
+ *
+ * Project Info:  https://github.com/captsens/clichart
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2.1 of the License, or
+ * (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ */
+
+package net.sf.clichart.data;
+
+/**
+ * A PrimitiveDataSink that simply records the lines passed to it, so that they can be passed on to another sink
+ * later.  Used to hold the results of parsing a chunk of the input on another thread, until the chunks before it
+ * have been passed to the real sinks.
+ *
+ * <p>Since the chunk is parsed without knowing how many lines came before it, line numbers can be offset when the
+ * lines are replayed.  Lines recorded with a key are replayed with the same key.
+ *
+ * <p>Note that this class is not threadsafe.
+ *
+ * @author johnd
+ */
+public class RecordBatch implements KeyedDataSink {
+
+    /* ========================================================================
+     *
+     * Class (static) variables.
+     */
+
+    private static final int INITIAL_SIZE = 1024;
+
+    /* ========================================================================
+     *
+     * Instance variables.
+     */
+
+    // one entry per line
+    private double[] m_xValues = new double[INITIAL_SIZE];
+    private long[] m_missingValues = new long[INITIAL_SIZE];
+    private int[] m_lineNumbers = new int[INITIAL_SIZE];
+    private int[] m_valueCounts = new int[INITIAL_SIZE];
+
+    // the key of each line, or null if no lines have had keys
+    private String[] m_keys = null;
+
+    // the y values for all lines, one after the other
+    private double[] m_yValues = new double[INITIAL_SIZE];
+    private int m_yValueCount = 0;
+
+    private int m_size = 0;
+
+    // reused to pass the y values of a line on replay, and the position in m_yValues of the next line to replay
+    private final double[] m_replayValues = new double[MAX_VALUES];
+    private int m_replayPosition = 0;
+    private int m_replayIndex = 0;
+
+    /* ========================================================================
+     *
+     * Constructors
+     */
+
+    /* ========================================================================
+     *
+     * Static methods
+     */
+
+    /* ========================================================================
+     *
+     * Public methods
+     */
+
+    public void headerParsed(String[] headers) {
+        throw new IllegalStateException("Headers are not recorded");
+    }
+
+    public void dataParsed(Object xValue, Object[] yValues, int lineNumber) {
+        throw new IllegalStateException("Only primitive values are recorded");
+    }
+
+    public void dataParsed(double xValue, double[] yValues, long missingValues, int valueCount, int lineNumber) {
+        if (m_size == m_xValues.length) {
+            grow();
+        }
+        m_xValues[m_size] = xValue;
+        m_missingValues[m_size] = missingValues;
+        m_lineNumbers[m_size] = lineNumber;
+        m_valueCounts[m_size] = valueCount;
+        m_size++;
+
+        if (m_yValueCount + valueCount > m_yValues.length) {
+            double[] values = new double[Math.max(m_yValueCount + valueCount, m_yValues.length * 2)];
+            System.arraycopy(m_yValues, 0, values, 0, m_yValueCount);
+            m_yValues = values;
+        }
+        System.arraycopy(yValues, 0, m_yValues, m_yValueCount, valueCount);
+        m_yValueCount += valueCount;
+    }
+
+    public void dataParsed(String key, double xValue, double[] yValues, long missingValues, int valueCount,
+            int lineNumber) {
+        dataParsed(xValue, yValues, missingValues, valueCount, lineNumber);
+        if (m_keys == null) {
+            m_keys = new String[m_xValues.length];
+        }
+        m_keys[m_size - 1] = key;
+    }
+
+    public void parsingFinished() {
+    }
+
+    /**
+     * Return the number of lines recorded
+     */
+    public int size() {
+        return m_size;
+    }
+
+    /**
+     * Return true if there are lines which haven't yet been replayed
+     */
+    public boolean hasNext() {
+        return m_replayIndex < m_size;
+    }
+
+    /**
+     * Pass the next recorded line to the sink.
+     *
+     * @param lineOffset  Added to the recorded line number
+     * @param lineNumberIsX  If true, the x value was the line number, so the offset is added to it as well
+     */
+    public void replayNext(PrimitiveDataSink sink, int lineOffset, boolean lineNumberIsX) throws InvalidDataException {
+        int index = m_replayIndex++;
+        int valueCount = m_valueCounts[index];
+        System.arraycopy(m_yValues, m_replayPosition, m_replayValues, 0, valueCount);
+        m_replayPosition += valueCount;
+
+        double xValue = m_xValues[index];
+        if (lineNumberIsX) {
+            xValue += lineOffset;
+        }
+        if (m_keys != null && m_keys[index] != null) {
+            ((KeyedDataSink) sink).dataParsed(m_keys[index], xValue, m_replayValues, m_missingValues[index],
+                    valueCount, m_lineNumbers[index] + lineOffset);
+        } else {
+            sink.dataParsed(xValue, m_replayValues, m_missingValues[index], valueCount,
+                    m_lineNumbers[index] + lineOffset);
+        }
+    }
+
+    /* ========================================================================
+     *
+     * Protected / package-private methods
+     */
+
+    /* ========================================================================
+     *
+     * Private methods
+     */
+
+    private void grow() {
+        int size = m_size * 2;
+
+        double[] xValues = new double[size];
+        System.arraycopy(m_xValues, 0, xValues, 0, m_size);
+        m_xValues = xValues;
+
+        long[] missingValues = new long[size];
+        System.arraycopy(m_missingValues, 0, missingValues, 0, m_size);
+        m_missingValues = missingValues;
+
+        int[] lineNumbers = new int[size];
+        System.arraycopy(m_lineNumbers, 0, lineNumbers, 0, m_size);
+        m_lineNumbers = lineNumbers;
+
+        int[] valueCounts = new int[size];
+        System.arraycopy(m_valueCounts, 0, valueCounts, 0, m_size);
+        m_valueCounts = valueCounts;
+
+        if (m_keys != null) {
+            String[] keys = new String[size];
+            System.arraycopy(m_keys, 0, keys, 0, m_size);
+            m_keys = keys;
+        }
+    }
+}
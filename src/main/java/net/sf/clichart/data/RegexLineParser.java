@@ -0,0 +1,305 @@
+/* (C) Copyright 2026, by John Dickson
+ *
+ * Project Info:  https://github.com/captsens/clichart
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2.1 of the License, or
+ * (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ */
+
+package net.sf.clichart.data;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A LineParser that extracts the fields from a line using the groups of a regular expression, so that values can be
+ * charted straight from free-form log lines.  Group 1 is column 0, group 2 is column 1 and so on (named groups are
+ * numbered in the same way, by their opening bracket).  The expression only has to match part of the line, as for
+ * grep.  Lines that don't match are skipped, by returning null.
+ *
+ * <p>Running the expression is relatively expensive, so if every match must contain some literal text (e.g. "took "
+ * in "took (\d+) ms"), lines without that text are rejected first with a simple search.  ByteLineReader can also do
+ * this before lines are even decoded (see {@link #getRequiredText}).
+ *
+ * <p>Note that this class is not threadsafe.
+ *
+ * @author johnd
+ */
+public class RegexLineParser implements FieldLineParser {
+
+    /* ========================================================================
+     *
+     * Class (static) variables.
+     */
+
+    /* ========================================================================
+     *
+     * Instance variables.
+     */
+
+    private final Matcher m_matcher;
+
+    /** Text that every matching line contains, or null if there isn't any */
+    private final String m_requiredText;
+
+    private final LineFields m_fields = new LineFields();
+
+    private boolean[] m_requiredColumns = null;
+
+    /* ========================================================================
+     *
+     * Constructors
+     */
+
+    /**
+     * @throws java.util.regex.PatternSyntaxException if the expression is invalid
+     */
+    public RegexLineParser(String regex) {
+        m_matcher = Pattern.compile(regex).matcher("");
+        m_requiredText = findRequiredText(regex);
+    }
+
+    /* ========================================================================
+     *
+     * Static methods
+     */
+
+    /* ========================================================================
+     *
+     * Public methods
+     */
+
+    /**
+     * Return the fields of the line, or null if it doesn't match
+     */
+    public String[] parseLine(String line, int lineNumber) {
+        LineFields fields = parseFields(line, lineNumber);
+        return fields == null ? null : fields.toArray();
+    }
+
+    /**
+     * Return the fields of the line, or null if it doesn't match.  Groups which didn't take part in the match are
+     * returned as empty values.
+     */
+    public LineFields parseFields(String line, int lineNumber) {
+        if (m_requiredText != null && line.indexOf(m_requiredText) < 0) {
+            return null;
+        }
+        m_matcher.reset(line);
+        if (!m_matcher.find()) {
+            return null;
+        }
+
+        m_fields.prepare(line);
+        int groupCount = m_matcher.groupCount();
+        for (int group = 1; group <= groupCount; group++) {
+            int columnIndex = group - 1;
+            if (m_requiredColumns != null && columnIndex >= m_requiredColumns.length) {
+                break;
+            }
+            int start = m_matcher.start(group);
+            if (start < 0 || (m_requiredColumns != null && !m_requiredColumns[columnIndex])) {
+                m_fields.addField(0, 0);
+            } else {
+                m_fields.addField(start, m_matcher.end(group));
+            }
+        }
+        return m_fields;
+    }
+
+    public void setRequiredColumns(boolean[] requiredColumns) {
+        m_requiredColumns = requiredColumns;
+    }
+
+    /**
+     * Return text which every matching line contains, or null if there isn't any
+     */
+    public String getRequiredText() {
+        return m_requiredText;
+    }
+
+    /* ========================================================================
+     *
+     * Protected / package-private methods
+     */
+
+    /**
+     * Return the longest literal text which any match of the expression must contain, or null if none is found.  This
+     * is conservative: only text outside groups and character classes is considered, and null is returned if the
+     * expression has alternatives or inline flags (which could e.g. make it case-insensitive).
+     */
+    static String findRequiredText(String regex) {
+        String longest = "";
+        StringBuilder run = new StringBuilder();
+        int depth = 0;
+        int index = 0;
+        while (index < regex.length()) {
+            char c = regex.charAt(index);
+            int next = index + 1;
+            // the literal character matched, or -1 if the token isn't a literal outside any group
+            int literal = -1;
+
+            if (c == '\\') {
+                literal = getEscapedLiteral(regex, index);
+                next = skipEscape(regex, index);
+            } else if (c == '[') {
+                next = skipCharacterClass(regex, index);
+            } else if (c == '(') {
+                if (regex.startsWith("(?", index) && index + 2 < regex.length()
+                        && (Character.isLetter(regex.charAt(index + 2)) || regex.charAt(index + 2) == '-')) {
+                    // inline flags
+                    return null;
+                }
+                depth++;
+            } else if (c == ')') {
+                depth--;
+            } else if (c == '|') {
+                if (depth == 0) {
+                    return null;
+                }
+            } else if (c == '{') {
+                next = skipTo(regex, index, '}');
+            } else if (c != '.' && c != '^' && c != '$' && c != '?' && c != '*' && c != '+') {
+                literal = c;
+            }
+
+            if (literal >= 0 && depth == 0) {
+                char quantifier = next < regex.length() ? regex.charAt(next) : 0;
+                if (quantifier == '?' || quantifier == '*' || quantifier == '{') {
+                    // optional, so ends the run
+                    literal = -1;
+                } else {
+                    run.append((char) literal);
+                    if (quantifier != '+') {
+                        index = next;
+                        continue;
+                    }
+                }
+            }
+
+            if (run.length() > longest.length()) {
+                longest = run.toString();
+            }
+            run.setLength(0);
+            index = next;
+        }
+        if (run.length() > longest.length()) {
+            longest = run.toString();
+        }
+        return longest.length() == 0 ? null : longest;
+    }
+
+    /* ========================================================================
+     *
+     * Private methods
+     */
+
+    /**
+     * Return the character matched by the escape sequence at the index, or -1 if it doesn't match a single literal
+     * character
+     */
+    private static int getEscapedLiteral(String regex, int index) {
+        if (index + 1 >= regex.length()) {
+            return -1;
+        }
+        char c = regex.charAt(index + 1);
+        if (!Character.isLetterOrDigit(c)) {
+            return c;
+        }
+        return c == 't' ? '\t' : -1;
+    }
+
+    /**
+     * Return the index just past the escape sequence at the index
+     */
+    private static int skipEscape(String regex, int index) {
+        if (index + 1 >= regex.length()) {
+            return regex.length();
+        }
+        char c = regex.charAt(index + 1);
+        int next = index + 2;
+        switch (c) {
+        case 'p':
+        case 'P':
+        case 'N':
+            return next < regex.length() && regex.charAt(next) == '{' ? skipTo(regex, next, '}') : next + 1;
+        case 'x':
+            return next < regex.length() && regex.charAt(next) == '{' ? skipTo(regex, next, '}') : next + 2;
+        case 'k':
+            return skipTo(regex, next, '>');
+        case 'u':
+            return next + 4;
+        case 'c':
+            return next + 1;
+        case 'Q':
+            int end = regex.indexOf("\\E", next);
+            return end < 0 ? regex.length() : end + 2;
+        case '0':
+            while (next < regex.length() && next < index + 5 && regex.charAt(next) >= '0'
+                    && regex.charAt(next) <= '7') {
+                next++;
+            }
+            return next;
+        default:
+            if (c >= '1' && c <= '9') {
+                // back reference
+                while (next < regex.length() && Character.isDigit(regex.charAt(next))) {
+                    next++;
+                }
+            }
+            return next;
+        }
+    }
+
+    /**
+     * Return the index just past the character class starting at the index, allowing for nested classes
+     */
+    private static int skipCharacterClass(String regex, int index) {
+        int depth = 0;
+        int position = index;
+        while (position < regex.length()) {
+            char c = regex.charAt(position);
+            if (c == '\\') {
+                position = skipEscape(regex, position);
+                continue;
+            }
+            if (c == '[') {
+                depth++;
+                // a ']' straight after the opening bracket (and any '^') is literal
+                if (position + 1 < regex.length() && regex.charAt(position + 1) == '^') {
+                    position++;
+                }
+                if (position + 1 < regex.length() && regex.charAt(position + 1) == ']') {
+                    position++;
+                }
+            } else if (c == ']') {
+                depth--;
+                if (depth == 0) {
+                    return position + 1;
+                }
+            }
+            position++;
+        }
+        return regex.length();
+    }
+
+    /**
+     * Return the index just past the next occurrence of the character after the index
+     */
+    private static int skipTo(String regex, int index, char c) {
+        int end = regex.indexOf(c, index + 1);
+        return end < 0 ? regex.length() : end + 1;
+    }
+}
@@ -0,0 +1,411 @@
+/* (C) Copyright 2026, by John Dickson
+ *
+ * Project Info:  https://github.com/captsens/clichart
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2.1 of the License, or
+ * (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ */
+
+package net.sf.clichart.data;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TimeZone;
+
+/**
+ * A PrimitiveDataSink which groups lines into buckets of x values (e.g. one minute of time), and passes one line per
+ * bucket on to another sink, with statistics (e.g. the average) for each column in place of the raw values.  This is
+ * equivalent to aggregating the data per bucket with aggregate before charting it, but without the extra process.
+ *
+ * <p>The statistics are chosen using the same names as aggregate: min, max, av, tot and cnt, plus percentiles such as
+ * p50, p95 and p99.9 (to one decimal place).  Percentiles are estimated using a QuantileSketch per bucket, so they
+ * don't require every value to be kept.  The line passed on for each bucket has a value for each statistic of each
+ * column in turn (i.e. with 2 columns and statistics "min,max", the values are column 1 min, column 1 max, column 2
+ * min, column 2 max), and has the start of the bucket as its x value.  Missing values are left out of the statistics,
+ * and a statistic is missing if the column had no values in the bucket (apart from the count, which is 0).
+ *
+ * <p>Optionally, the number of distinct keys (e.g. user names, from the data parser's key column) in each bucket can
+ * also be passed on, as an extra value after those for the columns.  This is estimated using a HyperLogLog per
+ * bucket, so only a few KB are needed per bucket however many keys there are.
+ *
+ * <p>For time-based data, buckets are aligned to the local time zone, so that e.g. hourly buckets start on the hour.
+ *
+ * <p>Accumulators are held for each bucket in primitive arrays, so lines may arrive in any order.  Buckets are passed
+ * on in order once parsing has finished.
+ *
+ * <p>Note that this class is not threadsafe.
+ *
+ * @author johnd
+ */
+public class ResamplingDataSink implements KeyedDataSink {
+
+    /* ========================================================================
+     *
+     * Class (static) variables.
+     */
+
+    public static final int STATISTIC_MIN = 0;
+    public static final int STATISTIC_MAX = 1;
+    public static final int STATISTIC_AVERAGE = 2;
+    public static final int STATISTIC_TOTAL = 3;
+    public static final int STATISTIC_COUNT = 4;
+
+    /** Percentiles are this value plus the percentile in tenths, e.g. STATISTIC_PERCENTILE + 995 for p99.5 */
+    public static final int STATISTIC_PERCENTILE = 1000;
+
+    // names of the statistics, indexed by the constants above
+    private static final String[] STATISTIC_NAMES = {"min", "max", "av", "tot", "cnt"};
+
+    /** Header for the count of distinct keys */
+    public static final String DISTINCT_HEADER = "Distinct";
+
+    private static final int INITIAL_BUCKETS = 256;
+
+    /* ========================================================================
+     *
+     * Instance variables.
+     */
+
+    private final PrimitiveDataSink m_sink;
+
+    private final int m_columnCount;
+
+    // bucket width, in x axis units
+    private final double m_interval;
+
+    private final int[] m_statistics;
+
+    // null if the x values aren't times
+    private final TimeZone m_timeZone;
+
+    // index (in the arrays below) of the bucket for each bucket number (i.e. x value divided by the interval)
+    private final Map<Long, Integer> m_bucketIndexes = new HashMap<Long, Integer>();
+
+    // the bucket the last line fell into, which is usually the same as the next
+    private long m_lastBucketNumber = 0;
+    private int m_lastBucketIndex = -1;
+
+    // one entry per bucket
+    private double[] m_xValues = new double[INITIAL_BUCKETS];
+    private int[] m_lineNumbers = new int[INITIAL_BUCKETS];
+    private int m_bucketCount = 0;
+
+    // m_columnCount entries per bucket
+    private long[] m_counts;
+    private double[] m_totals;
+    private double[] m_minimums;
+    private double[] m_maximums;
+
+    // null unless there are percentile statistics.  Each sketch is only created once the column has a value
+    private QuantileSketch[] m_sketches;
+
+    // one entry per bucket, or null if distinct keys aren't counted.  Each is only created once the bucket has a key
+    private HyperLogLog[] m_distinctKeys = null;
+
+    /* ========================================================================
+     *
+     * Constructors
+     */
+
+    /**
+     * @param sink  The sink to pass the buckets to
+     * @param columnCount  Maximum number of y values per line
+     * @param interval  Width of each bucket in x axis units (i.e. milliseconds for time-based data)
+     * @param statistics  The statistics to pass on for each column (STATISTIC_ constants).  There may be at most
+     *      MAX_VALUES statistics in all
+     * @param timeZone  Time zone to align buckets to if the x values are times, otherwise null
+     */
+    public ResamplingDataSink(PrimitiveDataSink sink, int columnCount, double interval, int[] statistics,
+            TimeZone timeZone) {
+        this(sink, columnCount, interval, statistics, timeZone, false);
+    }
+
+    /**
+     * As above, but optionally passing on the number of distinct keys in each bucket
+     *
+     * @param countDistinctKeys  True to pass on the number of distinct keys (from keyed lines) as an extra value
+     */
+    public ResamplingDataSink(PrimitiveDataSink sink, int columnCount, double interval, int[] statistics,
+            TimeZone timeZone, boolean countDistinctKeys) {
+        assert sink != null;
+        m_sink = sink;
+
+        assert columnCount > 0;
+        m_columnCount = columnCount;
+
+        assert interval > 0;
+        m_interval = interval;
+
+        assert statistics.length > 0 && columnCount * statistics.length + (countDistinctKeys ? 1 : 0) <= MAX_VALUES;
+        m_statistics = statistics;
+        m_timeZone = timeZone;
+
+        if (countDistinctKeys) {
+            m_distinctKeys = new HyperLogLog[INITIAL_BUCKETS];
+        }
+
+        m_counts = new long[INITIAL_BUCKETS * columnCount];
+        m_totals = new double[INITIAL_BUCKETS * columnCount];
+        m_minimums = new double[INITIAL_BUCKETS * columnCount];
+        m_maximums = new double[INITIAL_BUCKETS * columnCount];
+        for (int i = 0; i < statistics.length; i++) {
+            if (statistics[i] >= STATISTIC_PERCENTILE) {
+                m_sketches = new QuantileSketch[INITIAL_BUCKETS * columnCount];
+            }
+        }
+    }
+
+    /* ========================================================================
+     *
+     * Static methods
+     */
+
+    /**
+     * Return the statistic (STATISTIC_ constant) with the name provided, or -1 if there is none
+     */
+    public static int getStatistic(String name) {
+        for (int i = 0; i < STATISTIC_NAMES.length; i++) {
+            if (STATISTIC_NAMES[i].equals(name)) {
+                return i;
+            }
+        }
+
+        if (name.startsWith("p")) {
+            try {
+                double tenths = Double.parseDouble(name.substring(1)) * 10;
+                if (tenths >= 0 && tenths <= 1000 && tenths == Math.rint(tenths)) {
+                    return STATISTIC_PERCENTILE + (int) tenths;
+                }
+            } catch (NumberFormatException e) {
+                // not a percentile
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Return the name of a statistic (STATISTIC_ constant)
+     */
+    public static String getStatisticName(int statistic) {
+        if (statistic < STATISTIC_PERCENTILE) {
+            return STATISTIC_NAMES[statistic];
+        }
+        int tenths = statistic - STATISTIC_PERCENTILE;
+        return "p" + (tenths % 10 == 0 ? String.valueOf(tenths / 10) : (tenths / 10) + "." + (tenths % 10));
+    }
+
+    /* ========================================================================
+     *
+     * Public methods
+     */
+
+    /**
+     * Pass on a header for each statistic of each column.  If there is more than one statistic, the name of the
+     * statistic is appended to the column header
+     */
+    public void headerParsed(String[] headers) throws InvalidDataException {
+        int headerCount = headers.length * m_statistics.length;
+        String[] statisticHeaders = new String[m_distinctKeys == null ? headerCount : headerCount + 1];
+        if (m_distinctKeys != null) {
+            statisticHeaders[headerCount] = DISTINCT_HEADER;
+        }
+        for (int column = 0; column < headers.length; column++) {
+            for (int i = 0; i < m_statistics.length; i++) {
+                String header = headers[column];
+                if (header != null && m_statistics.length > 1) {
+                    header += " (" + getStatisticName(m_statistics[i]) + ")";
+                }
+                statisticHeaders[column * m_statistics.length + i] = header;
+            }
+        }
+        m_sink.headerParsed(statisticHeaders);
+    }
+
+    public void dataParsed(Object xValue, Object[] yValues, int lineNumber) {
+        // the data parser only passes objects if its sinks don't all accept primitives
+        throw new IllegalStateException("Only primitive values can be resampled");
+    }
+
+    public void dataParsed(double xValue, double[] yValues, long missingValues, int valueCount, int lineNumber) {
+        addValues(getBucketIndex(xValue, lineNumber), yValues, missingValues, valueCount);
+    }
+
+    /**
+     * As above, also counting the key if distinct keys are being counted
+     */
+    public void dataParsed(String key, double xValue, double[] yValues, long missingValues, int valueCount,
+            int lineNumber) {
+        int bucket = getBucketIndex(xValue, lineNumber);
+        addValues(bucket, yValues, missingValues, valueCount);
+        if (m_distinctKeys != null) {
+            if (m_distinctKeys[bucket] == null) {
+                m_distinctKeys[bucket] = new HyperLogLog();
+            }
+            m_distinctKeys[bucket].add(key);
+        }
+    }
+
+    public void parsingFinished() {
+        try {
+            passOnBuckets();
+        } catch (InvalidDataException e) {
+            // chart builders don't throw this
+            throw new IllegalStateException("Unexpected error passing on resampled data", e);
+        }
+        m_sink.parsingFinished();
+    }
+
+    /* ========================================================================
+     *
+     * Protected / package-private methods
+     */
+
+    /* ========================================================================
+     *
+     * Private methods
+     */
+
+    /**
+     * Add the values from a line to the accumulators for the bucket
+     */
+    private void addValues(int bucket, double[] yValues, long missingValues, int valueCount) {
+        int offset = bucket * m_columnCount;
+        int columns = Math.min(valueCount, m_columnCount);
+        for (int column = 0; column < columns; column++) {
+            if ((missingValues & (1L << column)) != 0) {
+                continue;
+            }
+            double value = yValues[column];
+            int index = offset + column;
+            if (m_counts[index] == 0) {
+                m_minimums[index] = value;
+                m_maximums[index] = value;
+            } else {
+                m_minimums[index] = Math.min(m_minimums[index], value);
+                m_maximums[index] = Math.max(m_maximums[index], value);
+            }
+            m_counts[index]++;
+            m_totals[index] += value;
+            if (m_sketches != null) {
+                if (m_sketches[index] == null) {
+                    m_sketches[index] = new QuantileSketch();
+                }
+                m_sketches[index].add(value);
+            }
+        }
+    }
+
+    /**
+     * Return the index of the bucket for the x value, adding a new bucket if required
+     */
+    private int getBucketIndex(double xValue, int lineNumber) {
+        // for times, work in local time so that buckets are aligned to it
+        long offset = m_timeZone == null ? 0 : m_timeZone.getOffset((long) xValue);
+        long bucketNumber = (long) Math.floor((xValue + offset) / m_interval);
+        if (m_lastBucketIndex >= 0 && bucketNumber == m_lastBucketNumber) {
+            return m_lastBucketIndex;
+        }
+
+        Integer index = m_bucketIndexes.get(bucketNumber);
+        if (index == null) {
+            index = addBucket(bucketNumber * m_interval - offset, lineNumber);
+            m_bucketIndexes.put(bucketNumber, index);
+        }
+        m_lastBucketNumber = bucketNumber;
+        m_lastBucketIndex = index;
+        return index;
+    }
+
+    private int addBucket(double xValue, int lineNumber) {
+        if (m_bucketCount == m_xValues.length) {
+            int size = m_bucketCount * 2;
+            m_xValues = Arrays.copyOf(m_xValues, size);
+            m_lineNumbers = Arrays.copyOf(m_lineNumbers, size);
+            m_counts = Arrays.copyOf(m_counts, size * m_columnCount);
+            m_totals = Arrays.copyOf(m_totals, size * m_columnCount);
+            m_minimums = Arrays.copyOf(m_minimums, size * m_columnCount);
+            m_maximums = Arrays.copyOf(m_maximums, size * m_columnCount);
+            if (m_sketches != null) {
+                m_sketches = Arrays.copyOf(m_sketches, size * m_columnCount);
+            }
+            if (m_distinctKeys != null) {
+                m_distinctKeys = Arrays.copyOf(m_distinctKeys, size);
+            }
+        }
+        m_xValues[m_bucketCount] = xValue;
+        m_lineNumbers[m_bucketCount] = lineNumber;
+        return m_bucketCount++;
+    }
+
+    /**
+     * Pass a line for each bucket to the sink, in order of x value
+     */
+    private void passOnBuckets() throws InvalidDataException {
+        Integer[] buckets = new Integer[m_bucketCount];
+        for (int i = 0; i < m_bucketCount; i++) {
+            buckets[i] = i;
+        }
+        Arrays.sort(buckets, new Comparator<Integer>() {
+            public int compare(Integer bucket1, Integer bucket2) {
+                return Double.compare(m_xValues[bucket1], m_xValues[bucket2]);
+            }
+        });
+
+        int statisticCount = m_columnCount * m_statistics.length;
+        int valueCount = m_distinctKeys == null ? statisticCount : statisticCount + 1;
+        double[] values = new double[valueCount];
+        for (int i = 0; i < buckets.length; i++) {
+            int bucket = buckets[i];
+            long missingValues = 0;
+            for (int column = 0; column < m_columnCount; column++) {
+                int index = bucket * m_columnCount + column;
+                for (int j = 0; j < m_statistics.length; j++) {
+                    int valueIndex = column * m_statistics.length + j;
+                    if (m_counts[index] == 0 && m_statistics[j] != STATISTIC_COUNT) {
+                        missingValues |= 1L << valueIndex;
+                    } else {
+                        values[valueIndex] = getStatistic(index, m_statistics[j]);
+                    }
+                }
+            }
+            if (m_distinctKeys != null) {
+                values[statisticCount] = m_distinctKeys[bucket] == null ? 0 : Math.round(
+                        m_distinctKeys[bucket].getEstimate());
+            }
+            m_sink.dataParsed(m_xValues[bucket], values, missingValues, valueCount, m_lineNumbers[bucket]);
+        }
+    }
+
+    private double getStatistic(int index, int statistic) {
+        if (statistic >= STATISTIC_PERCENTILE) {
+            return m_sketches[index].getQuantile((statistic - STATISTIC_PERCENTILE) / 1000.0);
+        }
+
+        switch (statistic) {
+        case STATISTIC_MIN:
+            return m_minimums[index];
+        case STATISTIC_MAX:
+            return m_maximums[index];
+        case STATISTIC_AVERAGE:
+            return m_totals[index] / m_counts[index];
+        case STATISTIC_TOTAL:
+            return m_totals[index];
+        default:
+            return m_counts[index];
+        }
+    }
+}
@@ -0,0 +1,218 @@
+/* (C) Copyright 2026, by John Dickson
+ *
+ * Project Info:  https://github.com/captsens/clichart
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2.1 of the License, or
+ * (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ */
+
+package net.sf.clichart.data;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+
+/**
+ * Parses a sample of a file, to preview the shape of its data quickly, e.g. for a very large file.  A fixed number of
+ * consecutive lines is parsed at each of a number of sample points, spread evenly through the file so that the x
+ * values are still in file order.  The gap after each sample is in proportion to the length of its lines, so that
+ * about the requested fraction of the file is read.
+ *
+ * <p>The first sample is at the start of the file, so the header (if any) is handled as normal.  Each other sample
+ * starts at the first line after its point, and is read by mapping just that part of the file into memory.  Samples
+ * which would overlap are parsed as one, so sampling the whole file parses it exactly as normal.
+ *
+ * <p>The line numbers of the lines in samples which don't follow on from the previous sample are unknown, so they are
+ * estimated from the position of the sample and the average length of the lines sampled so far.  Note that this
+ * applies to line numbers used as x values, as well as those in error messages.
+ *
+ * <p>Only suitable for character sets supported by ByteLineReader.  Note that this class is not threadsafe.
+ *
+ * @author johnd
+ */
+public class SampledFileParser {
+
+    /* ========================================================================
+     *
+     * Class (static) variables.
+     */
+
+    // initial size of the part of the file mapped for a sample - made larger if the lines don't fit
+    private static final int MIN_WINDOW_SIZE = 64 * 1024;
+
+    private static final byte LF = '\n';
+    private static final byte CR = '\r';
+
+    /* ========================================================================
+     *
+     * Instance variables.
+     */
+
+    private final double m_fraction;
+
+    private final int m_linesPerSample;
+
+    // size of the part of the file mapped for each sample
+    private long m_windowSize = MIN_WINDOW_SIZE;
+
+    /* ========================================================================
+     *
+     * Constructors
+     */
+
+    /**
+     * @param fraction  Approximate fraction of the file to parse, greater than 0 and at most 1
+     * @param linesPerSample  Number of lines (including blank lines) to parse at each sample point
+     */
+    public SampledFileParser(double fraction, int linesPerSample) {
+        assert fraction > 0 && fraction <= 1;
+        m_fraction = fraction;
+
+        assert linesPerSample > 0;
+        m_linesPerSample = linesPerSample;
+    }
+
+    /* ========================================================================
+     *
+     * Static methods
+     */
+
+    /* ========================================================================
+     *
+     * Public methods
+     */
+
+    /**
+     * Parse the samples of the file, passing their lines to the parser's sinks.  The channel is not closed.
+     */
+    public void parse(AbstractDataParser parser, FileChannel channel, Charset charset) throws IOException,
+            InvalidDataException {
+        long size = channel.size();
+        Sample sample = parseSample(parser, channel, charset, 0, size, 1);
+        while (parser.isExpectingHeader() && sample.m_end < size) {
+            // only blank lines so far - the header must be in the first sample
+            sample = parseSample(parser, channel, charset, sample.m_end, size, sample.m_lastLineNumber + 1);
+        }
+
+        long sampledBytes = sample.m_end;
+        long sampledLines = sample.m_lastLineNumber;
+        long nextPoint = (long) (sample.m_end / m_fraction);
+        while (sample.m_end < size && nextPoint < size) {
+            long start = ParallelFileParser.findLineStart(channel, nextPoint, size);
+            int firstLineNumber = sample.m_lastLineNumber + 1;
+            if (start <= sample.m_end) {
+                // carry straight on from the previous sample
+                start = sample.m_end;
+            } else {
+                double averageLineLength = (double) sampledBytes / sampledLines;
+                firstLineNumber = (int) Math.min(Integer.MAX_VALUE / 2,
+                        firstLineNumber + Math.round((start - sample.m_end) / averageLineLength));
+            }
+            if (start >= size) {
+                break;
+            }
+
+            sample = parseSample(parser, channel, charset, start, size, firstLineNumber);
+            sampledBytes += sample.m_end - start;
+            sampledLines += sample.m_lastLineNumber - firstLineNumber + 1;
+            // space the points by the length of each sample's lines, so about the right fraction of the file is read
+            nextPoint = start + (long) ((sample.m_end - start) / m_fraction);
+        }
+        parser.finishParsing();
+    }
+
+    /* ========================================================================
+     *
+     * Protected / package-private methods
+     */
+
+    /**
+     * Return the length of the first count lines in the bytes from their position to their limit (including the line
+     * terminators), or -1 if there aren't that many complete lines.  A CR in the last byte isn't treated as a
+     * complete line end, since it may be followed by an LF.
+     */
+    static int findLinesEnd(ByteBuffer bytes, int count) {
+        int start = bytes.position();
+        int limit = bytes.limit();
+        for (int i = start; i < limit; i++) {
+            byte b = bytes.get(i);
+            if (b != LF && b != CR) {
+                continue;
+            }
+            if (b == CR) {
+                if (i + 1 == limit) {
+                    return -1;
+                }
+                if (bytes.get(i + 1) == LF) {
+                    i++;
+                }
+            }
+            if (--count == 0) {
+                return i + 1 - start;
+            }
+        }
+        return -1;
+    }
+
+    /* ========================================================================
+     *
+     * Private methods
+     */
+
+    /**
+     * Parse the lines of a sample, from a line start to the end of the sample's last line (or the end of the file),
+     * without advising the sinks that parsing has finished
+     */
+    private Sample parseSample(AbstractDataParser parser, FileChannel channel, Charset charset, long start, long size,
+            int firstLineNumber) throws IOException, InvalidDataException {
+        while (true) {
+            long windowEnd = Math.min(size, start + m_windowSize);
+            ByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY, start, windowEnd - start);
+            int length = findLinesEnd(bytes, m_linesPerSample);
+            if (length < 0 && windowEnd < size && m_windowSize < Integer.MAX_VALUE / 2) {
+                // the lines don't fit - try again with more of the file, and map that much for later samples too
+                m_windowSize *= 2;
+                continue;
+            }
+            if (length >= 0) {
+                bytes.limit(length);
+            }
+
+            ByteLineReader reader = new ByteLineReader(bytes, firstLineNumber, charset);
+            parser.parseLines(reader);
+            return new Sample(start + bytes.limit(), reader.getLineNumber());
+        }
+    }
+
+    /* ========================================================================
+     *
+     * Inner classes
+     */
+
+    /**
+     * Where a sample ended
+     */
+    private static class Sample {
+
+        private final long m_end;
+        private final int m_lastLineNumber;
+
+        public Sample(long end, int lastLineNumber) {
+            m_end = end;
+            m_lastLineNumber = lastLineNumber;
+        }
+    }
+}
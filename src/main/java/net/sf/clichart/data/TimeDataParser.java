@@ -20,14 +20,12 @@
 
 package net.sf.clichart.data;
 
-import java.text.DateFormat;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
+import java.util.Date;
 
 /**
  * Implementation of a DataParser for time-based data, i.e. data where the X axis will be a date/time/datetime.
  *
- * <p>The xValue is passed to the sink as a Date.
+ * <p>The xValue is passed to the sink as a Date (or as milliseconds since the epoch, for a PrimitiveDataSink).
  *
  * <p>Note that this class is not threadsafe.
  *
@@ -48,7 +46,7 @@ public class TimeDataParser extends AbstractDataParser {
      */
 
     // Used to parse the dates/times
-    private final DateFormat m_dateParser;
+    private final TimestampParser m_timestampParser;
 
 
     /* ========================================================================
@@ -66,8 +64,7 @@ public class TimeDataParser extends AbstractDataParser {
         if (dateTimePattern == null) {
             dateTimePattern =  DEFAULT_DATE_TIME_PATTERN;
         }
-        m_dateParser = new SimpleDateFormat(dateTimePattern);
-        m_dateParser.setLenient(false);
+        m_timestampParser = new TimestampParser(dateTimePattern);
     }
 
     /* ========================================================================
@@ -86,11 +83,12 @@ public class TimeDataParser extends AbstractDataParser {
      */
 
     protected Object parseXValueImpl(String xValue, int lineNumber) throws InvalidDataException {
-        try {
-            return m_dateParser.parse(xValue);
-        } catch (ParseException e) {
-            throw new InvalidDataException("Invalid date: [" + xValue + "], line " + lineNumber);
-        }
+        return new Date(m_timestampParser.parse(xValue, lineNumber));
+    }
+
+    protected double parsePrimitiveXValueImpl(char[] chars, int start, int end, int lineNumber)
+            throws InvalidDataException {
+        return m_timestampParser.parse(chars, start, end, lineNumber);
     }
 
     /* ========================================================================
@@ -0,0 +1,548 @@
+/* (C) Copyright 2026, by John Dickson
+ *
+ * Project Info:  https://github.com/captsens/clichart
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2.1 of the License, or
+ * (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ */
+
+package net.sf.clichart.data;
+
+import java.nio.CharBuffer;
+import java.text.DateFormat;
+import java.text.ParseException;
+import java.text.ParsePosition;
+import java.text.SimpleDateFormat;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.format.ResolverStyle;
+import java.time.format.SignStyle;
+import java.time.format.TextStyle;
+import java.time.temporal.ChronoField;
+import java.time.temporal.TemporalAccessor;
+import java.time.temporal.TemporalQueries;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.TimeZone;
+
+/**
+ * Parses dates/times in a SimpleDateFormat pattern into milliseconds since the epoch, in the default time zone.
+ * Parsing is non-lenient, and (as for SimpleDateFormat) any text after the date/time is ignored.
+ *
+ * <p>Patterns consisting only of numeric year (yyyy), month (MM), day (dd), hour (HH), minute (mm), second (ss) and
+ * millisecond (SSS) fields, separated by single characters, are parsed by a hand-coded loop which doesn't create any
+ * objects.  This covers the common formats like HH:mm, HH:mm:ss, yyyy-MM-dd HH:mm:ss and ISO-8601 with milliseconds.
+ * Other patterns are translated to an (immutable) DateTimeFormatter, or if they use pattern letters which can't be
+ * translated, are parsed by a SimpleDateFormat.
+ *
+ * <p>Since consecutive values usually fall within the same hour, the start of the hour (in milliseconds) is cached,
+ * unless the hour includes a time zone transition.  As for SimpleDateFormat, times within a daylight saving gap are
+ * invalid, and times within an overlap are taken to be in standard time (i.e. the later offset).
+ *
+ * <p>Note that this class is not threadsafe, since it holds the cache and reusable parse state.  Use one instance
+ * per thread.
+ *
+ * @author johnd
+ */
+public class TimestampParser {
+
+    /* ========================================================================
+     *
+     * Class (static) variables.
+     */
+
+    // indexes into m_fieldValues
+    private static final int YEAR = 0;
+    private static final int MONTH = 1;
+    private static final int DAY = 2;
+    private static final int HOUR = 3;
+    private static final int MINUTE = 4;
+    private static final int SECOND = 5;
+    private static final int MILLI = 6;
+
+    // pattern letters (and the number of them) for each field which can be handled by the fast path
+    private static final String FAST_PATH_LETTERS = "yMdHmsS";
+    private static final int[] FAST_PATH_COUNTS = {4, 2, 2, 2, 2, 2, 3};
+
+    private static final int[] DEFAULT_FIELD_VALUES = {1970, 1, 1, 0, 0, 0, 0};
+
+    // the fast path gives up on fields with more digits than this, to avoid overflow
+    private static final int MAX_FIELD_DIGITS = 9;
+
+    private static final long MILLIS_PER_HOUR = 60 * 60 * 1000;
+
+    // SimpleDateFormat interprets 2-digit years as being within 80 years before and 20 years after the present
+    private static final int TWO_DIGIT_YEAR_OFFSET = 80;
+
+    /* ========================================================================
+     *
+     * Instance variables.
+     */
+
+    private final String m_pattern;
+
+    private final ZoneRules m_zoneRules;
+
+    private final ZoneId m_zone;
+
+    // for the fast path: the field (index into m_fieldValues) for each number in the value, and the character
+    // following it (0 for the last).  Null if the fast path can't be used
+    private int[] m_fastPathFields = null;
+    private char[] m_fastPathSeparators = null;
+
+    // for the general path, used for values the fast path can't handle
+    private DateTimeFormatter m_formatter = null;
+
+    // for patterns which can't be translated to a DateTimeFormatter
+    private DateFormat m_fallbackFormat = null;
+
+    private final int[] m_fieldValues = new int[DEFAULT_FIELD_VALUES.length];
+
+    // start of the last hour converted (see toEpochMillis)
+    private boolean m_hourCached = false;
+    private long m_cachedHourKey;
+    private long m_cachedHourMillis;
+
+    /* ========================================================================
+     *
+     * Constructors
+     */
+
+    /**
+     * @throws IllegalArgumentException if the pattern is invalid
+     */
+    public TimestampParser(String pattern) {
+        m_pattern = pattern;
+        m_zone = TimeZone.getDefault().toZoneId();
+        m_zoneRules = m_zone.getRules();
+
+        List<PatternToken> tokens = tokenize(pattern);
+        buildFastPath(tokens);
+
+        // values the fast path can't handle (if any) are passed to the general path
+        m_formatter = buildFormatter(tokens);
+        if (m_formatter == null) {
+            m_fallbackFormat = new SimpleDateFormat(pattern);
+            m_fallbackFormat.setLenient(false);
+        }
+    }
+
+    /* ========================================================================
+     *
+     * Static methods
+     */
+
+    /* ========================================================================
+     *
+     * Public methods
+     */
+
+    /**
+     * Parse the value in chars[start] to chars[end - 1], returning milliseconds since the epoch
+     *
+     * @throws InvalidDataException if the value isn't a valid date/time
+     */
+    public long parse(char[] chars, int start, int end, int lineNumber) throws InvalidDataException {
+        try {
+            if (m_fastPathFields != null && parseFastPath(chars, start, end)) {
+                return toEpochMillis(m_fieldValues[YEAR], m_fieldValues[MONTH], m_fieldValues[DAY],
+                        m_fieldValues[HOUR], m_fieldValues[MINUTE], m_fieldValues[SECOND], m_fieldValues[MILLI]);
+            }
+
+            if (m_fallbackFormat != null) {
+                return m_fallbackFormat.parse(new String(chars, start, end - start)).getTime();
+            }
+            return parseGeneral(chars, start, end);
+
+        } catch (ParseException e) {
+            // drop through
+        } catch (DateTimeException e) {
+            // drop through
+        }
+        throw new InvalidDataException("Invalid date: [" + new String(chars, start, end - start) + "], line "
+                + lineNumber);
+    }
+
+    /**
+     * Parse a value held in a String
+     */
+    public long parse(String value, int lineNumber) throws InvalidDataException {
+        return parse(value.toCharArray(), 0, value.length(), lineNumber);
+    }
+
+    public String getPattern() {
+        return m_pattern;
+    }
+
+    /* ========================================================================
+     *
+     * Protected / package-private methods
+     */
+
+    /**
+     * Return true if values are parsed by the fast path
+     */
+    boolean isFastPath() {
+        return m_fastPathFields != null;
+    }
+
+    /**
+     * Return true if values are parsed by a SimpleDateFormat
+     */
+    boolean isFallback() {
+        return m_fallbackFormat != null;
+    }
+
+    /* ========================================================================
+     *
+     * Private methods
+     */
+
+    /**
+     * Parse the value into m_fieldValues.  Returns false if the value can't be handled by the fast path - it may
+     * still be valid, so should be passed to the general parser
+     */
+    private boolean parseFastPath(char[] chars, int start, int end) {
+        int[] values = m_fieldValues;
+        System.arraycopy(DEFAULT_FIELD_VALUES, 0, values, 0, values.length);
+
+        int position = start;
+        for (int i = 0; i < m_fastPathFields.length; i++) {
+            // as for SimpleDateFormat, spaces are allowed before each number
+            while (position < end && (chars[position] == ' ' || chars[position] == '\t')) {
+                position++;
+            }
+
+            int digitsStart = position;
+            int value = 0;
+            while (position < end && chars[position] >= '0' && chars[position] <= '9'
+                    && position - digitsStart < MAX_FIELD_DIGITS) {
+                value = value * 10 + (chars[position] - '0');
+                position++;
+            }
+            if (position == digitsStart) {
+                return false;
+            }
+            values[m_fastPathFields[i]] = value;
+
+            char separator = m_fastPathSeparators[i];
+            if (separator != 0) {
+                if (position >= end || chars[position] != separator) {
+                    return false;
+                }
+                position++;
+            }
+        }
+
+        return values[MONTH] >= 1 && values[MONTH] <= 12
+                && values[DAY] >= 1 && values[DAY] <= daysInMonth(values[YEAR], values[MONTH])
+                && values[HOUR] <= 23 && values[MINUTE] <= 59 && values[SECOND] <= 59 && values[MILLI] <= 999;
+    }
+
+    private long parseGeneral(char[] chars, int start, int end) {
+        TemporalAccessor parsed = m_formatter.parse(CharBuffer.wrap(chars, start, end - start),
+                new ParsePosition(0));
+        LocalDate date = parsed.query(TemporalQueries.localDate());
+        LocalTime time = parsed.query(TemporalQueries.localTime());
+        if (date == null || time == null) {
+            throw new DateTimeException("Incomplete date/time");
+        }
+        return toEpochMillis(date.getYear(), date.getMonthValue(), date.getDayOfMonth(), time.getHour(),
+                time.getMinute(), time.getSecond(), time.getNano() / 1000000);
+    }
+
+    /**
+     * Convert a local date/time to milliseconds since the epoch, using the cached start of the hour if possible
+     */
+    private long toEpochMillis(int year, int month, int day, int hour, int minute, int second, int millis) {
+        long hourKey = (((long) year * 13 + month) * 32 + day) * 24 + hour;
+        if (!m_hourCached || hourKey != m_cachedHourKey) {
+            LocalDateTime hourStart = LocalDateTime.of(year, month, day, hour, 0);
+            long hourMillis = hourStart.atZone(m_zone).withLaterOffsetAtOverlap().toInstant().toEpochMilli();
+            ZoneOffsetTransition transition = m_zoneRules.nextTransition(Instant.ofEpochMilli(hourMillis));
+            boolean transitionInHour = transition != null
+                    && transition.toEpochSecond() * 1000 < hourMillis + MILLIS_PER_HOUR;
+            if (transitionInHour || m_zoneRules.getValidOffsets(hourStart).isEmpty()) {
+                // offset changes during this hour, so can't just add minutes etc. to the start of the hour
+                m_hourCached = false;
+                return toEpochMillis(LocalDateTime.of(year, month, day, hour, minute, second, millis * 1000000));
+            }
+            m_cachedHourKey = hourKey;
+            m_cachedHourMillis = hourMillis;
+            m_hourCached = true;
+        }
+        return m_cachedHourMillis + minute * 60000L + second * 1000L + millis;
+    }
+
+    private long toEpochMillis(LocalDateTime dateTime) {
+        if (m_zoneRules.getValidOffsets(dateTime).isEmpty()) {
+            throw new DateTimeException("Time is in a daylight saving gap: " + dateTime);
+        }
+        return dateTime.atZone(m_zone).withLaterOffsetAtOverlap().toInstant().toEpochMilli();
+    }
+
+    private static int daysInMonth(int year, int month) {
+        switch (month) {
+        case 2:
+            boolean leapYear = (year % 4 == 0) && (year % 100 != 0 || year % 400 == 0);
+            return leapYear ? 29 : 28;
+        case 4:
+        case 6:
+        case 9:
+        case 11:
+            return 30;
+        default:
+            return 31;
+        }
+    }
+
+    /**
+     * Split a SimpleDateFormat pattern into runs of pattern letters and literal text
+     */
+    private static List<PatternToken> tokenize(String pattern) {
+        List<PatternToken> tokens = new ArrayList<PatternToken>();
+        StringBuilder literal = new StringBuilder();
+        int position = 0;
+        while (position < pattern.length()) {
+            char c = pattern.charAt(position);
+            if (c == '\'') {
+                // quoted text, in which '' is a quote
+                position++;
+                if (position < pattern.length() && pattern.charAt(position) == '\'') {
+                    literal.append('\'');
+                    position++;
+                    continue;
+                }
+                while (position < pattern.length()) {
+                    c = pattern.charAt(position++);
+                    if (c == '\'') {
+                        if (position < pattern.length() && pattern.charAt(position) == '\'') {
+                            literal.append('\'');
+                            position++;
+                        } else {
+                            break;
+                        }
+                    } else {
+                        literal.append(c);
+                    }
+                }
+            } else if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z')) {
+                if (literal.length() > 0) {
+                    tokens.add(new PatternToken(literal.toString()));
+                    literal.setLength(0);
+                }
+                int count = 1;
+                while (position + count < pattern.length() && pattern.charAt(position + count) == c) {
+                    count++;
+                }
+                tokens.add(new PatternToken(c, count));
+                position += count;
+            } else {
+                literal.append(c);
+                position++;
+            }
+        }
+        if (literal.length() > 0) {
+            tokens.add(new PatternToken(literal.toString()));
+        }
+        return tokens;
+    }
+
+    /**
+     * Set up the fast path, if the pattern is suitable
+     */
+    private boolean buildFastPath(List<PatternToken> tokens) {
+        int fieldCount = (tokens.size() + 1) / 2;
+        if (fieldCount == 0) {
+            return false;
+        }
+        int[] fields = new int[fieldCount];
+        char[] separators = new char[fieldCount];
+        boolean[] used = new boolean[DEFAULT_FIELD_VALUES.length];
+
+        for (int i = 0; i < tokens.size(); i++) {
+            PatternToken token = tokens.get(i);
+            if (i % 2 == 0) {
+                // must be a numeric field
+                int field = FAST_PATH_LETTERS.indexOf(token.m_letter);
+                if (token.m_letter == 0 || field < 0 || token.m_count != FAST_PATH_COUNTS[field] || used[field]) {
+                    return false;
+                }
+                used[field] = true;
+                fields[i / 2] = field;
+            } else {
+                // must be a single-character separator, not at the end
+                if (token.m_letter != 0 || token.m_literal.length() != 1 || i == tokens.size() - 1) {
+                    return false;
+                }
+                separators[i / 2] = token.m_literal.charAt(0);
+            }
+        }
+
+        m_fastPathFields = fields;
+        m_fastPathSeparators = separators;
+        return true;
+    }
+
+    /**
+     * Translate the pattern to a DateTimeFormatter, or return null if it uses letters we can't translate
+     */
+    private static DateTimeFormatter buildFormatter(List<PatternToken> tokens) {
+        DateTimeFormatterBuilder builder = new DateTimeFormatterBuilder();
+        String letters = "";
+
+        for (int i = 0; i < tokens.size(); i++) {
+            PatternToken token = tokens.get(i);
+            if (token.m_letter == 0) {
+                builder.appendLiteral(token.m_literal);
+                continue;
+            }
+            letters += token.m_letter;
+
+            // as for SimpleDateFormat, numbers followed by another number have a fixed width
+            boolean fixedWidth = i + 1 < tokens.size() && tokens.get(i + 1).isNumeric();
+            switch (token.m_letter) {
+            case 'y':
+                if (token.m_count <= 2) {
+                    builder.appendValueReduced(ChronoField.YEAR, 2, fixedWidth ? 2 : 9,
+                            LocalDate.now().minusYears(TWO_DIGIT_YEAR_OFFSET));
+                } else {
+                    appendNumber(builder, ChronoField.YEAR, token.m_count, fixedWidth);
+                }
+                break;
+            case 'M':
+                if (token.m_count >= 3) {
+                    appendText(builder, ChronoField.MONTH_OF_YEAR, token.m_count);
+                } else {
+                    appendNumber(builder, ChronoField.MONTH_OF_YEAR, token.m_count, fixedWidth);
+                }
+                break;
+            case 'd':
+                appendNumber(builder, ChronoField.DAY_OF_MONTH, token.m_count, fixedWidth);
+                break;
+            case 'H':
+                appendNumber(builder, ChronoField.HOUR_OF_DAY, token.m_count, fixedWidth);
+                break;
+            case 'k':
+                appendNumber(builder, ChronoField.CLOCK_HOUR_OF_DAY, token.m_count, fixedWidth);
+                break;
+            case 'K':
+                appendNumber(builder, ChronoField.HOUR_OF_AMPM, token.m_count, fixedWidth);
+                break;
+            case 'h':
+                appendNumber(builder, ChronoField.CLOCK_HOUR_OF_AMPM, token.m_count, fixedWidth);
+                break;
+            case 'm':
+                appendNumber(builder, ChronoField.MINUTE_OF_HOUR, token.m_count, fixedWidth);
+                break;
+            case 's':
+                appendNumber(builder, ChronoField.SECOND_OF_MINUTE, token.m_count, fixedWidth);
+                break;
+            case 'S':
+                // note that, as for SimpleDateFormat, this is a number of milliseconds, not a fraction
+                appendNumber(builder, ChronoField.MILLI_OF_SECOND, token.m_count, fixedWidth);
+                break;
+            case 'E':
+                appendText(builder, ChronoField.DAY_OF_WEEK, token.m_count);
+                break;
+            case 'a':
+                appendText(builder, ChronoField.AMPM_OF_DAY, 1);
+                break;
+            default:
+                return null;
+            }
+        }
+
+        // fields not in the pattern default to the epoch
+        if (letters.indexOf('y') < 0) {
+            builder.parseDefaulting(ChronoField.YEAR, 1970);
+        }
+        if (letters.indexOf('M') < 0) {
+            builder.parseDefaulting(ChronoField.MONTH_OF_YEAR, 1);
+        }
+        if (letters.indexOf('d') < 0) {
+            builder.parseDefaulting(ChronoField.DAY_OF_MONTH, 1);
+        }
+        boolean hasAmPmHour = letters.indexOf('K') >= 0 || letters.indexOf('h') >= 0;
+        if (hasAmPmHour && letters.indexOf('a') < 0) {
+            builder.parseDefaulting(ChronoField.AMPM_OF_DAY, 0);
+        }
+        if (!hasAmPmHour && letters.indexOf('H') < 0 && letters.indexOf('k') < 0) {
+            builder.parseDefaulting(ChronoField.HOUR_OF_DAY, 0);
+        }
+        if (letters.indexOf('m') < 0) {
+            builder.parseDefaulting(ChronoField.MINUTE_OF_HOUR, 0);
+        }
+        if (letters.indexOf('s') < 0) {
+            builder.parseDefaulting(ChronoField.SECOND_OF_MINUTE, 0);
+        }
+        return builder.toFormatter(Locale.getDefault()).withResolverStyle(ResolverStyle.STRICT);
+    }
+
+    private static void appendNumber(DateTimeFormatterBuilder builder, ChronoField field, int count,
+            boolean fixedWidth) {
+        if (fixedWidth) {
+            builder.appendValue(field, count);
+        } else {
+            builder.appendValue(field, 1, MAX_FIELD_DIGITS, SignStyle.NORMAL);
+        }
+    }
+
+    private static void appendText(DateTimeFormatterBuilder builder, ChronoField field, int count) {
+        builder.parseCaseInsensitive();
+        builder.appendText(field, count >= 4 ? TextStyle.FULL : TextStyle.SHORT);
+        builder.parseCaseSensitive();
+    }
+
+    /* ========================================================================
+     *
+     * Inner classes
+     */
+
+    /**
+     * A run of pattern letters, or literal text
+     */
+    private static class PatternToken {
+        // 0 for literal text
+        private final char m_letter;
+        private final int m_count;
+        private final String m_literal;
+
+        PatternToken(char letter, int count) {
+            m_letter = letter;
+            m_count = count;
+            m_literal = null;
+        }
+
+        PatternToken(String literal) {
+            m_letter = 0;
+            m_count = 0;
+            m_literal = literal;
+        }
+
+        boolean isNumeric() {
+            return m_letter != 0 && "yMdHkKhmsS".indexOf(m_letter) >= 0 && !(m_letter == 'M' && m_count >= 3);
+        }
+    }
+}
@@ -40,6 +40,9 @@ public class ValueDataParser extends AbstractDataParser {
      * Instance variables.
      */
 
+    // parses x values passed as primitives - created when first used, so the thousands separator is known
+    private NumberParser m_xParser = null;
+
     /* ========================================================================
      *
      * Constructors
@@ -69,6 +72,14 @@ public class ValueDataParser extends AbstractDataParser {
         return ParseUtils.parseValue(xValue, lineNumber);
     }
 
+    protected double parsePrimitiveXValueImpl(char[] chars, int start, int end, int lineNumber)
+            throws InvalidDataException {
+        if (m_xParser == null) {
+            m_xParser = createNumberParser();
+        }
+        return m_xParser.parse(chars, start, end, lineNumber);
+    }
+
     /* ========================================================================
      *
      * Private methods
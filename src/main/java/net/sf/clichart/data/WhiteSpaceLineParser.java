@@ -20,29 +20,29 @@
 
 package net.sf.clichart.data;
 
-import java.util.regex.Pattern;
-
 /**
- * A LineParser that splits the string based on white space
+ * A LineParser that splits the string based on white space.  Leading and trailing white space is ignored.
+ *
+ * <p>Note that this class is not threadsafe.
  *
  * @author johnd
  */
-public class WhiteSpaceLineParser implements LineParser {
+public class WhiteSpaceLineParser implements FieldLineParser {
 
     /* ========================================================================
      *
      * Class (static) variables.
      */
 
-    private static final Pattern SPLIT_PATTERN = Pattern.compile("\\s+");
-
-    private static final String[] EMPTY_ARRAY = new String[]{};
-
     /* ========================================================================
      *
      * Instance variables.
      */
 
+    private final LineFields m_fields = new LineFields();
+
+    private boolean[] m_requiredColumns = null;
+
     /* ========================================================================
      *
      * Constructors
@@ -59,12 +59,49 @@ public class WhiteSpaceLineParser implements LineParser {
      */
 
     public String[] parseLine(String line, int lineNumber) {
-        line = line.trim();
-        if (line.length() == 0) {
-            return EMPTY_ARRAY;
+        return parseFields(line, lineNumber).toArray();
+    }
+
+    public LineFields parseFields(String line, int lineNumber) {
+        char[] chars = m_fields.prepare(line);
+        // trimmed as for String.trim(), but split on regular expression white space
+        int end = line.length();
+        while (end > 0 && chars[end - 1] <= ' ') {
+            end--;
         }
+        int position = 0;
+        while (position < end && chars[position] <= ' ') {
+            position++;
+        }
+
+        int fieldIndex = 0;
+        while (position < end) {
+            while (position < end && isWhiteSpace(chars[position])) {
+                position++;
+            }
+            if (position == end) {
+                break;
+            }
+            if (m_requiredColumns != null && fieldIndex >= m_requiredColumns.length) {
+                break;
+            }
+
+            int start = position;
+            while (position < end && !isWhiteSpace(chars[position])) {
+                position++;
+            }
+            if (m_requiredColumns == null || m_requiredColumns[fieldIndex]) {
+                m_fields.addField(start, position);
+            } else {
+                m_fields.addField(start, start);
+            }
+            fieldIndex++;
+        }
+        return m_fields;
+    }
 
-        return SPLIT_PATTERN.split(line.trim());
+    public void setRequiredColumns(boolean[] requiredColumns) {
+        m_requiredColumns = requiredColumns;
     }
 
     /* ========================================================================
@@ -76,4 +113,11 @@ public class WhiteSpaceLineParser implements LineParser {
      *
      * Private methods
      */
+
+    /**
+     * Equivalent to the regular expression character class \s
+     */
+    private boolean isWhiteSpace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
 }
@@ -20,6 +20,8 @@
 
 package net.sf.clichart.main;
 
+import net.sf.clichart.chart.Options;
+
 /**
  * Defines all options available via the CLI.  Used both for normal CLI operation, and interactive (CLI server) mode.
  *
@@ -74,11 +76,70 @@ public class CliOptionDefinitions {
             "'red', 'blue', 'green' etc (see documentation).  Indexes not overridden use default colours", 
             "setColours", COLOUR_INDEX_ARRAY},
         {null, "port", "Port on which server should listen (only if TCP/IP server required)", "setListenPort", INT},
+        {null, "thousands", "Character separating groups of digits in numeric values, e.g. ',' for 1,234,567.  " +
+            "Default is none", "setThousandsSeparator", STRING},
+        {null, "threads", "Number of threads to use when parsing the input (defaults to 1)", "setThreads", INT},
+        {null, "downsample", "Reduce the data to about the number of points the chart width can show, keeping " +
+            "either the first, last, minimum and maximum values in each pixel ('minmax'), or the points chosen by " +
+            "the largest-triangle-three-buckets algorithm ('lttb').  Default is to chart all the data",
+            "setDownsample", STRING},
+        {null, "resample", "Group the data into buckets of this width on the X axis (e.g. 10s, 1m or 1h for " +
+            "time-based data, or a number of X axis units), and chart statistics for each bucket in place of " +
+            "the raw values.  Default is to chart the raw values", "setResample", STRING},
+        {null, "resamplestats", "Comma-separated list of statistics to chart for each column when resampling " +
+            "(any of min, max, av, tot and cnt, or percentiles such as p50, p95 and p99.9).  Default is av",
+            "setResampleStatistics", STRING},
+        {null, "histogram", "Chart a histogram of the Y axis values, with bins chosen automatically ('auto'), " +
+            "scaled logarithmically ('log'), or of the given width", "setHistogram", STRING},
+        {null, "histogrambins", "Number of bins for a histogram with automatic or logarithmic bins (defaults to " +
+            Options.DEFAULT_HISTOGRAM_BINS + ")", "setHistogramBins", INT},
+        {null, "heatmap", "Chart a heatmap of the number of values in each cell of a grid of X axis values by Y " +
+            "axis values, with the Y axis scaled either linearly ('linear') or logarithmically ('log')",
+            "setHeatmap", STRING},
+        {null, "density", "Draw the points as a density scatter plot, shading each pixel by the number of points " +
+            "in it, with the shading scaled either logarithmically ('log') or by overlaying translucent points " +
+            "('alpha')", "setDensity", STRING},
+        {null, "keycolumn", "Column (0-based) whose values split the data into a separate series for each key, " +
+            "e.g. a host name.  Default is not to split the data", "setKeyColumn", INT},
+        {null, "topkeys", "Maximum number of keys to chart when splitting the data by key (defaults to " +
+            Options.DEFAULT_TOP_KEYS + ").  A charted key which was dropped from the keys tracked and seen again is " +
+            "missing its earlier data", "setTopKeys", INT},
+        {null, "rankkeys", "How to choose the keys to chart when splitting the data by key: those with the " +
+            "highest total of their values ('total', the default) or the highest maximum value ('max')",
+            "setRankKeys", STRING},
+        {null, "distinctcolumn", "Column (0-based) whose distinct values (e.g. user names) are counted in each " +
+            "resampling bucket, and charted as an extra series.  The count is an estimate, typically within 2%. " +
+            "Requires --resample", "setDistinctColumn", INT},
+        {null, "regex", "Regular expression to extract the columns from each line, e.g. from log files.  Group 1 " +
+            "is column 0, group 2 is column 1 and so on.  Lines which don't match are skipped", "setRegex", STRING},
+        {null, "fields", "Names of the fields which are the columns of JSON or logfmt input, comma-separated, " +
+            "e.g. 'ts,latency'.  Fields of nested JSON objects are named by their path, e.g. 'http.latency'",
+            "setFields", STRING_ARRAY},
+        {null, "from", "Lowest x value to chart, in the same format as the x values in the data.  Default is to " +
+            "chart from the start of the data", "setXRangeStart", STRING},
+        {null, "to", "X value at which to stop charting (not included), in the same format as the x values in the " +
+            "data.  Default is to chart to the end of the data", "setXRangeEnd", STRING},
+        {null, "sample", "Chart a sample of about this fraction of the input file (e.g. 0.01), for a quick preview " +
+            "of a large file.  Lines are read at points spread evenly through the file", "setSample", STRING},
+        {null, "samplelines", "Number of consecutive lines to chart at each point, when charting a sample of the " +
+            "input (defaults to " + Options.DEFAULT_SAMPLE_LINES + ")", "setSampleLines", INT},
     };
 
     public static final String[][] OPTIONS_WITHOUT_ARGS = {
         {"b", "bar", "Show as a bar chart, not X-Y line", "setBarChart", BOOLEAN},
         {"c", "csv", "Expect input as CSV.  Default is whitespace-separated", null, null},
+        {null, "cache", "Cache the parsed data in a file beside the input file, and use that rather than parsing " +
+            "the input again while it is unchanged.  If the input has only been appended to, just the new lines are " +
+            "parsed", "setParseCache", BOOLEAN},
+        {null, "sorted", "The x values are in increasing order, so the input file is searched for the start of the " +
+            "range given by --from, and parsing stops at the end of the range given by --to", "setXSorted", BOOLEAN},
+        {null, "rangeindex", "Keep the positions found while searching a sorted input file in an index file beside " +
+            "it, so later searches are faster.  Requires --sorted", "setRangeIndex", BOOLEAN},
+        {null, "json", "Expect input as JSON Lines (a JSON object per line), with the columns named by --fields",
+            null, null},
+        {null, "logfmt", "Expect input as logfmt (key=value pairs), with the columns named by --fields", null, null},
+        {null, "binary", "Expect input in clichart's binary columnar format, e.g. from the --binary option of " +
+            "derivative", null, null},
         {"f", "hasheader", "First row of data provides column headers for the legend (default is no header row)",
             "setHeaderRow", BOOLEAN},
         {"h", "help", "Show usage (this screen) and exit", null, null},
@@ -88,6 +149,9 @@ public class CliOptionDefinitions {
             BOOLEAN},
         {"n", "noxvalue", "Chart has no X axis values - just number the rows instead", null, null},
         {"v", "xvalue", "Chart has simple values as the X axis, not dates or times", null, null},
+        {null, "epochseconds", "X axis values are Unix timestamps in seconds (may include a fraction)", null, null},
+        {null, "epochmillis", "X axis values are Unix timestamps in milliseconds", null, null},
+        {null, "epochmicros", "X axis values are Unix timestamps in microseconds", null, null},
         {null, "bar2", "Show second axis as a bar chart, not X-Y line", "setSecondAxisBarChart", BOOLEAN},
         {null, "datapoints", "Indicate each data point", "setDataPoints", BOOLEAN},
         {null, "datapoints2", "Indicate each data point for the second Y axis", "setSecondAxisDataPoints", BOOLEAN},
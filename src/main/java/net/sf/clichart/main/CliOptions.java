@@ -73,6 +73,18 @@ public class CliOptions implements Options {
     
     private int m_listenPort = -1;
 
+    private int m_threads = 1;
+
+    private int m_histogramBins = Options.DEFAULT_HISTOGRAM_BINS;
+
+    private int m_keyColumn = -1;
+
+    private int m_topKeys = Options.DEFAULT_TOP_KEYS;
+
+    private int m_distinctColumn = -1;
+
+    private int m_sampleLines = Options.DEFAULT_SAMPLE_LINES;
+
     /* ========================================================================
      *
      * Constructors
@@ -102,6 +114,13 @@ public class CliOptions implements Options {
         parseSeriesTitles();
         m_colourOverrides = parseColourOverrides();
         m_listenPort = parseIntValue("port", -1);
+        m_threads = parseThreads();
+        m_histogramBins = parseHistogramBins();
+        m_keyColumn = parseKeyColumn();
+        m_topKeys = parseTopKeys();
+        m_distinctColumn = parseDistinctColumn();
+        m_sampleLines = parseSampleLines();
+        checkDataSeparator();
     }
 
 
@@ -116,7 +135,16 @@ public class CliOptions implements Options {
      */
 
     public int getDataSeparatorType() {
-        return (m_commandLine.hasOption("c") ? DATA_SEP_CSV : DEFAULT_DATA_SEP);
+        if (m_commandLine.hasOption("c")) {
+            return DATA_SEP_CSV;
+        } else if (m_commandLine.hasOption("json")) {
+            return DATA_SEP_JSON;
+        } else if (m_commandLine.hasOption("logfmt")) {
+            return DATA_SEP_LOGFMT;
+        } else if (m_commandLine.hasOption("binary")) {
+            return DATA_SEP_BINARY;
+        }
+        return DEFAULT_DATA_SEP;
     }
 
     public String getDateFormat() {
@@ -152,6 +180,12 @@ public class CliOptions implements Options {
             return X_TYPE_NONE;
         } else if (m_commandLine.hasOption("v")) {
             return X_TYPE_VALUE;
+        } else if (m_commandLine.hasOption("epochseconds")) {
+            return X_TYPE_EPOCH_SECONDS;
+        } else if (m_commandLine.hasOption("epochmillis")) {
+            return X_TYPE_EPOCH_MILLIS;
+        } else if (m_commandLine.hasOption("epochmicros")) {
+            return X_TYPE_EPOCH_MICROS;
         } else {
             return DEFAULT_X_TYPE;
         }
@@ -260,6 +294,98 @@ public class CliOptions implements Options {
         return m_listenPort;
     }
 
+    public String getThousandsSeparator() {
+        return m_commandLine.getOptionValue("thousands", null);
+    }
+
+    public int getThreads() {
+        return m_threads;
+    }
+
+    public String getDownsample() {
+        return m_commandLine.getOptionValue("downsample", null);
+    }
+
+    public String getResample() {
+        return m_commandLine.getOptionValue("resample", null);
+    }
+
+    public String getResampleStatistics() {
+        return m_commandLine.getOptionValue("resamplestats", null);
+    }
+
+    public String getHistogram() {
+        return m_commandLine.getOptionValue("histogram", null);
+    }
+
+    public int getHistogramBins() {
+        return m_histogramBins;
+    }
+
+    public String getHeatmap() {
+        return m_commandLine.getOptionValue("heatmap", null);
+    }
+
+    public String getDensity() {
+        return m_commandLine.getOptionValue("density", null);
+    }
+
+    public int getKeyColumn() {
+        return m_keyColumn;
+    }
+
+    public int getTopKeys() {
+        return m_topKeys;
+    }
+
+    public String getRankKeys() {
+        return m_commandLine.getOptionValue("rankkeys", RANK_KEYS_TOTAL);
+    }
+
+    public int getDistinctColumn() {
+        return m_distinctColumn;
+    }
+
+    public String getRegex() {
+        return m_commandLine.getOptionValue("regex", null);
+    }
+
+    public String[] getFields() {
+        String value = m_commandLine.getOptionValue("fields", null);
+        if (value != null) {
+            return value.trim().split("\\s*,\\s*");
+        }
+        return null;
+    }
+
+    public boolean useParseCache() {
+        return m_commandLine.hasOption("cache");
+    }
+
+    public String getXRangeStart() {
+        return m_commandLine.getOptionValue("from", null);
+    }
+
+    public String getXRangeEnd() {
+        return m_commandLine.getOptionValue("to", null);
+    }
+
+    public boolean isXSorted() {
+        return m_commandLine.hasOption("sorted");
+    }
+
+    public boolean useRangeIndex() {
+        return m_commandLine.hasOption("rangeindex");
+    }
+
+    public String getSample() {
+        return m_commandLine.getOptionValue("sample", null);
+    }
+
+    public int getSampleLines() {
+        return m_sampleLines;
+    }
+
     /* ========================================================================
      *
      * Protected / package-private methods
@@ -329,6 +455,73 @@ public class CliOptions implements Options {
         return lineWeight;
     }
 
+    private int parseThreads() throws InvalidOptionsException {
+        int threads = parseIntValue("threads", 1);
+
+        if (threads < 1) {
+            throw new InvalidOptionsException("Invalid threads value (must be at least 1): " + threads);
+        }
+        return threads;
+    }
+
+    private int parseHistogramBins() throws InvalidOptionsException {
+        int bins = parseIntValue("histogrambins", Options.DEFAULT_HISTOGRAM_BINS);
+
+        if (bins < 2) {
+            throw new InvalidOptionsException("Invalid histogrambins value (must be at least 2): " + bins);
+        }
+        return bins;
+    }
+
+    private int parseKeyColumn() throws InvalidOptionsException {
+        int keyColumn = parseIntValue("keycolumn", -1);
+
+        if (m_commandLine.hasOption("keycolumn") && keyColumn < 0) {
+            throw new InvalidOptionsException("Invalid keycolumn value (must be at least 0): " + keyColumn);
+        }
+        return keyColumn;
+    }
+
+    private int parseTopKeys() throws InvalidOptionsException {
+        int topKeys = parseIntValue("topkeys", Options.DEFAULT_TOP_KEYS);
+
+        if (topKeys < 1) {
+            throw new InvalidOptionsException("Invalid topkeys value (must be at least 1): " + topKeys);
+        }
+        return topKeys;
+    }
+
+    private int parseDistinctColumn() throws InvalidOptionsException {
+        int distinctColumn = parseIntValue("distinctcolumn", -1);
+
+        if (m_commandLine.hasOption("distinctcolumn") && distinctColumn < 0) {
+            throw new InvalidOptionsException("Invalid distinctcolumn value (must be at least 0): " + distinctColumn);
+        }
+        return distinctColumn;
+    }
+
+    private int parseSampleLines() throws InvalidOptionsException {
+        int lines = parseIntValue("samplelines", Options.DEFAULT_SAMPLE_LINES);
+
+        if (lines < 1) {
+            throw new InvalidOptionsException("Invalid samplelines value (must be at least 1): " + lines);
+        }
+        return lines;
+    }
+
+    private void checkDataSeparator() throws InvalidOptionsException {
+        int formats = 0;
+        String[] options = {"c", "json", "logfmt", "binary"};
+        for (int i = 0; i < options.length; i++) {
+            if (m_commandLine.hasOption(options[i])) {
+                formats++;
+            }
+        }
+        if (formats > 1) {
+            throw new InvalidOptionsException("Only one of --csv, --json, --logfmt and --binary may be given");
+        }
+    }
+
     private void parseSeriesTitles() {
         m_seriesTitles = parseSeriesTitlesImpl("seriestitles");
         m_secondAxisSeriesTitles = parseSeriesTitlesImpl("seriestitles2");
@@ -25,21 +25,50 @@ import net.sf.clichart.chart.ChartSaverException;
 import net.sf.clichart.chart.ChartSaver;
 import net.sf.clichart.chart.AbstractChartBuilder;
 import net.sf.clichart.chart.XYChartBuilder;
+import net.sf.clichart.chart.HeatmapChartBuilder;
 import net.sf.clichart.chart.TimeSeriesChartBuilder;
 import net.sf.clichart.data.InvalidDataException;
 import net.sf.clichart.data.AbstractDataParser;
+import net.sf.clichart.data.BinaryColumnParser;
+import net.sf.clichart.data.ByteLineReader;
 import net.sf.clichart.data.LineParser;
 import net.sf.clichart.data.CsvLineParser;
+import net.sf.clichart.data.JsonLineParser;
+import net.sf.clichart.data.LogfmtLineParser;
+import net.sf.clichart.data.RegexLineParser;
 import net.sf.clichart.data.WhiteSpaceLineParser;
 import net.sf.clichart.data.ValueDataParser;
 import net.sf.clichart.data.TimeDataParser;
+import net.sf.clichart.data.EpochDataParser;
+import net.sf.clichart.data.DataSink;
+import net.sf.clichart.data.DataParserFactory;
+import net.sf.clichart.data.DownsamplingDataSink;
+import net.sf.clichart.data.HistogramDataSink;
+import net.sf.clichart.data.PrimitiveDataSink;
+import net.sf.clichart.data.ResamplingDataSink;
+import net.sf.clichart.data.ParallelFileParser;
+import net.sf.clichart.data.ParseCache;
+import net.sf.clichart.data.ParseStatistics;
+import net.sf.clichart.data.PipelinedStreamParser;
+import net.sf.clichart.data.RangeIndex;
+import net.sf.clichart.data.SampledFileParser;
 
 import java.io.IOException;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
 import java.io.Reader;
 import java.io.FileReader;
 import java.io.FileNotFoundException;
 import java.io.InputStreamReader;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.text.DecimalFormat;
+import java.util.Arrays;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
 
 import org.jfree.chart.JFreeChart;
 
@@ -57,6 +86,10 @@ public class DefaultChartGenerator implements ChartGenerator {
      * Class (static) variables.
      */
 
+    // suffixes allowed on resample intervals for time-based data, longest first, and their lengths in milliseconds
+    private static final String[] RESAMPLE_UNITS = {"ms", "s", "m", "h", "d"};
+    private static final long[] RESAMPLE_UNIT_MILLIS = {1, 1000, 60 * 1000, 60 * 60 * 1000, 24 * 60 * 60 * 1000};
+
     /* ========================================================================
      *
      * Instance variables.
@@ -133,7 +166,10 @@ public class DefaultChartGenerator implements ChartGenerator {
      * @param seriesTitles Explicit series titles to use (null if none)
      */
     protected AbstractChartBuilder buildChartBuilder(Options options, String[] seriesTitles) {
-        if (options.getChartXType() == Options.X_TYPE_NONE || options.getChartXType() == Options.X_TYPE_VALUE) {
+        if (options.getHeatmap() != null) {
+            return new HeatmapChartBuilder(options, seriesTitles);
+        } else if (options.getChartXType() == Options.X_TYPE_NONE || options.getChartXType() == Options.X_TYPE_VALUE
+                || options.getHistogram() != null) {
             return new XYChartBuilder(options, seriesTitles);
         } else {
             return new TimeSeriesChartBuilder(options, seriesTitles);
@@ -144,17 +180,23 @@ public class DefaultChartGenerator implements ChartGenerator {
      * Create and return an appropriate data parser, based on the options provided.  Note that the chartBuilder must
      * be plugged into the data parser as its data sink.
      */
-    protected AbstractDataParser buildDataParser(Options options, AbstractChartBuilder chartbuider) {
+    protected AbstractDataParser buildDataParser(Options options, DataSink chartbuider) {
         LineParser lineParser = null;
-        if (options.getDataSeparatorType() == Options.DATA_SEP_CSV) {
+        if (options.getRegex() != null) {
+            lineParser = new RegexLineParser(options.getRegex());
+        } else if (options.getDataSeparatorType() == Options.DATA_SEP_CSV) {
             lineParser = new CsvLineParser();
+        } else if (options.getDataSeparatorType() == Options.DATA_SEP_JSON) {
+            lineParser = new JsonLineParser(options.getFields());
+        } else if (options.getDataSeparatorType() == Options.DATA_SEP_LOGFMT) {
+            lineParser = new LogfmtLineParser(options.getFields());
         } else {
             lineParser = new WhiteSpaceLineParser();
         }
 
-        if (options.getChartXType() == Options.X_TYPE_NONE) {
-            // no x values
-            int[] dataColumnIndexes = getYColumnIndexes(options, 0);
+        if (options.getChartXType() == Options.X_TYPE_NONE || !needsXValues(options)) {
+            // no x values (or they are skipped, so the line numbers are passed instead)
+            int[] dataColumnIndexes = getYColumnIndexes(options, getXColumnCount(options));
             return new ValueDataParser(lineParser, -1, dataColumnIndexes, options.hasHeaderRow(),
                     options.ignoreMissingColumns(), options.ignoreEmptyColumns(), chartbuider);
 
@@ -165,6 +207,13 @@ public class DefaultChartGenerator implements ChartGenerator {
             return new ValueDataParser(lineParser, xColumnIndex, dataColumnIndexes, options.hasHeaderRow(),
                     options.ignoreMissingColumns(), options.ignoreEmptyColumns(), chartbuider);
 
+        } else if (getEpochTimeUnit(options) != null) {
+            int xColumnIndex = options.getColumnIndexes()[0];
+            int[] dataColumnIndexes = getYColumnIndexes(options, 1);
+
+            return new EpochDataParser(lineParser, getEpochTimeUnit(options), xColumnIndex, dataColumnIndexes,
+                    options.hasHeaderRow(), options.ignoreMissingColumns(), options.ignoreEmptyColumns(), chartbuider);
+
         } else {
             int xColumnIndex = options.getColumnIndexes()[0];
             int[] dataColumnIndexes = getYColumnIndexes(options, 1);
@@ -180,25 +229,771 @@ public class DefaultChartGenerator implements ChartGenerator {
      */
 
     private JFreeChart buildChart(Options options) throws IOException, InvalidDataException, InvalidOptionsException {
-        m_chartBuilder = buildChartBuilder(options, options.getSeriesTitles());
-        m_dataParser = buildDataParser(options, m_chartBuilder);
+        if (options.getThousandsSeparator() != null && options.getThousandsSeparator().length() != 1) {
+            throw new InvalidOptionsException("Thousands separator must be a single character: "
+                    + options.getThousandsSeparator());
+        }
+        if (options.getThreads() < 1) {
+            throw new InvalidOptionsException("Invalid threads value (must be at least 1): " + options.getThreads());
+        }
+        int downsampleMode = getDownsampleMode(options);
+        double resampleInterval = getResampleInterval(options);
+        int[] resampleStatistics = getResampleStatistics(options);
+        int histogramMode = getHistogramMode(options);
+        double sampleFraction = getSampleFraction(options);
+        checkHeatmapOptions(options);
+        checkDensityOptions(options);
+        checkKeyOptions(options);
+        checkDistinctOptions(options);
+        checkRegexOptions(options);
+        checkFieldsOptions(options);
+        checkBinaryOptions(options);
+        checkCacheOptions(options);
+        checkXRangeOptions(options);
+        checkSampleOptions(options);
 
+        int columnCount = getYColumnIndexes(options, getXColumnCount(options)).length;
+        m_chartBuilder = buildChartBuilder(options, options.getSeriesTitles());
         if (options.getSecondAxisColumnIndexes() != null) {
             // need to use the same type as the main chartBuilder
             m_secondAxisBuilder = buildChartBuilder(options, options.getSecondAxisSeriesTitles());
-            m_dataParser.addSecondAxis(options.getSecondAxisColumnIndexes(), m_secondAxisBuilder);
         }
+        if (options.getKeyColumn() >= 0) {
+            boolean rankByMaximum = options.getRankKeys().equals(Options.RANK_KEYS_MAX);
+            m_chartBuilder.setKeys(columnCount, options.getTopKeys(), rankByMaximum);
+            if (m_secondAxisBuilder != null) {
+                m_secondAxisBuilder.setKeys(options.getSecondAxisColumnIndexes().length, options.getTopKeys(),
+                        rankByMaximum);
+            }
+        }
+        DataSink sink = wrapSink(m_chartBuilder, columnCount, resampleInterval, resampleStatistics, histogramMode,
+                downsampleMode, options.getDistinctColumn() >= 0, options);
+        DataSink secondAxisSink = null;
+        if (m_secondAxisBuilder != null) {
+            secondAxisSink = wrapSink(m_secondAxisBuilder, options.getSecondAxisColumnIndexes().length,
+                    resampleInterval, resampleStatistics, histogramMode, downsampleMode, false, options);
+        }
+        ParseStatistics statistics;
+        if (options.getDataSeparatorType() == Options.DATA_SEP_BINARY) {
+            statistics = parseBinaryInput(options, (PrimitiveDataSink) sink, (PrimitiveDataSink) secondAxisSink);
+        } else if (options.useParseCache()) {
+            statistics = parseCachedInput(options, columnCount, (PrimitiveDataSink) sink,
+                    (PrimitiveDataSink) secondAxisSink);
+        } else {
+            m_dataParser = createDataParser(options, sink, secondAxisSink);
+            if (options.getFields() != null && !options.hasHeaderRow()) {
+                // the field names are the column headers
+                m_dataParser.setColumnHeaders(options.getFields());
+            }
 
-        m_dataParser.parse(buildInputReader(options));
+            parseInput(options);
+            statistics = m_dataParser.getStatistics();
+        }
+        if (statistics.hasSkippedValues()) {
+            System.err.println(statistics);
+        }
         JFreeChart chart = m_chartBuilder.getChart(options);
 
         if (m_secondAxisBuilder != null) {
             m_secondAxisBuilder.addSecondAxis(chart, options);
         }
+        if (sampleFraction > 0) {
+            chart.setTitle(getSampleTitle(options.getChartTitle(), sampleFraction));
+        }
         return chart;
     }
 
 
+    /**
+     * Create a data parser for the options, with the sinks provided (the second axis sink may be null)
+     */
+    private AbstractDataParser createDataParser(Options options, DataSink sink, DataSink secondAxisSink)
+            throws InvalidOptionsException {
+        AbstractDataParser dataParser = buildDataParser(options, sink);
+        if (options.getThousandsSeparator() != null) {
+            dataParser.setThousandsSeparator(options.getThousandsSeparator().charAt(0));
+        }
+        if (secondAxisSink != null) {
+            dataParser.addSecondAxis(options.getSecondAxisColumnIndexes(), secondAxisSink);
+        }
+        if (options.getKeyColumn() >= 0) {
+            dataParser.setKeyColumn(options.getKeyColumn());
+        } else if (options.getDistinctColumn() >= 0) {
+            // the resampling sinks count the distinct keys
+            dataParser.setKeyColumn(options.getDistinctColumn());
+        }
+        if (options.getXRangeStart() != null || options.getXRangeEnd() != null) {
+            try {
+                dataParser.setXRange(options.getXRangeStart(), options.getXRangeEnd(), options.isXSorted());
+            } catch (InvalidDataException e) {
+                throw new InvalidOptionsException("Invalid x range (--from and --to must be in the same format as "
+                        + "the x values, with --from first): " + options.getXRangeStart() + " to "
+                        + options.getXRangeEnd());
+            }
+        }
+        return dataParser;
+    }
+
+    /**
+     * Parse the input data.  Where the platform character set allows, files are read via NIO, and other input (stdin
+     * or a pipe) is read through a pipeline if several threads are requested.  Otherwise input is read via a Reader.
+     * If a file's x values are sorted, parsing starts near the beginning of the x range rather than at the start of
+     * the file.  If only a sample of a file is to be charted, just the sampled lines are parsed, on a single thread.
+     */
+    private void parseInput(Options options) throws IOException, InvalidDataException, InvalidOptionsException {
+        Charset charset = Charset.defaultCharset();
+        boolean asciiCompatible = ByteLineReader.isAsciiCompatible(charset);
+        String inputPath = options.getInputPath();
+        double sampleFraction = getSampleFraction(options);
+
+        if (asciiCompatible && inputPath != null && new File(inputPath).isFile()) {
+            FileChannel channel = buildInputChannel(options);
+            try {
+                if (sampleFraction > 0) {
+                    new SampledFileParser(sampleFraction, options.getSampleLines()).parse(m_dataParser, channel,
+                            charset);
+                } else if (options.isXSorted() && options.getXRangeStart() != null) {
+                    parseSortedXRange(options, channel, charset);
+                } else if (options.getThreads() > 1) {
+                    new ParallelFileParser(createDataParserFactory(options), options.getThreads()).parse(
+                            m_dataParser, channel, charset);
+                } else {
+                    m_dataParser.parse(new ByteLineReader(channel, 0, channel.size(), 1, charset));
+                }
+            } finally {
+                channel.close();
+            }
+
+        } else if (sampleFraction > 0) {
+            throw new InvalidOptionsException("Can only chart a sample of an input file, in a character set such as "
+                    + "UTF-8 or ISO-8859-1: " + charset);
+
+        } else if (asciiCompatible && options.getThreads() > 1) {
+            InputStream source = buildInputStream(options);
+            try {
+                new PipelinedStreamParser(createDataParserFactory(options), options.getThreads()).parse(
+                        m_dataParser, source, charset);
+            } finally {
+                if (inputPath != null) {
+                    source.close();
+                }
+            }
+
+        } else {
+            m_dataParser.parse(buildInputReader(options));
+        }
+    }
+
+    /**
+     * Parse the x range of a file whose x values are sorted, on a single thread, starting from a search point found
+     * using its range index (if required).  The range index is still used if it can't be saved.
+     */
+    private void parseSortedXRange(Options options, FileChannel channel, Charset charset) throws IOException,
+            InvalidDataException {
+        File inputFile = new File(options.getInputPath());
+        RangeIndex index = new RangeIndex(inputFile, getXKey(options, inputFile));
+        if (options.useRangeIndex()) {
+            index.open();
+        }
+        index.parse(m_dataParser, channel, charset);
+        if (options.useRangeIndex()) {
+            try {
+                index.save();
+            } catch (IOException e) {
+                System.err.println("Unable to write range index " + index.getIndexFile() + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Parse input in the binary columnar format, returning the parse statistics.  This is always done on a single
+     * thread, since there is no text to parse.
+     */
+    private ParseStatistics parseBinaryInput(Options options, PrimitiveDataSink sink, PrimitiveDataSink secondAxisSink)
+            throws IOException, InvalidDataException, InvalidOptionsException {
+        int xColumnIndex = options.getChartXType() == Options.X_TYPE_NONE ? -1 : options.getColumnIndexes()[0];
+        TimeUnit epochTimeUnit = getEpochTimeUnit(options);
+        double xScale = 1;
+        if (epochTimeUnit == TimeUnit.SECONDS) {
+            xScale = 1000;
+        } else if (epochTimeUnit == TimeUnit.MICROSECONDS) {
+            xScale = 0.001;
+        }
+
+        BinaryColumnParser parser = new BinaryColumnParser(xColumnIndex, xScale,
+                getYColumnIndexes(options, getXColumnCount(options)), sink);
+        if (secondAxisSink != null) {
+            parser.addSecondAxis(options.getSecondAxisColumnIndexes(), secondAxisSink);
+        }
+
+        InputStream source = buildInputStream(options);
+        try {
+            parser.parse(source);
+        } finally {
+            if (options.getInputPath() != null) {
+                source.close();
+            }
+        }
+        return parser.getStatistics();
+    }
+
+    /**
+     * Parse the input file via its parse cache, returning the parse statistics.  If the cache holds all of the file's
+     * data, it is passed to the sinks without parsing the file.  Otherwise the file (or just the lines appended to it
+     * since it was cached) is parsed, and the values are added to the cache.  The chart is still drawn if the cache
+     * can't be written.
+     */
+    private ParseStatistics parseCachedInput(Options options, int columnCount, PrimitiveDataSink sink,
+            PrimitiveDataSink secondAxisSink) throws IOException, InvalidDataException, InvalidOptionsException {
+        File inputFile = new File(options.getInputPath());
+        if (!inputFile.isFile()) {
+            throw new InvalidOptionsException("File not found: " + options.getInputPath());
+        }
+        int secondAxisColumnCount = secondAxisSink == null ? 0 : options.getSecondAxisColumnIndexes().length;
+        ParseCache cache = new ParseCache(inputFile, getCacheKey(options, inputFile), columnCount,
+                secondAxisColumnCount);
+
+        int state = cache.open();
+        Charset charset = Charset.defaultCharset();
+        if (state == ParseCache.APPENDABLE && !ByteLineReader.isAsciiCompatible(charset)) {
+            // the appended lines can only be parsed separately at the byte level
+            state = ParseCache.STALE;
+        }
+        if (state == ParseCache.CURRENT) {
+            cache.replay(sink, secondAxisSink);
+            sink.parsingFinished();
+            if (secondAxisSink != null) {
+                secondAxisSink.parsingFinished();
+            }
+            return cache.getStatistics();
+        }
+
+        PrimitiveDataSink recordingSink = cache.createRecordingSink(sink);
+        PrimitiveDataSink recordingSecondAxisSink = secondAxisSink == null ? null
+                : cache.createSecondAxisRecordingSink(secondAxisSink);
+        boolean recording = true;
+        try {
+            cache.startRecording(state == ParseCache.APPENDABLE);
+        } catch (IOException e) {
+            System.err.println("Unable to write parse cache " + cache.getCacheFile() + ": " + e.getMessage());
+            recording = false;
+        }
+
+        try {
+            m_dataParser = createDataParser(options, recordingSink, recordingSecondAxisSink);
+            if (state == ParseCache.APPENDABLE) {
+                cache.replay(sink, secondAxisSink);
+                FileChannel channel = buildInputChannel(options);
+                try {
+                    cache.parseAppended(m_dataParser, channel, charset);
+                } finally {
+                    channel.close();
+                }
+            } else {
+                if (options.getFields() != null && !options.hasHeaderRow()) {
+                    m_dataParser.setColumnHeaders(options.getFields());
+                }
+                parseInput(options);
+            }
+
+            if (recording) {
+                // lines appended to the input can't be parsed separately if their line numbers are the x values, or
+                // if the header hasn't been found yet
+                boolean appendable = options.getChartXType() != Options.X_TYPE_NONE
+                        && (!options.hasHeaderRow() || cache.hasHeaders());
+                try {
+                    cache.finishRecording(m_dataParser.getStatistics(), m_dataParser.getLineCount(), appendable);
+                } catch (IOException e) {
+                    System.err.println("Unable to write parse cache " + cache.getCacheFile() + ": " + e.getMessage());
+                }
+            }
+        } finally {
+            cache.closeRecording();
+        }
+        return m_dataParser.getStatistics();
+    }
+
+    /**
+     * Return a key describing everything which affects how the input file is parsed, so that a parse cache is only
+     * used with the same options
+     */
+    private String getCacheKey(Options options, File inputFile) throws IOException {
+        StringBuilder key = new StringBuilder(getXKey(options, inputFile));
+        key.append("\ncolumns=").append(Arrays.toString(options.getColumnIndexes()));
+        key.append("\ncolumns2=").append(Arrays.toString(options.getSecondAxisColumnIndexes()));
+        key.append("\nheader=").append(options.hasHeaderRow());
+        key.append("\nignoremissing=").append(options.ignoreMissingColumns());
+        key.append("\nignoreempty=").append(options.ignoreEmptyColumns());
+        // line numbers are cached in place of x values which aren't needed
+        key.append("\nxskipped=").append(!needsXValues(options));
+        return key.toString();
+    }
+
+    /**
+     * Return a key describing everything which affects how the x values of the input file are parsed, so that a
+     * range index is only used with the same options
+     */
+    private String getXKey(Options options, File inputFile) throws IOException {
+        StringBuilder key = new StringBuilder();
+        key.append("path=").append(inputFile.getCanonicalPath());
+        key.append("\ncharset=").append(Charset.defaultCharset().name());
+        key.append("\ntimezone=").append(TimeZone.getDefault().getID());
+        key.append("\nseparator=").append(options.getDataSeparatorType());
+        key.append("\nregex=").append(options.getRegex());
+        key.append("\nfields=").append(options.getFields() == null ? null : Arrays.asList(options.getFields()));
+        key.append("\nxtype=").append(options.getChartXType());
+        key.append("\ndateformat=").append(options.getDateFormat());
+        key.append("\nxcolumn=").append(options.getColumnIndexes()[0]);
+        key.append("\nthousands=").append(options.getThousandsSeparator());
+        return key.toString();
+    }
+
+    /**
+     * Return a factory for data parsers configured identically to the main data parser, for parsing on several threads
+     */
+    private DataParserFactory createDataParserFactory(final Options options) {
+        return new DataParserFactory() {
+            public AbstractDataParser createDataParser(DataSink sink, DataSink secondAxisSink) {
+                try {
+                    return DefaultChartGenerator.this.createDataParser(options, sink, secondAxisSink);
+                } catch (InvalidOptionsException e) {
+                    // the options were checked when the main data parser was created
+                    throw new IllegalStateException(e);
+                }
+            }
+        };
+    }
+
+    /**
+     * Wrap a chart builder in the sinks which resample, count into a histogram and/or downsample its data, as required
+     * by the options
+     *
+     * @param resampleInterval  Width of the resampling buckets, or 0 if the data isn't to be resampled
+     * @param histogramMode  HistogramDataSink mode, or -1 if the data isn't to be charted as a histogram
+     * @param downsampleMode  DownsamplingDataSink mode, or -1 if the data isn't to be downsampled
+     * @param countDistinctKeys  True if the resampled data is to include the number of distinct keys in each bucket
+     */
+    private DataSink wrapSink(AbstractChartBuilder chartBuilder, int columnCount, double resampleInterval,
+            int[] resampleStatistics, int histogramMode, int downsampleMode, boolean countDistinctKeys,
+            Options options) {
+        int sinkColumnCount = resampleInterval > 0 ? columnCount * resampleStatistics.length : columnCount;
+        if (countDistinctKeys) {
+            sinkColumnCount++;
+        }
+        PrimitiveDataSink sink = chartBuilder;
+        if (downsampleMode >= 0) {
+            sink = new DownsamplingDataSink(sink, sinkColumnCount, options.getChartWidth(), downsampleMode);
+        }
+        if (histogramMode >= 0) {
+            double binWidth = histogramMode == HistogramDataSink.MODE_FIXED_WIDTH
+                    ? Double.parseDouble(options.getHistogram()) : 0;
+            sink = new HistogramDataSink(sink, sinkColumnCount, histogramMode, options.getHistogramBins(), binWidth);
+        }
+        if (resampleInterval > 0) {
+            TimeZone timeZone = isTimeXType(options) ? TimeZone.getDefault() : null;
+            sink = new ResamplingDataSink(sink, columnCount, resampleInterval, resampleStatistics, timeZone,
+                    countDistinctKeys);
+        }
+        return sink;
+    }
+
+    /**
+     * Return the width of the resampling buckets in X axis units (milliseconds for time-based data), or 0 if the data
+     * isn't to be resampled
+     */
+    private double getResampleInterval(Options options) throws InvalidOptionsException {
+        String resample = options.getResample();
+        if (resample == null) {
+            return 0;
+        }
+
+        int unit = -1;
+        for (int i = 0; i < RESAMPLE_UNITS.length && unit < 0; i++) {
+            if (resample.endsWith(RESAMPLE_UNITS[i])) {
+                unit = i;
+            }
+        }
+        String number = resample;
+        long multiplier = 1;
+        if (unit >= 0) {
+            number = resample.substring(0, resample.length() - RESAMPLE_UNITS[unit].length());
+            multiplier = RESAMPLE_UNIT_MILLIS[unit];
+        }
+        if (unit >= 0 && !isTimeXType(options)) {
+            throw new InvalidOptionsException("Resample intervals with time units require time-based data: "
+                    + resample);
+        }
+
+        double interval;
+        try {
+            interval = Double.parseDouble(number) * multiplier;
+        } catch (NumberFormatException e) {
+            interval = 0;
+        }
+        if (!(interval > 0) || Double.isInfinite(interval)) {
+            throw new InvalidOptionsException("Invalid resample interval (must be a positive number, optionally "
+                    + "followed by ms, s, m, h or d): " + resample);
+        }
+        return interval;
+    }
+
+    /**
+     * Return the ResamplingDataSink statistics for the options
+     */
+    private int[] getResampleStatistics(Options options) throws InvalidOptionsException {
+        String statisticList = options.getResampleStatistics();
+        if (statisticList == null) {
+            return new int[] {ResamplingDataSink.STATISTIC_AVERAGE};
+        }
+
+        String[] names = statisticList.split(",");
+        int[] statistics = new int[names.length];
+        for (int i = 0; i < names.length; i++) {
+            statistics[i] = ResamplingDataSink.getStatistic(names[i].trim());
+            if (statistics[i] < 0) {
+                throw new InvalidOptionsException("Invalid resample statistic (must be min, max, av, tot, cnt or a "
+                        + "percentile such as p95): " + names[i]);
+            }
+        }
+
+        int columnCount = getYColumnIndexes(options, getXColumnCount(options)).length;
+        if (options.getSecondAxisColumnIndexes() != null) {
+            columnCount = Math.max(columnCount, options.getSecondAxisColumnIndexes().length);
+        }
+        if (columnCount * statistics.length > PrimitiveDataSink.MAX_VALUES) {
+            throw new InvalidOptionsException("Too many resample statistics - at most " + PrimitiveDataSink.MAX_VALUES
+                    + " values can be charted per axis");
+        }
+        return statistics;
+    }
+
+    /**
+     * Return true if the x values are times (i.e. neither line numbers nor plain values)
+     */
+    private boolean isTimeXType(Options options) {
+        return options.getChartXType() != Options.X_TYPE_NONE && options.getChartXType() != Options.X_TYPE_VALUE;
+    }
+
+    /**
+     * Check that the heatmap option (if any) is valid, and isn't combined with options it can't be used with
+     */
+    private void checkHeatmapOptions(Options options) throws InvalidOptionsException {
+        String heatmap = options.getHeatmap();
+        if (heatmap == null) {
+            return;
+        }
+        if (!heatmap.equals(Options.HEATMAP_LINEAR) && !heatmap.equals(Options.HEATMAP_LOG)) {
+            throw new InvalidOptionsException("Invalid heatmap value (must be " + Options.HEATMAP_LINEAR + " or "
+                    + Options.HEATMAP_LOG + "): " + heatmap);
+        }
+        if (options.getHistogram() != null || options.getSecondAxisColumnIndexes() != null) {
+            throw new InvalidOptionsException("A heatmap can't be combined with a histogram or a second axis");
+        }
+    }
+
+    /**
+     * Check that the density option (if any) is valid, and isn't combined with options it can't be used with
+     */
+    private void checkDensityOptions(Options options) throws InvalidOptionsException {
+        String density = options.getDensity();
+        if (density == null) {
+            return;
+        }
+        if (!density.equals(Options.DENSITY_LOG) && !density.equals(Options.DENSITY_ALPHA)) {
+            throw new InvalidOptionsException("Invalid density value (must be " + Options.DENSITY_LOG + " or "
+                    + Options.DENSITY_ALPHA + "): " + density);
+        }
+        if (options.getHistogram() != null || options.getHeatmap() != null) {
+            throw new InvalidOptionsException("A density scatter plot can't be combined with a histogram or a heatmap");
+        }
+    }
+
+    /**
+     * Check that the options for splitting the data by key (if any) are valid, and that the data isn't also
+     * transformed by options which don't keep the keys
+     */
+    private void checkKeyOptions(Options options) throws InvalidOptionsException {
+        if (options.getKeyColumn() < 0) {
+            return;
+        }
+        String rankKeys = options.getRankKeys();
+        if (!rankKeys.equals(Options.RANK_KEYS_TOTAL) && !rankKeys.equals(Options.RANK_KEYS_MAX)) {
+            throw new InvalidOptionsException("Invalid rankkeys value (must be " + Options.RANK_KEYS_TOTAL + " or "
+                    + Options.RANK_KEYS_MAX + "): " + rankKeys);
+        }
+        if (options.getTopKeys() < 1) {
+            throw new InvalidOptionsException("Invalid topkeys value (must be at least 1): " + options.getTopKeys());
+        }
+        if (options.getResample() != null || options.getHistogram() != null || options.getHeatmap() != null
+                || options.getDownsample() != null) {
+            throw new InvalidOptionsException("Splitting the data by key can't be combined with resampling, "
+                    + "histograms, heatmaps or downsampling");
+        }
+        int columnCount = getYColumnIndexes(options, getXColumnCount(options)).length;
+        if (columnCount > PrimitiveDataSink.MAX_VALUES || (options.getSecondAxisColumnIndexes() != null
+                && options.getSecondAxisColumnIndexes().length > PrimitiveDataSink.MAX_VALUES)) {
+            throw new InvalidOptionsException("Can't split the data by key with more than "
+                    + PrimitiveDataSink.MAX_VALUES + " columns");
+        }
+    }
+
+    /**
+     * Check that distinct values are only counted when the data is resampled, and not also split by key
+     */
+    private void checkDistinctOptions(Options options) throws InvalidOptionsException {
+        if (options.getDistinctColumn() < 0) {
+            return;
+        }
+        if (options.getResample() == null) {
+            throw new InvalidOptionsException("Counting distinct values requires --resample");
+        }
+        if (options.getKeyColumn() >= 0) {
+            throw new InvalidOptionsException("Counting distinct values can't be combined with splitting the data "
+                    + "by key");
+        }
+        int columnCount = getYColumnIndexes(options, getXColumnCount(options)).length;
+        if (columnCount * getResampleStatistics(options).length >= PrimitiveDataSink.MAX_VALUES) {
+            throw new InvalidOptionsException("Too many resample statistics to also count distinct values - at most "
+                    + PrimitiveDataSink.MAX_VALUES + " values can be charted per axis");
+        }
+    }
+
+    /**
+     * Check that the regular expression (if any) is valid, and that input in another format isn't also expected
+     */
+    private void checkRegexOptions(Options options) throws InvalidOptionsException {
+        if (options.getRegex() == null) {
+            return;
+        }
+        if (options.getDataSeparatorType() != Options.DATA_SEP_WHITE_SPACE) {
+            throw new InvalidOptionsException("A regular expression can't be combined with CSV, JSON, logfmt or "
+                    + "binary input");
+        }
+        try {
+            Pattern.compile(options.getRegex());
+        } catch (PatternSyntaxException e) {
+            throw new InvalidOptionsException("Invalid regular expression: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Check that fields are named if (and only if) the input is JSON or logfmt, and that they're all different
+     */
+    private void checkFieldsOptions(Options options) throws InvalidOptionsException {
+        boolean namedFields = options.getDataSeparatorType() == Options.DATA_SEP_JSON
+                || options.getDataSeparatorType() == Options.DATA_SEP_LOGFMT;
+        String[] fields = options.getFields();
+        if (namedFields != (fields != null)) {
+            throw new InvalidOptionsException("--fields must be given with JSON or logfmt input, and only then");
+        }
+        if (fields == null) {
+            return;
+        }
+        for (int i = 0; i < fields.length; i++) {
+            if (fields[i].length() == 0 || Arrays.asList(fields).indexOf(fields[i]) != i) {
+                throw new InvalidOptionsException("Field names must be non-empty and all different: "
+                        + Arrays.asList(fields));
+            }
+        }
+    }
+
+    /**
+     * Check that binary input isn't combined with options that only apply to text, or that need objects rather than
+     * primitive values
+     */
+    private void checkBinaryOptions(Options options) throws InvalidOptionsException {
+        if (options.getDataSeparatorType() != Options.DATA_SEP_BINARY) {
+            return;
+        }
+        if (options.hasHeaderRow() || options.getKeyColumn() >= 0 || options.getDistinctColumn() >= 0) {
+            throw new InvalidOptionsException("Binary input can't be combined with a header row (the column names "
+                    + "are in the input), or with key or distinct columns (it holds only numbers)");
+        }
+        int columnCount = getYColumnIndexes(options, getXColumnCount(options)).length;
+        if (columnCount > PrimitiveDataSink.MAX_VALUES || (options.getSecondAxisColumnIndexes() != null
+                && options.getSecondAxisColumnIndexes().length > PrimitiveDataSink.MAX_VALUES)) {
+            throw new InvalidOptionsException("Can't chart more than " + PrimitiveDataSink.MAX_VALUES
+                    + " columns per axis from binary input");
+        }
+    }
+
+    /**
+     * Check that the parse cache is only used for an input file, and not with options that it can't record the
+     * values for
+     */
+    private void checkCacheOptions(Options options) throws InvalidOptionsException {
+        if (!options.useParseCache()) {
+            return;
+        }
+        if (options.getInputPath() == null || options.getDataSeparatorType() == Options.DATA_SEP_BINARY) {
+            throw new InvalidOptionsException("The parse cache can only be used with an input file, and not with "
+                    + "binary input");
+        }
+        if (options.getKeyColumn() >= 0 || options.getDistinctColumn() >= 0) {
+            throw new InvalidOptionsException("The parse cache can't be combined with key or distinct columns");
+        }
+        int columnCount = getYColumnIndexes(options, getXColumnCount(options)).length;
+        if (columnCount > PrimitiveDataSink.MAX_VALUES || (options.getSecondAxisColumnIndexes() != null
+                && options.getSecondAxisColumnIndexes().length > PrimitiveDataSink.MAX_VALUES)) {
+            throw new InvalidOptionsException("Can't cache more than " + PrimitiveDataSink.MAX_VALUES
+                    + " columns per axis");
+        }
+    }
+
+    /**
+     * Check that an x range isn't given for line numbers or for input which isn't parsed as text, and that a range
+     * index is only used when searching a sorted file
+     */
+    private void checkXRangeOptions(Options options) throws InvalidOptionsException {
+        if (options.useRangeIndex() && (!options.isXSorted() || options.getInputPath() == null)) {
+            throw new InvalidOptionsException("A range index requires --sorted and an input file");
+        }
+        if (options.getXRangeStart() == null && options.getXRangeEnd() == null) {
+            return;
+        }
+        if (options.getChartXType() == Options.X_TYPE_NONE) {
+            throw new InvalidOptionsException("An x range can't be given when the x values are line numbers");
+        }
+        if (options.getDataSeparatorType() == Options.DATA_SEP_BINARY || options.useParseCache()) {
+            throw new InvalidOptionsException("An x range can't be combined with binary input or the parse cache");
+        }
+    }
+
+    /**
+     * Check that a sample is only charted from an input file which is parsed as text, and not searched for an x range
+     */
+    private void checkSampleOptions(Options options) throws InvalidOptionsException {
+        if (options.getSample() == null) {
+            return;
+        }
+        if (options.getInputPath() == null) {
+            throw new InvalidOptionsException("Charting a sample requires an input file");
+        }
+        if (options.getDataSeparatorType() == Options.DATA_SEP_BINARY || options.useParseCache()
+                || options.isXSorted()) {
+            throw new InvalidOptionsException("Charting a sample can't be combined with binary input, the parse cache "
+                    + "or --sorted");
+        }
+    }
+
+    /**
+     * Return the fraction of the input to chart as a sample, or 0 if all of the input is to be charted.  Also checks
+     * the number of lines per sample.
+     */
+    private double getSampleFraction(Options options) throws InvalidOptionsException {
+        String sample = options.getSample();
+        if (sample == null) {
+            return 0;
+        }
+
+        double fraction;
+        try {
+            fraction = Double.parseDouble(sample);
+        } catch (NumberFormatException e) {
+            fraction = 0;
+        }
+        if (!(fraction > 0 && fraction <= 1)) {
+            throw new InvalidOptionsException("Invalid sample value (must be a fraction greater than 0 and at most 1): "
+                    + sample);
+        }
+        if (options.getSampleLines() < 1) {
+            throw new InvalidOptionsException("Invalid samplelines value (must be at least 1): "
+                    + options.getSampleLines());
+        }
+        return fraction;
+    }
+
+    /**
+     * Return the chart title for a sample of the input, noting that the chart is sampled (the title may be null)
+     */
+    private String getSampleTitle(String title, double sampleFraction) {
+        String percentage = new DecimalFormat("0.####").format(sampleFraction * 100) + "% of input";
+        if (title == null || title.length() == 0) {
+            return "Sample of " + percentage;
+        }
+        return title + " (sample of " + percentage + ")";
+    }
+
+    /**
+     * Return the HistogramDataSink mode for the options, or -1 if the data isn't to be charted as a histogram
+     */
+    private int getHistogramMode(Options options) throws InvalidOptionsException {
+        String histogram = options.getHistogram();
+        if (histogram == null) {
+            return -1;
+        }
+        if (options.getHistogramBins() < 2) {
+            // also checked by CliOptions, but not when set via the CLI server
+            throw new InvalidOptionsException("Invalid histogrambins value (must be at least 2): "
+                    + options.getHistogramBins());
+        }
+
+        if (histogram.equals(Options.HISTOGRAM_AUTO)) {
+            return HistogramDataSink.MODE_AUTO;
+        } else if (histogram.equals(Options.HISTOGRAM_LOG)) {
+            return HistogramDataSink.MODE_LOG;
+        }
+
+        double binWidth;
+        try {
+            binWidth = Double.parseDouble(histogram);
+        } catch (NumberFormatException e) {
+            binWidth = 0;
+        }
+        if (!(binWidth > 0) || Double.isInfinite(binWidth)) {
+            throw new InvalidOptionsException("Invalid histogram value (must be " + Options.HISTOGRAM_AUTO + ", "
+                    + Options.HISTOGRAM_LOG + " or a positive bin width): " + histogram);
+        }
+        return HistogramDataSink.MODE_FIXED_WIDTH;
+    }
+
+    /**
+     * Return the DownsamplingDataSink mode for the options, or -1 if the data isn't to be downsampled
+     */
+    private int getDownsampleMode(Options options) throws InvalidOptionsException {
+        String downsample = options.getDownsample();
+        if (downsample == null) {
+            return -1;
+        } else if (downsample.equals(Options.DOWNSAMPLE_MIN_MAX)) {
+            return DownsamplingDataSink.MODE_MIN_MAX;
+        } else if (downsample.equals(Options.DOWNSAMPLE_LTTB)) {
+            return DownsamplingDataSink.MODE_LTTB;
+        }
+        throw new InvalidOptionsException("Invalid downsample value (must be " + Options.DOWNSAMPLE_MIN_MAX + " or "
+                + Options.DOWNSAMPLE_LTTB + "): " + downsample);
+    }
+
+    /**
+     * Return the number of columns in the column list before the y values, i.e. 1 if there is an x value, otherwise 0
+     */
+    private int getXColumnCount(Options options) {
+        return options.getChartXType() == Options.X_TYPE_NONE ? 0 : 1;
+    }
+
+    /**
+     * Return false if the x values aren't charted, so needn't be parsed, i.e. for a histogram of the y values (unless
+     * an x range is given)
+     */
+    private boolean needsXValues(Options options) {
+        return options.getHistogram() == null || options.getXRangeStart() != null || options.getXRangeEnd() != null;
+    }
+
+    /**
+     * Return the units of the x values if they are Unix timestamps, otherwise null
+     */
+    private TimeUnit getEpochTimeUnit(Options options) {
+        switch (options.getChartXType()) {
+        case Options.X_TYPE_EPOCH_SECONDS:
+            return TimeUnit.SECONDS;
+        case Options.X_TYPE_EPOCH_MILLIS:
+            return TimeUnit.MILLISECONDS;
+        case Options.X_TYPE_EPOCH_MICROS:
+            return TimeUnit.MICROSECONDS;
+        default:
+            return null;
+        }
+    }
+
     private int[] getYColumnIndexes(Options options, int startIndex) {
         int[] dataColumnIndexes = new int[options.getColumnIndexes().length - startIndex];
         for (int i = 0; i < dataColumnIndexes.length; i++) {
@@ -224,4 +1019,27 @@ public class DefaultChartGenerator implements ChartGenerator {
             return new InputStreamReader(System.in);
         }
     }
+
+    private InputStream buildInputStream(Options options) throws InvalidOptionsException {
+        String inputPath = options.getInputPath();
+
+        if (inputPath != null) {
+            try {
+                return new FileInputStream(inputPath);
+            } catch (FileNotFoundException e) {
+                throw new InvalidOptionsException("File not found: " + inputPath);
+            }
+        } else {
+            return System.in;
+        }
+    }
+
+    private FileChannel buildInputChannel(Options options) throws InvalidOptionsException {
+        String inputPath = options.getInputPath();
+        try {
+            return new FileInputStream(inputPath).getChannel();
+        } catch (FileNotFoundException e) {
+            throw new InvalidOptionsException("File not found: " + inputPath);
+        }
+    }
 }
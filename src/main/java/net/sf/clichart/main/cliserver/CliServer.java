@@ -146,10 +146,16 @@ public class CliServer {
         m_optionSetters.put("inputpath", new StringOptionSetter("setInputPath"));
         m_optionSetters.put("c", new IntOptionSetter("setDataSeparatorType", Options.DATA_SEP_CSV));
         m_optionSetters.put("csv", new IntOptionSetter("setDataSeparatorType", Options.DATA_SEP_CSV));
+        m_optionSetters.put("json", new IntOptionSetter("setDataSeparatorType", Options.DATA_SEP_JSON));
+        m_optionSetters.put("logfmt", new IntOptionSetter("setDataSeparatorType", Options.DATA_SEP_LOGFMT));
+        m_optionSetters.put("binary", new IntOptionSetter("setDataSeparatorType", Options.DATA_SEP_BINARY));
         m_optionSetters.put("n", new IntOptionSetter("setChartXType", Options.X_TYPE_NONE));
         m_optionSetters.put("noxvalue", new IntOptionSetter("setChartXType", Options.X_TYPE_NONE));
         m_optionSetters.put("v", new IntOptionSetter("setChartXType", Options.X_TYPE_VALUE));
         m_optionSetters.put("xvalue", new IntOptionSetter("setChartXType", Options.X_TYPE_VALUE));
+        m_optionSetters.put("epochseconds", new IntOptionSetter("setChartXType", Options.X_TYPE_EPOCH_SECONDS));
+        m_optionSetters.put("epochmillis", new IntOptionSetter("setChartXType", Options.X_TYPE_EPOCH_MILLIS));
+        m_optionSetters.put("epochmicros", new IntOptionSetter("setChartXType", Options.X_TYPE_EPOCH_MICROS));
         m_optionSetters.put("colours", new ColourOverrideListOptionSetter("setColourOverrides"));
     }
 
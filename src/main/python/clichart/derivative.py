@@ -49,6 +49,8 @@ Options:
  -h           Show help (this information) and exit
  -l <columns> A comma-separated ordered list of columns for which derivatives are required
               (0-based)
+ --binary     Output in clichart's binary columnar format (for clichart --binary), with the
+              date/time as milliseconds since the epoch
  --date-column <column>  Date/time column number (0-based, defaults to 0)
  --nojit      Disable Psyco Just-In-Time compiler.
 """)
@@ -56,11 +58,12 @@ Options:
 
 # ---------------------------------------------------------------
 def main():
-    opts, args = getopt.getopt(sys.argv[1:], 'cd:fhl:', ['date-column=', 'nojit'])
+    opts, args = getopt.getopt(sys.argv[1:], 'cd:fhl:', ['binary', 'date-column=', 'nojit'])
     skipFirst = False
     dateFormat = '%H:%M'
     dateColumn = 0
     isCsv = False
+    isBinary = False
     # contains column list, e.g. 0,1,3
     columns = []
     enableJit = True
@@ -75,6 +78,8 @@ def main():
             skipFirst = True
         elif opt == '-l':
             columns = [int(value) for value in arg.split(',')]
+        elif opt == '--binary':
+            isBinary = True
         elif opt == '--date-column':
             dateColumn = int(arg)
         elif opt == '--nojit':
@@ -83,25 +88,41 @@ def main():
         usage('Output column specification is required')
 
     enablePsyco(enableJit)
+    binaryWriter = None
+    if isBinary:
+        binaryWriter = createBinaryWriter(sys.stdout.buffer, columns)
     try:
         if len(args) == 0:
-            processFile(sys.stdin, sys.stdout, columns, dateColumn, dateFormat, isCsv, skipFirst)
+            processFile(sys.stdin, sys.stdout, columns, dateColumn, dateFormat, isCsv, skipFirst, binaryWriter)
         else:
             for arg in args:
                 if not os.path.exists(arg):
                     usage('Cannot locate input file: %s' % arg)
                 inFile = open(arg)
-                processFile(inFile, sys.stdout, columns, dateColumn, dateFormat, isCsv, skipFirst)
+                processFile(inFile, sys.stdout, columns, dateColumn, dateFormat, isCsv, skipFirst, binaryWriter)
                 inFile.close()
+        if binaryWriter:
+            binaryWriter.close()
     except InvalidOptionException as e:
         usage(e.args[0])
     except InvalidDataException as e:
         print(e.args[0])
 
 # ---------------------------------------------------------------
-def processFile(inFile, outFile, columns, dateColumn, dateFormat, isCsv, skipFirst):
+def processFile(inFile, outFile, columns, dateColumn, dateFormat, isCsv, skipFirst, binaryWriter=None):
+    """If binaryWriter is given, the results are written with it rather than to outFile"""
     derivatives = parseFile(inFile, columns, dateColumn, dateFormat, isCsv, skipFirst)
-    writeResults(derivatives, outFile, isCsv)
+    if binaryWriter:
+        writeBinaryResults(derivatives, binaryWriter)
+    else:
+        writeResults(derivatives, outFile, isCsv)
+
+# ---------------------------------------------------------------
+def createBinaryWriter(outFile, columns):
+    """Return a BinaryColumnWriter for the results, with the date/time in the first column"""
+    names = ['Time'] + ['Column %d' % column for column in columns]
+    types = [BinaryColumnWriter.TYPE_LONG] + [BinaryColumnWriter.TYPE_DOUBLE] * len(columns)
+    return BinaryColumnWriter(outFile, names, types)
 
 # ---------------------------------------------------------------
 def parseFile(inFile, columns, dateColumn, dateFormat, isCsv, skipFirst):
@@ -132,7 +153,7 @@ def parseFile(inFile, columns, dateColumn, dateFormat, isCsv, skipFirst):
             lastTimestamp = timestamp
             continue
         deltas = calculateDeltas(columnValues, lastValues, timestamp, lastTimestamp)
-        derivatives.append([timestampStr, deltas])
+        derivatives.append([timestampStr, timestamp, deltas])
         lastValues = columnValues
         lastTimestamp = timestamp
     return derivatives
@@ -146,7 +167,7 @@ def calculateDeltas(columnValues, lastValues, timestamp, lastTimestamp):
 
 # ---------------------------------------------------------------
 def writeResults(derivatives, outFile, isCsv):
-    for timestampStr, deltas in derivatives:
+    for timestampStr, timestamp, deltas in derivatives:
         values = [formatOutputValue(value) for value in deltas]
         allValues = [timestampStr] + values
         if isCsv:
@@ -155,6 +176,11 @@ def writeResults(derivatives, outFile, isCsv):
         else:
             outFile.write(''.join(['%10s' % value for value in allValues]))
             outFile.write('\n')
+
+# ---------------------------------------------------------------
+def writeBinaryResults(derivatives, binaryWriter):
+    for timestampStr, timestamp, deltas in derivatives:
+        binaryWriter.writeRow([toEpochMillis(timestamp)] + deltas)
     
 
 # ---------------------------------------------------------------
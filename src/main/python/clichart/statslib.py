@@ -24,7 +24,7 @@ USA.
 Library functions and classes for generating summary statistics from text data
 """
 
-import sys, re, traceback
+import sys, re, traceback, struct, time
 
 DEBUG = False
 
@@ -169,6 +169,64 @@ class OutputFormatter:
                 outFile.write('%s ' % self._quote(key))
             print('  '.join([self._format(value) for value in values]).rstrip(), file=outFile)
 
+# ==============================================================================
+class BinaryColumnWriter:
+    """Writes rows of numbers in clichart's binary columnar format (read with clichart --binary), so they
+    needn't be formatted as text and parsed again.  All values are little-endian:
+     - the magic bytes CLICOLS1, then the number of columns (int32)
+     - for each column, its type (a byte: TYPE_LONG or TYPE_DOUBLE), then its UTF-8 name preceded by its length
+       (int32)
+     - blocks of rows, each the number of rows (int32) followed by each column's values for those rows (int64 or
+       float64)
+     - a block of 0 rows
+    A value of None or NaN in a double column is missing.
+    NOTE: outFile must be binary, e.g. sys.stdout.buffer"""
+    MAGIC = b'CLICOLS1'
+    TYPE_LONG = 0
+    TYPE_DOUBLE = 1
+    BLOCK_ROWS = 8192
+
+    def __init__(self, outFile, names, types, blockRows = BLOCK_ROWS):
+        if len(names) != len(types):
+            raise InvalidOptionException('Each column must have a name and a type')
+        self.outFile = outFile
+        self.types = types
+        self.blockRows = blockRows
+        self.columns = [[] for name in names]
+        outFile.write(self.MAGIC)
+        outFile.write(struct.pack('<i', len(names)))
+        for name, columnType in zip(names, types):
+            encodedName = name.encode('utf-8')
+            outFile.write(struct.pack('<bi', columnType, len(encodedName)))
+            outFile.write(encodedName)
+
+    def writeRow(self, values):
+        for column, columnType, value in zip(self.columns, self.types, values):
+            if columnType == self.TYPE_LONG:
+                column.append(int(value))
+            elif value is None:
+                column.append(float('nan'))
+            else:
+                column.append(float(value))
+        if len(self.columns[0]) >= self.blockRows:
+            self._writeBlock()
+
+    def close(self):
+        """Write any buffered rows and the end of the data.  Does not close the file"""
+        self._writeBlock()
+        self.outFile.write(struct.pack('<i', 0))
+        self.outFile.flush()
+
+    def _writeBlock(self):
+        rowCount = len(self.columns[0])
+        if rowCount == 0:
+            return
+        self.outFile.write(struct.pack('<i', rowCount))
+        for column, columnType in zip(self.columns, self.types):
+            code = 'q' if columnType == self.TYPE_LONG else 'd'
+            self.outFile.write(struct.pack('<%d%s' % (rowCount, code), *column))
+            del column[:]
+
 # ==============================================================================
 class OutputColumnExtractor:
     """Note that column indexes are 0-based"""
@@ -281,3 +339,11 @@ def formatOutputValue(value):
     pictureString = '%' + '%d.%d' % (SIGNIFICANT_DIGITS + 1, SIGNIFICANT_DIGITS - quotientDigits) + 'f'
     return (pictureString % value).strip()
 
+# ---------------------------------------------------------------
+def toEpochMillis(timestamp):
+    """Return a (naive, local) datetime as milliseconds since the epoch, as clichart expects for binary input.
+    Times parsed without a date (i.e. in 1900) are treated as being on 1 Jan 1970, as clichart does for text"""
+    if timestamp.year == 1900:
+        timestamp = timestamp.replace(year=1970)
+    return int(time.mktime(timestamp.timetuple())) * 1000 + timestamp.microsecond // 1000
+
@@ -83,6 +83,14 @@ public class AbstractChartBuilderTest extends TestCase {
                 m_delegate.initialiseSeriesColumn(title);
             }
 
+            protected void clearSeriesColumn(int columnNumber, String title) {
+                m_delegate.clearSeriesColumn(columnNumber, title);
+            }
+
+            protected void retainSeriesColumns(int[] columnNumbers) {
+                m_delegate.retainSeriesColumns(columnNumbers);
+            }
+
             protected void addYValue(int columnNumber, Object xValue, Object yValue) {
                 m_delegate.addYValue(columnNumber, xValue, yValue);
             }
@@ -161,6 +169,18 @@ public class AbstractChartBuilderTest extends TestCase {
         m_control.verify();
     }
 
+    public void testDataParsed_primitive() throws InvalidDataException {
+        setInitialiseSeriesColumnExpectations(HEADERS);
+        setAddYValueExpectations(new Double(1000), new Object[]{null, new Double(0.125), new Double(999)});
+        m_control.replay();
+
+        m_chartBuilder.headerParsed(HEADERS);
+        // first value missing, and an excess column which is ignored
+        m_chartBuilder.dataParsed(1000, new double[]{-1, 0.125, 999, 123}, 1L, 4, 1);
+
+        m_control.verify();
+    }
+
     public void testGetChart() throws InvalidDataException {
         setInitialiseSeriesColumnExpectations(HEADERS);
         Options options = new OptionsBean();
@@ -213,6 +233,8 @@ public class AbstractChartBuilderTest extends TestCase {
 // We'll delegate all calls to the subclass onto a mock of this type
 interface MockDelegate {
     public void initialiseSeriesColumn(String title);
+    public void clearSeriesColumn(int columnNumber, String title);
+    public void retainSeriesColumns(int[] columnNumbers);
     public void addYValue(int columnNumber, Object xValue, Object yValue);
     public JFreeChart getChartImpl(Options options);
     public XYDataset getDataset();
@@ -0,0 +1,152 @@
+/* (C) Copyright 2026, by John Dickson
+ *
+ * Project Info:  https://github.com/captsens/clichart
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2.1 of the License, or
+ * (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ */
+
+package net.sf.clichart.chart;
+
+import junit.framework.TestCase;
+import org.jfree.chart.JFreeChart;
+import org.jfree.chart.axis.NumberAxis;
+import org.jfree.chart.plot.XYPlot;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+
+/**
+ * Unit tests for DensityRenderer
+ *
+ * @author johnd
+ */
+public class DensityRendererTest extends TestCase {
+
+    /* ========================================================================
+     *
+     * Class (static) variables.
+     */
+
+    private static final int SIZE = 10;
+
+    /* ========================================================================
+     *
+     * Instance variables.
+     */
+
+    private PrimitiveXYDataset m_dataset = new PrimitiveXYDataset(PrimitiveXYDataset.DUPLICATES_ALLOWED, false);
+
+    /* ========================================================================
+     *
+     * Lifecycle methods
+     */
+
+    protected void setUp() throws Exception {
+        m_dataset.addSeries("a");
+        for (int i = 0; i < 3; i++) {
+            m_dataset.add(0, 0.5, 9.5);
+        }
+        m_dataset.add(0, 5.5, 4.5);
+        // missing and out of range values are ignored
+        m_dataset.add(0, 6.5, Double.NaN);
+        m_dataset.add(0, 7.5, 20);
+    }
+
+    /* ========================================================================
+     *
+     * Public methods
+     */
+
+    public void testDraw_log() throws Exception {
+        BufferedImage image = draw(new DensityRenderer(true));
+        assertEquals(255, getAlpha(image, 0, 0));
+        assertEquals(51, getAlpha(image, 5, 5));
+        assertEquals(Color.RED.getRGB() & 0xffffff, image.getRGB(5, 5) & 0xffffff);
+        assertEquals(2, countDrawnPixels(image));
+    }
+
+    public void testDraw_alpha() throws Exception {
+        BufferedImage image = draw(new DensityRenderer(false));
+        // allowing for rounding when the image is composited
+        assertEquals((1 - 0.9 * 0.9 * 0.9) * 255, getAlpha(image, 0, 0), 1);
+        assertEquals(0.1 * 255, getAlpha(image, 5, 5), 1);
+        assertEquals(2, countDrawnPixels(image));
+    }
+
+    public void testGetAlpha() throws Exception {
+        DensityRenderer renderer = new DensityRenderer(true);
+        assertEquals(0, renderer.getAlpha(0, 100), 0);
+        assertEquals(0.2, renderer.getAlpha(1, 100), 1e-9);
+        assertEquals(0.6, renderer.getAlpha(10, 100), 1e-9);
+        assertEquals(1, renderer.getAlpha(100, 100), 1e-9);
+        assertEquals(1, renderer.getAlpha(1, 1), 0);
+    }
+
+    public void testChartBuilder() throws Exception {
+        OptionsBean options = new OptionsBean();
+        options.setChartXType(Options.X_TYPE_VALUE);
+        options.setDensity(Options.DENSITY_ALPHA);
+        XYChartBuilder builder = new XYChartBuilder(options, null);
+        builder.dataParsed(1, new double[] {1}, 0, 1, 1);
+        builder.dataParsed(2, new double[] {2}, 0, 1, 2);
+        builder.parsingFinished();
+
+        JFreeChart chart = builder.getChart(options);
+        assertTrue(chart.getXYPlot().getRenderer() instanceof DensityRenderer);
+        chart.createBufferedImage(100, 100);
+    }
+
+    /* ========================================================================
+     *
+     * Private methods
+     */
+
+    /**
+     * Draw the dataset with axes from 0 to SIZE, onto an image with a pixel per unit
+     */
+    private BufferedImage draw(DensityRenderer renderer) {
+        NumberAxis domainAxis = new NumberAxis();
+        domainAxis.setRange(0, SIZE);
+        NumberAxis rangeAxis = new NumberAxis();
+        rangeAxis.setRange(0, SIZE);
+        XYPlot plot = new XYPlot(m_dataset, domainAxis, rangeAxis, renderer);
+        renderer.setSeriesPaint(0, Color.RED);
+
+        BufferedImage image = new BufferedImage(SIZE, SIZE, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g2 = image.createGraphics();
+        renderer.initialise(g2, new Rectangle2D.Double(0, 0, SIZE, SIZE), plot, m_dataset, null);
+        g2.dispose();
+        return image;
+    }
+
+    private int getAlpha(BufferedImage image, int x, int y) {
+        return image.getRGB(x, y) >>> 24;
+    }
+
+    private int countDrawnPixels(BufferedImage image) {
+        int count = 0;
+        for (int x = 0; x < SIZE; x++) {
+            for (int y = 0; y < SIZE; y++) {
+                if (getAlpha(image, x, y) != 0) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,133 @@
+/* (C) Copyright 2026, by John Dickson
+ *
+ * Project Info:  https://github.com/captsens/clichart
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2.1 of the License, or
+ * (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ */
+
+package net.sf.clichart.chart;
+
+import junit.framework.TestCase;
+import org.jfree.chart.JFreeChart;
+import org.jfree.chart.renderer.xy.XYBlockRenderer;
+import org.jfree.data.xy.XYZDataset;
+
+/**
+ * Unit tests for HeatmapChartBuilder
+ *
+ * @author johnd
+ */
+public class HeatmapChartBuilderTest extends TestCase {
+
+    /* ========================================================================
+     *
+     * Instance variables.
+     */
+
+    private OptionsBean m_options = new OptionsBean();
+
+    /* ========================================================================
+     *
+     * Lifecycle methods
+     */
+
+    protected void setUp() throws Exception {
+        m_options.setChartXType(Options.X_TYPE_VALUE);
+        m_options.setHeatmap(Options.HEATMAP_LINEAR);
+        m_options.setChartWidth(40);
+        m_options.setChartHeight(60);
+    }
+
+    /* ========================================================================
+     *
+     * Public methods
+     */
+
+    public void testCounts() throws Exception {
+        HeatmapChartBuilder builder = new HeatmapChartBuilder(m_options, null);
+        builder.headerParsed(new String[] {"a", "b"});
+        builder.dataParsed(0, new double[] {0, 9}, 0, 2, 1);
+        builder.dataParsed(9, new double[] {9, 0}, 2, 2, 2);
+        builder.dataParsed(9, new double[] {9, 0}, 2, 2, 3);
+        builder.parsingFinished();
+
+        // a 10 by 10 grid, with cells centred on the minimum and maximum
+        XYZDataset dataset = (XYZDataset) builder.getDataset();
+        assertEquals(3, dataset.getItemCount(0));
+        assertCell(dataset, 0, 0, 0, 1);
+        assertCell(dataset, 1, 0, 9, 1);
+        assertCell(dataset, 2, 9, 9, 2);
+    }
+
+    public void testCounts_widened() throws Exception {
+        HeatmapChartBuilder builder = new HeatmapChartBuilder(m_options, null);
+        int lines = HeatmapChartBuilder.SAMPLE_SIZE * 3;
+        for (int i = 0; i < lines; i++) {
+            builder.dataParsed(i, new double[] {i % 100 - 50}, 0, 1, i + 1);
+        }
+        builder.dataParsed(-lines, new double[] {1e6}, 0, 1, lines + 1);
+        builder.parsingFinished();
+
+        XYZDataset dataset = (XYZDataset) builder.getDataset();
+        long total = 0;
+        double maximumY = 0;
+        for (int item = 0; item < dataset.getItemCount(0); item++) {
+            total += dataset.getZValue(0, item);
+            maximumY = Math.max(maximumY, dataset.getYValue(0, item));
+        }
+        assertEquals(lines + 1, total);
+        assertTrue(maximumY > 1e6 * 0.9);
+    }
+
+    public void testLogScale() throws Exception {
+        m_options.setHeatmap(Options.HEATMAP_LOG);
+        HeatmapChartBuilder builder = new HeatmapChartBuilder(m_options, null);
+        builder.dataParsed(1, new double[] {1}, 0, 1, 1);
+        builder.dataParsed(2, new double[] {1000}, 0, 1, 2);
+        builder.dataParsed(3, new double[] {0}, 0, 1, 3);
+        builder.dataParsed(4, new double[] {-1}, 0, 1, 4);
+        builder.parsingFinished();
+
+        // y values are held as log10
+        XYZDataset dataset = (XYZDataset) builder.getDataset();
+        assertEquals(2, dataset.getItemCount(0));
+        assertEquals(0, dataset.getYValue(0, 0), 1e-9);
+        assertEquals(3, dataset.getYValue(0, 1), 1e-9);
+    }
+
+    public void testGetChart() throws Exception {
+        HeatmapChartBuilder builder = new HeatmapChartBuilder(m_options, null);
+        builder.dataParsed(1, new double[] {1}, 0, 1, 1);
+        builder.dataParsed(2, new double[] {2}, 0, 1, 2);
+        builder.parsingFinished();
+
+        JFreeChart chart = builder.getChart(m_options);
+        assertTrue(chart.getXYPlot().getRenderer() instanceof XYBlockRenderer);
+        // the colour scale
+        assertEquals(1, chart.getSubtitleCount());
+    }
+
+    /* ========================================================================
+     *
+     * Private methods
+     */
+
+    private void assertCell(XYZDataset dataset, int item, double x, double y, double count) {
+        assertEquals(x, dataset.getXValue(0, item), 1e-9);
+        assertEquals(y, dataset.getYValue(0, item), 1e-9);
+        assertEquals(count, dataset.getZValue(0, item), 0);
+    }
+}
@@ -0,0 +1,166 @@
+/* (C) Copyright 2026, by John Dickson
+ *
+ * Project Info:  https://github.com/captsens/clichart
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2.1 of the License, or
+ * (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ */
+
+package net.sf.clichart.chart;
+
+import junit.framework.TestCase;
+import org.jfree.data.Range;
+import org.jfree.data.general.SeriesException;
+
+/**
+ * Unit tests for PrimitiveXYDataset
+ *
+ * @author johnd
+ */
+public class PrimitiveXYDatasetTest extends TestCase {
+
+    /* ========================================================================
+     *
+     * Public methods
+     */
+
+    public void testAdd_inOrder() {
+        PrimitiveXYDataset dataset = new PrimitiveXYDataset(PrimitiveXYDataset.DUPLICATES_REJECTED, false);
+        assertEquals(0, dataset.addSeries("A"));
+        assertEquals(1, dataset.addSeries("B"));
+        for (int i = 0; i < 3000; i++) {
+            dataset.add(0, i, i * 2);
+            dataset.add(1, i, -i);
+        }
+
+        assertEquals(2, dataset.getSeriesCount());
+        assertEquals("A", dataset.getSeriesKey(0));
+        assertEquals("B", dataset.getSeriesKey(1));
+        assertEquals(3000, dataset.getItemCount(0));
+        assertEquals(2998.0, dataset.getYValue(0, 1499), 0.0);
+        assertEquals(new Double(-1499), dataset.getY(1, 1499));
+        assertEquals(1499.0, dataset.getStartXValue(1, 1499), 0.0);
+        assertEquals(1499.0, dataset.getEndXValue(1, 1499), 0.0);
+        assertEquals(new Range(0, 2999), dataset.getDomainBounds(true));
+        assertEquals(new Range(-2999, 5998), dataset.getRangeBounds(true));
+    }
+
+    public void testAdd_outOfOrder() {
+        PrimitiveXYDataset dataset = new PrimitiveXYDataset(PrimitiveXYDataset.DUPLICATES_ALLOWED, false);
+        dataset.addSeries("A");
+        double[] xValues = new double[] {5, 3, 9, 3, 1, 5, 3};
+        for (int i = 0; i < xValues.length; i++) {
+            dataset.add(0, xValues[i], i);
+        }
+
+        // sorted by x value, keeping the order items with the same x value were added in
+        assertItems(dataset, new double[] {1, 3, 3, 3, 5, 5, 9}, new double[] {4, 1, 3, 6, 0, 5, 2});
+        assertEquals(new Range(1, 9), dataset.getDomainBounds(false));
+    }
+
+    public void testAdd_duplicatesIgnored() {
+        PrimitiveXYDataset dataset = new PrimitiveXYDataset(PrimitiveXYDataset.DUPLICATES_IGNORED, false);
+        dataset.addSeries("A");
+        double[] xValues = new double[] {5, 3, 9, 3, 1, 5, 3};
+        for (int i = 0; i < xValues.length; i++) {
+            dataset.add(0, xValues[i], i);
+        }
+
+        assertItems(dataset, new double[] {1, 3, 5, 9}, new double[] {4, 1, 0, 2});
+    }
+
+    public void testAdd_duplicatesRejected() {
+        PrimitiveXYDataset dataset = new PrimitiveXYDataset(PrimitiveXYDataset.DUPLICATES_REJECTED, true);
+        dataset.addSeries("A");
+        dataset.add(0, 2000, 1);
+        dataset.add(0, 1000, 2);
+        dataset.add(0, 2000, 3);
+        try {
+            dataset.getItemCount(0);
+            fail();
+        } catch (SeriesException expected) {
+            assertTrue(expected.getMessage().startsWith("Duplicate X axis value in series A: "));
+        }
+    }
+
+    public void testAdd_millisecondsNotDuplicates() {
+        PrimitiveXYDataset dataset = new PrimitiveXYDataset(PrimitiveXYDataset.DUPLICATES_REJECTED, true);
+        dataset.addSeries("A");
+        dataset.add(0, 1000, 1);
+        dataset.add(0, 1001, 2);
+        assertItems(dataset, new double[] {1000, 1001}, new double[] {1, 2});
+    }
+
+    public void testAdd_missingValues() {
+        PrimitiveXYDataset dataset = new PrimitiveXYDataset(PrimitiveXYDataset.DUPLICATES_REJECTED, false);
+        dataset.addSeries("A");
+        dataset.addSeries("B");
+        dataset.add(0, 1, Double.NaN);
+        dataset.add(0, 2, 7);
+        dataset.add(0, 3, -2);
+        dataset.add(1, 1, Double.NaN);
+
+        assertTrue(Double.isNaN(dataset.getYValue(0, 0)));
+        assertEquals(new Range(-2, 7), dataset.getRangeBounds(true));
+        assertEquals(new Range(1, 3), dataset.getDomainBounds(true));
+    }
+
+    public void testClearAndRetainSeries() {
+        PrimitiveXYDataset dataset = new PrimitiveXYDataset(PrimitiveXYDataset.DUPLICATES_REJECTED, false);
+        dataset.addSeries("A");
+        dataset.addSeries("B");
+        dataset.addSeries("C");
+        dataset.add(0, 1, 10);
+        dataset.add(1, 2, 20);
+        dataset.add(2, 3, 30);
+        dataset.clearSeries(1, "D");
+        dataset.add(1, 4, 40);
+
+        dataset.retainSeries(new int[] {1, 0});
+        assertEquals(2, dataset.getSeriesCount());
+        assertEquals("D", dataset.getSeriesKey(0));
+        assertEquals("A", dataset.getSeriesKey(1));
+        assertEquals(1, dataset.getItemCount(0));
+        assertEquals(40, dataset.getYValue(0, 0), 0);
+        assertEquals(new Range(10, 40), dataset.getRangeBounds(true));
+    }
+
+    public void testEmpty() {
+        PrimitiveXYDataset dataset = new PrimitiveXYDataset(PrimitiveXYDataset.DUPLICATES_REJECTED, false);
+        dataset.addSeries("A");
+        assertEquals(0, dataset.getItemCount(0));
+        assertNull(dataset.getDomainBounds(true));
+        assertNull(dataset.getRangeBounds(true));
+        assertTrue(Double.isNaN(dataset.getRangeLowerBound(true)));
+        try {
+            dataset.getXValue(0, 0);
+            fail();
+        } catch (IndexOutOfBoundsException expected) {
+        }
+    }
+
+    /* ========================================================================
+     *
+     * Private methods
+     */
+
+    private void assertItems(PrimitiveXYDataset dataset, double[] xValues, double[] yValues) {
+        assertEquals(xValues.length, dataset.getItemCount(0));
+        for (int i = 0; i < xValues.length; i++) {
+            assertEquals(xValues[i], dataset.getXValue(0, i), 0.0);
+            assertEquals(yValues[i], dataset.getYValue(0, i), 0.0);
+        }
+    }
+}
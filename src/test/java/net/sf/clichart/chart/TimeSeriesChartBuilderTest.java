@@ -20,7 +20,11 @@
 
 package net.sf.clichart.chart;
 
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+
 import junit.framework.TestCase;
+import org.jfree.data.xy.XYDataset;
 
 /**
  * CLASS_DESCRIPTION
@@ -58,15 +62,94 @@ public class TimeSeriesChartBuilderTest extends TestCase {
         // TODO
     }
 
+    public void testKeys() throws Exception {
+        TimeSeriesChartBuilder builder = createBuilder(1, 2, false);
+        builder.dataParsed("a", 1000, new double[] {1}, 0, 1, 1);
+        builder.dataParsed("b", 1000, new double[] {5}, 0, 1, 2);
+        builder.dataParsed("c", 2000, new double[] {2}, 0, 1, 3);
+        builder.dataParsed("a", 3000, new double[] {3}, 0, 1, 4);
+        builder.dataParsed("c", 4000, new double[] {0}, 1, 1, 5);
+        builder.parsingFinished();
 
+        // ranked by total, with a gap for the missing value
+        XYDataset dataset = builder.getDataset();
+        assertEquals(2, dataset.getSeriesCount());
+        assertEquals("b", dataset.getSeriesKey(0));
+        assertEquals("a", dataset.getSeriesKey(1));
+        assertEquals(1, dataset.getItemCount(0));
+        assertEquals(2, dataset.getItemCount(1));
+        assertEquals(3000, dataset.getXValue(1, 1), 0);
+        assertEquals(3, dataset.getYValue(1, 1), 0);
+    }
 
-    /* ========================================================================
-     *
-     * Protected / package-private methods
-     */
+    public void testKeys_rankByMaximum() throws Exception {
+        TimeSeriesChartBuilder builder = createBuilder(2, 1, true);
+        builder.headerParsed(new String[] {"x", "y"});
+        builder.dataParsed("a", 1000, new double[] {1, 2}, 0, 2, 2);
+        builder.dataParsed("a", 2000, new double[] {1, 2}, 0, 2, 3);
+        builder.dataParsed("b", 1000, new double[] {0, 3}, 1, 2, 4);
+        builder.parsingFinished();
+
+        XYDataset dataset = builder.getDataset();
+        assertEquals(2, dataset.getSeriesCount());
+        assertEquals("b (x)", dataset.getSeriesKey(0));
+        assertEquals("b (y)", dataset.getSeriesKey(1));
+        assertTrue(Double.isNaN(dataset.getYValue(0, 0)));
+        assertEquals(3, dataset.getYValue(1, 0), 0);
+    }
+
+    public void testKeys_manyKeys() throws Exception {
+        TimeSeriesChartBuilder builder = createBuilder(1, 1, false);
+        for (int i = 0; i < 10000; i++) {
+            builder.dataParsed("light" + i, i, new double[] {1}, 0, 1, i + 1);
+            builder.dataParsed("heavy", i, new double[] {2}, 0, 1, i + 1);
+        }
+        builder.parsingFinished();
+
+        XYDataset dataset = builder.getDataset();
+        assertEquals(1, dataset.getSeriesCount());
+        assertEquals("heavy", dataset.getSeriesKey(0));
+        assertEquals(10000, dataset.getItemCount(0));
+    }
+
+    public void testKeys_restartedKey() throws Exception {
+        TimeSeriesChartBuilder builder = createBuilder(1, 1, false);
+        builder.dataParsed("early", 0, new double[] {1}, 0, 1, 1);
+        // 100 keys fill the tracked slots, so the last of them takes over the slot of the lightest key (early)
+        for (int i = 0; i < 100; i++) {
+            builder.dataParsed("light" + i, i + 1, new double[] {2}, 0, 1, i + 2);
+        }
+        builder.dataParsed("early", 101, new double[] {10}, 0, 1, 102);
+
+        ByteArrayOutputStream errors = new ByteArrayOutputStream();
+        PrintStream originalErr = System.err;
+        System.setErr(new PrintStream(errors, true));
+        try {
+            builder.parsingFinished();
+        } finally {
+            System.setErr(originalErr);
+        }
+
+        // only the data from when early was tracked again is charted
+        XYDataset dataset = builder.getDataset();
+        assertEquals(1, dataset.getSeriesCount());
+        assertEquals("early", dataset.getSeriesKey(0));
+        assertEquals(1, dataset.getItemCount(0));
+        assertEquals(101, dataset.getXValue(0, 0), 0);
+        assertTrue(errors.toString(), errors.toString().startsWith("Key early was only tracked from line 102"));
+    }
 
     /* ========================================================================
      *
      * Private methods
      */
+
+    private TimeSeriesChartBuilder createBuilder(int columnCount, int topKeys, boolean rankByMaximum) {
+        TimeSeriesChartBuilder builder = new TimeSeriesChartBuilder(new OptionsBean(), null);
+        builder.setKeys(columnCount, topKeys, rankByMaximum);
+        return builder;
+    }
+
+
+
 }
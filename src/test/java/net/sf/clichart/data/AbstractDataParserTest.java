@@ -22,7 +22,12 @@ package net.sf.clichart.data;
 
 import junit.framework.TestCase;
 
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 
 /**
  * CLASS_DESCRIPTION
@@ -97,6 +102,145 @@ public class AbstractDataParserTest extends TestCase {
         assertArrayEquals(expected, m_parser.shrinkArray(testArray, String.class));
     }
 
+    public void testParse_primitiveSink() throws Exception {
+        final List<String> parsed = new ArrayList<String>();
+        PrimitiveDataSink sink = new PrimitiveDataSink() {
+            public void headerParsed(String[] headers) throws InvalidDataException {
+            }
+            public void dataParsed(Object xValue, Object[] yValues, int lineNumber) throws InvalidDataException {
+                fail("Should have been passed primitives");
+            }
+            public void dataParsed(double xValue, double[] yValues, long missingValues, int valueCount,
+                    int lineNumber) throws InvalidDataException {
+                StringBuilder builder = new StringBuilder(lineNumber + ":" + xValue);
+                for (int i = 0; i < valueCount; i++) {
+                    builder.append(',').append((missingValues & (1L << i)) != 0 ? "-" : "" + yValues[i]);
+                }
+                parsed.add(builder.toString());
+            }
+            public void parsingFinished() {
+            }
+        };
+        AbstractDataParser parser = new AbstractDataParser(new CsvLineParser(), 0, new int[]{1, 2, 3}, false, true,
+                true, sink) {
+            protected Object parseXValueImpl(String xValue, int lineNumber) throws InvalidDataException {
+                return ParseUtils.parseValue(xValue, lineNumber);
+            }
+        };
+
+        parser.parse(new StringReader("5,10,2.5,3\n6,,20\n\n7,30"));
+        assertEquals("[1:5.0,10.0,2.5,3.0, 2:6.0,-,20.0, 4:7.0,30.0]", parsed.toString());
+    }
+
+    public void testParse_keyColumn() throws Exception {
+        final List<String> parsed = new ArrayList<String>();
+        KeyedDataSink sink = new RecordBatch() {
+            public void headerParsed(String[] headers) {
+                parsed.add(Arrays.toString(headers));
+            }
+            public void dataParsed(double xValue, double[] yValues, long missingValues, int valueCount,
+                    int lineNumber) {
+                fail("Should have been passed keys");
+            }
+            public void dataParsed(String key, double xValue, double[] yValues, long missingValues, int valueCount,
+                    int lineNumber) {
+                parsed.add(lineNumber + ":" + key + ":" + xValue + "," + yValues[0]);
+            }
+        };
+        m_parser = new ValueDataParser(new CsvLineParser(), 0, new int[]{2}, true, true, true, sink);
+        m_parser.setKeyColumn(1);
+        m_parser.parse(new StringReader("x,host,y\n1,a,10\n2,b,20\n3\n4, ,40\n5,a,50\n"));
+        assertEquals("[[y], 2:a:1.0,10.0, 3:b:2.0,20.0, 6:a:5.0,50.0]", parsed.toString());
+        assertEquals(1, m_parser.getStatistics().getMissingValues());
+        assertEquals(1, m_parser.getStatistics().getEmptyValues());
+    }
+
+    public void testSetKeyColumn_notKeyedSink() throws Exception {
+        m_parser = new ValueDataParser(new CsvLineParser(), 0, new int[]{1}, false, true, true,
+                new DownsamplingDataSink(new RecordBatch(), 1, 100, DownsamplingDataSink.MODE_MIN_MAX));
+        try {
+            m_parser.setKeyColumn(2);
+            fail();
+        } catch (IllegalStateException expected) {
+        }
+    }
+
+    public void testParse_statistics() throws Exception {
+        m_parser = new ValueDataParser(new CsvLineParser(), 0, new int[]{1, 2}, false, true, true,
+                new RecordBatch());
+        m_parser.parse(new StringReader("1,2,3\n\n2, ,3\n3,4\n  \n4,,\n5\n"));
+
+        ParseStatistics statistics = m_parser.getStatistics();
+        assertEquals(2, statistics.getBlankLines());
+        assertEquals(3, statistics.getEmptyValues());
+        assertEquals(3, statistics.getMissingValues());
+        assertTrue(statistics.hasSkippedValues());
+    }
+
+    public void testParse_statisticsByteLineReader() throws Exception {
+        m_parser = new ValueDataParser(new CsvLineParser(), 0, new int[]{1, 2}, false, true, true,
+                new RecordBatch());
+        byte[] data = "\n1,2,3\r\n\r\n2, ,3\n3,4\n  \n\n".getBytes("UTF-8");
+        m_parser.parse(new ByteLineReader(ByteBuffer.wrap(data), 1, Charset.forName("UTF-8")));
+
+        ParseStatistics statistics = m_parser.getStatistics();
+        assertEquals(4, statistics.getBlankLines());
+        assertEquals(1, statistics.getEmptyValues());
+        assertEquals(1, statistics.getMissingValues());
+    }
+
+    public void testParse_regex() throws Exception {
+        String data = "10:00 GET /a took 5 ms\nstarting\n\n10:01 GET /b took 7 ms\n10:02 POST took\n";
+        m_parser = new ValueDataParser(new RegexLineParser("^(\\S+) .* took (\\d+) ms"), -1, new int[]{1}, false,
+                false, false, new RecordBatch());
+        m_parser.parse(new StringReader(data));
+        assertEquals(2, m_parser.getStatistics().getUnmatchedLines());
+        assertEquals(1, m_parser.getStatistics().getBlankLines());
+
+        // lines without the required text are skipped by the reader, but counted in the same way
+        m_parser = new ValueDataParser(new RegexLineParser("^(\\S+) .* took (\\d+) ms"), -1, new int[]{1}, false,
+                false, false, new RecordBatch());
+        m_parser.parse(new ByteLineReader(ByteBuffer.wrap(data.getBytes("UTF-8")), 1, Charset.forName("UTF-8")));
+        assertEquals(2, m_parser.getStatistics().getUnmatchedLines());
+        assertEquals(1, m_parser.getStatistics().getBlankLines());
+        assertEquals("Skipped 0 missing values, 0 empty values, 2 unmatched lines and 1 blank lines",
+                m_parser.getStatistics().toString());
+    }
+
+    public void testParse_namedFields() throws Exception {
+        final List<String> parsed = new ArrayList<String>();
+        KeyedDataSink sink = new RecordBatch() {
+            public void headerParsed(String[] headers) {
+                parsed.add(Arrays.toString(headers));
+            }
+            public void dataParsed(double xValue, double[] yValues, long missingValues, int valueCount,
+                    int lineNumber) {
+                parsed.add(lineNumber + ":" + xValue + "," + ((missingValues & 1) != 0 ? "-" : "" + yValues[0]) + ","
+                        + ((missingValues & 2) != 0 ? "-" : "" + yValues[1]));
+            }
+        };
+        m_parser = new ValueDataParser(new JsonLineParser(new String[] {"ts", "a", "b.c"}), 0, new int[]{1, 2},
+                false, true, true, sink);
+        m_parser.setColumnHeaders(new String[] {"ts", "a", "b.c"});
+        m_parser.parse(new StringReader("{\"ts\":1,\"a\":2,\"b\":{\"c\":3}}\nplain text\n"
+                + "{\"b\":{\"c\":4},\"ts\":2}\n"));
+        assertEquals("[[a, b.c], 1:1.0,2.0,3.0, 3:2.0,-,4.0]", parsed.toString());
+        assertEquals(1, m_parser.getStatistics().getUnmatchedLines());
+        assertEquals(1, m_parser.getStatistics().getMissingValues());
+    }
+
+    public void testParse_emptyValueNotIgnored() throws Exception {
+        m_parser = new ValueDataParser(new CsvLineParser(), 0, new int[]{1, 2}, false, true, false,
+                new RecordBatch());
+        try {
+            m_parser.parse(new StringReader("1,2,3\n2,,3\n"));
+            fail();
+        } catch (InvalidDataException expected) {
+            assertEquals("Invalid data value: [], line 2", expected.getMessage());
+        }
+        assertFalse(m_parser.getStatistics().hasSkippedValues());
+    }
+
     /* ========================================================================
      *
      * Protected / package-private methods
@@ -0,0 +1,150 @@
+/* (C) Copyright 2026, by John Dickson
+ *
+ * Project Info:  https://github.com/captsens/clichart
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2.1 of the License, or
+ * (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ */
+
+package net.sf.clichart.data;
+
+import junit.framework.TestCase;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+
+/**
+ * Unit tests for BinaryColumnParser, using BinaryColumnWriter to write its input
+ *
+ * @author johnd
+ */
+public class BinaryColumnParserTest extends TestCase {
+
+    /* ========================================================================
+     *
+     * Class (static) variables.
+     */
+
+    private static final String[] NAMES = {"time", "count", "latency"};
+    private static final byte[] TYPES = {BinaryColumnParser.TYPE_LONG, BinaryColumnParser.TYPE_LONG,
+            BinaryColumnParser.TYPE_DOUBLE};
+
+    /* ========================================================================
+     *
+     * Instance variables.
+     */
+
+    private RecordingSink m_sink = new RecordingSink(true, true);
+    private RecordingSink m_secondAxisSink = new RecordingSink(true, true);
+
+    /* ========================================================================
+     *
+     * Public methods
+     */
+
+    public void testParse() throws Exception {
+        byte[] data = write(5, 2, new double[][] {{1000, 3, 1.5}, {2000, 4, Double.NaN}, {3000, -5, 0.25},
+                {4000, 6, 2}, {5000, 7, 1e300}});
+        BinaryColumnParser parser = new BinaryColumnParser(0, 1, new int[] {2, 1}, m_sink);
+        parser.addSecondAxis(new int[] {1}, m_secondAxisSink);
+        parser.parse(new ByteArrayInputStream(data));
+
+        assertEquals(Arrays.asList("header latency count", "1: 1000.0 0 1.5 3.0", "2: 2000.0 1 4.0",
+                "3: 3000.0 0 0.25 -5.0", "4: 4000.0 0 2.0 6.0", "5: 5000.0 0 1.0E300 7.0", "finished"),
+                m_sink.getCalls());
+        assertEquals(Arrays.asList("header count", "1: 1000.0 0 3.0", "2: 2000.0 0 4.0", "3: 3000.0 0 -5.0",
+                "4: 4000.0 0 6.0", "5: 5000.0 0 7.0", "finished"), m_secondAxisSink.getCalls());
+        assertEquals(1, parser.getStatistics().getEmptyValues());
+    }
+
+    public void testParse_scaledX() throws Exception {
+        byte[] data = write(1, 2, new double[][] {{1, 3, 1.5}, {2, 4, 2.5}});
+        new BinaryColumnParser(0, 1000, new int[] {1}, m_sink).parse(new ByteArrayInputStream(data));
+        assertEquals(Arrays.asList("header count", "1: 1000.0 0 3.0", "2: 2000.0 0 4.0", "finished"),
+                m_sink.getCalls());
+    }
+
+    public void testParse_rowNumberAsX() throws Exception {
+        byte[] data = write(2, 3, new double[][] {{1, 3, 1.5}, {2, 4, 2.5}, {3, 5, 3.5}});
+        new BinaryColumnParser(-1, 1, new int[] {2}, m_sink).parse(new ByteArrayInputStream(data));
+        assertEquals(Arrays.asList("header latency", "1: 1.0 0 1.5", "2: 2.0 0 2.5", "3: 3.0 0 3.5", "finished"),
+                m_sink.getCalls());
+    }
+
+    public void testParse_noRows() throws Exception {
+        new BinaryColumnParser(0, 1, new int[] {1}, m_sink).parse(new ByteArrayInputStream(write(2, 0,
+                new double[0][])));
+        assertEquals(Arrays.asList("header count", "finished"), m_sink.getCalls());
+    }
+
+    public void testParse_withoutEndBlock() throws Exception {
+        byte[] data = write(2, 3, new double[][] {{1, 3, 1.5}, {2, 4, 2.5}});
+        // the stream may simply end after a block
+        data = Arrays.copyOf(data, data.length - 4);
+        new BinaryColumnParser(0, 1, new int[] {1}, m_sink).parse(new ByteArrayInputStream(data));
+        assertEquals(Arrays.asList("header count", "1: 1.0 0 3.0", "2: 2.0 0 4.0", "finished"), m_sink.getCalls());
+    }
+
+    public void testParse_errors() throws Exception {
+        byte[] data = write(2, 3, new double[][] {{1, 3, 1.5}, {2, 4, 2.5}, {Double.NaN, 5, 3.5}});
+        assertParseFails("Binary input has only 3 columns - cannot find column 3", data, 3);
+
+        assertParseFails("Input is not in the binary column format", "1 2\n3 4\n".getBytes("UTF-8"), 1);
+        assertParseFails("Binary input ends part way through its header", Arrays.copyOf(data, 20), 1);
+
+        // 3 columns * 2 rows of 8 bytes, after the header (8 + 4 + 3 * 5 + the names) and the row count
+        int firstBlockEnd = 8 + 4 + 15 + 16 + 4 + 48;
+        assertParseFails("Binary input ends part way through the block starting at row 3",
+                Arrays.copyOf(data, firstBlockEnd + 10), 1);
+        assertParseFails("Binary input ends part way through the block starting at row 3",
+                Arrays.copyOf(data, firstBlockEnd + 2), 1);
+
+        // a long x value of NaN is written as 0, so make the x column a double
+        byte[] doubleTypes = {BinaryColumnParser.TYPE_DOUBLE, BinaryColumnParser.TYPE_LONG,
+                BinaryColumnParser.TYPE_DOUBLE};
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BinaryColumnWriter writer = new BinaryColumnWriter(out, NAMES, doubleTypes, 2);
+        writer.writeRow(new double[] {1, 3, 1.5});
+        writer.writeRow(new double[] {Double.NaN, 4, 2.5});
+        writer.finish();
+        assertParseFails("Missing x value in row 2", out.toByteArray(), 1);
+    }
+
+    /* ========================================================================
+     *
+     * Private methods
+     */
+
+    private byte[] write(int blockRows, int rowCount, double[][] rows) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BinaryColumnWriter writer = new BinaryColumnWriter(out, NAMES, TYPES, blockRows);
+        for (int i = 0; i < rows.length; i++) {
+            writer.writeRow(rows[i]);
+        }
+        writer.finish();
+        return out.toByteArray();
+    }
+
+    private void assertParseFails(String expectedMessage, byte[] data, int yColumnIndex) throws Exception {
+        try {
+            new BinaryColumnParser(0, 1, new int[] {yColumnIndex}, new RecordingSink(true, true)).parse(
+                    new ByteArrayInputStream(data));
+            fail();
+        } catch (InvalidDataException e) {
+            assertEquals(expectedMessage, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,191 @@
+/* (C) Copyright 2026, by John Dickson
+ *
+ * Project Info:  https://github.com/captsens/clichart
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2.1 of the License, or
+ * (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ */
+
+package net.sf.clichart.data;
+
+import junit.framework.TestCase;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Unit tests for ByteLineReader
+ *
+ * @author johnd
+ */
+public class ByteLineReaderTest extends TestCase {
+
+    /* ========================================================================
+     *
+     * Class (static) variables.
+     */
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    /* ========================================================================
+     *
+     * Instance variables.
+     */
+
+    private File m_file;
+
+    /* ========================================================================
+     *
+     * Lifecycle methods
+     */
+
+    protected void tearDown() throws Exception {
+        if (m_file != null) {
+            m_file.delete();
+        }
+    }
+
+    /* ========================================================================
+     *
+     * Public methods
+     */
+
+    public void testReadLines_LF() throws Exception {
+        assertLines("a 1\nb 2\nc 3", new String[]{"1:a 1", "2:b 2", "3:c 3"});
+        assertLines("a 1\nb 2\nc 3\n", new String[]{"1:a 1", "2:b 2", "3:c 3"});
+    }
+
+    public void testReadLines_CRLF() throws Exception {
+        assertLines("a 1\r\nb 2\r\nc 3\r\n", new String[]{"1:a 1", "2:b 2", "3:c 3"});
+        assertLines("a 1\rb 2\r\rc 3", new String[]{"1:a 1", "2:b 2", "4:c 3"});
+    }
+
+    public void testReadLines_blankLinesSkipped() throws Exception {
+        assertLines("\na 1\n  \t\n\r\nb 2\n \n", new String[]{"2:a 1", "5:b 2"});
+        assertLines("", new String[]{});
+        assertLines("   ", new String[]{});
+    }
+
+    public void testReadLines_nonAscii() throws Exception {
+        assertLines("caf\u00e9 1\n\u00fcber 2", new String[]{"1:caf\u00e9 1", "2:\u00fcber 2"});
+    }
+
+    public void testReadLines_smallBuffer() throws Exception {
+        // lines longer than the buffer, and CRLF split across refills
+        String data = "the first line\r\nsecond\r\n\r\na much longer third line\n";
+        String[] expected = {"1:the first line", "2:second", "4:a much longer third line"};
+        for (int bufferSize = 1; bufferSize < 20; bufferSize++) {
+            assertEquals("Buffer size " + bufferSize, toString(expected), toString(readFromFile(data, 0, -1, 1,
+                    bufferSize)));
+        }
+    }
+
+    public void testReadLines_longLineAcrossRefill() throws Exception {
+        // line carried over a refill, and longer than the initial line buffer
+        StringBuilder longLine = new StringBuilder();
+        for (int i = 0; i < 300; i++) {
+            longLine.append((char) ('a' + i % 26));
+        }
+        String data = "first\n" + longLine + "\nlast\n";
+        String[] expected = {"1:first", "2:" + longLine, "3:last"};
+        for (int bufferSize = 200; bufferSize < 320; bufferSize += 10) {
+            assertEquals("Buffer size " + bufferSize, toString(expected), toString(readFromFile(data, 0, -1, 1,
+                    bufferSize)));
+        }
+    }
+
+    public void testReadLines_fileRange() throws Exception {
+        String data = "a 1\nb 2\nc 3\nd 4\n";
+        assertEquals(toString(new String[]{"11:b 2", "12:c 3"}), toString(readFromFile(data, 4, 12, 11,
+                ByteLineReader.DEFAULT_BUFFER_SIZE)));
+    }
+
+    public void testReadLines_lineFilter() throws Exception {
+        String data = "took 5 ms\nstarted\n\ntook 7 ms\nto\ntook";
+        ByteLineReader reader = new ByteLineReader(ByteBuffer.wrap(data.getBytes(UTF8)), 1, UTF8);
+        reader.setLineFilter("took");
+        assertEquals(toString(new String[]{"1:took 5 ms", "4:took 7 ms", "6:took"}), toString(readAll(reader)));
+        assertEquals(2, reader.getUnmatchedLines());
+
+        // non-ASCII text can't be found in the raw bytes, so isn't used
+        reader = new ByteLineReader(ByteBuffer.wrap(data.getBytes(UTF8)), 1, UTF8);
+        reader.setLineFilter("caf\u00e9");
+        assertEquals(5, readAll(reader).size());
+        assertEquals(0, reader.getUnmatchedLines());
+    }
+
+    public void testIsAsciiCompatible() {
+        assertTrue(ByteLineReader.isAsciiCompatible(UTF8));
+        assertTrue(ByteLineReader.isAsciiCompatible(Charset.forName("ISO-8859-1")));
+        assertFalse(ByteLineReader.isAsciiCompatible(Charset.forName("UTF-16")));
+    }
+
+    /* ========================================================================
+     *
+     * Private methods
+     */
+
+    private void assertLines(String data, String[] expected) throws Exception {
+        ByteLineReader reader = new ByteLineReader(ByteBuffer.wrap(data.getBytes(UTF8)), 1, UTF8);
+        assertEquals(toString(expected), toString(readAll(reader)));
+        assertEquals(toString(expected), toString(readFromFile(data, 0, -1, 1, 3)));
+    }
+
+    private List<String> readFromFile(String data, long start, long end, int firstLineNumber, int bufferSize)
+            throws Exception {
+        m_file = File.createTempFile("ByteLineReaderTest", ".txt");
+        FileOutputStream out = new FileOutputStream(m_file);
+        out.write(data.getBytes(UTF8));
+        out.close();
+
+        FileChannel channel = new RandomAccessFile(m_file, "r").getChannel();
+        try {
+            if (end < 0) {
+                end = channel.size();
+            }
+            return readAll(new ByteLineReader(channel, start, end, firstLineNumber, UTF8, bufferSize));
+        } finally {
+            channel.close();
+        }
+    }
+
+    private List<String> readAll(ByteLineReader reader) throws Exception {
+        List<String> lines = new ArrayList<String>();
+        String line = reader.readLine();
+        while (line != null) {
+            lines.add(reader.getLineNumber() + ":" + line);
+            line = reader.readLine();
+        }
+        return lines;
+    }
+
+    private String toString(String[] lines) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < lines.length; i++) {
+            builder.append(lines[i]).append('|');
+        }
+        return builder.toString();
+    }
+
+    private String toString(List<String> lines) {
+        return toString(lines.toArray(new String[lines.size()]));
+    }
+}
@@ -0,0 +1,136 @@
+/* (C) Copyright 2026, by John Dickson
+ *
+ * Project Info:  https://github.com/captsens/clichart
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2.1 of the License, or
+ * (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ */
+
+package net.sf.clichart.data;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit tests for CsvTokenizer
+ *
+ * @author johnd
+ */
+public class CsvTokenizerTest extends TestCase {
+
+    /* ========================================================================
+     *
+     * Instance variables.
+     */
+
+    private CsvTokenizer m_tokenizer = new CsvTokenizer();
+    private LineFields m_fields = new LineFields();
+
+    /* ========================================================================
+     *
+     * Public methods
+     */
+
+    public void testTokenize_unquoted() {
+        assertFields("foo,bar,baz", new String[]{"foo", "bar", "baz"});
+        assertFields(" foo,bar ,\tbaz\t", new String[]{"foo", "bar", "baz"});
+        assertFields("foo", new String[]{"foo"});
+        assertFields("", new String[]{});
+    }
+
+    public void testTokenize_emptyFields() {
+        assertFields(",bar,baz", new String[]{"", "bar", "baz"});
+        assertFields("foo,,baz", new String[]{"foo", "", "baz"});
+        assertFields("foo,bar,", new String[]{"foo", "bar", ""});
+        assertFields(",", new String[]{"", ""});
+    }
+
+    public void testTokenize_quoted() {
+        assertFields("\"foo,bar\",baz", new String[]{"foo,bar", "baz"});
+        assertFields("\" a \",b", new String[]{" a ", "b"});
+        assertFields(" \"a\" , b", new String[]{"a", "b"});
+        // text after the closing quote is ignored
+        assertFields("\"a\"x,b", new String[]{"a", "b"});
+        // quote within an unquoted value is retained
+        assertFields("a\"b\",c", new String[]{"a\"b\"", "c"});
+        // missing closing quote takes the rest of the line
+        assertFields("\"abc,def", new String[]{"abc,def"});
+    }
+
+    public void testTokenize_escapedQuotes() {
+        assertFields("\"a\"\"b\",c", new String[]{"a\"b", "c"});
+        assertFields("\"\"\"a\"\"\",\"\"", new String[]{"\"a\"", ""});
+    }
+
+    public void testTokenize_delimiter() {
+        m_tokenizer = new CsvTokenizer(';');
+        assertFields("1,5;2;\"x;y\"", new String[]{"1,5", "2", "x;y"});
+    }
+
+    public void testTokenize_reuse() {
+        // longer lines and more fields than the initial buffer sizes, then a shorter line
+        StringBuilder line = new StringBuilder();
+        String[] expected = new String[100];
+        for (int i = 0; i < expected.length; i++) {
+            expected[i] = "value number " + i;
+            line.append(i == 0 ? "" : ",").append('"').append(expected[i]).append('"');
+        }
+        assertFields(line.toString(), expected);
+        assertFields("a,b", new String[]{"a", "b"});
+    }
+
+    public void testTokenize_requiredColumns() {
+        boolean[] required = {false, true, false, true};
+        m_tokenizer.tokenize("a,b,\"c\"\"x\",d,e,f", m_fields, required);
+        assertEquals(4, m_fields.getFieldCount());
+        assertEquals("", m_fields.getField(0));
+        assertEquals("b", m_fields.getField(1));
+        assertEquals("", m_fields.getField(2));
+        assertEquals("d", m_fields.getField(3));
+
+        // line shorter than the required columns
+        m_tokenizer.tokenize("a,b", m_fields, required);
+        assertEquals(2, m_fields.getFieldCount());
+        assertEquals("b", m_fields.getField(1));
+    }
+
+    public void testFieldOffsets() {
+        m_tokenizer.tokenize("ab, \"c\"\"d\"", m_fields);
+        assertEquals(2, m_fields.getFieldCount());
+        assertEquals("ab", new String(m_fields.getChars(), m_fields.getStart(0), m_fields.getEnd(0)
+                - m_fields.getStart(0)));
+        assertEquals("c\"d", new String(m_fields.getChars(), m_fields.getStart(1), m_fields.getEnd(1)
+                - m_fields.getStart(1)));
+        try {
+            m_fields.getField(2);
+            fail("Expected ArrayIndexOutOfBoundsException");
+        } catch (ArrayIndexOutOfBoundsException e) {
+            // expected
+        }
+    }
+
+    /* ========================================================================
+     *
+     * Private methods
+     */
+
+    private void assertFields(String line, String[] expected) {
+        m_tokenizer.tokenize(line, m_fields);
+        String[] actual = m_fields.toArray();
+        assertEquals("Field count for [" + line + "]", expected.length, actual.length);
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals("Field " + i + " of [" + line + "]", expected[i], actual[i]);
+        }
+    }
+}
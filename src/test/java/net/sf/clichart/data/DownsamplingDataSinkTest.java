@@ -0,0 +1,161 @@
+/* (C) Copyright 2026, by John Dickson
+ *
+ * Project Info:  https://github.com/captsens/clichart
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2.1 of the License, or
+ * (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ */
+
+package net.sf.clichart.data;
+
+import junit.framework.TestCase;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Unit tests for DownsamplingDataSink
+ *
+ * @author johnd
+ */
+public class DownsamplingDataSinkTest extends TestCase {
+
+    /* ========================================================================
+     *
+     * Class (static) variables.
+     */
+
+    private static final int PIXELS = 100;
+
+    /* ========================================================================
+     *
+     * Instance variables.
+     */
+
+    private RecordingSink m_target = new RecordingSink(true, true);
+
+    /* ========================================================================
+     *
+     * Public methods
+     */
+
+    public void testFewLines() throws Exception {
+        DownsamplingDataSink sink = new DownsamplingDataSink(m_target, 2, PIXELS, DownsamplingDataSink.MODE_MIN_MAX);
+        sink.headerParsed(new String[] {"a", "b"});
+        for (int i = 0; i < 50; i++) {
+            sink.dataParsed(1000 + i * 10, new double[] {i, -i}, 0, 2, i + 2);
+        }
+        sink.parsingFinished();
+
+        assertEquals("header a b", m_target.getCalls().get(0));
+        assertEquals(52, m_target.getCalls().size());
+        assertEquals("2: 1000.0 0 0.0 0.0", m_target.getCalls().get(1));
+        assertEquals("51: 1490.0 0 49.0 -49.0", m_target.getCalls().get(50));
+        assertEquals("finished", m_target.getCalls().get(51));
+    }
+
+    public void testMinMax() throws Exception {
+        DownsamplingDataSink sink = new DownsamplingDataSink(m_target, 2, PIXELS, DownsamplingDataSink.MODE_MIN_MAX);
+        int lines = 100000;
+        for (int i = 1; i <= lines; i++) {
+            double spike = i == 54321 ? 1000 : 0;
+            sink.dataParsed(i * 3.5, new double[] {Math.sin(i / 1000.0) + spike, i % 10}, 0, 2, i);
+        }
+        sink.parsingFinished();
+
+        // at most 4 lines per column per bucket, and 2 buckets per pixel
+        assertTrue(m_target.getLineNumbers().size() <= PIXELS * 2 * 4 * 2 + 1);
+        assertTrue(m_target.getLineNumbers().size() > PIXELS);
+        assertEquals(1, (int) m_target.getLineNumbers().get(0));
+        assertEquals(lines, (int) m_target.getLineNumbers().get(m_target.getLineNumbers().size() - 1));
+        assertTrue(m_target.getLineNumbers().contains(54321));
+        assertInOrder(m_target.getLineNumbers());
+        assertTrue(sink.getRowsHeld() <= PIXELS * 2 * 2 * 4);
+    }
+
+    public void testMinMax_unsorted() throws Exception {
+        DownsamplingDataSink sink = new DownsamplingDataSink(m_target, 1, PIXELS, DownsamplingDataSink.MODE_MIN_MAX);
+        Random random = new Random(1);
+        int minimumLine = 0;
+        double minimum = Double.MAX_VALUE;
+        for (int i = 1; i <= 50000; i++) {
+            double value = random.nextGaussian();
+            if (i > 1 && value < minimum) {
+                minimum = value;
+                minimumLine = i;
+            }
+            sink.dataParsed(random.nextDouble() * 2000 - 1000, new double[] {value}, 0, 1, i);
+        }
+        sink.parsingFinished();
+
+        assertTrue(m_target.getLineNumbers().size() <= PIXELS * 2 * 4 + 1);
+        assertTrue(m_target.getLineNumbers().contains(minimumLine));
+        assertInOrder(m_target.getLineNumbers());
+    }
+
+    public void testMissingValues() throws Exception {
+        DownsamplingDataSink sink = new DownsamplingDataSink(m_target, 2, PIXELS, DownsamplingDataSink.MODE_MIN_MAX);
+        sink.dataParsed(1, new double[] {1, 2}, 0, 2, 1);
+        sink.dataParsed(2, new double[] {0, 5}, 1, 2, 2);
+        sink.dataParsed(3, new double[] {7, 0}, 0, 1, 3);
+        sink.dataParsed(4, new double[] {0, 0}, 3, 2, 4);
+        sink.dataParsed(Double.NaN, new double[] {3, 3}, 0, 2, 5);
+        sink.parsingFinished();
+
+        // the line with no values isn't kept, and the line with a NaN x value is passed on immediately
+        assertEquals("[1: 1.0 0 1.0 2.0, 5: NaN 0 3.0 3.0, 2: 2.0 1 5.0, 3: 3.0 0 7.0, finished]",
+                m_target.getCalls().toString());
+    }
+
+    public void testLttb() throws Exception {
+        DownsamplingDataSink sink = new DownsamplingDataSink(m_target, 1, PIXELS, DownsamplingDataSink.MODE_LTTB);
+        int lines = 100000;
+        for (int i = 1; i <= lines; i++) {
+            double spike = i == 12345 ? -1000 : 0;
+            sink.dataParsed(i, new double[] {Math.sin(i / 5000.0) + spike}, 0, 1, i);
+        }
+        sink.parsingFinished();
+
+        assertTrue(m_target.getLineNumbers().size() <= PIXELS + 1);
+        assertTrue(m_target.getLineNumbers().size() > PIXELS / 2);
+        assertEquals(1, (int) m_target.getLineNumbers().get(0));
+        assertEquals(lines, (int) m_target.getLineNumbers().get(m_target.getLineNumbers().size() - 1));
+        assertTrue(m_target.getLineNumbers().contains(12345));
+        assertInOrder(m_target.getLineNumbers());
+    }
+
+    public void testLargestTriangleThreeBuckets() {
+        double[] xValues = {0, 1, 2, 3, 4, 5, 6, 7, 8, 9};
+        double[] yValues = {0, 0, 0, 9, 0, 0, 0, 0, -9, 0};
+        boolean[] chosen = DownsamplingDataSink.largestTriangleThreeBuckets(xValues, yValues, 10, 4);
+        assertEquals("[true, false, false, true, false, false, false, false, true, true]",
+                Arrays.toString(chosen));
+
+        chosen = DownsamplingDataSink.largestTriangleThreeBuckets(xValues, yValues, 3, 4);
+        assertEquals("[true, true, true]", java.util.Arrays.toString(chosen));
+    }
+
+    /* ========================================================================
+     *
+     * Private methods
+     */
+
+    private void assertInOrder(List<Integer> lineNumbers) {
+        for (int i = 1; i < lineNumbers.size(); i++) {
+            assertTrue(lineNumbers.get(i) > lineNumbers.get(i - 1));
+        }
+    }
+}
@@ -0,0 +1,95 @@
+/* (C) Copyright 2026, by John Dickson
+ *
+ * Project Info:  https://github.com/captsens/clichart
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2.1 of the License, or
+ * (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ */
+
+package net.sf.clichart.data;
+
+import junit.framework.TestCase;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unit tests for EpochDataParser.
+ *
+ * Note that AbstractDataParser has been tested by the TimeDataParserTest, so this test just checks the logic specific
+ * to the EpochDataParser directly
+ *
+ * @author johnd
+ */
+public class EpochDataParserTest extends TestCase {
+
+    /* ========================================================================
+     *
+     * Public methods
+     */
+
+    public void testParseXValueImpl_seconds() throws InvalidDataException {
+        EpochDataParser parser = createParser(TimeUnit.SECONDS);
+        assertEquals(new Date(1700000000000L), parser.parseXValueImpl("1700000000", 1));
+        assertEquals(new Date(1700000000250L), parser.parseXValueImpl("1700000000.25", 1));
+        assertEquals(new Date(0), parser.parseXValueImpl("0", 1));
+    }
+
+    public void testParseXValueImpl_millis() throws InvalidDataException {
+        EpochDataParser parser = createParser(TimeUnit.MILLISECONDS);
+        assertEquals(new Date(1700000000123L), parser.parseXValueImpl("1700000000123", 1));
+        assertEquals(new Date(1700000000124L), parser.parseXValueImpl("1700000000123.7", 1));
+    }
+
+    public void testParseXValueImpl_micros() throws InvalidDataException {
+        EpochDataParser parser = createParser(TimeUnit.MICROSECONDS);
+        assertEquals(new Date(1700000000123L), parser.parseXValueImpl("1700000000123456", 1));
+        assertEquals(new Date(1700000000124L), parser.parseXValueImpl("1700000000123500", 1));
+    }
+
+    public void testParsePrimitiveXValueImpl() throws InvalidDataException {
+        EpochDataParser parser = createParser(TimeUnit.SECONDS);
+        char[] chars = "a 1700000001 b".toCharArray();
+        assertEquals(1700000001000.0, parser.parsePrimitiveXValueImpl(chars, 2, 12, 1), 0);
+    }
+
+    public void testParseXValueImpl_invalid() {
+        EpochDataParser parser = createParser(TimeUnit.SECONDS);
+        try {
+            parser.parseXValueImpl("12:30", 7);
+            fail();
+        } catch (InvalidDataException expected) {
+            assertEquals("Invalid data value: [12:30], line 7", expected.getMessage());
+        }
+    }
+
+    /* ========================================================================
+     *
+     * Private methods
+     */
+
+    private EpochDataParser createParser(TimeUnit timeUnit) {
+        return new EpochDataParser(new WhiteSpaceLineParser(), timeUnit, 0, new int[] {1}, false, false, false,
+                new DataSink() {
+                    public void headerParsed(String[] headers) throws InvalidDataException {
+                    }
+                    public void dataParsed(Object xValue, Object[] yValues, int lineNumber)
+                            throws InvalidDataException {
+                    }
+                    public void parsingFinished() {
+                    }
+                });
+    }
+}
@@ -0,0 +1,110 @@
+/* (C) Copyright 2026, by John Dickson
+ *
+ * Project Info:  https://github.com/captsens/clichart
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2.1 of the License, or
+ * (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ */
+
+package net.sf.clichart.data;
+
+import junit.framework.TestCase;
+
+import java.util.Arrays;
+
+/**
+ * Unit tests for HeavyHitters
+ *
+ * @author johnd
+ */
+public class HeavyHittersTest extends TestCase {
+
+    /* ========================================================================
+     *
+     * Public methods
+     */
+
+    public void testAdd_exact() {
+        HeavyHitters hitters = new HeavyHitters(3, false);
+        assertEquals(-1, hitters.add("a", 1));
+        assertEquals(-2, hitters.add("b", 5));
+        assertEquals(0, hitters.add("a", 2));
+        assertEquals(-3, hitters.add("c", 4));
+        assertEquals(1, hitters.add("b", -1));
+
+        assertEquals(3, hitters.size());
+        assertEquals("a", hitters.getKey(0));
+        assertEquals(3, hitters.getWeight(0), 0);
+        assertEquals(4, hitters.getWeight(1), 0);
+        assertEquals("[1, 2, 0]", Arrays.toString(hitters.getTopSlots(5)));
+        assertEquals("[1, 2]", Arrays.toString(hitters.getTopSlots(2)));
+    }
+
+    public void testAdd_replaced() {
+        HeavyHitters hitters = new HeavyHitters(2, false);
+        hitters.add("a", 10);
+        hitters.add("b", 2);
+        // takes over b's slot, starting from its weight
+        assertEquals(-2, hitters.add("c", 1));
+        assertEquals("c", hitters.getKey(1));
+        assertEquals(3, hitters.getWeight(1), 0);
+        // b is no longer tracked, so takes over c's slot
+        assertEquals(-2, hitters.add("b", 1));
+        assertEquals(4, hitters.getWeight(1), 0);
+        assertEquals(0, hitters.add("a", 1));
+    }
+
+    public void testAdd_maximum() {
+        HeavyHitters hitters = new HeavyHitters(2, true);
+        hitters.add("a", 10);
+        hitters.add("a", 3);
+        hitters.add("b", 2);
+        hitters.add("b", Double.NEGATIVE_INFINITY);
+        assertEquals(10, hitters.getWeight(0), 0);
+        assertEquals(2, hitters.getWeight(1), 0);
+
+        hitters.add("c", 7);
+        assertEquals("c", hitters.getKey(1));
+        assertEquals(7, hitters.getWeight(1), 0);
+        assertEquals("[0, 1]", Arrays.toString(hitters.getTopSlots(2)));
+    }
+
+    public void testGetTopSlots_ties() {
+        HeavyHitters hitters = new HeavyHitters(4, false);
+        hitters.add("a", 1);
+        hitters.add("b", 2);
+        hitters.add("c", 1);
+        hitters.add("d", 2);
+        assertEquals("[1, 3, 0, 2]", Arrays.toString(hitters.getTopSlots(4)));
+    }
+
+    public void testAdd_heavyKeysFound() {
+        // keys with more than total / capacity are always tracked, however many light keys there are
+        HeavyHitters hitters = new HeavyHitters(10, false);
+        for (int i = 0; i < 100000; i++) {
+            hitters.add("light" + i, 1);
+            if (i % 4 == 0) {
+                hitters.add("heavy1", 1);
+            }
+            if (i % 5 == 0) {
+                hitters.add("heavy2", 1);
+            }
+        }
+        int[] topSlots = hitters.getTopSlots(2);
+        assertEquals("heavy1", hitters.getKey(topSlots[0]));
+        assertEquals("heavy2", hitters.getKey(topSlots[1]));
+        assertTrue(hitters.getWeight(topSlots[0]) >= 25000);
+    }
+}
@@ -0,0 +1,142 @@
+/* (C) Copyright 2026, by John Dickson
+ *
+ * Project Info:  https://github.com/captsens/clichart
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2.1 of the License, or
+ * (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ */
+
+package net.sf.clichart.data;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit tests for HistogramDataSink
+ *
+ * @author johnd
+ */
+public class HistogramDataSinkTest extends TestCase {
+
+    /* ========================================================================
+     *
+     * Instance variables.
+     */
+
+    private RecordingSink m_target = new RecordingSink(true, false);
+
+    /* ========================================================================
+     *
+     * Public methods
+     */
+
+    public void testFixedWidth() throws Exception {
+        HistogramDataSink sink = new HistogramDataSink(m_target, 2, HistogramDataSink.MODE_FIXED_WIDTH, 0, 10);
+        sink.headerParsed(new String[] {"a", "b"});
+        sink.dataParsed(1, new double[] {15, 0}, 2, 2, 1);
+        sink.dataParsed(2, new double[] {-3, 19.5}, 0, 2, 2);
+        sink.dataParsed(3, new double[] {11, 40}, 0, 2, 3);
+        sink.parsingFinished();
+
+        assertEquals("header a b", m_target.getCalls().get(0));
+        assertEquals("-10.0 0 1.0 0.0", m_target.getCalls().get(1));
+        assertEquals("0.0 0 0.0 0.0", m_target.getCalls().get(2));
+        assertEquals("10.0 0 2.0 1.0", m_target.getCalls().get(3));
+        assertEquals("20.0 0 0.0 0.0", m_target.getCalls().get(4));
+        assertEquals("30.0 0 0.0 0.0", m_target.getCalls().get(5));
+        assertEquals("40.0 0 0.0 1.0", m_target.getCalls().get(6));
+        assertEquals("50.0 3", m_target.getCalls().get(7));
+        assertEquals("finished", m_target.getCalls().get(8));
+    }
+
+    public void testFixedWidth_tooManyBins() throws Exception {
+        HistogramDataSink sink = new HistogramDataSink(m_target, 1, HistogramDataSink.MODE_FIXED_WIDTH, 0, 0.5);
+        sink.dataParsed(1, new double[] {0}, 0, 1, 1);
+        try {
+            sink.dataParsed(2, new double[] {HistogramDataSink.MAX_FIXED_BINS}, 0, 1, 2);
+            fail();
+        } catch (InvalidDataException expected) {
+            assertTrue(expected.getMessage().endsWith("on line 2"));
+        }
+    }
+
+    public void testAuto() throws Exception {
+        HistogramDataSink sink = new HistogramDataSink(m_target, 1, HistogramDataSink.MODE_AUTO, 10, 0);
+        for (int i = 0; i < 100; i++) {
+            sink.dataParsed(i, new double[] {i % 50}, 0, 1, i + 1);
+        }
+        sink.parsingFinished();
+
+        // round bins of width 5 from 0 to 50
+        assertEquals(12, m_target.getCalls().size());
+        for (int i = 0; i < 10; i++) {
+            assertEquals(i * 5 + ".0 0 10.0", m_target.getCalls().get(i));
+        }
+        assertEquals("50.0 1", m_target.getCalls().get(10));
+    }
+
+    public void testAuto_widened() throws Exception {
+        HistogramDataSink sink = new HistogramDataSink(m_target, 1, HistogramDataSink.MODE_AUTO, 10, 0);
+        int lines = HistogramDataSink.SAMPLE_SIZE + 200;
+        for (int i = 0; i < lines; i++) {
+            // the sample covers 0 to 9, so the bins are widened for later values
+            double value = i < HistogramDataSink.SAMPLE_SIZE ? i % 10 : (i % 2 == 0 ? 35 : -5);
+            sink.dataParsed(i, new double[] {value}, 0, 1, i + 1);
+        }
+        sink.parsingFinished();
+
+        // bins of width 1 from 0, widened upwards to width 4 from 0, then downwards to width 8 from -40
+        assertEquals("-8.0 0 100.0", m_target.getCalls().get(0));
+        long total = 0;
+        for (int i = 0; i < m_target.getCalls().size() - 2; i++) {
+            String[] fields = m_target.getCalls().get(i).split(" ");
+            assertEquals(-8 + i * 8, Double.parseDouble(fields[0]), 0);
+            total += Double.parseDouble(fields[2]);
+        }
+        assertEquals(lines, total);
+        assertEquals("32.0 0 100.0", m_target.getCalls().get(m_target.getCalls().size() - 3));
+        assertEquals("40.0 1", m_target.getCalls().get(m_target.getCalls().size() - 2));
+    }
+
+    public void testLog() throws Exception {
+        HistogramDataSink sink = new HistogramDataSink(m_target, 1, HistogramDataSink.MODE_LOG, 4, 0);
+        double[] values = {1, 10, 100, 1000, 1000, 0, -1};
+        for (int i = 0; i < values.length; i++) {
+            sink.dataParsed(i, new double[] {values[i]}, 0, 1, i + 1);
+        }
+        sink.parsingFinished();
+
+        assertEquals("1.0 0 1.0", m_target.getCalls().get(0));
+        assertEquals("10.0 0 1.0", m_target.getCalls().get(1));
+        assertEquals("100.0 0 1.0", m_target.getCalls().get(2));
+        assertEquals("1000.0 0 2.0", m_target.getCalls().get(3));
+        assertEquals("10000.0 1", m_target.getCalls().get(4));
+    }
+
+    public void testNoValues() throws Exception {
+        HistogramDataSink sink = new HistogramDataSink(m_target, 1, HistogramDataSink.MODE_AUTO, 10, 0);
+        sink.dataParsed(1, new double[] {0}, 1, 1, 1);
+        sink.parsingFinished();
+
+        assertEquals(1, m_target.getCalls().size());
+        assertEquals("finished", m_target.getCalls().get(0));
+    }
+
+    public void testRoundUp() {
+        assertEquals(1.0, HistogramDataSink.roundUp(1), 0);
+        assertEquals(2.0, HistogramDataSink.roundUp(1.1), 0);
+        assertEquals(50.0, HistogramDataSink.roundUp(21), 0);
+        assertEquals(0.01, HistogramDataSink.roundUp(0.0099), 1e-12);
+    }
+}
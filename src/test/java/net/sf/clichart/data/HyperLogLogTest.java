@@ -0,0 +1,83 @@
+/* (C) Copyright 2026, by John Dickson
+ *
+ * Project Info:  https://github.com/captsens/clichart
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2.1 of the License, or
+ * (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ */
+
+package net.sf.clichart.data;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit tests for HyperLogLog
+ *
+ * @author johnd
+ */
+public class HyperLogLogTest extends TestCase {
+
+    /* ========================================================================
+     *
+     * Public methods
+     */
+
+    public void testEstimate_empty() {
+        assertEquals(0.0, new HyperLogLog().getEstimate(), 0);
+    }
+
+    public void testEstimate_small() {
+        HyperLogLog sketch = new HyperLogLog();
+        for (int i = 0; i < 100; i++) {
+            sketch.add("user" + (i % 20));
+        }
+        assertEquals(20, Math.round(sketch.getEstimate()));
+    }
+
+    public void testEstimate_large() {
+        int[] counts = {1000, 10000, 100000, 1000000};
+        for (int i = 0; i < counts.length; i++) {
+            HyperLogLog sketch = new HyperLogLog();
+            for (int j = 0; j < counts[i]; j++) {
+                sketch.add("10.0." + (j / 256) + "." + (j % 256));
+                sketch.add("10.0." + (j / 256) + "." + (j % 256));
+            }
+            // several times the standard error
+            assertEquals(counts[i], sketch.getEstimate(), counts[i] * 0.05);
+        }
+    }
+
+    public void testMerge() {
+        HyperLogLog first = new HyperLogLog();
+        HyperLogLog second = new HyperLogLog();
+        HyperLogLog all = new HyperLogLog();
+        for (int i = 0; i < 50000; i++) {
+            (i % 3 == 0 ? first : second).add("key" + i);
+            all.add("key" + i);
+            if (i % 2 == 0) {
+                // values in both sketches are only counted once
+                first.add("key" + i);
+            }
+        }
+        first.merge(second);
+        assertEquals(all.getEstimate(), first.getEstimate(), 0);
+    }
+
+    public void testHash() {
+        assertEquals(HyperLogLog.hash("abc"), HyperLogLog.hash(new String("abc")));
+        assertTrue(HyperLogLog.hash("abc") != HyperLogLog.hash("abd"));
+        assertTrue(HyperLogLog.hash("") != HyperLogLog.hash("a"));
+    }
+}
@@ -0,0 +1,95 @@
+/* (C) Copyright 2026, by John Dickson
+ *
+ * Project Info:  https://github.com/captsens/clichart
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2.1 of the License, or
+ * (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ */
+
+package net.sf.clichart.data;
+
+import junit.framework.TestCase;
+
+import java.util.Arrays;
+
+/**
+ * Unit tests for JsonLineParser
+ *
+ * @author johnd
+ */
+public class JsonLineParserTest extends TestCase {
+
+    /* ========================================================================
+     *
+     * Public methods
+     */
+
+    public void testParseLine() {
+        JsonLineParser parser = new JsonLineParser(new String[] {"ts", "http.latency", "level"});
+        assertEquals("[1700000000123, 25.5, info]", Arrays.toString(parser.parseLine(
+                "{\"ts\": 1700000000123, \"level\": \"info\", \"http\": {\"path\": \"/a\", \"latency\": 25.5}}", 1)));
+        // order doesn't matter, and values which aren't needed are skipped, however they're nested
+        assertEquals("[5, 7, warn]", Arrays.toString(parser.parseLine(
+                "{\"tags\":[\"a\",{\"b\":[1,2]}],\"http\":{\"latency\":7,\"x\":{\"y\":\"}\"}},\"ts\":5,"
+                + "\"msg\":\"say \\\"hi\\\"\",\"level\":\"warn\"}", 2)));
+    }
+
+    public void testParseFields_missing() {
+        JsonLineParser parser = new JsonLineParser(new String[] {"ts", "latency", "status"});
+        LineFields fields = parser.parseFields("{\"ts\":1,\"latency\":null,\"http\":{\"status\":200}}", 1);
+        assertEquals(3, fields.getFieldCount());
+        assertEquals("1", fields.getField(0));
+        assertTrue(fields.isMissing(1));
+        assertTrue(fields.isMissing(2));
+        assertNull(fields.getField(2));
+    }
+
+    public void testParseFields_skipped() {
+        JsonLineParser parser = new JsonLineParser(new String[] {"ts"});
+        assertNull(parser.parseFields("{\"other\": 1}", 1));
+        assertNull(parser.parseFields("not json", 2));
+        assertNull(parser.parseFields("{\"ts\" 1}", 3));
+        assertNull(parser.parseFields("[1, 2]", 4));
+    }
+
+    public void testParseFields_duplicate() {
+        JsonLineParser parser = new JsonLineParser(new String[] {"ts", "http.latency"});
+        // the first value is used, whether or not the other fields have been found by then
+        assertEquals("[1, 25]", Arrays.toString(parser.parseLine(
+                "{\"http\": {\"latency\": 25}, \"http\": {\"latency\": 30}, \"ts\": 1}", 1)));
+        assertEquals("[1, 25]", Arrays.toString(parser.parseLine(
+                "{\"ts\": 1, \"http\": {\"latency\": 25, \"latency\": 30}, \"ts\": 2}", 2)));
+        // except that null is treated as missing
+        assertEquals("[1, 30]", Arrays.toString(parser.parseLine(
+                "{\"ts\": 1, \"http\": {\"latency\": null, \"latency\": 30}}", 3)));
+    }
+
+    public void testParseFields_escapes() {
+        JsonLineParser parser = new JsonLineParser(new String[] {"host name", "msg"});
+        LineFields fields = parser.parseFields("{\"host\\u0020name\": \"a\\tb\", "
+                + "\"msg\": \"\\\"q\\\" \\\\ \\u00e9\"}", 1);
+        assertEquals("a\tb", fields.getField(0));
+        assertEquals("\"q\" \\ \u00e9", fields.getField(1));
+    }
+
+    public void testParseFields_requiredColumns() {
+        JsonLineParser parser = new JsonLineParser(new String[] {"a", "b", "c"});
+        parser.setRequiredColumns(new boolean[] {false, true});
+        LineFields fields = parser.parseFields("{\"b\": 2, \"a\": 1, \"c\": 3}", 1);
+        assertEquals(2, fields.getFieldCount());
+        assertEquals("", fields.getField(0));
+        assertEquals("2", fields.getField(1));
+    }
+}
@@ -0,0 +1,58 @@
+/* (C) Copyright 2026, by John Dickson
+ *
+ * Project Info:  https://github.com/captsens/clichart
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2.1 of the License, or
+ * (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ */
+
+package net.sf.clichart.data;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit tests for KeyTable
+ *
+ * @author johnd
+ */
+public class KeyTableTest extends TestCase {
+
+    /* ========================================================================
+     *
+     * Public methods
+     */
+
+    public void testGetKey() {
+        KeyTable table = new KeyTable();
+        char[] chars = "host1,host2,host1,".toCharArray();
+        String key = table.getKey(chars, 0, 5);
+        assertEquals("host1", key);
+        assertEquals("host2", table.getKey(chars, 6, 11));
+        assertSame(key, table.getKey(chars, 12, 17));
+        assertEquals("", table.getKey(chars, 18, 18));
+        assertEquals(3, table.size());
+    }
+
+    public void testGetKey_manyKeys() {
+        KeyTable table = new KeyTable();
+        for (int i = 0; i < KeyTable.MAX_KEYS * 2; i++) {
+            char[] chars = ("key" + i).toCharArray();
+            assertEquals("key" + i, table.getKey(chars, 0, chars.length));
+            assertTrue(table.size() <= KeyTable.MAX_KEYS);
+        }
+        char[] chars = "key1".toCharArray();
+        assertSame(table.getKey(chars, 0, 4), table.getKey(chars, 0, 4));
+    }
+}
@@ -0,0 +1,79 @@
+/* (C) Copyright 2026, by John Dickson
+ *
+ * Project Info:  https://github.com/captsens/clichart
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2.1 of the License, or
+ * (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ */
+
+package net.sf.clichart.data;
+
+import junit.framework.TestCase;
+
+import java.util.Arrays;
+
+/**
+ * Unit tests for LogfmtLineParser
+ *
+ * @author johnd
+ */
+public class LogfmtLineParserTest extends TestCase {
+
+    /* ========================================================================
+     *
+     * Public methods
+     */
+
+    public void testParseLine() {
+        LogfmtLineParser parser = new LogfmtLineParser(new String[] {"ts", "latency_ms", "msg"});
+        assertEquals("[1700000000123, 25, request done]", Arrays.toString(parser.parseLine(
+                "ts=1700000000123 level=info msg=\"request done\" path=/api latency_ms=25", 1)));
+        assertEquals("[5, 7, a \"quoted\" msg]", Arrays.toString(parser.parseLine(
+                "  latency_ms=7\tmsg=\"a \\\"quoted\\\" msg\" ts=5 ", 2)));
+    }
+
+    public void testParseFields_missingAndEmpty() {
+        LogfmtLineParser parser = new LogfmtLineParser(new String[] {"ts", "latency", "error", "msg"});
+        LineFields fields = parser.parseFields("ts=1 error=\"\" msg=", 1);
+        assertEquals(4, fields.getFieldCount());
+        assertEquals("1", fields.getField(0));
+        assertTrue(fields.isMissing(1));
+        assertEquals("", fields.getField(2));
+        assertEquals("", fields.getField(3));
+    }
+
+    public void testParseFields_wordsWithoutValues() {
+        // e.g. an unquoted message, containing a word which is also a key
+        LogfmtLineParser parser = new LogfmtLineParser(new String[] {"ts", "latency"});
+        LineFields fields = parser.parseFields("ts=1 slow request latency check latency=25", 1);
+        assertEquals("1", fields.getField(0));
+        assertEquals("25", fields.getField(1));
+
+        assertTrue(parser.parseFields("ts=2 latency", 2).isMissing(1));
+    }
+
+    public void testParseFields_duplicate() {
+        LogfmtLineParser parser = new LogfmtLineParser(new String[] {"ts", "latency"});
+        // the first value is used, whether or not the other fields have been found by then
+        assertEquals("[1, 25]", Arrays.toString(parser.parseLine("latency=25 latency=30 ts=1", 1)));
+        assertEquals("[1, 25]", Arrays.toString(parser.parseLine("ts=1 latency=25 latency=30", 2)));
+    }
+
+    public void testParseFields_skipped() {
+        LogfmtLineParser parser = new LogfmtLineParser(new String[] {"ts"});
+        assertNull(parser.parseFields("Exception in thread main", 1));
+        assertNull(parser.parseFields("tsx=1 t=2", 2));
+    }
+}
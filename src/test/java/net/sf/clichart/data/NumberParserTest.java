@@ -0,0 +1,143 @@
+/* (C) Copyright 2026, by John Dickson
+ *
+ * Project Info:  https://github.com/captsens/clichart
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2.1 of the License, or
+ * (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ */
+
+package net.sf.clichart.data;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit tests for NumberParser
+ *
+ * @author johnd
+ */
+public class NumberParserTest extends TestCase {
+
+    /* ========================================================================
+     *
+     * Instance variables.
+     */
+
+    private NumberParser m_parser = new NumberParser();
+
+    /* ========================================================================
+     *
+     * Public methods
+     */
+
+    public void testParse_integers() throws Exception {
+        assertValue(0, "0");
+        assertValue(42, "42");
+        assertValue(-42, "-42");
+        assertValue(42, "+42");
+        assertValue(42, " 42\t");
+        assertValue(1234567890123456789L, "1234567890123456789");
+        assertValue(Long.MAX_VALUE, "9223372036854775807");
+        assertValue(1e20, "100000000000000000000");
+    }
+
+    public void testParse_decimals() throws Exception {
+        assertValue(0.125, "0.125");
+        assertValue(-0.125, "-.125");
+        assertValue(3, "3.");
+        assertValue(0.1, "0.1");
+        assertValue(123.456, "123.456");
+        assertValue(1.7976931348623157E308, "1.7976931348623157E308");
+        assertValue(0.30000000000000004, "0.30000000000000004");
+        assertValue(2.2250738585072014E-308, "2.2250738585072014E-308");
+    }
+
+    public void testParse_exponents() throws Exception {
+        assertValue(1e5, "1e5");
+        assertValue(1.5e-3, "1.5E-3");
+        assertValue(-2.5e10, "-2.5e+10");
+        assertValue(Double.POSITIVE_INFINITY, "1e400");
+        assertValue(0, "1e-400");
+    }
+
+    public void testParse_specialValues() throws Exception {
+        assertTrue(Double.isNaN(m_parser.parse("NaN", 1)));
+        assertValue(Double.POSITIVE_INFINITY, "Infinity");
+        assertValue(Double.NEGATIVE_INFINITY, "-Infinity");
+    }
+
+    public void testParse_invalid() throws Exception {
+        assertInvalid("");
+        assertInvalid(" ");
+        assertInvalid("-");
+        assertInvalid(".");
+        assertInvalid("1e");
+        assertInvalid("1.2.3");
+        assertInvalid("12abc");
+        assertInvalid("1,234");
+        assertInvalid("nan");
+    }
+
+    public void testParse_thousandsSeparator() throws Exception {
+        m_parser = new NumberParser(',');
+        assertValue(1234567, "1,234,567");
+        assertValue(-1234.5, "-1,234.5");
+        assertInvalid(",123");
+        assertInvalid("1.234,5");
+    }
+
+    public void testParse_integerColumn() throws Exception {
+        for (int i = 0; i < 20; i++) {
+            assertValue(i, "" + i);
+        }
+        assertTrue(m_parser.isIntegerColumn());
+
+        // values which aren't integers are still parsed once the column is locked
+        assertValue(2.5, "2.5");
+        assertValue(1e3, "1e3");
+        assertValue(12345678901234567890.0, "12345678901234567890");
+        assertInvalid("12x");
+    }
+
+    public void testParse_decimalColumn() throws Exception {
+        for (int i = 0; i < 20; i++) {
+            assertValue(i + 0.5, i + ".5");
+        }
+        assertFalse(m_parser.isIntegerColumn());
+        assertValue(7, "7");
+    }
+
+    public void testParse_charRange() throws Exception {
+        char[] chars = "a,-17.25,b".toCharArray();
+        assertEquals(-17.25, m_parser.parse(chars, 2, 8, 1), 0);
+    }
+
+    /* ========================================================================
+     *
+     * Private methods
+     */
+
+    private void assertValue(double expected, String value) throws InvalidDataException {
+        assertEquals("Parsing [" + value + "]", expected, m_parser.parse(value, 1), 0);
+    }
+
+    private void assertInvalid(String value) {
+        try {
+            m_parser.parse(value, 7);
+            fail("Expected InvalidDataException for [" + value + "]");
+        } catch (InvalidDataException e) {
+            assertEquals("Invalid data value: [" + value + "], line 7", e.getMessage());
+        }
+    }
+}
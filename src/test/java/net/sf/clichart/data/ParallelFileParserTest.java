@@ -0,0 +1,248 @@
+/* (C) Copyright 2026, by John Dickson
+ *
+ * Project Info:  https://github.com/captsens/clichart
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2.1 of the License, or
+ * (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ */
+
+package net.sf.clichart.data;
+
+import junit.framework.TestCase;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+
+/**
+ * Unit tests for ParallelFileParser.  Each test parses the same file sequentially and in parallel (with very small
+ * chunks), and checks that the sinks see exactly the same calls.
+ *
+ * @author johnd
+ */
+public class ParallelFileParserTest extends TestCase {
+
+    /* ========================================================================
+     *
+     * Class (static) variables.
+     */
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private static final int THREADS = 4;
+    private static final int CHUNK_SIZE = 100;
+
+    /* ========================================================================
+     *
+     * Instance variables.
+     */
+
+    private File m_file;
+
+    private boolean m_hasHeader = false;
+    private int m_xColumnIndex = 0;
+    private boolean m_secondAxis = false;
+    private int m_keyColumnIndex = -1;
+    private String m_regex = null;
+
+    /* ========================================================================
+     *
+     * Lifecycle methods
+     */
+
+    protected void tearDown() throws Exception {
+        if (m_file != null) {
+            m_file.delete();
+        }
+    }
+
+    /* ========================================================================
+     *
+     * Public methods
+     */
+
+    public void testParse() throws Exception {
+        m_hasHeader = true;
+        m_secondAxis = true;
+        StringBuilder data = new StringBuilder("x a b c\n");
+        for (int i = 0; i < 1000; i++) {
+            data.append(i).append(' ').append(i * 2).append(' ').append(i % 7 == 0 ? "" : "1.5").append(" -")
+                    .append(i).append(i % 3 == 0 ? "\r\n" : "\n");
+            if (i % 50 == 0) {
+                data.append("\n  \n");
+            }
+        }
+        assertParallelSameAsSequential(data.toString());
+    }
+
+    public void testParse_lineNumberAsX() throws Exception {
+        m_xColumnIndex = -1;
+        StringBuilder data = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            data.append(i * 3).append(i % 10 == 0 ? "\n\n" : "\r");
+        }
+        assertParallelSameAsSequential(data.toString());
+    }
+
+    public void testParse_headerAfterBlankChunks() throws Exception {
+        m_hasHeader = true;
+        StringBuilder data = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            data.append("       \n");
+        }
+        data.append("x a\n");
+        for (int i = 0; i < 500; i++) {
+            data.append(i).append(' ').append(i * 2).append('\n');
+        }
+        assertParallelSameAsSequential(data.toString());
+    }
+
+    public void testParse_keyColumn() throws Exception {
+        m_secondAxis = true;
+        m_keyColumnIndex = 4;
+        StringBuilder data = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            data.append(i).append(' ').append(i * 2).append(" 1.5 ").append(i).append(" host").append(i % 13)
+                    .append(i % 100 == 0 ? "\n" : " extra\n");
+            if (i % 77 == 0) {
+                // missing key
+                data.append(i).append(" 1 2 3\n");
+            }
+        }
+        assertParallelSameAsSequential(data.toString());
+    }
+
+    public void testParse_regex() throws Exception {
+        m_regex = "^(\\d+) took (\\d+) ms, (\\d+)";
+        StringBuilder data = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            data.append(i).append(i % 4 == 0 ? " started\n" : " took 5 ms, 7\n");
+            if (i % 3 == 0) {
+                // contains the required text, but doesn't match
+                data.append("took ").append(i).append(" ms\n\n");
+            }
+        }
+        assertParallelSameAsSequential(data.toString());
+    }
+
+    public void testParse_error() throws Exception {
+        StringBuilder data = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            data.append(i).append(' ').append(i == 700 ? "x" : String.valueOf(i)).append('\n');
+        }
+        assertParallelSameAsSequential(data.toString());
+    }
+
+    public void testParse_smallFile() throws Exception {
+        assertParallelSameAsSequential("1 2\n3 4\n");
+    }
+
+    public void testFindChunkBoundaries() throws Exception {
+        StringBuilder data = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            data.append(i).append(i % 2 == 0 ? "\r\n" : (i % 3 == 0 ? "\r" : "\n"));
+        }
+        FileChannel channel = openFile(data.toString());
+        try {
+            long[] boundaries = new ParallelFileParser(new Factory(), THREADS, CHUNK_SIZE).findChunkBoundaries(
+                    channel, channel.size());
+            assertTrue(boundaries.length > 10);
+            assertEquals(0, boundaries[0]);
+            assertEquals(channel.size(), boundaries[boundaries.length - 1]);
+            for (int i = 1; i < boundaries.length - 1; i++) {
+                assertTrue(boundaries[i] >= boundaries[i - 1] + CHUNK_SIZE);
+                char previous = data.charAt((int) boundaries[i] - 1);
+                assertTrue(previous == '\n' || (previous == '\r' && data.charAt((int) boundaries[i]) != '\n'));
+            }
+        } finally {
+            channel.close();
+        }
+    }
+
+    /* ========================================================================
+     *
+     * Private methods
+     */
+
+    private void assertParallelSameAsSequential(String data) throws Exception {
+        FileChannel channel = openFile(data);
+        try {
+            Factory factory = new Factory();
+            RecordingSink sequentialSink = new RecordingSink();
+            RecordingSink sequentialSecondAxisSink = new RecordingSink();
+            AbstractDataParser sequentialParser = factory.createDataParser(sequentialSink, sequentialSecondAxisSink);
+            String sequentialError = parse(sequentialParser, channel, 1);
+
+            RecordingSink sink = new RecordingSink();
+            RecordingSink secondAxisSink = new RecordingSink();
+            AbstractDataParser parser = factory.createDataParser(sink, secondAxisSink);
+            String error = parse(parser, channel, THREADS);
+
+            assertEquals(sequentialError, error);
+            if (error == null) {
+                assertEquals(sequentialParser.getStatistics().toString(), parser.getStatistics().toString());
+                assertEquals(sequentialParser.getLineCount(), parser.getLineCount());
+            }
+            assertTrue(sequentialSink.getCalls().size() > 1);
+            assertEquals(sequentialSink.getCalls(), sink.getCalls());
+            assertEquals(sequentialSecondAxisSink.getCalls(), secondAxisSink.getCalls());
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Parse the file, returning the error message if parsing fails
+     */
+    private String parse(AbstractDataParser parser, FileChannel channel, int threads) throws Exception {
+        try {
+            new ParallelFileParser(new Factory(), threads, CHUNK_SIZE).parse(parser, channel, UTF8);
+            return null;
+        } catch (InvalidDataException e) {
+            return e.getMessage();
+        }
+    }
+
+    private FileChannel openFile(String data) throws Exception {
+        m_file = File.createTempFile("ParallelFileParserTest", ".txt");
+        FileOutputStream out = new FileOutputStream(m_file);
+        out.write(data.getBytes(UTF8));
+        out.close();
+        return new RandomAccessFile(m_file, "r").getChannel();
+    }
+
+    /* ========================================================================
+     *
+     * Inner classes
+     */
+
+    private class Factory implements DataParserFactory {
+        public AbstractDataParser createDataParser(DataSink sink, DataSink secondAxisSink) {
+            int[] yColumnIndexes = m_xColumnIndex < 0 ? new int[] {0} : new int[] {1, 2};
+            LineParser lineParser = m_regex == null ? new WhiteSpaceLineParser() : new RegexLineParser(m_regex);
+            AbstractDataParser parser = new ValueDataParser(lineParser, m_xColumnIndex, yColumnIndexes, m_hasHeader,
+                    true, false, sink);
+            if (m_secondAxis) {
+                parser.addSecondAxis(new int[] {3}, secondAxisSink);
+            }
+            if (m_keyColumnIndex >= 0) {
+                parser.setKeyColumn(m_keyColumnIndex);
+            }
+            return parser;
+        }
+    }
+}
@@ -0,0 +1,271 @@
+/* (C) Copyright 2026, by John Dickson
+ *
+ * Project Info:  https://github.com/captsens/clichart
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2.1 of the License, or
+ * (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ */
+
+package net.sf.clichart.data;
+
+import junit.framework.TestCase;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.List;
+
+/**
+ * Unit tests for ParseCache.  Each test parses a file into a cache, and checks that replaying the cache gives exactly
+ * the same calls as parsing the file.
+ *
+ * @author johnd
+ */
+public class ParseCacheTest extends TestCase {
+
+    /* ========================================================================
+     *
+     * Class (static) variables.
+     */
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private static final String KEY = "test key";
+
+    /* ========================================================================
+     *
+     * Instance variables.
+     */
+
+    private File m_file;
+
+    /* ========================================================================
+     *
+     * Lifecycle methods
+     */
+
+    protected void setUp() throws Exception {
+        m_file = File.createTempFile("ParseCacheTest", ".txt");
+    }
+
+    protected void tearDown() throws Exception {
+        new ParseCache(m_file, KEY, 2, 1).getCacheFile().delete();
+        m_file.delete();
+    }
+
+    /* ========================================================================
+     *
+     * Public methods
+     */
+
+    public void testRecordAndReplay() throws Exception {
+        StringBuilder data = new StringBuilder("x a b c\n");
+        for (int i = 0; i < 1000; i++) {
+            data.append(i).append(' ').append(i * 2).append(' ').append(i % 7 == 0 ? "" : "1.5").append(" -")
+                    .append(i).append('\n');
+            if (i % 50 == 0) {
+                data.append("\n  \n");
+            }
+        }
+        data.append("1000 1\n");
+        writeFile(data.toString(), false);
+
+        ParseCache cache = new ParseCache(m_file, KEY, 2, 1);
+        assertEquals(ParseCache.STALE, cache.open());
+        List<String> parsed = parseIntoCache(cache, true, true);
+        assertTrue(cache.getCacheFile().isFile());
+
+        cache = new ParseCache(m_file, KEY, 2, 1);
+        assertEquals(ParseCache.CURRENT, cache.open());
+        assertEquals(parsed, replay(cache));
+        assertEquals("Skipped 145 missing values, 0 empty values and 40 blank lines",
+                cache.getStatistics().toString());
+    }
+
+    public void testOpen_stale() throws Exception {
+        writeFile("1 2 3 4\n5 6 7 8\n", false);
+        parseIntoCache(new ParseCache(m_file, KEY, 2, 1), false, true);
+
+        assertEquals(ParseCache.STALE, new ParseCache(m_file, "other key", 2, 1).open());
+        assertEquals(ParseCache.STALE, new ParseCache(m_file, KEY, 1, 1).open());
+
+        // same length, but modified
+        m_file.setLastModified(m_file.lastModified() - 10000);
+        assertEquals(ParseCache.STALE, new ParseCache(m_file, KEY, 2, 1).open());
+    }
+
+    public void testOpen_corrupt() throws Exception {
+        writeFile("1 2 3 4\n5 6 7 8\n", false);
+        ParseCache cache = new ParseCache(m_file, KEY, 2, 1);
+        parseIntoCache(cache, false, true);
+
+        RandomAccessFile cacheFile = new RandomAccessFile(cache.getCacheFile(), "rw");
+        cacheFile.setLength(cacheFile.length() - 3);
+        cacheFile.close();
+        assertEquals(ParseCache.STALE, new ParseCache(m_file, KEY, 2, 1).open());
+    }
+
+    public void testAppend() throws Exception {
+        StringBuilder data = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            data.append(i).append(' ').append(i).append(" 1 2\n");
+        }
+        writeFile(data.toString(), false);
+        ParseCache cache = new ParseCache(m_file, KEY, 2, 1);
+        parseIntoCache(cache, false, true);
+
+        List<String> appended = parseAppended("\n100 1\n101 2 3 4\n", false);
+        List<String> parsed = parseFile(false);
+        assertEquals(parsed, appended);
+        cache = new ParseCache(m_file, KEY, 2, 1);
+        assertEquals(ParseCache.CURRENT, cache.open());
+        assertEquals(parsed, replay(cache));
+        assertEquals("Skipped 2 missing values, 0 empty values and 1 blank lines", cache.getStatistics().toString());
+    }
+
+    public void testAppend_afterBlankLines() throws Exception {
+        // the appended lines are numbered from the last line of the file, not the last line with values
+        writeFile("x a b c\n1 1 2 3\n2 2 3 4\n\n  \n", false);
+        parseIntoCache(new ParseCache(m_file, KEY, 2, 1), true, true);
+        List<String> appended = parseAppended("3 3 4 5\n", true);
+        assertEquals("6: 3.0 0 3.0 4.0", appended.get(appended.size() - 2));
+        assertEquals(parseFile(true), appended);
+    }
+
+    public void testAppend_afterHeaderOnly() throws Exception {
+        writeFile("x a b c\n", false);
+        parseIntoCache(new ParseCache(m_file, KEY, 2, 1), true, true);
+        List<String> appended = parseAppended("1 1 2 3\n", true);
+        assertEquals("2: 1.0 0 1.0 2.0", appended.get(appended.size() - 2));
+        assertEquals(parseFile(true), appended);
+    }
+
+    public void testAppend_notAppendable() throws Exception {
+        // no line end at the end of the file
+        writeFile("1 2 3 4\n5 6 7 8", false);
+        parseIntoCache(new ParseCache(m_file, KEY, 2, 1), false, true);
+        writeFile("9\n", true);
+        assertEquals(ParseCache.STALE, new ParseCache(m_file, KEY, 2, 1).open());
+
+        // changed, not just appended to
+        writeFile("1 2 3 4\n5 6 7 8\n", false);
+        parseIntoCache(new ParseCache(m_file, KEY, 2, 1), false, true);
+        writeFile("2 2 3 4\n5 6 7 8\n9 9 9 9\n", false);
+        assertEquals(ParseCache.STALE, new ParseCache(m_file, KEY, 2, 1).open());
+
+        // not appendable according to the caller
+        writeFile("1 2 3 4\n5 6 7 8\n", false);
+        parseIntoCache(new ParseCache(m_file, KEY, 2, 1), false, false);
+        writeFile("9 9 9 9\n", true);
+        assertEquals(ParseCache.STALE, new ParseCache(m_file, KEY, 2, 1).open());
+    }
+
+    public void testCloseRecording_unfinished() throws Exception {
+        ParseCache cache = new ParseCache(m_file, KEY, 2, 1);
+        cache.startRecording(false);
+        cache.createRecordingSink(new RecordingSink(true, true)).dataParsed(1, new double[] {1, 2}, 0, 2, 1);
+        cache.closeRecording();
+        assertFalse(cache.getCacheFile().exists());
+        assertFalse(new File(cache.getCacheFile().getPath() + ".tmp").exists());
+    }
+
+    /* ========================================================================
+     *
+     * Private methods
+     */
+
+    /**
+     * Parse the file into the cache, returning the calls made to the main sink
+     */
+    private List<String> parseIntoCache(ParseCache cache, boolean hasHeader, boolean appendable) throws Exception {
+        cache.open();
+        RecordingSink sink = new RecordingSink(true, true);
+        AbstractDataParser parser = createParser(cache.createRecordingSink(sink),
+                cache.createSecondAxisRecordingSink(new RecordingSink(true, true)), hasHeader);
+        cache.startRecording(false);
+        FileChannel channel = new RandomAccessFile(m_file, "r").getChannel();
+        try {
+            parser.parse(new ByteLineReader(channel, 0, channel.size(), 1, UTF8));
+        } finally {
+            channel.close();
+        }
+        cache.finishRecording(parser.getStatistics(), parser.getLineCount(), appendable);
+        cache.closeRecording();
+        return sink.getCalls();
+    }
+
+    /**
+     * Append to the file, and parse the appended lines via its (appendable) cache, returning the calls made to the
+     * main sink
+     */
+    private List<String> parseAppended(String data, boolean hasHeader) throws Exception {
+        writeFile(data, true);
+        ParseCache cache = new ParseCache(m_file, KEY, 2, 1);
+        assertEquals(ParseCache.APPENDABLE, cache.open());
+        RecordingSink sink = new RecordingSink(true, true);
+        RecordingSink secondAxisSink = new RecordingSink(true, true);
+        cache.replay(sink, secondAxisSink);
+        AbstractDataParser parser = createParser(cache.createRecordingSink(sink),
+                cache.createSecondAxisRecordingSink(secondAxisSink), hasHeader);
+        cache.startRecording(true);
+        FileChannel channel = new RandomAccessFile(m_file, "r").getChannel();
+        try {
+            cache.parseAppended(parser, channel, UTF8);
+        } finally {
+            channel.close();
+        }
+        cache.finishRecording(parser.getStatistics(), parser.getLineCount(), true);
+        cache.closeRecording();
+        return sink.getCalls();
+    }
+
+    /**
+     * Parse the file without a cache, returning the calls made to the main sink
+     */
+    private List<String> parseFile(boolean hasHeader) throws Exception {
+        RecordingSink sink = new RecordingSink(true, true);
+        AbstractDataParser parser = createParser(sink, new RecordingSink(true, true), hasHeader);
+        FileChannel channel = new RandomAccessFile(m_file, "r").getChannel();
+        try {
+            parser.parse(new ByteLineReader(channel, 0, channel.size(), 1, UTF8));
+        } finally {
+            channel.close();
+        }
+        return sink.getCalls();
+    }
+
+    private List<String> replay(ParseCache cache) throws Exception {
+        RecordingSink sink = new RecordingSink(true, true);
+        cache.replay(sink, new RecordingSink(true, true));
+        sink.parsingFinished();
+        return sink.getCalls();
+    }
+
+    private AbstractDataParser createParser(PrimitiveDataSink sink, PrimitiveDataSink secondAxisSink,
+            boolean hasHeader) {
+        AbstractDataParser parser = new ValueDataParser(new WhiteSpaceLineParser(), 0, new int[] {1, 2}, hasHeader,
+                true, false, sink);
+        parser.addSecondAxis(new int[] {3}, secondAxisSink);
+        return parser;
+    }
+
+    private void writeFile(String data, boolean append) throws Exception {
+        FileOutputStream out = new FileOutputStream(m_file, append);
+        out.write(data.getBytes(UTF8));
+        out.close();
+    }
+}
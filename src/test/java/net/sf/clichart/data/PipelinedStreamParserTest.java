@@ -0,0 +1,178 @@
+/* (C) Copyright 2026, by John Dickson
+ *
+ * Project Info:  https://github.com/captsens/clichart
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2.1 of the License, or
+ * (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ */
+
+package net.sf.clichart.data;
+
+import junit.framework.TestCase;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.charset.Charset;
+
+/**
+ * Unit tests for PipelinedStreamParser.  Each test parses the same data with a single parser and through the
+ * pipeline (with very small blocks), and checks that the sinks see exactly the same calls.
+ *
+ * @author johnd
+ */
+public class PipelinedStreamParserTest extends TestCase {
+
+    /* ========================================================================
+     *
+     * Class (static) variables.
+     */
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private static final int THREADS = 3;
+    private static final int BLOCK_SIZE = 64;
+
+    /* ========================================================================
+     *
+     * Instance variables.
+     */
+
+    private boolean m_hasHeader = false;
+    private boolean m_secondAxis = false;
+
+    /* ========================================================================
+     *
+     * Public methods
+     */
+
+    public void testParse() throws Exception {
+        m_hasHeader = true;
+        m_secondAxis = true;
+        StringBuilder data = new StringBuilder("\n\nx a b c\n");
+        for (int i = 0; i < 1000; i++) {
+            data.append(i).append(' ').append(i * 2).append(' ').append(i % 7 == 0 ? "" : "1.5").append(" -")
+                    .append(i).append(i % 3 == 0 ? "\r\n" : (i % 5 == 0 ? "\r" : "\n"));
+            if (i % 50 == 0) {
+                data.append("\n  \n");
+            }
+        }
+        assertPipelineSameAsSequential(data.toString());
+    }
+
+    public void testParse_longLines() throws Exception {
+        StringBuilder data = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            data.append(i).append(' ').append(i);
+            for (int j = 0; j < i * 3; j++) {
+                data.append(" 0");
+            }
+            data.append('\n');
+        }
+        data.append("100 100");
+        assertPipelineSameAsSequential(data.toString());
+    }
+
+    public void testParse_error() throws Exception {
+        StringBuilder data = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            data.append(i).append(' ').append(i == 700 ? "x" : String.valueOf(i)).append('\n');
+        }
+        assertPipelineSameAsSequential(data.toString());
+    }
+
+    public void testParse_readError() throws Exception {
+        InputStream failing = new InputStream() {
+            private int m_count = 0;
+
+            public int read() throws IOException {
+                if (m_count++ > 100) {
+                    throw new IOException("Read failed");
+                }
+                return m_count % 4 == 0 ? '\n' : '1';
+            }
+        };
+        try {
+            new PipelinedStreamParser(new Factory(), THREADS, BLOCK_SIZE).parse(
+                    new Factory().createDataParser(new RecordingSink(), null), failing, UTF8);
+            fail();
+        } catch (IOException expected) {
+            assertEquals("Read failed", expected.getMessage());
+        }
+    }
+
+    public void testFindLastLineEnd() {
+        assertEquals(3, PipelinedStreamParser.findLastLineEnd("ab\ncd\nef".getBytes(UTF8), 5));
+        assertEquals(6, PipelinedStreamParser.findLastLineEnd("ab\ncd\nef".getBytes(UTF8), 8));
+        assertEquals(3, PipelinedStreamParser.findLastLineEnd("ab\rcd\r".getBytes(UTF8), 6));
+        assertEquals(7, PipelinedStreamParser.findLastLineEnd("ab\rcd\r\n".getBytes(UTF8), 7));
+        assertEquals(-1, PipelinedStreamParser.findLastLineEnd("abcdef".getBytes(UTF8), 6));
+    }
+
+    /* ========================================================================
+     *
+     * Private methods
+     */
+
+    private void assertPipelineSameAsSequential(String data) throws Exception {
+        Factory factory = new Factory();
+        RecordingSink sequentialSink = new RecordingSink();
+        RecordingSink sequentialSecondAxisSink = new RecordingSink();
+        AbstractDataParser sequentialParser = factory.createDataParser(sequentialSink, sequentialSecondAxisSink);
+        String sequentialError = null;
+        try {
+            sequentialParser.parse(new StringReader(data));
+        } catch (InvalidDataException e) {
+            sequentialError = e.getMessage();
+        }
+
+        RecordingSink sink = new RecordingSink();
+        RecordingSink secondAxisSink = new RecordingSink();
+        AbstractDataParser parser = factory.createDataParser(sink, secondAxisSink);
+        String error = null;
+        try {
+            new PipelinedStreamParser(factory, THREADS, BLOCK_SIZE).parse(parser,
+                    new ByteArrayInputStream(data.getBytes(UTF8)), UTF8);
+        } catch (InvalidDataException e) {
+            error = e.getMessage();
+        }
+
+        assertEquals(sequentialError, error);
+        if (error == null) {
+            assertEquals(sequentialParser.getStatistics().toString(), parser.getStatistics().toString());
+            assertEquals(sequentialParser.getLineCount(), parser.getLineCount());
+        }
+        assertTrue(sequentialSink.getCalls().size() > 1);
+        assertEquals(sequentialSink.getCalls(), sink.getCalls());
+        assertEquals(sequentialSecondAxisSink.getCalls(), secondAxisSink.getCalls());
+    }
+
+    /* ========================================================================
+     *
+     * Inner classes
+     */
+
+    private class Factory implements DataParserFactory {
+        public AbstractDataParser createDataParser(DataSink sink, DataSink secondAxisSink) {
+            AbstractDataParser parser = new ValueDataParser(new WhiteSpaceLineParser(), 0, new int[] {1, 2},
+                    m_hasHeader, true, false, sink);
+            if (m_secondAxis) {
+                parser.addSecondAxis(new int[] {3}, secondAxisSink);
+            }
+            return parser;
+        }
+    }
+}
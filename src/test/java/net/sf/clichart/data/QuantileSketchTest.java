@@ -0,0 +1,129 @@
+/* (C) Copyright 2026, by John Dickson
+ *
+ * Project Info:  https://github.com/captsens/clichart
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2.1 of the License, or
+ * (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ */
+
+package net.sf.clichart.data;
+
+import junit.framework.TestCase;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Unit tests for QuantileSketch
+ *
+ * @author johnd
+ */
+public class QuantileSketchTest extends TestCase {
+
+    /* ========================================================================
+     *
+     * Class (static) variables.
+     */
+
+    private static final double[] QUANTILES = {0, 0.01, 0.25, 0.5, 0.9, 0.95, 0.99, 0.999, 1};
+
+    /* ========================================================================
+     *
+     * Public methods
+     */
+
+    public void testEmpty() {
+        QuantileSketch sketch = new QuantileSketch();
+        assertEquals(0, sketch.getCount());
+        assertTrue(Double.isNaN(sketch.getQuantile(0.5)));
+    }
+
+    public void testSingleValue() {
+        QuantileSketch sketch = new QuantileSketch();
+        sketch.add(12.5);
+        sketch.add(Double.NaN);
+        assertEquals(1, sketch.getCount());
+        assertEquals(12.5, sketch.getQuantile(0), 0);
+        assertEquals(12.5, sketch.getQuantile(0.5), 0);
+        assertEquals(12.5, sketch.getQuantile(1), 0);
+    }
+
+    public void testAccuracy() {
+        // latency-like values, spanning several orders of magnitude
+        Random random = new Random(1);
+        double[] values = new double[100000];
+        QuantileSketch sketch = new QuantileSketch();
+        for (int i = 0; i < values.length; i++) {
+            values[i] = Math.exp(random.nextGaussian() * 2);
+            sketch.add(values[i]);
+        }
+        assertAccurate(values, sketch);
+    }
+
+    public void testAccuracy_negativeAndZero() {
+        Random random = new Random(2);
+        double[] values = new double[10000];
+        QuantileSketch sketch = new QuantileSketch();
+        for (int i = 0; i < values.length; i++) {
+            values[i] = i % 10 == 0 ? 0 : random.nextGaussian() * 1000;
+            sketch.add(values[i]);
+        }
+        assertAccurate(values, sketch);
+    }
+
+    public void testMerge() {
+        Random random = new Random(3);
+        double[] values = new double[30000];
+        QuantileSketch[] sketches = {new QuantileSketch(), new QuantileSketch(), new QuantileSketch()};
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextDouble() * (i % 3 + 1) * 100 - 50;
+            sketches[i % 3].add(values[i]);
+        }
+        QuantileSketch merged = new QuantileSketch();
+        for (int i = 0; i < sketches.length; i++) {
+            merged.merge(sketches[i]);
+        }
+        assertEquals(values.length, merged.getCount());
+        assertAccurate(values, merged);
+    }
+
+    public void testBoundedMemory() {
+        QuantileSketch sketch = new QuantileSketch();
+        for (int i = -300; i <= 300; i++) {
+            sketch.add(Math.pow(10, i));
+        }
+        assertTrue(sketch.getBinsAllocated() <= QuantileSketch.MAX_BINS * 2);
+        assertEquals(1e-300, sketch.getQuantile(0), 0);
+        assertEquals(1e300, sketch.getQuantile(1), 0);
+
+        // the highest values are still accurate
+        assertEquals(1e295, sketch.getQuantile(595 / 600.0), 1e295 * QuantileSketch.RELATIVE_ACCURACY);
+    }
+
+    /* ========================================================================
+     *
+     * Private methods
+     */
+
+    private void assertAccurate(double[] values, QuantileSketch sketch) {
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        for (int i = 0; i < QUANTILES.length; i++) {
+            double expected = sorted[(int) (QUANTILES[i] * (sorted.length - 1))];
+            assertEquals("Quantile " + QUANTILES[i], expected, sketch.getQuantile(QUANTILES[i]),
+                    Math.abs(expected) * QuantileSketch.RELATIVE_ACCURACY);
+        }
+    }
+}
@@ -0,0 +1,241 @@
+/* (C) Copyright 2026, by John Dickson
+ *
+ * Project Info:  https://github.com/captsens/clichart
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2.1 of the License, or
+ * (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ */
+
+package net.sf.clichart.data;
+
+import junit.framework.TestCase;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.List;
+
+/**
+ * Unit tests for RangeIndex.  Each test parses a range of a file with sorted x values via the index (with very small
+ * intervals), and checks that the sinks see the same values as when the whole file is parsed and filtered.
+ *
+ * @author johnd
+ */
+public class RangeIndexTest extends TestCase {
+
+    /* ========================================================================
+     *
+     * Class (static) variables.
+     */
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private static final String KEY = "test key";
+
+    private static final int INTERVAL = 100;
+
+    /* ========================================================================
+     *
+     * Instance variables.
+     */
+
+    private File m_file;
+
+    private boolean m_hasHeader = false;
+
+    /* ========================================================================
+     *
+     * Lifecycle methods
+     */
+
+    protected void setUp() throws Exception {
+        m_file = File.createTempFile("RangeIndexTest", ".txt");
+    }
+
+    protected void tearDown() throws Exception {
+        new RangeIndex(m_file, KEY).getIndexFile().delete();
+        m_file.delete();
+    }
+
+    /* ========================================================================
+     *
+     * Public methods
+     */
+
+    public void testParse() throws Exception {
+        m_hasHeader = true;
+        StringBuilder data = new StringBuilder("\n\nx a b\n");
+        for (int i = 0; i < 1000; i++) {
+            data.append(i).append(' ').append(i * 2).append(' ').append(i % 7).append(i % 3 == 0 ? "\r\n" : "\n");
+            if (i % 50 == 0) {
+                data.append("\n  \n");
+            }
+        }
+        writeFile(data.toString(), false);
+
+        assertSameAsFiltered("0", "10");
+        assertSameAsFiltered("1", "10");
+        assertSameAsFiltered("500", "600");
+        assertSameAsFiltered("500.5", null);
+        assertSameAsFiltered("-5", null);
+        assertSameAsFiltered("998", "2000");
+        assertSameAsFiltered("999", null);
+        assertSameAsFiltered("1000", null);
+    }
+
+    public void testParse_duplicateXValues() throws Exception {
+        StringBuilder data = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            data.append(i / 100).append(' ').append(i).append(' ').append(-i).append('\n');
+        }
+        writeFile(data.toString(), false);
+
+        for (int i = 0; i < 10; i++) {
+            assertSameAsFiltered(String.valueOf(i), String.valueOf(i + 1));
+        }
+    }
+
+    public void testParse_invalidLines() throws Exception {
+        StringBuilder data = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            data.append(i).append(' ').append(i).append(' ').append(i).append('\n');
+            if (i % 10 == 0) {
+                // no x value for the search points, but also skipped when parsing
+                data.append("\n").append(i).append('\n');
+            }
+        }
+        writeFile(data.toString(), false);
+
+        assertSameAsFiltered("333", "444");
+        try {
+            // a bad x value within the range is still reported
+            writeFile("1000 oops\n", true);
+            parseRange(new RangeIndex(m_file, KEY, INTERVAL), "999", null);
+            fail();
+        } catch (InvalidDataException expected) {}
+    }
+
+    public void testFindStart() throws Exception {
+        StringBuilder data = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            data.append(i).append(" 1 2\n");
+        }
+        writeFile(data.toString(), false);
+
+        long start = findStart(new RangeIndex(m_file, KEY, INTERVAL), "500");
+        String text = data.toString();
+        assertTrue(start > 0);
+        assertEquals('\n', text.charAt((int) start - 1));
+        int x = Integer.parseInt(text.substring((int) start, text.indexOf(' ', (int) start)));
+        assertTrue(x < 500);
+        // no more than an interval before the range
+        assertTrue(start + INTERVAL > text.indexOf("\n500 ") + 1);
+
+        assertEquals(0, findStart(new RangeIndex(m_file, KEY, INTERVAL), "3"));
+    }
+
+    public void testSaveAndOpen() throws Exception {
+        StringBuilder data = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            data.append(i).append(" 1 2\n");
+        }
+        writeFile(data.toString(), false);
+
+        RangeIndex index = new RangeIndex(m_file, KEY, INTERVAL);
+        assertFalse(index.open());
+        long start = findStart(index, "500");
+        index.save();
+        assertTrue(index.getIndexFile().isFile());
+
+        index = new RangeIndex(m_file, KEY, INTERVAL);
+        assertTrue(index.open());
+        assertEquals(start, findStart(index, "500"));
+
+        // the index is kept when the file is appended to, but not if it changes, or for a different key or interval
+        writeFile(data.toString(), false);
+        writeFile("1000 1 2\n", true);
+        assertTrue(new RangeIndex(m_file, KEY, INTERVAL).open());
+        assertFalse(new RangeIndex(m_file, "other key", INTERVAL).open());
+        assertFalse(new RangeIndex(m_file, KEY, INTERVAL * 2).open());
+        writeFile("x" + data.toString(), false);
+        assertFalse(new RangeIndex(m_file, KEY, INTERVAL).open());
+    }
+
+    public void testOpen_corrupt() throws Exception {
+        writeFile("1 2 3\n", false);
+        FileOutputStream out = new FileOutputStream(new RangeIndex(m_file, KEY, INTERVAL).getIndexFile());
+        out.write("CLIRANGE but not really".getBytes(UTF8));
+        out.close();
+        assertFalse(new RangeIndex(m_file, KEY, INTERVAL).open());
+    }
+
+    /* ========================================================================
+     *
+     * Private methods
+     */
+
+    /**
+     * Check that parsing the range via a new index gives the same values as parsing and filtering the whole file
+     */
+    private void assertSameAsFiltered(String from, String to) throws Exception {
+        RecordingSink sink = new RecordingSink(false, false);
+        AbstractDataParser parser = createParser(sink);
+        parser.setXRange(from, to, false);
+        FileChannel channel = new RandomAccessFile(m_file, "r").getChannel();
+        try {
+            parser.parse(new ByteLineReader(channel, 0, channel.size(), 1, UTF8));
+        } finally {
+            channel.close();
+        }
+
+        assertEquals(from + " to " + to, sink.getCalls(), parseRange(new RangeIndex(m_file, KEY, INTERVAL), from, to));
+    }
+
+    private List<String> parseRange(RangeIndex index, String from, String to) throws Exception {
+        RecordingSink sink = new RecordingSink(false, false);
+        AbstractDataParser parser = createParser(sink);
+        parser.setXRange(from, to, true);
+        FileChannel channel = new RandomAccessFile(m_file, "r").getChannel();
+        try {
+            index.parse(parser, channel, UTF8);
+        } finally {
+            channel.close();
+        }
+        return sink.getCalls();
+    }
+
+    private long findStart(RangeIndex index, String from) throws Exception {
+        AbstractDataParser parser = createParser(new RecordingSink(false, false));
+        parser.setXRange(from, null, true);
+        FileChannel channel = new RandomAccessFile(m_file, "r").getChannel();
+        try {
+            return index.findStart(parser, channel, UTF8);
+        } finally {
+            channel.close();
+        }
+    }
+
+    private AbstractDataParser createParser(PrimitiveDataSink sink) {
+        return new ValueDataParser(new WhiteSpaceLineParser(), 0, new int[] {1, 2}, m_hasHeader, true, false, sink);
+    }
+
+    private void writeFile(String data, boolean append) throws Exception {
+        FileOutputStream out = new FileOutputStream(m_file, append);
+        out.write(data.getBytes(UTF8));
+        out.close();
+    }
+}
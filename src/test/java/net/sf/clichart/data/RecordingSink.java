@@ -0,0 +1,123 @@
+/* (C) Copyright 2026, by John Dickson
+ *
+ * Project Info:  https://github.com/captsens/clichart
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2.1 of the License, or
+ * (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ */
+
+package net.sf.clichart.data;
+
+import junit.framework.Assert;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A sink for unit tests, which records the calls made to it as strings so they can be compared, e.g. "header a b",
+ * "12: 3.0 0 1.5 2.0" (line number, x value, missing values mask, y values) or "finished".
+ *
+ * @author johnd
+ */
+class RecordingSink implements KeyedDataSink {
+
+    /* ========================================================================
+     *
+     * Instance variables.
+     */
+
+    private final boolean m_maskMissingValues;
+    private final boolean m_includeLineNumbers;
+
+    private final List<String> m_calls = new ArrayList<String>();
+    private final List<Integer> m_lineNumbers = new ArrayList<Integer>();
+
+    /* ========================================================================
+     *
+     * Constructors
+     */
+
+    /**
+     * Record all y values, and the line numbers
+     */
+    public RecordingSink() {
+        this(false, true);
+    }
+
+    /**
+     * @param maskMissingValues  True to leave out the y values which are flagged as missing
+     * @param includeLineNumbers  True to start each data call with its line number
+     */
+    public RecordingSink(boolean maskMissingValues, boolean includeLineNumbers) {
+        m_maskMissingValues = maskMissingValues;
+        m_includeLineNumbers = includeLineNumbers;
+    }
+
+    /* ========================================================================
+     *
+     * Public methods
+     */
+
+    public void headerParsed(String[] headers) {
+        StringBuilder call = new StringBuilder("header");
+        for (int i = 0; i < headers.length; i++) {
+            call.append(' ').append(headers[i]);
+        }
+        m_calls.add(call.toString());
+    }
+
+    public void dataParsed(Object xValue, Object[] yValues, int lineNumber) {
+        Assert.fail("Should only be passed primitives");
+    }
+
+    public void dataParsed(double xValue, double[] yValues, long missingValues, int valueCount, int lineNumber) {
+        StringBuilder call = new StringBuilder();
+        if (m_includeLineNumbers) {
+            call.append(lineNumber).append(": ");
+        }
+        call.append(xValue).append(' ').append(missingValues);
+        for (int i = 0; i < valueCount; i++) {
+            if (!m_maskMissingValues || (missingValues & (1L << i)) == 0) {
+                call.append(' ').append(yValues[i]);
+            }
+        }
+        m_calls.add(call.toString());
+        m_lineNumbers.add(lineNumber);
+    }
+
+    public void dataParsed(String key, double xValue, double[] yValues, long missingValues, int valueCount,
+            int lineNumber) {
+        dataParsed(xValue, yValues, missingValues, valueCount, lineNumber);
+        m_calls.add(m_calls.remove(m_calls.size() - 1) + " key " + key);
+    }
+
+    public void parsingFinished() {
+        m_calls.add("finished");
+    }
+
+    /**
+     * Return the calls made so far
+     */
+    public List<String> getCalls() {
+        return m_calls;
+    }
+
+    /**
+     * Return the line number passed with each data call so far
+     */
+    public List<Integer> getLineNumbers() {
+        return m_lineNumbers;
+    }
+}
@@ -0,0 +1,85 @@
+/* (C) Copyright 2026, by John Dickson
+ *
+ * Project Info:  https://github.com/captsens/clichart
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2.1 of the License, or
+ * (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ */
+
+package net.sf.clichart.data;
+
+import junit.framework.TestCase;
+
+import java.util.Arrays;
+
+/**
+ * Unit tests for RegexLineParser
+ *
+ * @author johnd
+ */
+public class RegexLineParserTest extends TestCase {
+
+    /* ========================================================================
+     *
+     * Public methods
+     */
+
+    public void testParseLine() {
+        RegexLineParser parser = new RegexLineParser("^(\\S+) (?<method>GET|POST) \\S+ took (\\d+) ms");
+        assertEquals("[10:00:01, GET, 25]", Arrays.toString(parser.parseLine("10:00:01 GET /index took 25 ms", 1)));
+        assertEquals("[10:00:02, POST, 3]", Arrays.toString(parser.parseLine("10:00:02 POST /a took 3 ms!", 2)));
+        assertNull(parser.parseLine("10:00:03 starting", 3));
+        assertNull(parser.parseLine("10:00:04 PUT /a took 3 ms", 4));
+    }
+
+    public void testParseFields_optionalGroup() {
+        RegexLineParser parser = new RegexLineParser("(\\d+)(?: \\((\\d+)\\))?");
+        LineFields fields = parser.parseFields("value 12 (34)", 1);
+        assertEquals(2, fields.getFieldCount());
+        assertEquals("12", fields.getField(0));
+        assertEquals("34", fields.getField(1));
+
+        fields = parser.parseFields("value 12", 1);
+        assertEquals(2, fields.getFieldCount());
+        assertEquals("", fields.getField(1));
+    }
+
+    public void testParseFields_requiredColumns() {
+        RegexLineParser parser = new RegexLineParser("(\\w+) (\\w+) (\\w+) (\\w+)");
+        parser.setRequiredColumns(new boolean[] {false, true, true});
+        LineFields fields = parser.parseFields("a b c d", 1);
+        assertEquals(3, fields.getFieldCount());
+        assertEquals("", fields.getField(0));
+        assertEquals("b", fields.getField(1));
+        assertEquals("c", fields.getField(2));
+    }
+
+    public void testFindRequiredText() {
+        assertEquals(" ms", RegexLineParser.findRequiredText("t (\\d+) ms"));
+        assertEquals("took ", RegexLineParser.findRequiredText("took (\\d+)"));
+        assertEquals("latency=", RegexLineParser.findRequiredText("^\\S+ .*latency=(\\d+)"));
+        assertEquals("a.b", RegexLineParser.findRequiredText("x?a\\.bc*d"));
+        assertEquals("ab", RegexLineParser.findRequiredText("ab+c"));
+        assertEquals("\t", RegexLineParser.findRequiredText("\\t"));
+        assertEquals("[x]", RegexLineParser.findRequiredText("[a]\\[x\\]"));
+        assertEquals(" end", RegexLineParser.findRequiredText("\\p{Alpha}{2,3}\\x41\\u0041\\Qnotused\\E end"));
+        assertEquals("y", RegexLineParser.findRequiredText("[^]\\]x]y"));
+
+        assertNull(RegexLineParser.findRequiredText("(\\d+)"));
+        assertNull(RegexLineParser.findRequiredText("took|spent (\\d+)"));
+        assertNull(RegexLineParser.findRequiredText("(?i)took (\\d+)"));
+        assertNull(RegexLineParser.findRequiredText("a?(b)c*"));
+    }
+}
@@ -0,0 +1,171 @@
+/* (C) Copyright 2026, by John Dickson
+ *
+ * Project Info:  https://github.com/captsens/clichart
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2.1 of the License, or
+ * (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ */
+
+package net.sf.clichart.data;
+
+import junit.framework.TestCase;
+
+import java.util.TimeZone;
+
+/**
+ * Unit tests for ResamplingDataSink
+ *
+ * @author johnd
+ */
+public class ResamplingDataSinkTest extends TestCase {
+
+    /* ========================================================================
+     *
+     * Class (static) variables.
+     */
+
+    private static final int[] ALL_STATISTICS = {ResamplingDataSink.STATISTIC_MIN, ResamplingDataSink.STATISTIC_MAX,
+            ResamplingDataSink.STATISTIC_AVERAGE, ResamplingDataSink.STATISTIC_TOTAL,
+            ResamplingDataSink.STATISTIC_COUNT};
+
+    /* ========================================================================
+     *
+     * Instance variables.
+     */
+
+    private RecordingSink m_target = new RecordingSink(true, true);
+
+    /* ========================================================================
+     *
+     * Public methods
+     */
+
+    public void testAverage() throws Exception {
+        ResamplingDataSink sink = new ResamplingDataSink(m_target, 2, 10,
+                new int[] {ResamplingDataSink.STATISTIC_AVERAGE}, null);
+        sink.headerParsed(new String[] {"a", "b"});
+        for (int i = 0; i < 25; i++) {
+            sink.dataParsed(i, new double[] {i, -i}, 0, 2, i + 2);
+        }
+        sink.parsingFinished();
+
+        assertEquals(5, m_target.getCalls().size());
+        assertEquals("header a b", m_target.getCalls().get(0));
+        assertEquals("2: 0.0 0 4.5 -4.5", m_target.getCalls().get(1));
+        assertEquals("12: 10.0 0 14.5 -14.5", m_target.getCalls().get(2));
+        assertEquals("22: 20.0 0 22.0 -22.0", m_target.getCalls().get(3));
+        assertEquals("finished", m_target.getCalls().get(4));
+    }
+
+    public void testAllStatistics() throws Exception {
+        ResamplingDataSink sink = new ResamplingDataSink(m_target, 2, 100, ALL_STATISTICS, null);
+        sink.headerParsed(new String[] {"a", null});
+        sink.dataParsed(101, new double[] {3, 0}, 2, 2, 1);
+        sink.dataParsed(150, new double[] {-1, 0}, 2, 2, 2);
+        sink.dataParsed(199, new double[] {4}, 0, 1, 3);
+        sink.parsingFinished();
+
+        assertEquals("header a (min) a (max) a (av) a (tot) a (cnt) null null null null null",
+                m_target.getCalls().get(0));
+        // the second column has no values, so all its statistics except the count are missing
+        assertEquals("1: 100.0 " + (0xfL << 5) + " -1.0 4.0 2.0 6.0 3.0 0.0", m_target.getCalls().get(1));
+    }
+
+    public void testUnordered() throws Exception {
+        ResamplingDataSink sink = new ResamplingDataSink(m_target, 1, 2.5,
+                new int[] {ResamplingDataSink.STATISTIC_MAX, ResamplingDataSink.STATISTIC_COUNT}, null);
+        for (int i = 0; i < 10; i++) {
+            sink.dataParsed(-i, new double[] {i}, 0, 1, i + 1);
+        }
+        sink.parsingFinished();
+
+        assertEquals("9: -10.0 0 9.0 2.0", m_target.getCalls().get(0));
+        assertEquals("7: -7.5 0 7.0 2.0", m_target.getCalls().get(1));
+        assertEquals("4: -5.0 0 5.0 3.0", m_target.getCalls().get(2));
+        assertEquals("2: -2.5 0 2.0 2.0", m_target.getCalls().get(3));
+        assertEquals("1: 0.0 0 0.0 1.0", m_target.getCalls().get(4));
+        assertEquals("finished", m_target.getCalls().get(5));
+    }
+
+    public void testTimeZoneAlignment() throws Exception {
+        long hour = 60 * 60 * 1000;
+        ResamplingDataSink sink = new ResamplingDataSink(m_target, 1, hour,
+                new int[] {ResamplingDataSink.STATISTIC_COUNT}, TimeZone.getTimeZone("GMT+05:30"));
+        for (int i = 0; i < 8; i++) {
+            sink.dataParsed(i * 15 * 60 * 1000, new double[] {i}, 0, 1, i + 1);
+        }
+        sink.parsingFinished();
+
+        // buckets start on the local hour, i.e. half past the hour UTC
+        assertEquals("1: " + (double) -hour / 2 + " 0 2.0", m_target.getCalls().get(0));
+        assertEquals("3: " + (double) hour / 2 + " 0 4.0", m_target.getCalls().get(1));
+        assertEquals("7: " + (double) hour * 3 / 2 + " 0 2.0", m_target.getCalls().get(2));
+    }
+
+    public void testPercentiles() throws Exception {
+        int[] statistics = {ResamplingDataSink.getStatistic("p50"), ResamplingDataSink.getStatistic("p99.9")};
+        ResamplingDataSink sink = new ResamplingDataSink(m_target, 1, 1000, statistics, null);
+        sink.headerParsed(new String[] {"latency"});
+        for (int i = 0; i < 3000; i++) {
+            sink.dataParsed(i, new double[] {i % 1000 + 1}, 0, 1, i + 1);
+        }
+        sink.parsingFinished();
+
+        assertEquals("header latency (p50) latency (p99.9)", m_target.getCalls().get(0));
+        for (int i = 1; i <= 3; i++) {
+            String[] values = m_target.getCalls().get(i).split(" ");
+            assertEquals(500, Double.parseDouble(values[3]), 5);
+            assertEquals(999, Double.parseDouble(values[4]), 10);
+        }
+    }
+
+    public void testDistinctKeys() throws Exception {
+        ResamplingDataSink sink = new ResamplingDataSink(m_target, 1, 10,
+                new int[] {ResamplingDataSink.STATISTIC_COUNT}, null, true);
+        sink.headerParsed(new String[] {"a"});
+        for (int i = 0; i < 20; i++) {
+            sink.dataParsed("user" + (i < 10 ? i % 3 : i), i, new double[] {i}, 0, 1, i + 1);
+        }
+        // unkeyed lines are still counted, but have no key
+        sink.dataParsed(25, new double[] {1}, 0, 1, 21);
+        sink.parsingFinished();
+
+        assertEquals("header a Distinct", m_target.getCalls().get(0));
+        assertEquals("1: 0.0 0 10.0 3.0", m_target.getCalls().get(1));
+        assertEquals("11: 10.0 0 10.0 10.0", m_target.getCalls().get(2));
+        assertEquals("21: 20.0 0 1.0 0.0", m_target.getCalls().get(3));
+    }
+
+    public void testDistinctKeys_notCounted() throws Exception {
+        ResamplingDataSink sink = new ResamplingDataSink(m_target, 1, 10,
+                new int[] {ResamplingDataSink.STATISTIC_COUNT}, null);
+        sink.dataParsed("a", 1, new double[] {1}, 0, 1, 1);
+        sink.dataParsed("b", 2, new double[] {1}, 0, 1, 2);
+        sink.parsingFinished();
+
+        assertEquals("1: 0.0 0 2.0", m_target.getCalls().get(0));
+    }
+
+    public void testGetStatistic() {
+        assertEquals(ResamplingDataSink.STATISTIC_AVERAGE, ResamplingDataSink.getStatistic("av"));
+        assertEquals(ResamplingDataSink.STATISTIC_COUNT, ResamplingDataSink.getStatistic("cnt"));
+        assertEquals(-1, ResamplingDataSink.getStatistic("mean"));
+        assertEquals(ResamplingDataSink.STATISTIC_PERCENTILE + 995, ResamplingDataSink.getStatistic("p99.5"));
+        assertEquals(-1, ResamplingDataSink.getStatistic("p99.95"));
+        assertEquals(-1, ResamplingDataSink.getStatistic("p101"));
+        assertEquals("p99.5", ResamplingDataSink.getStatisticName(ResamplingDataSink.STATISTIC_PERCENTILE + 995));
+        assertEquals("p50", ResamplingDataSink.getStatisticName(ResamplingDataSink.STATISTIC_PERCENTILE + 500));
+    }
+}
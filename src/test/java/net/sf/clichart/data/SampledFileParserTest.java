@@ -0,0 +1,193 @@
+/* (C) Copyright 2026, by John Dickson
+ *
+ * Project Info:  https://github.com/captsens/clichart
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2.1 of the License, or
+ * (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ */
+
+package net.sf.clichart.data;
+
+import junit.framework.TestCase;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.List;
+
+/**
+ * Unit tests for SampledFileParser
+ *
+ * @author johnd
+ */
+public class SampledFileParserTest extends TestCase {
+
+    /* ========================================================================
+     *
+     * Class (static) variables.
+     */
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    /* ========================================================================
+     *
+     * Instance variables.
+     */
+
+    private File m_file;
+
+    /* ========================================================================
+     *
+     * Lifecycle methods
+     */
+
+    protected void tearDown() throws Exception {
+        if (m_file != null) {
+            m_file.delete();
+        }
+    }
+
+    /* ========================================================================
+     *
+     * Public methods
+     */
+
+    public void testParse_wholeFile() throws Exception {
+        StringBuilder data = new StringBuilder("x a\n");
+        for (int i = 0; i < 5000; i++) {
+            data.append(i).append(' ').append(i * 2).append(i % 3 == 0 ? "\r\n" : "\n");
+            if (i % 50 == 0) {
+                data.append("\n  \n");
+            }
+        }
+        FileChannel channel = openFile(data.toString());
+        try {
+            RecordingSink sequentialSink = new RecordingSink();
+            AbstractDataParser sequentialParser = createDataParser(sequentialSink);
+            sequentialParser.parse(new ByteLineReader(channel, 0, channel.size(), 1, UTF8));
+
+            RecordingSink sink = new RecordingSink();
+            AbstractDataParser parser = createDataParser(sink);
+            new SampledFileParser(1, 10).parse(parser, channel, UTF8);
+
+            assertEquals(sequentialSink.getCalls(), sink.getCalls());
+            assertEquals(sequentialParser.getStatistics().toString(), parser.getStatistics().toString());
+        } finally {
+            channel.close();
+        }
+    }
+
+    public void testParse_sample() throws Exception {
+        StringBuilder data = new StringBuilder("x a\n");
+        for (int i = 0; i < 100000; i++) {
+            data.append(i).append(' ').append(i % 10).append('\n');
+        }
+        FileChannel channel = openFile(data.toString());
+        try {
+            RecordingSink sink = new RecordingSink();
+            new SampledFileParser(0.01, 20).parse(createDataParser(sink), channel, UTF8);
+
+            List<String> calls = sink.getCalls();
+            assertEquals("header a", calls.get(0));
+            assertEquals("finished", calls.get(calls.size() - 1));
+            int lineCount = calls.size() - 2;
+            assertTrue("Parsed " + lineCount + " lines", lineCount >= 900 && lineCount <= 1100);
+
+            // samples are 20 consecutive lines (the first including the header), in file order, with line numbers
+            // estimated from the lengths of the lines sampled (which are shorter at the start of the file)
+            int runLength = 1;
+            double lastX = -1;
+            int lastLineNumber = 0;
+            for (int i = 1; i <= lineCount; i++) {
+                String[] fields = calls.get(i).split(" ");
+                int lineNumber = Integer.parseInt(fields[0].substring(0, fields[0].length() - 1));
+                double x = Double.parseDouble(fields[1]);
+                assertTrue(x > lastX);
+                assertTrue(lineNumber > lastLineNumber);
+                assertTrue(calls.get(i), Math.abs(lineNumber - (x + 2)) <= (x + 2) / 2);
+                if (x == lastX + 1) {
+                    runLength++;
+                } else {
+                    assertEquals(20, runLength);
+                    runLength = 1;
+                }
+                lastX = x;
+                lastLineNumber = lineNumber;
+            }
+        } finally {
+            channel.close();
+        }
+    }
+
+    public void testParse_longLines() throws Exception {
+        // sample lines don't fit in the first part of the file mapped
+        StringBuilder padding = new StringBuilder();
+        for (int i = 0; i < 10000; i++) {
+            padding.append(' ');
+        }
+        StringBuilder data = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            data.append(i).append(padding).append(i * 2).append('\n');
+        }
+        FileChannel channel = openFile(data.toString());
+        try {
+            RecordingSink sink = new RecordingSink();
+            AbstractDataParser parser = new ValueDataParser(new WhiteSpaceLineParser(), 0, new int[] {1}, false, true,
+                    false, sink);
+            new SampledFileParser(0.1, 10).parse(parser, channel, UTF8);
+
+            int lineCount = sink.getCalls().size() - 1;
+            assertTrue("Parsed " + lineCount + " lines", lineCount >= 100 && lineCount <= 120);
+            assertEquals("1: 0.0 0 0.0", sink.getCalls().get(0));
+            assertEquals("10: 9.0 0 18.0", sink.getCalls().get(9));
+        } finally {
+            channel.close();
+        }
+    }
+
+    public void testFindLinesEnd() throws Exception {
+        ByteBuffer bytes = ByteBuffer.wrap("a\r\nb\rc\n\nd".getBytes(UTF8));
+        assertEquals(3, SampledFileParser.findLinesEnd(bytes, 1));
+        assertEquals(5, SampledFileParser.findLinesEnd(bytes, 2));
+        assertEquals(8, SampledFileParser.findLinesEnd(bytes, 4));
+        assertEquals(-1, SampledFileParser.findLinesEnd(bytes, 5));
+
+        bytes.position(3);
+        assertEquals(2, SampledFileParser.findLinesEnd(bytes, 1));
+
+        // a CR at the end may be followed by an LF
+        assertEquals(-1, SampledFileParser.findLinesEnd(ByteBuffer.wrap("a\r".getBytes(UTF8)), 1));
+    }
+
+    /* ========================================================================
+     *
+     * Private methods
+     */
+
+    private AbstractDataParser createDataParser(DataSink sink) {
+        return new ValueDataParser(new WhiteSpaceLineParser(), 0, new int[] {1}, true, true, false, sink);
+    }
+
+    private FileChannel openFile(String data) throws Exception {
+        m_file = File.createTempFile("SampledFileParserTest", ".txt");
+        FileOutputStream out = new FileOutputStream(m_file);
+        out.write(data.getBytes(UTF8));
+        out.close();
+        return new RandomAccessFile(m_file, "r").getChannel();
+    }
+}
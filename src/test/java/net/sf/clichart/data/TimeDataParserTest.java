@@ -303,6 +303,7 @@ public class TimeDataParserTest extends TestCase {
         m_sinkMock.dataParsed(parseDate(TIME_23_59), getParsedTestDataLine(2, columnIndexes), lineNumbers[2]);
         m_sinkMock.dataParsed(parseDate(TIME_23_59), getParsedTestDataLine(2, secondAxisColumnIndexes), lineNumbers[2]);
         m_sinkMock.parsingFinished();
+        m_sinkMock.parsingFinished();
         replay();
 
         TimeDataParser parser = new TimeDataParser(m_lineParserMock, null, 0, columnIndexes, false, false,
@@ -329,6 +330,7 @@ public class TimeDataParserTest extends TestCase {
         m_sinkMock.dataParsed(parseDate(TIME_23_59), getParsedTestDataLine(2, columnIndexes), 3);
         m_sinkMock.dataParsed(parseDate(TIME_23_59), getParsedTestDataLine(2, secondAxisColumnIndexes), 3);
         m_sinkMock.parsingFinished();
+        m_sinkMock.parsingFinished();
         replay();
 
         TimeDataParser parser = new TimeDataParser(m_lineParserMock, null, 0, columnIndexes, true, false, false, 
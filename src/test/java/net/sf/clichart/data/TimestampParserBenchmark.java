@@ -0,0 +1,122 @@
+/* (C) Copyright 2026, by John Dickson
+ *
+ * Project Info:  https://github.com/captsens/clichart
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2.1 of the License, or
+ * (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ */
+
+package net.sf.clichart.data;
+
+import java.text.DateFormat;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+/**
+ * Compares the speed of TimestampParser with the non-lenient SimpleDateFormat previously used by TimeDataParser.
+ * Not a unit test - run the main method, optionally with the number of values to parse (default 1,000,000).
+ *
+ * @author johnd
+ */
+public class TimestampParserBenchmark {
+
+    /* ========================================================================
+     *
+     * Class (static) variables.
+     */
+
+    private static final String[] PATTERNS = {
+        "HH:mm", "HH:mm:ss", "yyyy-MM-dd HH:mm:ss", "yyyy-MM-dd'T'HH:mm:ss.SSS", "dd/MMM/yyyy:HH:mm:ss"
+    };
+
+    private static final int ROUNDS = 5;
+
+    /* ========================================================================
+     *
+     * Static methods
+     */
+
+    public static void main(String[] args) throws Exception {
+        int valueCount = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+
+        for (int i = 0; i < PATTERNS.length; i++) {
+            String[] values = buildValues(PATTERNS[i], valueCount);
+            char[][] chars = new char[values.length][];
+            for (int j = 0; j < values.length; j++) {
+                chars[j] = values[j].toCharArray();
+            }
+
+            long simpleDateFormatNanos = Long.MAX_VALUE;
+            long timestampParserNanos = Long.MAX_VALUE;
+            long check = 0;
+            for (int round = 0; round < ROUNDS; round++) {
+                long start = System.nanoTime();
+                check += parseWithSimpleDateFormat(PATTERNS[i], values);
+                simpleDateFormatNanos = Math.min(simpleDateFormatNanos, System.nanoTime() - start);
+
+                start = System.nanoTime();
+                check -= parseWithTimestampParser(PATTERNS[i], chars);
+                timestampParserNanos = Math.min(timestampParserNanos, System.nanoTime() - start);
+            }
+
+            System.out.println(PATTERNS[i] + ": SimpleDateFormat " + nanosPerValue(simpleDateFormatNanos, valueCount)
+                    + " ns/value, TimestampParser " + nanosPerValue(timestampParserNanos, valueCount)
+                    + " ns/value, speedup " + (simpleDateFormatNanos / Math.max(1, timestampParserNanos)) + "x"
+                    + (check == 0 ? "" : " (RESULTS DIFFER)"));
+        }
+    }
+
+    /* ========================================================================
+     *
+     * Private methods
+     */
+
+    /**
+     * Values one second apart, as in a typical log file
+     */
+    private static String[] buildValues(String pattern, int valueCount) {
+        DateFormat format = new SimpleDateFormat(pattern);
+        long start = System.currentTimeMillis() / 1000 * 1000;
+        String[] values = new String[valueCount];
+        for (int i = 0; i < valueCount; i++) {
+            values[i] = format.format(new Date(start + i * 1000L + i % 1000));
+        }
+        return values;
+    }
+
+    private static long parseWithSimpleDateFormat(String pattern, String[] values) throws Exception {
+        // as TimeDataParser.parseXValueImpl() used to do
+        DateFormat format = new SimpleDateFormat(pattern);
+        format.setLenient(false);
+        long total = 0;
+        for (int i = 0; i < values.length; i++) {
+            total += format.parse(values[i]).getTime();
+        }
+        return total;
+    }
+
+    private static long parseWithTimestampParser(String pattern, char[][] values) throws Exception {
+        TimestampParser parser = new TimestampParser(pattern);
+        long total = 0;
+        for (int i = 0; i < values.length; i++) {
+            total += parser.parse(values[i], 0, values[i].length, i + 1);
+        }
+        return total;
+    }
+
+    private static long nanosPerValue(long nanos, int valueCount) {
+        return nanos / valueCount;
+    }
+}
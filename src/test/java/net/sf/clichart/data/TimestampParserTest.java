@@ -0,0 +1,185 @@
+/* (C) Copyright 2026, by John Dickson
+ *
+ * Project Info:  https://github.com/captsens/clichart
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2.1 of the License, or
+ * (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ */
+
+package net.sf.clichart.data;
+
+import junit.framework.TestCase;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.TimeZone;
+
+/**
+ * Unit tests for TimestampParser, mostly checking that it gives the same results as a non-lenient SimpleDateFormat
+ *
+ * @author johnd
+ */
+public class TimestampParserTest extends TestCase {
+
+    /* ========================================================================
+     *
+     * Instance variables.
+     */
+
+    private TimeZone m_defaultTimeZone;
+
+    /* ========================================================================
+     *
+     * Lifecycle methods
+     */
+
+    protected void setUp() throws Exception {
+        m_defaultTimeZone = TimeZone.getDefault();
+        // has daylight saving, with transitions at 2am or 3am local time
+        TimeZone.setDefault(TimeZone.getTimeZone("Australia/Sydney"));
+    }
+
+    protected void tearDown() throws Exception {
+        TimeZone.setDefault(m_defaultTimeZone);
+    }
+
+    /* ========================================================================
+     *
+     * Public methods
+     */
+
+    public void testParse_fastPath() throws Exception {
+        assertSameAsSimpleDateFormat("HH:mm", new String[]{"00:00", "00:17", "07:32", "23:59", "7:5", "12:34:56",
+                " 12: 34"}, true);
+        assertSameAsSimpleDateFormat("HH:mm:ss", new String[]{"00:00:00", "23:59:59", "12:34:56.789"}, true);
+        assertSameAsSimpleDateFormat("yyyy-MM-dd HH:mm:ss", new String[]{"2024-02-29 12:00:00",
+                "1999-12-31 23:59:59", "1970-01-01 00:00:00", "2023-10-01 01:59:59", "2023-10-01 03:00:00",
+                "2023-04-02 02:30:00", "2023-04-02 03:30:00"}, true);
+        assertSameAsSimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS", new String[]{"2024-06-15T08:09:10.123",
+                "2024-06-15T08:09:10.5", "2024-06-15T08:09:10.999"}, true);
+        assertSameAsSimpleDateFormat("dd/MM/yyyy HH:mm", new String[]{"31/12/2023 23:59", "1/1/2024 0:00"}, true);
+        assertSameAsSimpleDateFormat("HH", new String[]{"0", "13", "23"}, true);
+    }
+
+    public void testParse_fastPath_invalid() throws Exception {
+        assertInvalid("HH:mm", new String[]{"", "24:00", "12:60", "12-30", "12:", ":30", "ab:cd"});
+        assertInvalid("yyyy-MM-dd HH:mm:ss", new String[]{"2023-02-29 12:00:00", "2023-13-01 12:00:00",
+                "2023-00-01 12:00:00", "2023-04-31 12:00:00", "2023-04-30 12:00:60", "2023-04-30",
+                // in the daylight saving gap
+                "2023-10-01 02:30:00"});
+        assertInvalid("yyyy-MM-dd'T'HH:mm:ss.SSS", new String[]{"2024-06-15T08:09:10.1000"});
+    }
+
+    public void testParse_generalPath() throws Exception {
+        assertSameAsSimpleDateFormat("dd/MM/yy", new String[]{"01/02/03", "31/12/99", "15/06/2024"}, false);
+        assertSameAsSimpleDateFormat("yyyyMMddHHmmss", new String[]{"20240615080910", "19991231235959"}, false);
+        assertSameAsSimpleDateFormat("HH:mm:ss,SSS 'UTC'", new String[]{"12:34:56,789 UTC"}, false);
+        assertSameAsSimpleDateFormat("hh:mm a", new String[]{"12:30 AM", "12:30 PM", "01:15 pm", "11:59 PM"},
+                false);
+        assertSameAsSimpleDateFormat("MMM dd HH:mm:ss", new String[]{"Jan 01 00:00:00", "Dec 31 23:59:59",
+                "jun 15 12:00:00"}, false);
+    }
+
+    public void testParse_generalPath_invalid() throws Exception {
+        assertInvalid("dd/MM/yy", new String[]{"31/02/03", "01/13/03", "x"});
+        assertInvalid("hh:mm a", new String[]{"13:00 PM", "12:00 XM"});
+        assertInvalid("MMM dd HH:mm:ss", new String[]{"Foo 01 00:00:00"});
+    }
+
+    public void testParse_fallback() throws Exception {
+        TimestampParser parser = new TimestampParser("D HH:mm");
+        assertTrue(parser.isFallback());
+        assertSameAsSimpleDateFormat("D HH:mm", new String[]{"32 12:00", "365 23:59"}, false);
+        assertInvalid("D HH:mm", new String[]{"32"});
+    }
+
+    public void testParse_invalidPattern() {
+        try {
+            new TimestampParser("HH:mm qq");
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    public void testParse_charRange() throws Exception {
+        char[] chars = "x,12:34,y".toCharArray();
+        TimestampParser parser = new TimestampParser("HH:mm");
+        assertEquals(new SimpleDateFormat("HH:mm").parse("12:34").getTime(), parser.parse(chars, 2, 7, 1));
+        try {
+            parser.parse(chars, 0, 1, 9);
+            fail("Expected InvalidDataException");
+        } catch (InvalidDataException e) {
+            assertEquals("Invalid date: [x], line 9", e.getMessage());
+        }
+    }
+
+    public void testParse_hourCache() throws Exception {
+        // consecutive values within the same hour, in both directions across a daylight saving transition
+        TimestampParser parser = new TimestampParser("yyyy-MM-dd HH:mm:ss");
+        SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+        String[] days = {"2023-04-02", "2023-10-01", "2024-01-15"};
+        for (int d = 0; d < days.length; d++) {
+            for (int minute = 0; minute < 24 * 60; minute += 7) {
+                if (days[d].equals("2023-10-01") && minute / 60 == 2) {
+                    // in the daylight saving gap (tested above)
+                    continue;
+                }
+                String value = days[d] + " " + pad(minute / 60) + ":" + pad(minute % 60) + ":" + pad(minute % 59);
+                assertEquals(value, format.parse(value).getTime(), parser.parse(value, 1));
+            }
+        }
+    }
+
+    /* ========================================================================
+     *
+     * Private methods
+     */
+
+    private void assertSameAsSimpleDateFormat(String pattern, String[] values, boolean fastPath) throws Exception {
+        TimestampParser parser = new TimestampParser(pattern);
+        assertEquals(pattern, fastPath, parser.isFastPath());
+
+        SimpleDateFormat format = new SimpleDateFormat(pattern);
+        format.setLenient(false);
+        for (int i = 0; i < values.length; i++) {
+            assertEquals(pattern + " " + values[i], format.parse(values[i]).getTime(), parser.parse(values[i], 1));
+        }
+    }
+
+    private void assertInvalid(String pattern, String[] values) throws Exception {
+        TimestampParser parser = new TimestampParser(pattern);
+        SimpleDateFormat format = new SimpleDateFormat(pattern);
+        format.setLenient(false);
+        for (int i = 0; i < values.length; i++) {
+            try {
+                format.parse(values[i]);
+                fail("SimpleDateFormat accepted " + values[i]);
+            } catch (ParseException e) {
+                // expected
+            }
+            try {
+                parser.parse(values[i], 1);
+                fail("Expected InvalidDataException for " + pattern + " " + values[i]);
+            } catch (InvalidDataException e) {
+                assertTrue(e.getMessage().startsWith("Invalid date"));
+            }
+        }
+    }
+
+    private String pad(int value) {
+        return value < 10 ? "0" + value : "" + value;
+    }
+}
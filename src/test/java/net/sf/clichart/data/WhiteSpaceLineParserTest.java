@@ -61,6 +61,17 @@ public class WhiteSpaceLineParserTest extends TestCase {
         assertArrayEquals(new String[]{"Hello", "to", "you", "too"}, m_parser.parseLine("  Hello to you    too   ", 1));
         assertArrayEquals(new String[]{"Hello", "to", "you", "too"}, m_parser.parseLine("Hello   to \t you\ttoo", 1));
         assertArrayEquals(new String[]{}, m_parser.parseLine("", 1));
+        assertArrayEquals(new String[]{}, m_parser.parseLine(" \t ", 1));
+    }
+
+    public void testParseFields_requiredColumns() {
+        m_parser.setRequiredColumns(new boolean[]{true, false, true});
+        assertArrayEquals(new String[]{"Hello", "", "you"}, m_parser.parseLine(" Hello to  you too", 1));
+        assertArrayEquals(new String[]{"Hello", ""}, m_parser.parseLine("Hello to", 1));
+
+        LineFields fields = m_parser.parseFields("1 2 3 4 5", 1);
+        assertEquals(3, fields.getFieldCount());
+        assertEquals("3", fields.getField(2));
     }
 
     /* ========================================================================
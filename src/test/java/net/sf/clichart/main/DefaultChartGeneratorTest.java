@@ -0,0 +1,167 @@
+/* (C) Copyright 2026, by John Dickson
+ *
+ * Project Info:  https://github.com/captsens/clichart
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2.1 of the License, or
+ * (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ */
+
+package net.sf.clichart.main;
+
+import junit.framework.TestCase;
+import net.sf.clichart.chart.ChartSaver;
+import net.sf.clichart.chart.Options;
+import net.sf.clichart.chart.OptionsBean;
+
+import java.io.File;
+import java.io.FileOutputStream;
+
+import org.jfree.chart.JFreeChart;
+import org.jfree.data.xy.XYDataset;
+
+/**
+ * Unit tests for DefaultChartGenerator, generating charts from a small input file
+ *
+ * @author johnd
+ */
+public class DefaultChartGeneratorTest extends TestCase {
+
+    /* ========================================================================
+     *
+     * Instance variables.
+     */
+
+    private File m_directory;
+    private File m_inputFile;
+
+    /* ========================================================================
+     *
+     * Lifecycle methods
+     */
+
+    protected void setUp() throws Exception {
+        m_directory = File.createTempFile("DefaultChartGeneratorTest", "");
+        m_directory.delete();
+        m_directory.mkdir();
+        m_inputFile = new File(m_directory, "input.csv");
+        FileOutputStream out = new FileOutputStream(m_inputFile);
+        out.write("10:00:00,1\n10:01:00,2\n10:02:00,3\n10:03:00,4\n".getBytes("US-ASCII"));
+        out.close();
+    }
+
+    protected void tearDown() throws Exception {
+        // the input file, and any cache or chart files beside it
+        File[] files = m_directory.listFiles();
+        for (int i = 0; i < files.length; i++) {
+            files[i].delete();
+        }
+        m_directory.delete();
+    }
+
+    /* ========================================================================
+     *
+     * Public methods
+     */
+
+    public void testGenerateChart_cacheAfterHistogram() throws Exception {
+        // a histogram doesn't parse the x values, so mustn't cache values for a chart which needs them
+        OptionsBean options = createOptions();
+        options.setParseCache(true);
+        options.setHistogram(Options.HISTOGRAM_AUTO);
+        generateChart(options);
+
+        options.setHistogram(null);
+        String cachedValues = getXValues(generateChart(options));
+
+        options.setParseCache(false);
+        assertEquals(getXValues(generateChart(options)), cachedValues);
+    }
+
+    public void testGenerateChart_invalidHistogramBins() throws Exception {
+        // as set via the CLI server, without being checked by CliOptions
+        OptionsBean options = createOptions();
+        options.setHistogram(Options.HISTOGRAM_AUTO);
+        options.setHistogramBins(0);
+        assertInvalidOptions(options, "Invalid histogrambins value (must be at least 2): 0");
+    }
+
+    public void testGenerateChart_invalidSampleLines() throws Exception {
+        OptionsBean options = createOptions();
+        options.setSample("0.5");
+        options.setSampleLines(0);
+        assertInvalidOptions(options, "Invalid samplelines value (must be at least 1): 0");
+    }
+
+    public void testGenerateChart_invalidTopKeys() throws Exception {
+        OptionsBean options = createOptions();
+        options.setColumnIndexes(new int[] {0, 2});
+        options.setKeyColumn(1);
+        options.setTopKeys(0);
+        assertInvalidOptions(options, "Invalid topkeys value (must be at least 1): 0");
+    }
+
+    public void testGenerateChart_invalidThreads() throws Exception {
+        OptionsBean options = createOptions();
+        options.setThreads(0);
+        assertInvalidOptions(options, "Invalid threads value (must be at least 1): 0");
+    }
+
+    /* ========================================================================
+     *
+     * Private methods
+     */
+
+    private OptionsBean createOptions() {
+        OptionsBean options = new OptionsBean();
+        options.setInputPath(m_inputFile.getPath());
+        options.setFileOutputPath(new File(m_directory, "chart.png").getPath());
+        options.setDataSeparatorType(Options.DATA_SEP_CSV);
+        options.setColumnIndexes(new int[] {0, 1});
+        options.setDateFormat("HH:mm:ss");
+        return options;
+    }
+
+    /**
+     * Generate the chart, returning it
+     */
+    private JFreeChart generateChart(Options options) throws Exception {
+        final JFreeChart[] charts = new JFreeChart[1];
+        new DefaultChartGenerator() {
+            protected ChartSaver createChartSaver(JFreeChart chart, Options options) {
+                charts[0] = chart;
+                return super.createChartSaver(chart, options);
+            }
+        }.generateChart(options);
+        return charts[0];
+    }
+
+    private void assertInvalidOptions(Options options, String expectedMessage) throws Exception {
+        try {
+            generateChart(options);
+            fail();
+        } catch (InvalidOptionsException e) {
+            assertEquals(expectedMessage, e.getMessage());
+        }
+    }
+
+    private String getXValues(JFreeChart chart) {
+        XYDataset dataset = chart.getXYPlot().getDataset();
+        StringBuilder values = new StringBuilder();
+        for (int item = 0; item < dataset.getItemCount(0); item++) {
+            values.append(dataset.getXValue(0, item)).append(' ');
+        }
+        return values.toString();
+    }
+}
@@ -140,6 +140,158 @@ public class OptionParserTest extends TestCase {
         }
     }
 
+    public void testGetOptions_epochXTypes() throws Exception {
+        assertEquals(Options.X_TYPE_EPOCH_SECONDS,
+                new OptionParser().getOptions(new String[]{"--epochseconds"}).getChartXType());
+        assertEquals(Options.X_TYPE_EPOCH_MILLIS,
+                new OptionParser().getOptions(new String[]{"--epochmillis"}).getChartXType());
+        assertEquals(Options.X_TYPE_EPOCH_MICROS,
+                new OptionParser().getOptions(new String[]{"--epochmicros"}).getChartXType());
+    }
+
+    public void testGetOptions_threads() throws Exception {
+        assertEquals(1, new OptionParser().getOptions(new String[]{}).getThreads());
+        assertEquals(4, new OptionParser().getOptions(new String[]{"--threads", "4"}).getThreads());
+        try {
+            new OptionParser().getOptions(new String[]{"--threads", "0"});
+            fail();
+        } catch (InvalidOptionsException expected) {}
+    }
+
+    public void testGetOptions_downsample() throws Exception {
+        assertNull(new OptionParser().getOptions(new String[]{}).getDownsample());
+        assertEquals(Options.DOWNSAMPLE_LTTB,
+                new OptionParser().getOptions(new String[]{"--downsample", "lttb"}).getDownsample());
+    }
+
+    public void testGetOptions_resample() throws Exception {
+        Options options = new OptionParser().getOptions(new String[]{});
+        assertNull(options.getResample());
+        assertNull(options.getResampleStatistics());
+        options = new OptionParser().getOptions(new String[]{"--resample", "10s", "--resamplestats", "min,max"});
+        assertEquals("10s", options.getResample());
+        assertEquals("min,max", options.getResampleStatistics());
+    }
+
+    public void testGetOptions_histogram() throws Exception {
+        Options options = new OptionParser().getOptions(new String[]{});
+        assertNull(options.getHistogram());
+        assertEquals(Options.DEFAULT_HISTOGRAM_BINS, options.getHistogramBins());
+        options = new OptionParser().getOptions(new String[]{"--histogram", "log", "--histogrambins", "20"});
+        assertEquals(Options.HISTOGRAM_LOG, options.getHistogram());
+        assertEquals(20, options.getHistogramBins());
+        try {
+            new OptionParser().getOptions(new String[]{"--histogrambins", "1"});
+            fail();
+        } catch (InvalidOptionsException expected) {}
+    }
+
+    public void testGetOptions_heatmap() throws Exception {
+        assertNull(new OptionParser().getOptions(new String[]{}).getHeatmap());
+        assertEquals(Options.HEATMAP_LOG,
+                new OptionParser().getOptions(new String[]{"--heatmap", "log"}).getHeatmap());
+    }
+
+    public void testGetOptions_density() throws Exception {
+        assertNull(new OptionParser().getOptions(new String[]{}).getDensity());
+        assertEquals(Options.DENSITY_ALPHA,
+                new OptionParser().getOptions(new String[]{"--density", "alpha"}).getDensity());
+    }
+
+    public void testGetOptions_keys() throws Exception {
+        Options options = new OptionParser().getOptions(new String[]{});
+        assertEquals(-1, options.getKeyColumn());
+        assertEquals(Options.DEFAULT_TOP_KEYS, options.getTopKeys());
+        assertEquals(Options.RANK_KEYS_TOTAL, options.getRankKeys());
+
+        options = new OptionParser().getOptions(new String[]{"--keycolumn", "2", "--topkeys", "5", "--rankkeys",
+                "max"});
+        assertEquals(2, options.getKeyColumn());
+        assertEquals(5, options.getTopKeys());
+        assertEquals(Options.RANK_KEYS_MAX, options.getRankKeys());
+
+        try {
+            new OptionParser().getOptions(new String[]{"--topkeys", "0"});
+            fail();
+        } catch (InvalidOptionsException expected) {}
+    }
+
+    public void testGetOptions_distinctColumn() throws Exception {
+        assertEquals(-1, new OptionParser().getOptions(new String[]{}).getDistinctColumn());
+        assertEquals(3, new OptionParser().getOptions(new String[]{"--distinctcolumn", "3"}).getDistinctColumn());
+
+        try {
+            new OptionParser().getOptions(new String[]{"--distinctcolumn", "-1"});
+            fail();
+        } catch (InvalidOptionsException expected) {}
+    }
+
+    public void testGetOptions_regex() throws Exception {
+        assertNull(new OptionParser().getOptions(new String[]{}).getRegex());
+        assertEquals("took (\\d+) ms", new OptionParser().getOptions(new String[]{"--regex", "took (\\d+) ms"})
+                .getRegex());
+    }
+
+    public void testGetOptions_namedFields() throws Exception {
+        Options options = new OptionParser().getOptions(new String[]{"--json", "--fields", " ts, http.latency "});
+        assertEquals(Options.DATA_SEP_JSON, options.getDataSeparatorType());
+        assertEquals("[ts, http.latency]", Arrays.asList(options.getFields()).toString());
+
+        options = new OptionParser().getOptions(new String[]{"--logfmt", "--fields", "ts"});
+        assertEquals(Options.DATA_SEP_LOGFMT, options.getDataSeparatorType());
+        assertNull(new OptionParser().getOptions(new String[]{}).getFields());
+
+        try {
+            new OptionParser().getOptions(new String[]{"-c", "--json"});
+            fail();
+        } catch (InvalidOptionsException expected) {}
+    }
+
+    public void testGetOptions_binary() throws Exception {
+        Options options = new OptionParser().getOptions(new String[]{"--binary"});
+        assertEquals(Options.DATA_SEP_BINARY, options.getDataSeparatorType());
+
+        try {
+            new OptionParser().getOptions(new String[]{"--binary", "--json"});
+            fail();
+        } catch (InvalidOptionsException expected) {}
+    }
+
+    public void testGetOptions_cache() throws Exception {
+        assertTrue(!new OptionParser().getOptions(new String[]{}).useParseCache());
+        assertTrue(new OptionParser().getOptions(new String[]{"--cache"}).useParseCache());
+    }
+
+    public void testGetOptions_xRange() throws Exception {
+        Options options = new OptionParser().getOptions(new String[]{});
+        assertNull(options.getXRangeStart());
+        assertNull(options.getXRangeEnd());
+        assertTrue(!options.isXSorted());
+        assertTrue(!options.useRangeIndex());
+
+        options = new OptionParser().getOptions(new String[]{"--from", "10:00", "--to", "10:30", "--sorted",
+                "--rangeindex"});
+        assertEquals("10:00", options.getXRangeStart());
+        assertEquals("10:30", options.getXRangeEnd());
+        assertTrue(options.isXSorted());
+        assertTrue(options.useRangeIndex());
+    }
+
+    public void testGetOptions_sample() throws Exception {
+        Options options = new OptionParser().getOptions(new String[]{});
+        assertNull(options.getSample());
+        assertEquals(Options.DEFAULT_SAMPLE_LINES, options.getSampleLines());
+
+        options = new OptionParser().getOptions(new String[]{"--sample", "0.01", "--samplelines", "20"});
+        assertEquals("0.01", options.getSample());
+        assertEquals(20, options.getSampleLines());
+
+        try {
+            new OptionParser().getOptions(new String[]{"--samplelines", "0"});
+            fail();
+        } catch (InvalidOptionsException expected) {}
+    }
+
     public void testGetOptions_invalid() throws Exception {
         try {
             new OptionParser().getOptions(new String[]{"-d"});
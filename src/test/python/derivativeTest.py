@@ -4,7 +4,7 @@
 Unit tests for derivative.py
 """
 
-import unittest
+import unittest, struct, time
 from io import StringIO, BytesIO
 from clichart.derivative import *
 
@@ -58,6 +58,23 @@ class ProcessFileTest(unittest.TestCase):
         # print(lines)
         self._validateFileContents(lines, True)
 
+    def testProcessFile_Binary(self):
+        output = BytesIO()
+        writer = createBinaryWriter(output, [1, 4])
+        processFile(BytesIO(TEXT_INPUT.encode('utf-8')), None, [1, 4], 0, '%H:%M', False, False, writer)
+        writer.close()
+        data = output.getvalue()
+        header = b'CLICOLS1' + struct.pack('<i', 3) + struct.pack('<bi', 0, 4) + b'Time' \
+                + struct.pack('<bi', 1, 8) + b'Column 1' + struct.pack('<bi', 1, 8) + b'Column 4'
+        self.assertEqual(header, data[:len(header)])
+        values = struct.unpack('<i3q3d3d', data[len(header):-4])
+        self.assertEqual(3, values[0])
+        start = int(time.mktime((1970, 1, 1, 10, 24, 0, 0, 1, -1))) * 1000
+        self.assertEqual((start, start + 60000, start + 120000), values[1:4])
+        for expected, actual in zip([-0.7 / 60, 0.3 / 60, 0.3 / 60, -3 / 60, 1 / 60, 2 / 60], values[4:]):
+            self.assertAlmostEqual(expected, actual)
+        self.assertEqual(struct.pack('<i', 0), data[-4:])
+
 
 # ============================================================================
 if __name__ == '__main__':
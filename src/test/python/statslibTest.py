@@ -5,7 +5,8 @@ Unit tests for statslib
 """
 
 import unittest
-from io import StringIO
+import struct
+from io import StringIO, BytesIO
 from clichart.statslib import *
 
 TEST_LINE = 'abcdef'
@@ -139,6 +140,30 @@ class OutputFormatterTest(unittest.TestCase):
         self._testOutput(True, True, KEY, THREE_FIELDS + ['"fld', 'field with " quote and spaces', 'nospace'],
                  '"%s", 12, 1.23, "some text", """fld", "field with "" quote and spaces", nospace' % KEY)
 
+# ============================================================================
+class BinaryColumnWriterTest(unittest.TestCase):
+    def testWrite(self):
+        output = BytesIO()
+        writer = BinaryColumnWriter(output, ['x', 'y'],
+                [BinaryColumnWriter.TYPE_LONG, BinaryColumnWriter.TYPE_DOUBLE], blockRows=2)
+        writer.writeRow([1000, 1.5])
+        writer.writeRow([2000.7, None])
+        writer.writeRow([3000, -2])
+        writer.close()
+        expected = (b'CLICOLS1' + struct.pack('<i', 2) + struct.pack('<bi', 0, 1) + b'x'
+                + struct.pack('<bi', 1, 1) + b'y'
+                + struct.pack('<i2q2d', 2, 1000, 2000, 1.5, float('nan'))
+                + struct.pack('<iqd', 1, 3000, -2.0) + struct.pack('<i', 0))
+        # NaN != NaN, so compare the bytes
+        self.assertEqual(expected, output.getvalue())
+
+    def testInvalidColumns(self):
+        try:
+            BinaryColumnWriter(BytesIO(), ['x', 'y'], [BinaryColumnWriter.TYPE_LONG])
+            self.fail()
+        except InvalidOptionException:
+            pass
+
 # ============================================================================
 if __name__ == '__main__':
     unittest.main()
\ No newline at end of file